@@ -0,0 +1,36 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.OrderItemApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Starts the {@link OrderItemApplication} for the benchmarks that need the real Spring wiring.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Starts the application without a web server.
+     * @return The started {@link ConfigurableApplicationContext}.
+     */
+    static ConfigurableApplicationContext startWithoutWebServer() {
+        SpringApplication application = new SpringApplication(OrderItemApplication.class);
+        application.setWebApplicationType(WebApplicationType.NONE);
+        return application.run("--logging.level.root=WARN", "--spring.main.banner-mode=off");
+    }
+
+    /**
+     * Starts the application with the embedded web server listening on a random port.
+     * @param profiles The profiles to activate, e.g. {@code reactive} for the WebFlux stack.
+     * @return The started {@link ConfigurableApplicationContext}.
+     */
+    static ConfigurableApplicationContext startWebServer(String... profiles) {
+        SpringApplication application = new SpringApplication(OrderItemApplication.class);
+        application.setAdditionalProfiles(profiles);
+        return application.run("--server.port=0", "--logging.level.root=WARN", "--spring.main.banner-mode=off");
+    }
+}
@@ -0,0 +1,82 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the carts used by the benchmarks.
+ */
+public final class BenchmarkCarts {
+    /**
+     * The menu item names known to the default catalog.
+     */
+    public static final String[] MENU_ITEM_NAMES = {"Veggie Taco", "Chicken Taco", "Beef Taco", "Chorizo Taco"};
+
+    private BenchmarkCarts() {
+    }
+
+    /**
+     * The mix of items in a generated cart.
+     */
+    public enum CartMix {
+        /**
+         * Every line orders the same item.
+         */
+        SINGLE_ITEM,
+        /**
+         * Lines cycle through all the menu items.
+         */
+        MIXED,
+        /**
+         * Lines cycle through the menu items and every line is sent twice.
+         */
+        DUPLICATES
+    }
+
+    /**
+     * Creates a cart with the given number of lines.
+     * @param cartSize The number of {@link OrderItem}s in the cart.
+     * @param mix The {@link CartMix} of the cart.
+     * @return The List of {@link OrderItem}s.
+     */
+    public static List<OrderItem> cart(int cartSize, CartMix mix) {
+        List<OrderItem> orders = new ArrayList<>(cartSize);
+        for (int i = 0; i < cartSize; i++) {
+            switch (mix) {
+                case SINGLE_ITEM:
+                    orders.add(new OrderItem(MENU_ITEM_NAMES[0], 1 + i % 3));
+                    break;
+                case MIXED:
+                    orders.add(new OrderItem(MENU_ITEM_NAMES[i % MENU_ITEM_NAMES.length], 1 + i % 3));
+                    break;
+                case DUPLICATES:
+                    orders.add(new OrderItem(MENU_ITEM_NAMES[(i / 2) % MENU_ITEM_NAMES.length], 1 + (i / 2) % 3));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown cart mix " + mix);
+            }
+        }
+        return orders;
+    }
+
+    /**
+     * Creates the JSON request body of a cart.
+     * @param cartSize The number of {@link OrderItem}s in the cart.
+     * @param mix The {@link CartMix} of the cart.
+     * @return The JSON array of order items.
+     */
+    public static String cartJson(int cartSize, CartMix mix) {
+        StringBuilder json = new StringBuilder(cartSize * 40).append('[');
+        List<OrderItem> orders = cart(cartSize, mix);
+        for (int i = 0; i < orders.size(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"itemName\":\"").append(orders.get(i).getItemName())
+                    .append("\",\"quantity\":").append(orders.get(i).getQuantity()).append('}');
+        }
+        return json.append(']').toString();
+    }
+}
@@ -0,0 +1,48 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.service.OrderItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link OrderItemService#calculateTotal(String, List)} for different cart sizes and item mixes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CalculateTotalBenchmark {
+    @Param({"1", "4", "32", "1024"})
+    private int cartSize;
+
+    @Param({"SINGLE_ITEM", "MIXED", "DUPLICATES"})
+    private BenchmarkCarts.CartMix mix;
+
+    private ConfigurableApplicationContext context;
+    private OrderItemService orderItemService;
+    private List<OrderItem> orders;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWithoutWebServer();
+        orderItemService = context.getBean(OrderItemService.class);
+        orders = BenchmarkCarts.cart(cartSize, mix);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> calculateTotal() {
+        return orderItemService.calculateTotal(null, orders);
+    }
+}
@@ -0,0 +1,89 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.exception.InvalidOrderException;
+import com.tacoloco.webservice.exception.OrderItemExceptionHandler;
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.service.OrderItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares answering an invalid order without throwing, as {@link OrderItemService#calculateTotal(String, List)}
+ * does, with throwing an {@link InvalidOrderException} that {@link OrderItemExceptionHandler} turns into the error
+ * response, as it did before.
+ * <p>
+ * The exception is thrown from {@code frameDepth} frames down, since a real request throws from under the servlet,
+ * Spring MVC and method validation frames and the cost of capturing the stack trace grows with its depth; the fast
+ * path goes through the same frames. Run with {@code -prof gc} to compare the allocation per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InvalidOrderBenchmark {
+    private static final String ORDERS_PROPERTY_PATH = "calculateTotal.orders";
+
+    @Param({"1", "8"})
+    private int cartSize;
+
+    @Param({"10", "100"})
+    private int frameDepth;
+
+    private ConfigurableApplicationContext context;
+    private OrderItemService orderItemService;
+    private OrderItemExceptionHandler exceptionHandler;
+    private MenuCatalog catalog;
+    private List<OrderItem> orders;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWithoutWebServer();
+        orderItemService = context.getBean(OrderItemService.class);
+        exceptionHandler = context.getBean(OrderItemExceptionHandler.class);
+        catalog = orderItemService.findCatalog(null);
+        // the last line names an item that is not on the menu, like the carts of the bots
+        orders = new ArrayList<>(BenchmarkCarts.cart(cartSize - 1, BenchmarkCarts.CartMix.MIXED));
+        orders.add(new OrderItem("Fish Sandwich", 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> withoutException() {
+        return withoutException(frameDepth);
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> withException() {
+        try {
+            return withException(frameDepth);
+        } catch (InvalidOrderException e) {
+            return exceptionHandler.handleInvalidOrder(e);
+        }
+    }
+
+    private ResponseEntity<Object> withoutException(int depth) {
+        return depth == 0 ? orderItemService.calculateTotal(null, catalog, orders) : withoutException(depth - 1);
+    }
+
+    private ResponseEntity<Object> withException(int depth) {
+        if (depth > 0) {
+            return withException(depth - 1);
+        }
+        long totalPriceInCents = orderItemService.calculateTotalInCents(null, catalog, orders, ORDERS_PROPERTY_PATH);
+        return ResponseEntity.ok(new CalculateTotalResponse(Money.toAmount(totalPriceInCents)));
+    }
+}
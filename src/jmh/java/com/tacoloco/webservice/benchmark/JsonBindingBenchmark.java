@@ -0,0 +1,59 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Jackson binding of the {@code /calculateTotal} request and response bodies, using an
+ * {@link ObjectMapper} configured the same way as the one Spring Boot builds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBindingBenchmark {
+    @Param({"1", "32", "1024"})
+    private int cartSize;
+
+    private ObjectReader orderItemsReader;
+    private ObjectWriter responseWriter;
+    private byte[] requestBody;
+    private CalculateTotalResponse response;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+                .build();
+        orderItemsReader = objectMapper.readerFor(new TypeReference<List<OrderItem>>() {
+        });
+        responseWriter = objectMapper.writerFor(CalculateTotalResponse.class);
+        requestBody = BenchmarkCarts.cartJson(cartSize, BenchmarkCarts.CartMix.MIXED).getBytes(StandardCharsets.UTF_8);
+        response = new CalculateTotalResponse(11.2);
+    }
+
+    @Benchmark
+    public List<OrderItem> readOrderItems() throws IOException {
+        return orderItemsReader.readValue(requestBody);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,87 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.MenuSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link MenuSearchIndex} on generated menus of a growing size: the keystrokes of an autocomplete box
+ * (a short prefix matching many items, a longer one, two words) and a query with a typo, which falls back to the
+ * trigram search. Also measures building the index and updating it to a new catalog version with other prices.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MenuSearchBenchmark {
+    private static final String[] FILLINGS = {"Veggie", "Chicken", "Beef", "Chorizo", "Carnitas", "Barbacoa",
+            "Shrimp", "Fish", "Al Pastor", "Jalapeño", "Poblano", "Black Bean"};
+    private static final String[] DISHES = {"Taco", "Burrito", "Quesadilla", "Enchilada", "Tostada", "Bowl", "Nachos",
+            "Torta", "Chimichanga", "Tamale"};
+    private static final int LIMIT = 10;
+
+    @Param({"100", "30000"})
+    private int menuSize;
+
+    private MenuCatalog catalog;
+    private MenuCatalog repricedCatalog;
+    private MenuSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Map<String, Long> prices = new LinkedHashMap<>();
+        Map<String, Long> newPrices = new LinkedHashMap<>();
+        for (int i = 0; prices.size() < menuSize; i++) {
+            String name = FILLINGS[random.nextInt(FILLINGS.length)] + " " + DISHES[random.nextInt(DISHES.length)]
+                    + (i < FILLINGS.length * DISHES.length ? "" : " No. " + i);
+            prices.put(name, 250L + random.nextInt(1000));
+            newPrices.put(name, 260L + random.nextInt(1000));
+        }
+        catalog = MenuCatalog.of(1, prices);
+        repricedCatalog = catalog.withPrices(newPrices);
+        index = MenuSearchIndex.of(catalog);
+    }
+
+    @Benchmark
+    public List<String> shortPrefix() {
+        return index.search("ch", LIMIT);
+    }
+
+    @Benchmark
+    public List<String> wordPrefix() {
+        return index.search("burr", LIMIT);
+    }
+
+    @Benchmark
+    public List<String> twoWords() {
+        return index.search("shrimp tac", LIMIT);
+    }
+
+    @Benchmark
+    public List<String> typo() {
+        return index.search("quesadila", LIMIT);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MenuSearchIndex build() {
+        return MenuSearchIndex.of(catalog);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MenuSearchIndex updatePrices() {
+        return index.update(repricedCatalog);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import com.tacoloco.webservice.service.OrderItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.ResponseEntity;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the allocation rate of the ID/cents pricing in {@link OrderItemService#calculateTotal(String, List)} with
+ * the previous implementation, which merged quantities into a boxed {@code Map<String, Integer>} and summed
+ * {@code Optional<Double>} prices. Run with {@code -prof gc} and compare {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PricingAllocationBenchmark {
+    private static final int MINIMUM_QTY_FOR_DISCOUNT = 4;
+    private static final int DISCOUNT_PERCENTAGE = 20;
+
+    @Param({"1", "32", "1024"})
+    private int cartSize;
+
+    private OrderItemRepository orderItemRepository;
+    private ConfigurableApplicationContext context;
+    private OrderItemService orderItemService;
+    private List<OrderItem> orders;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWithoutWebServer();
+        orderItemRepository = context.getBean(OrderItemRepository.class);
+        orderItemService = context.getBean(OrderItemService.class);
+        orders = BenchmarkCarts.cart(cartSize, BenchmarkCarts.CartMix.DUPLICATES);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<Object> calculateTotal() {
+        return orderItemService.calculateTotal(null, orders);
+    }
+
+    @Benchmark
+    public ResponseEntity<CalculateTotalResponse> boxedMapBaseline() {
+        double totalPrice = 0.0;
+        int totalQuantity = 0;
+
+        Map<String, Integer> quantitiesByItemName = orders.stream().collect(Collectors.toMap(OrderItem::getItemName,
+                OrderItem::getQuantity, (value1, value2) -> value1 + value2));
+
+        for (Map.Entry<String, Integer> entry : quantitiesByItemName.entrySet()) {
+            totalQuantity += entry.getValue();
+            totalPrice += entry.getValue()
+                    * orderItemRepository.findPriceByItemName(null, entry.getKey()).orElseThrow();
+        }
+
+        if (totalQuantity >= MINIMUM_QTY_FOR_DISCOUNT) {
+            totalPrice -= totalPrice * DISCOUNT_PERCENTAGE / 100;
+        }
+        return ResponseEntity.ok(new CalculateTotalResponse(totalPrice));
+    }
+}
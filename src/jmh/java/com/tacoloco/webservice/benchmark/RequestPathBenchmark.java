@@ -0,0 +1,62 @@
+package com.tacoloco.webservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the full {@code POST /calculateTotal} request path over HTTP: Tomcat, Jackson binding, validation,
+ * pricing and serialization of the response. The streaming variant reads the JSON tokens instead of binding a List.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RequestPathBenchmark {
+    @Param({"1", "32", "1024"})
+    private int cartSize;
+
+    @Param({"SINGLE_ITEM", "MIXED"})
+    private BenchmarkCarts.CartMix mix;
+
+    @Param({"/calculateTotal", "/calculateTotal/stream"})
+    private String path;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWebServer();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BenchmarkCarts.cartJson(cartSize, mix)))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String calculateTotal() throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Unexpected response " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,116 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.pricing.PriceTable;
+import com.tacoloco.webservice.pricing.PricingRuleEngine;
+import com.tacoloco.webservice.pricing.PromotionRule;
+import com.tacoloco.webservice.pricing.PromotionType;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures pricing an order with the {@link PricingRuleEngine} for a growing number of rules.
+ * The rules are compiled into {@link PriceTable}s, so the time per order should stay flat as rules are added.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RuleEngineBenchmark {
+    private static final int MENU_SIZE = 1000;
+
+    @Param({"1", "10", "100", "1000"})
+    private int ruleCount;
+
+    private ConfigurableApplicationContext context;
+    private PricingRuleEngine pricingRuleEngine;
+    private MenuCatalog catalog;
+    private List<OrderItem> orders;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWithoutWebServer();
+        pricingRuleEngine = context.getBean(PricingRuleEngine.class);
+
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (int i = 0; i < MENU_SIZE; i++) {
+            prices.put("Taco " + i, 250L + i);
+        }
+        catalog = MenuCatalog.of(1, prices);
+
+        List<PromotionRule> rules = new ArrayList<>();
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(rule(i));
+        }
+        pricingRuleEngine.update(rules);
+
+        orders = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            orders.add(new OrderItem("Taco " + i * (MENU_SIZE / 8), i + 1));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Prices the order line by line against the compiled table, as the service does.
+     */
+    @Benchmark
+    public long priceOrder(Blackhole blackhole) {
+        PriceTable priceTable = pricingRuleEngine.getPriceTable(catalog, null);
+        long subtotalInCents = 0;
+        long totalQuantity = 0;
+        for (OrderItem orderItem : orders) {
+            int itemId = catalog.findItemId(orderItem.getItemName());
+            totalQuantity += orderItem.getQuantity();
+            subtotalInCents += priceTable.priceLine(itemId, orderItem.getQuantity(), catalog.getPriceInCents(itemId));
+        }
+        blackhole.consume(totalQuantity);
+        return priceTable.applyOrderDiscount(subtotalInCents, totalQuantity);
+    }
+
+    /**
+     * Generates a mix of item discounts, buy N get M offers, order discount tiers and happy hours.
+     */
+    private static PromotionRule rule(int index) {
+        PromotionRule rule = new PromotionRule();
+        switch (index % 3) {
+            case 0:
+                rule.setType(PromotionType.ITEM_DISCOUNT);
+                rule.setItemName("Taco " + index % MENU_SIZE);
+                rule.setPercentage(1 + index % 50);
+                break;
+            case 1:
+                rule.setType(PromotionType.BUY_N_GET_M);
+                rule.setItemName("Taco " + index % MENU_SIZE);
+                rule.setBuyQuantity(2 + index % 3);
+                rule.setFreeQuantity(1);
+                break;
+            default:
+                rule.setType(PromotionType.ORDER_DISCOUNT);
+                rule.setMinimumQuantity(4 + index % 20);
+                rule.setPercentage(1 + index % 30);
+        }
+        if (index % 10 == 9) {
+            rule.setStoreId("store-" + index % 7);
+        }
+        if (index % 5 == 4) {
+            rule.setStartTime(String.format("%02d:00", index % 23));
+            rule.setEndTime(String.format("%02d:30", index % 23));
+        }
+        return rule;
+    }
+}
@@ -0,0 +1,76 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.sales.SalesCounters;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures recording a line item in the {@link SalesCounters} from every core at once, against a single shared
+ * array of counters that every thread updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class SalesCountersBenchmark {
+    private static final int MENU_SIZE = 32;
+
+    private SalesCounters salesCounters;
+    private AtomicLongArray sharedCounters;
+    private MenuCatalog catalog;
+
+    @State(Scope.Thread)
+    public static class Line {
+        private int itemId;
+
+        @Setup
+        public void setUp() {
+            itemId = (int) (Thread.currentThread().getId() % MENU_SIZE);
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (int i = 0; i < MENU_SIZE; i++) {
+            prices.put("Taco " + i, 250L + i);
+        }
+        catalog = MenuCatalog.of(1, prices);
+
+        salesCounters = new SalesCounters();
+        ReflectionTestUtils.setField(salesCounters, "maximumItems", MENU_SIZE);
+        salesCounters.init();
+        sharedCounters = new AtomicLongArray(MENU_SIZE * 2);
+    }
+
+    @TearDown
+    public void tearDown() {
+        salesCounters.stop();
+    }
+
+    /**
+     * Records a line item in the thread-striped counters.
+     */
+    @Benchmark
+    public void recordStriped(Line line) {
+        salesCounters.record(catalog, line.itemId, 2, 500);
+    }
+
+    /**
+     * Records a line item in counters shared by every thread.
+     */
+    @Benchmark
+    public void recordShared(Line line) {
+        sharedCounters.getAndAdd(line.itemId * 2, 2);
+        sharedCounters.getAndAdd(line.itemId * 2 + 1, 500);
+    }
+}
@@ -0,0 +1,58 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.validator.ItemNameValidator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.validation.Validator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of validating order items with {@link ItemNameValidator} on its own and as part of the
+ * bean validation of a whole cart.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+    @Param({"1", "32", "1024"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private Validator validator;
+    private ItemNameValidator itemNameValidator;
+    private List<OrderItem> orders;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.startWithoutWebServer();
+        validator = context.getBean(Validator.class);
+        itemNameValidator = context.getAutowireCapableBeanFactory().createBean(ItemNameValidator.class);
+        orders = BenchmarkCarts.cart(cartSize, BenchmarkCarts.CartMix.MIXED);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void itemNameValidator(Blackhole blackhole) {
+        for (int i = 0; i < orders.size(); i++) {
+            blackhole.consume(itemNameValidator.isValid(orders.get(i).getItemName(), null));
+        }
+    }
+
+    @Benchmark
+    public void validateCart(Blackhole blackhole) {
+        for (int i = 0; i < orders.size(); i++) {
+            blackhole.consume(validator.validate(orders.get(i)));
+        }
+    }
+}
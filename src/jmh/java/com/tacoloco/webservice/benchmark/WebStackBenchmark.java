@@ -0,0 +1,72 @@
+package com.tacoloco.webservice.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking servlet stack (Spring MVC on Tomcat) with the non-blocking {@code reactive} profile (WebFlux
+ * on Netty) at high concurrency: every operation sends {@code concurrency} {@code POST /calculateTotal} requests at
+ * once and waits for all of them, so the score divided by {@code concurrency} is the time per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class WebStackBenchmark {
+    @Param({"servlet", "reactive"})
+    private String stack;
+
+    @Param({"64", "512"})
+    private int concurrency;
+
+    @Param({"32"})
+    private int cartSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private HttpRequest request;
+
+    @Setup
+    public void setUp() {
+        context = "reactive".equals(stack)
+                ? BenchmarkApplication.startWebServer("reactive") : BenchmarkApplication.startWebServer();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/calculateTotal"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(BenchmarkCarts.cartJson(cartSize,
+                        BenchmarkCarts.CartMix.MIXED)))
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int calculateTotalConcurrently() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            responses[i] = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException(
+                                    "Unexpected response " + response.statusCode() + ": " + response.body());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return responses.length;
+    }
+}
@@ -0,0 +1,92 @@
+package com.tacoloco.webservice.benchmark;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Compares the formats {@code /calculateTotal} can be called with: the cost of reading the request and writing the
+ * response, and the bytes each takes on the wire, which are printed when the trial starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    /**
+     * The formats of the request and response bodies.
+     */
+    public enum WireFormat {
+        JSON(JsonFactory::new), SMILE(SmileFactory::new), CBOR(CBORFactory::new);
+
+        private final Supplier<JsonFactory> factory;
+
+        WireFormat(Supplier<JsonFactory> factory) {
+            this.factory = factory;
+        }
+    }
+
+    @Param({"JSON", "SMILE", "CBOR"})
+    private WireFormat format;
+
+    @Param({"1", "32", "1024"})
+    private int cartSize;
+
+    private ObjectReader orderItemsReader;
+    private ObjectWriter orderItemsWriter;
+    private ObjectWriter responseWriter;
+    private List<OrderItem> orders;
+    private byte[] requestBody;
+    private CalculateTotalResponse response;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .factory(format.factory.get())
+                .modulesToInstall(new ParameterNamesModule(JsonCreator.Mode.DEFAULT))
+                .build();
+        orderItemsReader = objectMapper.readerFor(new TypeReference<List<OrderItem>>() {
+        });
+        orderItemsWriter = objectMapper.writerFor(new TypeReference<List<OrderItem>>() {
+        });
+        responseWriter = objectMapper.writerFor(CalculateTotalResponse.class);
+        orders = BenchmarkCarts.cart(cartSize, BenchmarkCarts.CartMix.MIXED);
+        requestBody = orderItemsWriter.writeValueAsBytes(orders);
+        response = new CalculateTotalResponse(11.2);
+        System.out.printf("%n%s: request of %d items %d bytes, response %d bytes%n",
+                format, cartSize, requestBody.length, responseWriter.writeValueAsBytes(response).length);
+    }
+
+    @Benchmark
+    public List<OrderItem> readOrderItems() throws IOException {
+        return orderItemsReader.readValue(requestBody);
+    }
+
+    @Benchmark
+    public byte[] writeOrderItems() throws IOException {
+        return orderItemsWriter.writeValueAsBytes(orders);
+    }
+
+    @Benchmark
+    public byte[] writeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,74 @@
+package com.tacoloco.webservice.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The kinds of carts sent by the load test, each with the status {@code /calculateTotal} is expected to answer.
+ */
+enum CartType {
+    /**
+     * A cart of 1 to 8 lines of menu items.
+     */
+    VALID(200),
+    /**
+     * A cart with an item that is not on the menu or a quantity below 1.
+     */
+    INVALID(400),
+    /**
+     * A cart of {@code --large-cart-size} lines of menu items.
+     */
+    LARGE(200);
+
+    /**
+     * The menu item names known to the default store.
+     */
+    private static final String[] MENU_ITEM_NAMES = {"Veggie Taco", "Chicken Taco", "Beef Taco", "Chorizo Taco"};
+
+    /**
+     * The number of distinct request bodies generated per cart type.
+     */
+    private static final int BODIES = 64;
+
+    private final int expectedStatus;
+
+    CartType(int expectedStatus) {
+        this.expectedStatus = expectedStatus;
+    }
+
+    /**
+     * @return The HTTP status a correct server answers for this kind of cart.
+     */
+    int getExpectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * Generates the request bodies of this kind of cart up front, so building requests costs nothing during the run.
+     * @param random The seeded {@link Random}, so every run sends the same carts.
+     * @param largeCartSize The number of lines of a {@link #LARGE} cart.
+     * @return The JSON arrays of order items.
+     */
+    List<String> bodies(Random random, int largeCartSize) {
+        List<String> bodies = new ArrayList<>(BODIES);
+        for (int i = 0; i < BODIES; i++) {
+            StringBuilder json = new StringBuilder().append('[');
+            int lines = this == LARGE ? largeCartSize : 1 + random.nextInt(8);
+            int invalidLine = this == INVALID ? random.nextInt(lines) : -1;
+            for (int line = 0; line < lines; line++) {
+                String itemName = MENU_ITEM_NAMES[random.nextInt(MENU_ITEM_NAMES.length)];
+                int quantity = 1 + random.nextInt(3);
+                if (line == invalidLine && random.nextBoolean()) {
+                    itemName = "Fish Sandwich";
+                } else if (line == invalidLine) {
+                    quantity = 0;
+                }
+                json.append(line > 0 ? "," : "").append("{\"itemName\":\"").append(itemName)
+                        .append("\",\"quantity\":").append(quantity).append('}');
+            }
+            bodies.add(json.append(']').toString());
+        }
+        return bodies;
+    }
+}
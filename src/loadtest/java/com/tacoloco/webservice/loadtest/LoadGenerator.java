@@ -0,0 +1,232 @@
+package com.tacoloco.webservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends {@code POST /calculateTotal} requests at a fixed arrival rate (an open model): a request is sent when it is
+ * due whether or not the earlier ones were answered, so a slow server faces a growing queue as it would in production.
+ * <p>
+ * Latency is measured from the time a request was due rather than from when it was actually sent, so a stall of the
+ * server or of the generator itself is charged to every request it delayed instead of being hidden (coordinated
+ * omission).
+ * <p>
+ * Requests rejected by the admission control of the server (429 Too Many Requests) are counted apart and left out of
+ * the latencies, which are those of the requests that were served.
+ */
+final class LoadGenerator {
+    /**
+     * The highest latency recorded; longer latencies are recorded as this value.
+     */
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final int TOO_MANY_REQUESTS = 429;
+
+    private final HttpClient httpClient;
+    private final LoadTestOptions options;
+    private final Random random;
+    private final Map<CartType, List<HttpRequest>> requestsByType = new EnumMap<>(CartType.class);
+    private final CartType[] types;
+    private final int[] cumulativeWeights;
+
+    /**
+     * @param options The {@link LoadTestOptions}.
+     * @param baseUrl The base URL of the server, e.g. {@code http://localhost:9001}.
+     */
+    LoadGenerator(LoadTestOptions options, String baseUrl) {
+        this.options = options;
+        this.random = new Random(options.seed);
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(options.timeout)
+                .build();
+
+        URI uri = URI.create(baseUrl + "/calculateTotal");
+        List<CartType> weighted = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        int totalWeight = 0;
+        for (Map.Entry<CartType, Integer> share : options.mix.entrySet()) {
+            if (share.getValue() <= 0) {
+                continue;
+            }
+            List<HttpRequest> requests = new ArrayList<>();
+            for (String body : share.getKey().bodies(random, options.largeCartSize)) {
+                for (int client = 0; client < options.clients; client++) {
+                    requests.add(HttpRequest.newBuilder(uri)
+                            .timeout(options.timeout)
+                            .header("Content-Type", "application/json")
+                            .header("X-Api-Key", apiKey(client))
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build());
+                }
+            }
+            requestsByType.put(share.getKey(), requests);
+            totalWeight += share.getValue();
+            weighted.add(share.getKey());
+            weights.add(totalWeight);
+        }
+        this.types = weighted.toArray(new CartType[0]);
+        this.cumulativeWeights = weights.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * Sends requests at the configured rate for the given time and waits for their responses.
+     * @param nanos How long to send requests for.
+     * @return The {@link Result} of the run.
+     * @throws InterruptedException if interrupted while waiting for the last responses.
+     */
+    Result run(long nanos) throws InterruptedException {
+        Map<CartType, Recorder> recorders = new EnumMap<>(CartType.class);
+        Map<CartType, LongAdder> errors = new EnumMap<>(CartType.class);
+        Map<CartType, LongAdder> rejections = new EnumMap<>(CartType.class);
+        for (CartType type : types) {
+            recorders.put(type, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(type, new LongAdder());
+            rejections.put(type, new LongAdder());
+        }
+        AtomicLong outstanding = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / options.rate;
+        long requests = nanos / intervalNanos;
+        long maximumLagNanos = 0;
+
+        long startNanos = System.nanoTime();
+        for (long i = 0; i < requests; i++) {
+            long dueNanos = startNanos + i * intervalNanos;
+            for (long delay = dueNanos - System.nanoTime(); delay > 0; delay = dueNanos - System.nanoTime()) {
+                LockSupport.parkNanos(delay);
+            }
+            maximumLagNanos = Math.max(maximumLagNanos, System.nanoTime() - dueNanos);
+
+            CartType type = nextType();
+            List<HttpRequest> typeRequests = requestsByType.get(type);
+            outstanding.incrementAndGet();
+            httpClient.sendAsync(typeRequests.get(random.nextInt(typeRequests.size())),
+                    HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+                        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - dueNanos);
+                        if (failure == null && response.statusCode() == TOO_MANY_REQUESTS) {
+                            rejections.get(type).increment();
+                        } else {
+                            recorders.get(type).recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+                            if (failure != null || response.statusCode() != type.getExpectedStatus()) {
+                                errors.get(type).increment();
+                            }
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        long deadlineNanos = System.nanoTime() + options.timeout.toNanos() + TimeUnit.SECONDS.toNanos(1);
+        while (outstanding.get() > 0 && System.nanoTime() - deadlineNanos < 0) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        Map<CartType, Histogram> histograms = new EnumMap<>(CartType.class);
+        Map<CartType, Long> errorCounts = new EnumMap<>(CartType.class);
+        Map<CartType, Long> rejectionCounts = new EnumMap<>(CartType.class);
+        for (CartType type : types) {
+            histograms.put(type, recorders.get(type).getIntervalHistogram());
+            errorCounts.put(type, errors.get(type).sum());
+            rejectionCounts.put(type, rejections.get(type).sum());
+        }
+        return new Result(histograms, errorCounts, rejectionCounts, outstanding.get(), elapsedNanos,
+                maximumLagNanos);
+    }
+
+    private CartType nextType() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (draw >= cumulativeWeights[index]) {
+            index++;
+        }
+        return types[index];
+    }
+
+    /**
+     * @param client The index of a client, from 0 to {@code --clients} (exclusive).
+     * @return The API key the client sends in the {@code X-Api-Key} header.
+     */
+    static String apiKey(int client) {
+        return "loadtest-" + client;
+    }
+
+    /**
+     * The latencies and errors of a run.
+     */
+    static final class Result {
+        private final Map<CartType, Histogram> latencyMicrosByType;
+        private final Map<CartType, Long> errorsByType;
+        private final Map<CartType, Long> rejectionsByType;
+        private final long unanswered;
+        private final long elapsedNanos;
+        private final long maximumLagNanos;
+
+        private Result(Map<CartType, Histogram> latencyMicrosByType, Map<CartType, Long> errorsByType,
+                       Map<CartType, Long> rejectionsByType, long unanswered, long elapsedNanos,
+                       long maximumLagNanos) {
+            this.latencyMicrosByType = latencyMicrosByType;
+            this.errorsByType = errorsByType;
+            this.rejectionsByType = rejectionsByType;
+            this.unanswered = unanswered;
+            this.elapsedNanos = elapsedNanos;
+            this.maximumLagNanos = maximumLagNanos;
+        }
+
+        /**
+         * @return The latency histogram in microseconds of each cart type sent.
+         */
+        Map<CartType, Histogram> getLatencyMicrosByType() {
+            return latencyMicrosByType;
+        }
+
+        /**
+         * @return The number of failed requests and unexpected statuses of each cart type sent.
+         */
+        Map<CartType, Long> getErrorsByType() {
+            return errorsByType;
+        }
+
+        /**
+         * @return The number of requests of each cart type rejected with 429 Too Many Requests.
+         */
+        Map<CartType, Long> getRejectionsByType() {
+            return rejectionsByType;
+        }
+
+        /**
+         * @return The number of requests still unanswered after the timeout, which are not in the histograms.
+         */
+        long getUnanswered() {
+            return unanswered;
+        }
+
+        /**
+         * @return The time from the first request to the last response.
+         */
+        long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * @return The longest a request was sent after it was due; a large lag means the generator itself could not
+         *         keep up with the rate.
+         */
+        long getMaximumLagNanos() {
+            return maximumLagNanos;
+        }
+    }
+}
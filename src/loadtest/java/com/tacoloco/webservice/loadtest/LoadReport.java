@@ -0,0 +1,194 @@
+package com.tacoloco.webservice.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * The report of a load test run: throughput, errors, rejections and latency percentiles of each cart type and of all requests.
+ * <p>
+ * The report is written as a properties file with stable keys, e.g. {@code all.p99_ms}, so two runs can be compared
+ * with {@link #compare(Path, double)} or any diff tool, next to an HdrHistogram log of the full latency distributions
+ * that can be plotted with the HdrHistogram tools.
+ */
+final class LoadReport {
+    private static final String ALL = "all";
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+    private static final String[] COMPARED_PERCENTILES = {"p99_ms", "p999_ms"};
+
+    private final Map<String, String> values = new LinkedHashMap<>();
+    private final Map<String, Histogram> histograms = new LinkedHashMap<>();
+
+    /**
+     * @param options The {@link LoadTestOptions} of the run.
+     * @param target The URL that was loaded.
+     * @param result The {@link LoadGenerator.Result} of the measured run.
+     */
+    LoadReport(LoadTestOptions options, String target, LoadGenerator.Result result) {
+        values.put("target", target);
+        values.put("rate", Integer.toString(options.rate));
+        values.put("duration", options.duration.toString());
+        values.put("mix", options.mix.entrySet().stream()
+                .map(share -> share.getKey().name().toLowerCase() + ":" + share.getValue())
+                .collect(Collectors.joining(",")));
+        values.put("large-cart-size", Integer.toString(options.largeCartSize));
+        values.put("clients", Integer.toString(options.clients));
+        values.put("seed", Long.toString(options.seed));
+        values.put("unanswered", Long.toString(result.getUnanswered()));
+        values.put("generator.max-lag_ms", format(result.getMaximumLagNanos() / 1e6));
+
+        Histogram all = null;
+        long allErrors = 0;
+        long allRejections = 0;
+        for (Map.Entry<CartType, Histogram> latencies : result.getLatencyMicrosByType().entrySet()) {
+            long errors = result.getErrorsByType().get(latencies.getKey());
+            long rejections = result.getRejectionsByType().get(latencies.getKey());
+            add(latencies.getKey().name().toLowerCase(), latencies.getValue(), errors, rejections,
+                    result.getElapsedNanos());
+            if (all == null) {
+                all = latencies.getValue().copy();
+            } else {
+                all.add(latencies.getValue());
+            }
+            allErrors += errors;
+            allRejections += rejections;
+        }
+        if (all != null) {
+            add(ALL, all, allErrors, allRejections, result.getElapsedNanos());
+        }
+    }
+
+    private void add(String name, Histogram latencyMicros, long errors, long rejections, long elapsedNanos) {
+        histograms.put(name, latencyMicros);
+        long count = latencyMicros.getTotalCount();
+        values.put(name + ".count", Long.toString(count));
+        values.put(name + ".errors", Long.toString(errors));
+        values.put(name + ".rejected", Long.toString(rejections));
+        values.put(name + ".throughput", format(count / (elapsedNanos / 1e9)));
+        for (double percentile : PERCENTILES) {
+            values.put(name + "." + percentileKey(percentile),
+                    format(latencyMicros.getValueAtPercentile(percentile) / 1e3));
+        }
+        values.put(name + ".max_ms", format(latencyMicros.getMaxValue() / 1e3));
+    }
+
+    /**
+     * Writes the report and the histogram log, named after the start time of the run.
+     * @param directory The directory to write to.
+     * @return The path of the report.
+     * @throws IOException if the files cannot be written.
+     */
+    Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        String name = "loadtest-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path report = directory.resolve(name + ".properties");
+        try (Writer writer = Files.newBufferedWriter(report)) {
+            for (Map.Entry<String, String> value : values.entrySet()) {
+                writer.write(value.getKey() + "=" + value.getValue() + "\n");
+            }
+        }
+        try (PrintStream log = new PrintStream(Files.newOutputStream(directory.resolve(name + ".hlog")))) {
+            HistogramLogWriter writer = new HistogramLogWriter(log);
+            writer.outputComment("Latencies in microseconds of " + values.get("target") + " at " + values.get("rate")
+                    + " requests/s, tagged by cart type");
+            writer.outputLogFormatVersion();
+            writer.outputLegend();
+            for (Map.Entry<String, Histogram> histogram : histograms.entrySet()) {
+                histogram.getValue().setTag(histogram.getKey());
+                writer.outputIntervalHistogram(histogram.getValue());
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Prints a table of the throughput, errors and latency percentiles.
+     * @param out The {@link PrintStream} to print to.
+     */
+    void print(PrintStream out) {
+        out.printf("%s at %s requests/s for %s, mix %s, max generator lag %s ms, %s unanswered%n",
+                values.get("target"), values.get("rate"), values.get("duration"), values.get("mix"),
+                values.get("generator.max-lag_ms"), values.get("unanswered"));
+        out.printf("%-8s %9s %7s %9s %11s %9s %9s %9s %9s %9s %9s%n", "carts", "count", "errors", "rejected",
+                "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "p99.99 ms", "max ms");
+        for (String name : histograms.keySet()) {
+            out.printf("%-8s %9s %7s %9s %11s %9s %9s %9s %9s %9s %9s%n", name, values.get(name + ".count"),
+                    values.get(name + ".errors"), values.get(name + ".rejected"), values.get(name + ".throughput"), values.get(name + ".p50_ms"),
+                    values.get(name + ".p90_ms"), values.get(name + ".p99_ms"), values.get(name + ".p999_ms"),
+                    values.get(name + ".p9999_ms"), values.get(name + ".max_ms"));
+        }
+    }
+
+    /**
+     * Compares this run with a previous one at the same rate and mix.
+     * @param baseline The report of the previous run.
+     * @param tolerancePercent The allowed drop of throughput and growth of the tail latencies, in percent. Any
+     *                         growth of the errors or of the requests left unanswered is a regression.
+     * @return The regressions found, empty if there are none.
+     * @throws IOException if the baseline cannot be read.
+     */
+    List<String> compare(Path baseline, double tolerancePercent) throws IOException {
+        Properties previous = new Properties();
+        try (Reader reader = Files.newBufferedReader(baseline)) {
+            previous.load(reader);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (String setting : List.of("rate", "mix", "large-cart-size", "clients")) {
+            if (!values.get(setting).equals(previous.getProperty(setting))) {
+                regressions.add("The baseline was run with " + setting + " " + previous.getProperty(setting)
+                        + " instead of " + values.get(setting));
+            }
+        }
+        double tolerance = tolerancePercent / 100;
+        compare(regressions, previous, "unanswered", 0);
+        for (String name : histograms.keySet()) {
+            compare(regressions, previous, name + ".throughput", -tolerance);
+            compare(regressions, previous, name + ".errors", 0);
+            for (String percentile : COMPARED_PERCENTILES) {
+                compare(regressions, previous, name + "." + percentile, tolerance);
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Adds a regression if a value moved past its baseline by more than the tolerance: up for a positive tolerance
+     * (or zero), down for a negative one.
+     */
+    private void compare(List<String> regressions, Properties previous, String key, double tolerance) {
+        String previousValue = previous.getProperty(key);
+        if (previousValue == null) {
+            return;
+        }
+        double before = Double.parseDouble(previousValue);
+        double now = Double.parseDouble(values.get(key));
+        boolean regressed = tolerance < 0 ? now < before * (1 + tolerance) : now > before * (1 + tolerance);
+        if (regressed) {
+            regressions.add(String.format(Locale.ROOT, "%s went from %s to %s", key, previousValue, values.get(key)));
+        }
+    }
+
+    private static String percentileKey(double percentile) {
+        return "p" + format(percentile).replace(".", "") + "_ms";
+    }
+
+    private static String format(double value) {
+        String formatted = String.format(Locale.ROOT, "%.3f", value);
+        return formatted.contains(".") ? formatted.replaceAll("0+$", "").replaceAll("\\.$", "") : formatted;
+    }
+}
@@ -0,0 +1,89 @@
+package com.tacoloco.webservice.loadtest;
+
+import com.tacoloco.webservice.OrderItemApplication;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of {@code POST /calculateTotal}: drives a fixed arrival rate of valid, invalid and large carts against a
+ * given URL, or against the application started on a random port like {@code OrderItemControllerTest} does, and
+ * reports the throughput and the coordinated-omission-corrected latency percentiles.
+ * <p>
+ * Every run writes a report that can be compared with the report of an earlier run, e.g. the last release:
+ * <pre>
+ *     ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="--rate 1000 --duration 2m"
+ *     ./mvnw -Ploadtest test-compile exec:exec \
+ *         -Dloadtest.args="--rate 1000 --duration 2m --baseline target/loadtest/loadtest-20261018-101500.properties"
+ * </pre>
+ * The process exits with 1 if the run regressed against the baseline by more than the tolerance.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options;
+        try {
+            options = LoadTestOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadTestOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        ConfigurableApplicationContext context = null;
+        String target = options.url;
+        if (target == null) {
+            context = start(options);
+            target = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        }
+        List<String> regressions;
+        try {
+            LoadGenerator generator = new LoadGenerator(options, target);
+            if (!options.warmup.isZero()) {
+                System.out.println("Warming up for " + options.warmup);
+                generator.run(options.warmup.toNanos());
+            }
+            System.out.println("Measuring for " + options.duration);
+            LoadReport report = new LoadReport(options, target, generator.run(options.duration.toNanos()));
+            report.print(System.out);
+            Path written = report.write(options.output);
+            System.out.println("Report written to " + written);
+
+            regressions = options.baseline == null ? List.of()
+                    : report.compare(options.baseline, options.tolerancePercent);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+        }
+
+        if (options.baseline != null && regressions.isEmpty()) {
+            System.out.println("No regression against " + options.baseline);
+        }
+        regressions.forEach(regression -> System.out.println("REGRESSION: " + regression));
+        System.exit(regressions.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * Starts the application with the embedded web server listening on a random port. The API keys of the clients are
+     * configured, so each client has a rate limit of its own instead of sharing the one of the local address.
+     */
+    private static ConfigurableApplicationContext start(LoadTestOptions options) {
+        SpringApplication application = new SpringApplication(OrderItemApplication.class);
+        application.setAdditionalProfiles(StringUtils.commaDelimitedListToStringArray(options.profiles));
+        String apiKeys = IntStream.range(0, options.clients).mapToObj(LoadGenerator::apiKey)
+                .collect(Collectors.joining(","));
+        return application.run("--server.port=0", "--logging.level.root=WARN", "--spring.main.banner-mode=off",
+                "--tacoloco.admission.api-keys=" + apiKeys);
+    }
+}
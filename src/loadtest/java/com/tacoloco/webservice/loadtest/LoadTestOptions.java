@@ -0,0 +1,126 @@
+package com.tacoloco.webservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * The command line options of the {@link LoadTest}.
+ */
+final class LoadTestOptions {
+    static final String USAGE = String.join("\n",
+            "Usage: LoadTest [options]",
+            "  --url <base URL>          server to load, e.g. http://localhost:9001; without it the application is",
+            "                            started on a random port",
+            "  --profiles <profiles>     profiles of the started application, e.g. reactive",
+            "  --rate <requests/s>       fixed arrival rate (default 500)",
+            "  --duration <duration>     measured run time (default 60s)",
+            "  --warmup <duration>       unmeasured run time before it (default 15s)",
+            "  --mix <type:weight,...>   share of valid, invalid and large carts (default valid:80,invalid:15,large:5)",
+            "  --large-cart-size <lines> lines of a large cart (default 1000)",
+            "  --clients <count>         API keys (X-Api-Key) loadtest-0 to loadtest-<count - 1> the requests are",
+            "                            spread over (default 16); each has a rate limit of its own only if the server",
+            "                            lists it in tacoloco.admission.api-keys, as the started application does",
+            "  --timeout <duration>      request timeout, counted as an error (default 10s)",
+            "  --seed <seed>             seed of the generated carts and mix (default 42)",
+            "  --output <directory>      where the report and histogram log are written (default target/loadtest)",
+            "  --baseline <report>       report of a previous run to compare with; exits with 1 on a regression",
+            "  --tolerance <percent>     allowed throughput drop and p99/p99.9 latency growth (default 10)");
+
+    String url;
+    String profiles = "";
+    int rate = 500;
+    Duration duration = Duration.ofSeconds(60);
+    Duration warmup = Duration.ofSeconds(15);
+    Map<CartType, Integer> mix = new EnumMap<>(Map.of(CartType.VALID, 80, CartType.INVALID, 15, CartType.LARGE, 5));
+    int largeCartSize = 1000;
+    int clients = 16;
+    Duration timeout = Duration.ofSeconds(10);
+    long seed = 42;
+    Path output = Path.of("target", "loadtest");
+    Path baseline;
+    double tolerancePercent = 10;
+
+    private LoadTestOptions() {
+    }
+
+    /**
+     * @param args The command line arguments.
+     * @return The parsed options.
+     * @throws IllegalArgumentException if an option is unknown or has no valid value.
+     */
+    static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--url":
+                    options.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "--profiles":
+                    options.profiles = value;
+                    break;
+                case "--rate":
+                    options.rate = Integer.parseInt(value);
+                    break;
+                case "--duration":
+                    options.duration = DurationStyle.detectAndParse(value);
+                    break;
+                case "--warmup":
+                    options.warmup = DurationStyle.detectAndParse(value);
+                    break;
+                case "--mix":
+                    options.mix = parseMix(value);
+                    break;
+                case "--large-cart-size":
+                    options.largeCartSize = Integer.parseInt(value);
+                    break;
+                case "--clients":
+                    options.clients = Integer.parseInt(value);
+                    break;
+                case "--timeout":
+                    options.timeout = DurationStyle.detectAndParse(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "--output":
+                    options.output = Path.of(value);
+                    break;
+                case "--baseline":
+                    options.baseline = Path.of(value);
+                    break;
+                case "--tolerance":
+                    options.tolerancePercent = Double.parseDouble(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (options.rate < 1 || options.largeCartSize < 1 || options.clients < 1 || options.duration.isZero()) {
+            throw new IllegalArgumentException("The rate, large cart size, clients and duration must be positive");
+        }
+        return options;
+    }
+
+    private static Map<CartType, Integer> parseMix(String value) {
+        Map<CartType, Integer> mix = new EnumMap<>(CartType.class);
+        for (String share : value.split(",")) {
+            String[] typeAndWeight = share.split(":");
+            if (typeAndWeight.length != 2) {
+                throw new IllegalArgumentException("The mix must be of the form valid:80,invalid:15,large:5");
+            }
+            mix.put(CartType.valueOf(typeAndWeight[0].trim().toUpperCase()), Integer.parseInt(typeAndWeight[1].trim()));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() < 1) {
+            throw new IllegalArgumentException("The mix must have a positive weight");
+        }
+        return mix;
+    }
+}
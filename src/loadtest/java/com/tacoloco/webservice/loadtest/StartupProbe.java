@@ -0,0 +1,267 @@
+package com.tacoloco.webservice.loadtest;
+
+import com.tacoloco.webservice.OrderItemApplication;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how soon a freshly started instance serves {@code POST /calculateTotal} at its steady-state latency.
+ * <p>
+ * The application is started as a child process, like an orchestrator would, and the probe reports:
+ * <ul>
+ *     <li>the time from the launch until {@code /actuator/health/readiness} is {@code UP},</li>
+ *     <li>the time until the first cart is priced, sent as soon as the instance is ready,</li>
+ *     <li>the p50 and p99 latency of each following second of back-to-back valid carts, and the time to the steady
+ *     state: the first second after which the p99 stays within {@value #STEADY_STATE_FACTOR} times the p99 of the
+ *     last quarter of the run.</li>
+ * </ul>
+ * Compare the startup modes with, e.g.:
+ * <pre>
+ *     ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.tacoloco.webservice.loadtest.StartupProbe \
+ *         -Dloadtest.args="--app-args --tacoloco.warm-up.enabled=false"
+ *     ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.main=com.tacoloco.webservice.loadtest.StartupProbe \
+ *         -Dloadtest.args="--profiles fast-startup --cds target/app-cds.jsa"
+ * </pre>
+ * The CDS archive is the one built by {@code ./mvnw -Pcds package}.
+ */
+public final class StartupProbe {
+    static final String USAGE = String.join("\n",
+            "Usage: StartupProbe [options]",
+            "  --profiles <profiles>     profiles of the started application, e.g. fast-startup",
+            "  --app-args <args,...>     more arguments of the application, e.g. --tacoloco.warm-up.enabled=false",
+            "  --cds <archive>           start from the cds jar and classpath with this class data sharing archive",
+            "  --duration <duration>     measured run time after the first request (default 30s)",
+            "  --seed <seed>             seed of the generated carts (default 42)");
+
+    private static final double STEADY_STATE_FACTOR = 1.5;
+    private static final Duration START_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path WORK_DIRECTORY = Path.of("target", "startup-probe");
+
+    private String profiles = "";
+    private String[] appArgs = new String[0];
+    private Path cdsArchive;
+    private Duration duration = Duration.ofSeconds(30);
+    private long seed = 42;
+
+    private StartupProbe() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        StartupProbe probe = new StartupProbe();
+        try {
+            probe.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+            return;
+        }
+        System.exit(probe.run() ? 0 : 1);
+    }
+
+    private void parse(String[] args) {
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value of " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--profiles":
+                    profiles = value;
+                    break;
+                case "--app-args":
+                    appArgs = StringUtils.commaDelimitedListToStringArray(value);
+                    break;
+                case "--cds":
+                    cdsArchive = Path.of(value);
+                    break;
+                case "--duration":
+                    duration = DurationStyle.detectAndParse(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+    }
+
+    /**
+     * @return Whether the application started and answered every cart.
+     */
+    private boolean run() throws Exception {
+        Files.createDirectories(WORK_DIRECTORY);
+        int port = freePort();
+        String baseUrl = "http://localhost:" + port;
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest readiness = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health/readiness")).build();
+        List<HttpRequest> carts = new ArrayList<>();
+        for (String body : CartType.VALID.bodies(new Random(seed), 0)) {
+            carts.add(HttpRequest.newBuilder(URI.create(baseUrl + "/calculateTotal"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+        }
+
+        List<String> command = command(port);
+        System.out.println("Starting " + String.join(" ", command));
+        Path log = WORK_DIRECTORY.resolve("application.log");
+        long launchNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log.toFile()).start();
+        try {
+            long readyNanos = awaitReady(process, httpClient, readiness, launchNanos);
+            if (readyNanos < 0) {
+                System.out.println("The application did not become ready, see " + log);
+                return false;
+            }
+            System.out.printf("Ready after           %8d ms%n", TimeUnit.NANOSECONDS.toMillis(readyNanos - launchNanos));
+
+            long firstStartNanos = System.nanoTime();
+            if (httpClient.send(carts.get(0), HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                System.out.println("The first cart was not priced, see " + log);
+                return false;
+            }
+            long firstEndNanos = System.nanoTime();
+            System.out.printf("First cart priced at  %8d ms (%.3f ms)%n",
+                    TimeUnit.NANOSECONDS.toMillis(firstEndNanos - launchNanos), (firstEndNanos - firstStartNanos) / 1e6);
+
+            List<Histogram> histogramPerSecond = measure(httpClient, carts, firstEndNanos);
+            if (histogramPerSecond == null) {
+                System.out.println("A cart was not priced, see " + log);
+                return false;
+            }
+            report(histogramPerSecond, firstEndNanos - launchNanos);
+            return true;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * @return The command line starting the application, from the classpath of the probe or from the cds jar.
+     */
+    private List<String> command(int port) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (cdsArchive == null) {
+            command.add("-classpath");
+            command.add(System.getProperty("java.class.path"));
+        } else {
+            Path target = cdsArchive.toAbsolutePath().getParent();
+            try (var jars = Files.newDirectoryStream(target, "*-cds.jar")) {
+                Path jar = jars.iterator().next();
+                command.add("-XX:SharedArchiveFile=" + cdsArchive);
+                command.add("-classpath");
+                command.add(jar + File.pathSeparator + Files.readString(target.resolve("cds-classpath.txt")).trim());
+            }
+        }
+        command.add(OrderItemApplication.class.getName());
+        command.add("--server.port=" + port);
+        command.add("--spring.main.banner-mode=off");
+        command.add("--tacoloco.journal.directory=" + WORK_DIRECTORY.resolve("journal"));
+        // the back-to-back carts of a single client would soon be rate limited
+        command.add("--tacoloco.admission.enabled=false");
+        if (!profiles.isEmpty()) {
+            command.add("--spring.profiles.active=" + profiles);
+        }
+        command.addAll(Arrays.asList(appArgs));
+        return command;
+    }
+
+    /**
+     * Polls the readiness probe until it answers {@code UP}.
+     * @return The {@link System#nanoTime()} the application was seen ready, or -1 if it exited or timed out.
+     */
+    private static long awaitReady(Process process, HttpClient httpClient, HttpRequest readiness, long launchNanos)
+            throws InterruptedException {
+        while (System.nanoTime() - launchNanos < START_TIMEOUT.toNanos() && process.isAlive()) {
+            try {
+                if (httpClient.send(readiness, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return System.nanoTime();
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        return -1;
+    }
+
+    /**
+     * Sends the carts back to back for the run time, recording the latency in microseconds per elapsed second.
+     * @return The latency {@link Histogram} of each second, or null if a cart was not priced.
+     */
+    private List<Histogram> measure(HttpClient httpClient, List<HttpRequest> carts, long startNanos)
+            throws IOException, InterruptedException {
+        List<Histogram> histogramPerSecond = new ArrayList<>();
+        long endNanos = startNanos + duration.toNanos();
+        for (int i = 0; ; i++) {
+            long sendNanos = System.nanoTime();
+            if (sendNanos >= endNanos) {
+                return histogramPerSecond;
+            }
+            if (httpClient.send(carts.get(i % carts.size()), HttpResponse.BodyHandlers.discarding())
+                    .statusCode() != 200) {
+                return null;
+            }
+            int second = (int) TimeUnit.NANOSECONDS.toSeconds(sendNanos - startNanos);
+            while (histogramPerSecond.size() <= second) {
+                histogramPerSecond.add(new Histogram(TimeUnit.MINUTES.toMicros(1), 3));
+            }
+            histogramPerSecond.get(second).recordValue(
+                    Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - sendNanos), TimeUnit.MINUTES.toMicros(1)));
+        }
+    }
+
+    private static void report(List<Histogram> histogramPerSecond, long firstRequestNanos) {
+        System.out.println("second     count   p50_ms   p99_ms");
+        for (int second = 0; second < histogramPerSecond.size(); second++) {
+            Histogram histogram = histogramPerSecond.get(second);
+            System.out.printf("%6d %9d %8.3f %8.3f%n", second, histogram.getTotalCount(),
+                    histogram.getValueAtPercentile(50) / 1000.0, histogram.getValueAtPercentile(99) / 1000.0);
+        }
+
+        int seconds = histogramPerSecond.size();
+        Histogram last = new Histogram(TimeUnit.MINUTES.toMicros(1), 3);
+        for (int second = seconds - Math.max(1, seconds / 4); second < seconds; second++) {
+            last.add(histogramPerSecond.get(second));
+        }
+        double steadyP99 = last.getValueAtPercentile(99);
+        int steadySecond = seconds;
+        while (steadySecond > 0
+                && histogramPerSecond.get(steadySecond - 1).getValueAtPercentile(99) <= STEADY_STATE_FACTOR * steadyP99) {
+            steadySecond--;
+        }
+        System.out.printf("Steady-state p99      %8.3f ms%n", steadyP99 / 1000.0);
+        System.out.printf("Steady state after    %8d s of traffic, %d ms after the launch%n", steadySecond,
+                TimeUnit.NANOSECONDS.toMillis(firstRequestNanos) + TimeUnit.SECONDS.toMillis(steadySecond));
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
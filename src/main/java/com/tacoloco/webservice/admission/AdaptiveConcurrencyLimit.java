@@ -0,0 +1,118 @@
+package com.tacoloco.webservice.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A limit of concurrent requests that adapts to their latency with additive increase and multiplicative decrease
+ * (AIMD), so requests beyond what the server can serve within the target latency are rejected instead of queuing.
+ * <p>
+ * Every request served within the target while the limit is at least half used grows the limit by
+ * {@code 1 / limit}, i.e. by one per limit's worth of requests. The latencies are also checked per window: if more
+ * than 1% of the requests of a window were slower than the target, i.e. their p99 missed it, the limit shrinks by the
+ * backoff ratio. Everything is updated with compare-and-set, so no request waits on a lock.
+ */
+public final class AdaptiveConcurrencyLimit {
+    private static final double SLOW_SHARE = 0.01;
+
+    private final int minimumLimit;
+    private final int maximumLimit;
+    private final long targetLatencyNanos;
+    private final long windowNanos;
+    private final double backoffRatio;
+
+    private final AtomicLong limitBits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong windowStartNanos;
+    private final AtomicInteger windowCompletions = new AtomicInteger();
+    private final AtomicInteger windowSlowCompletions = new AtomicInteger();
+
+    /**
+     * @param initialLimit The limit to start from.
+     * @param minimumLimit The limit never shrinks below.
+     * @param maximumLimit The limit never grows above.
+     * @param targetLatencyNanos The p99 latency in nanoseconds the served requests should stay within.
+     * @param windowNanos The nanoseconds of requests the p99 latency is checked over.
+     * @param backoffRatio The ratio the limit is multiplied by when the target is missed, e.g. 0.9.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     */
+    public AdaptiveConcurrencyLimit(int initialLimit, int minimumLimit, int maximumLimit, long targetLatencyNanos,
+                                    long windowNanos, double backoffRatio, long nowNanos) {
+        if (minimumLimit < 1 || minimumLimit > maximumLimit) {
+            throw new IllegalArgumentException("The limits must be positive, with the minimum below the maximum");
+        }
+        this.minimumLimit = minimumLimit;
+        this.maximumLimit = maximumLimit;
+        this.targetLatencyNanos = targetLatencyNanos;
+        this.windowNanos = windowNanos;
+        this.backoffRatio = backoffRatio;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(
+                Math.min(maximumLimit, Math.max(minimumLimit, initialLimit))));
+        this.windowStartNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Admits a request if fewer requests than the limit are in flight. An admitted request must be released with
+     * {@link #release(long, long)} once served.
+     * @return Whether the request was admitted.
+     */
+    public boolean tryAcquire() {
+        if (inFlight.incrementAndGet() > getLimit()) {
+            inFlight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adapts the limit to its latency.
+     * @param latencyNanos The nanoseconds the request took to serve.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     */
+    public void release(long latencyNanos, long nowNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        windowCompletions.incrementAndGet();
+        if (latencyNanos > targetLatencyNanos) {
+            windowSlowCompletions.incrementAndGet();
+        } else if (inFlightBefore * 2 >= getLimit()) {
+            updateLimit(limit -> limit + 1 / limit);
+        }
+
+        long windowStart = windowStartNanos.get();
+        if (nowNanos - windowStart >= windowNanos && windowStartNanos.compareAndSet(windowStart, nowNanos)) {
+            int completions = windowCompletions.getAndSet(0);
+            int slowCompletions = windowSlowCompletions.getAndSet(0);
+            if (slowCompletions > completions * SLOW_SHARE) {
+                updateLimit(limit -> limit * backoffRatio);
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request that was not served, e.g. because it was rejected for another reason, without
+     * adapting the limit.
+     */
+    public void cancel() {
+        inFlight.decrementAndGet();
+    }
+
+    private void updateLimit(DoubleUnaryOperator update) {
+        limitBits.updateAndGet(bits -> Double.doubleToRawLongBits(
+                Math.min(maximumLimit, Math.max(minimumLimit, update.applyAsDouble(Double.longBitsToDouble(bits))))));
+    }
+
+    /**
+     * @return The number of requests that can currently be in flight.
+     */
+    public int getLimit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * @return The number of admitted requests not released yet.
+     */
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
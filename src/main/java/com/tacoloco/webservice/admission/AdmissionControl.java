@@ -0,0 +1,197 @@
+package com.tacoloco.webservice.admission;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tacoloco.webservice.catalog.NearCache;
+import com.tacoloco.webservice.model.ApiError;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admission control in front of the order and cart endpoints: requests are rejected right away, rather than queued,
+ * when their client is over its rate limit or when the server is at its {@link AdaptiveConcurrencyLimit}, so the
+ * requests that are admitted keep their latency during overload.
+ * <p>
+ * Clients are identified by the {@value #API_KEY_HEADER} header if it names one of the configured API keys, or else by
+ * their remote address, and each has a {@link TokenBucket} held in a {@link NearCache} that drops idle clients. An
+ * API key that is not configured is ignored, so a client cannot get a fresh rate limit by sending a new key.
+ */
+@Component
+@ConditionalOnProperty(name = "tacoloco.admission.enabled", havingValue = "true")
+public class AdmissionControl {
+    /**
+     * The header naming the API key of the client.
+     */
+    public static final String API_KEY_HEADER = "X-Api-Key";
+
+    /**
+     * The seconds a rejected client is asked to wait before retrying, in the {@code Retry-After} header.
+     */
+    public static final String RETRY_AFTER_SECONDS = "1";
+
+    private static final String UNKNOWN_CLIENT = "unknown";
+
+    /**
+     * Why a request was not admitted.
+     */
+    public enum Rejection {
+        /**
+         * The client sent more requests than its rate limit allows.
+         */
+        RATE_LIMITED,
+        /**
+         * The server is serving as many requests as its concurrency limit allows.
+         */
+        OVER_CONCURRENCY_LIMIT
+    }
+
+    @Value("${tacoloco.admission.api-keys}")
+    private Set<String> apiKeys;
+
+    @Value("${tacoloco.admission.rate-limit.requests-per-second}")
+    private double requestsPerSecond;
+
+    @Value("${tacoloco.admission.rate-limit.burst}")
+    private int burst;
+
+    @Value("${tacoloco.admission.rate-limit.maximum-clients}")
+    private int maximumClients;
+
+    @Value("${tacoloco.admission.rate-limit.time-to-idle}")
+    private Duration clientTimeToIdle;
+
+    @Value("${tacoloco.admission.concurrency-limit.initial}")
+    private int initialLimit;
+
+    @Value("${tacoloco.admission.concurrency-limit.minimum}")
+    private int minimumLimit;
+
+    @Value("${tacoloco.admission.concurrency-limit.maximum}")
+    private int maximumLimit;
+
+    @Value("${tacoloco.admission.concurrency-limit.target-latency}")
+    private Duration targetLatency;
+
+    @Value("${tacoloco.admission.concurrency-limit.window}")
+    private Duration window;
+
+    @Value("${tacoloco.admission.concurrency-limit.backoff-ratio}")
+    private double backoffRatio;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private NearCache<String, TokenBucket> tokenBuckets;
+    private AdaptiveConcurrencyLimit concurrencyLimit;
+    private final LongAdder rateLimitedCount = new LongAdder();
+    private final LongAdder overConcurrencyLimitCount = new LongAdder();
+    private byte[] rateLimitedBody;
+    private byte[] overConcurrencyLimitBody;
+
+    /**
+     * Creates the limits and serializes the {@link ApiError}s of the rejections once, so rejecting a request only
+     * writes bytes.
+     * @throws JsonProcessingException if an {@link ApiError} cannot be serialized.
+     */
+    @PostConstruct
+    public void init() throws JsonProcessingException {
+        tokenBuckets = new NearCache<>(maximumClients, Long.MAX_VALUE, bucket -> 0, Duration.ofNanos(Long.MAX_VALUE),
+                clientTimeToIdle, System::nanoTime);
+        concurrencyLimit = new AdaptiveConcurrencyLimit(initialLimit, minimumLimit, maximumLimit,
+                targetLatency.toNanos(), window.toNanos(), backoffRatio, System.nanoTime());
+        rateLimitedBody = objectMapper.writeValueAsBytes(new ApiError(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests", "The client is over its rate limit of "
+                        + BigDecimal.valueOf(requestsPerSecond).stripTrailingZeros().toPlainString() + " requests/s"));
+        overConcurrencyLimitBody = objectMapper.writeValueAsBytes(new ApiError(HttpStatus.TOO_MANY_REQUESTS,
+                "Too many requests", "The server is at its limit of concurrent requests"));
+    }
+
+    /**
+     * Admits a request if the server is within its concurrency limit and its client within its rate limit. The
+     * concurrency limit is checked first, so a request rejected for it does not take a token of its client. An
+     * admitted request must be released with {@link #release(long)} once served.
+     * @param apiKey The {@value #API_KEY_HEADER} header of the request, or null if it has none.
+     * @param remoteAddress The remote address of the client, or null if it is not known.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return null if the request was admitted, otherwise why it was not.
+     */
+    public Rejection tryAdmit(String apiKey, String remoteAddress, long nowNanos) {
+        if (!concurrencyLimit.tryAcquire()) {
+            overConcurrencyLimitCount.increment();
+            return Rejection.OVER_CONCURRENCY_LIMIT;
+        }
+        TokenBucket tokenBucket = tokenBuckets.get(clientId(apiKey, remoteAddress),
+                client -> new TokenBucket(requestsPerSecond, burst, nowNanos));
+        if (!tokenBucket.tryAcquire(nowNanos)) {
+            concurrencyLimit.cancel();
+            rateLimitedCount.increment();
+            return Rejection.RATE_LIMITED;
+        }
+        return null;
+    }
+
+    /**
+     * Identifies a client by its API key if it is a configured one, or else by its remote address. The prefixes keep
+     * an API key from being taken for an address.
+     */
+    private String clientId(String apiKey, String remoteAddress) {
+        if (apiKey != null && apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return remoteAddress == null ? UNKNOWN_CLIENT : "address:" + remoteAddress;
+    }
+
+    /**
+     * Releases an admitted request once it was served.
+     * @param startNanos The {@link System#nanoTime()} the request was admitted at.
+     */
+    public void release(long startNanos) {
+        long nowNanos = System.nanoTime();
+        concurrencyLimit.release(nowNanos - startNanos, nowNanos);
+    }
+
+    /**
+     * @param rejection The {@link Rejection}.
+     * @return The serialized Too Many Requests {@link ApiError} of the rejection.
+     */
+    public byte[] getRejectionBody(Rejection rejection) {
+        return rejection == Rejection.RATE_LIMITED ? rateLimitedBody : overConcurrencyLimitBody;
+    }
+
+    /**
+     * @return The number of requests rejected for their client's rate limit.
+     */
+    public long getRateLimitedCount() {
+        return rateLimitedCount.sum();
+    }
+
+    /**
+     * @return The number of requests rejected for the concurrency limit.
+     */
+    public long getOverConcurrencyLimitCount() {
+        return overConcurrencyLimitCount.sum();
+    }
+
+    /**
+     * @return The {@link AdaptiveConcurrencyLimit}.
+     */
+    public AdaptiveConcurrencyLimit getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    /**
+     * @return The {@link NearCache} of the {@link TokenBucket}s by client.
+     */
+    public NearCache<String, TokenBucket> getTokenBuckets() {
+        return tokenBuckets;
+    }
+}
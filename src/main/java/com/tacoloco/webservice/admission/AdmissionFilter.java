@@ -0,0 +1,73 @@
+package com.tacoloco.webservice.admission;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Servlet filter applying the {@link AdmissionControl} to the requests of the servlet stack. A request that starts
+ * asynchronous processing, like the streamed {@code /calculateTotals}, is released once its response completes.
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+    private final AdmissionControl admissionControl;
+
+    /**
+     * @param admissionControl The {@link AdmissionControl}.
+     */
+    public AdmissionFilter(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long startNanos = System.nanoTime();
+        AdmissionControl.Rejection rejection = admissionControl.tryAdmit(
+                request.getHeader(AdmissionControl.API_KEY_HEADER), request.getRemoteAddr(), startNanos);
+        if (rejection != null) {
+            byte[] body = admissionControl.getRejectionBody(rejection);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, AdmissionControl.RETRY_AFTER_SECONDS);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+            return;
+        }
+
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        admissionControl.release(startNanos);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                admissionControl.release(startNanos);
+            }
+        }
+    }
+}
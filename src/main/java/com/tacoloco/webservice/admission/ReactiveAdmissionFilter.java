@@ -0,0 +1,67 @@
+package com.tacoloco.webservice.admission;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Web filter applying the {@link AdmissionControl} to the requests of the reactive stack whose path starts with one
+ * of the given prefixes; an admitted request is released once its response completes.
+ */
+public class ReactiveAdmissionFilter implements WebFilter {
+    private final AdmissionControl admissionControl;
+    private final List<String> pathPrefixes;
+
+    /**
+     * @param admissionControl The {@link AdmissionControl}.
+     * @param pathPrefixes The prefixes of the paths of the requests to admit.
+     */
+    public ReactiveAdmissionFilter(AdmissionControl admissionControl, List<String> pathPrefixes) {
+        this.admissionControl = admissionControl;
+        this.pathPrefixes = pathPrefixes;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        if (pathPrefixes.stream().noneMatch(path::startsWith)) {
+            return chain.filter(exchange);
+        }
+
+        long startNanos = System.nanoTime();
+        AdmissionControl.Rejection rejection = admissionControl.tryAdmit(
+                request.getHeaders().getFirst(AdmissionControl.API_KEY_HEADER),
+                remoteAddress(request.getRemoteAddress()), startNanos);
+        if (rejection != null) {
+            ServerHttpResponse response = exchange.getResponse();
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, AdmissionControl.RETRY_AFTER_SECONDS);
+            response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            DataBuffer body = response.bufferFactory().wrap(admissionControl.getRejectionBody(rejection));
+            return response.writeWith(Mono.just(body));
+        }
+        return chain.filter(exchange).doFinally(signal -> admissionControl.release(startNanos));
+    }
+
+    /**
+     * @return The IP address of the client, or its host name if the address is unresolved, or null if it is not known.
+     */
+    private static String remoteAddress(InetSocketAddress remoteAddress) {
+        if (remoteAddress == null) {
+            return null;
+        }
+        return remoteAddress.isUnresolved()
+                ? remoteAddress.getHostString() : remoteAddress.getAddress().getHostAddress();
+    }
+}
@@ -0,0 +1,49 @@
+package com.tacoloco.webservice.admission;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A lock-free token bucket, refilled at a fixed rate up to a burst of tokens.
+ * <p>
+ * Rather than a token count and a refill time, the bucket keeps a single theoretical arrival time: the time at which
+ * it would be full again if no token were taken (the generic cell rate algorithm). Taking a token moves it one
+ * interval later, and is refused if that would put it more than a burst of intervals ahead of now, so a token is taken
+ * with a single compare-and-set and never needs a refill task.
+ */
+public final class TokenBucket {
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAtNanos;
+
+    /**
+     * @param tokensPerSecond The rate the bucket is refilled at.
+     * @param burst The number of tokens the bucket holds when full.
+     * @param nowNanos The current {@link System#nanoTime()}; the bucket starts full.
+     */
+    public TokenBucket(double tokensPerSecond, int burst, long nowNanos) {
+        if (tokensPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("The rate and the burst must be positive");
+        }
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = intervalNanos * burst;
+        this.fullAtNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Takes a token if one is left.
+     * @param nowNanos The current {@link System#nanoTime()}.
+     * @return Whether a token was taken.
+     */
+    public boolean tryAcquire(long nowNanos) {
+        while (true) {
+            long fullAt = fullAtNanos.get();
+            long next = Math.max(fullAt, nowNanos) + intervalNanos;
+            if (next - nowNanos > burstNanos) {
+                return false;
+            }
+            if (fullAtNanos.compareAndSet(fullAt, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.tacoloco.webservice.catalog;
+
+/**
+ * Published when a {@link CatalogSource} starts serving a new version of the menu of a store, or of every store.
+ */
+public final class CatalogChangedEvent {
+    private final String storeId;
+    private final MenuCatalog previousCatalog;
+    private final MenuCatalog catalog;
+
+    /**
+     * @param previousCatalog The catalog that was served to every store before, or null if this is the first one.
+     * @param catalog The catalog that is served to every store now.
+     */
+    public CatalogChangedEvent(MenuCatalog previousCatalog, MenuCatalog catalog) {
+        this(null, previousCatalog, catalog);
+    }
+
+    /**
+     * @param storeId The ID of the store, or null if the catalog is served to every store.
+     * @param previousCatalog The catalog that was served before, or null if this is the first one.
+     * @param catalog The catalog that is served now.
+     */
+    public CatalogChangedEvent(String storeId, MenuCatalog previousCatalog, MenuCatalog catalog) {
+        this.storeId = storeId;
+        this.previousCatalog = previousCatalog;
+        this.catalog = catalog;
+    }
+
+    /**
+     * @return The ID of the store, or null if the catalog is served to every store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return The catalog that was served before, or null if this is the first one.
+     */
+    public MenuCatalog getPreviousCatalog() {
+        return previousCatalog;
+    }
+
+    /**
+     * @return The catalog that is served now.
+     */
+    public MenuCatalog getCatalog() {
+        return catalog;
+    }
+}
@@ -0,0 +1,348 @@
+package com.tacoloco.webservice.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The versions of the menu of each store served by this instance, with the time each one started being served, so an
+ * order can be priced again as it was priced when it was placed, e.g. for a refund or an audit.
+ * <p>
+ * Every {@link CatalogChangedEvent} appends the new {@link MenuCatalog} to the versions of its store. A version
+ * created by {@link MenuCatalog#withPrices(Map)} shares the item index and the unchanged prices with the version
+ * before, so a price change only holds the prices it changed. The versions of a store are immutable arrays replaced
+ * on every change, so {@link #asOf(String, Instant)} is a binary search over the times of the changes, and the menu it
+ * returns is priced exactly like the current one.
+ * <p>
+ * The versions of a store are compacted when a new one is appended: a version is dropped once the version after it
+ * has been served for longer than {@code tacoloco.catalog.history.retention}, and the oldest ones are dropped beyond
+ * {@code tacoloco.catalog.history.maximum-versions}. The history of a store starts when this instance first serves
+ * its menu.
+ * <p>
+ * Every recorded version is also appended to {@code tacoloco.catalog.history.file}, one line of
+ * {@code storeId<TAB>servedFromMillis<TAB>version<TAB>itemName=priceInCents...} per version with the store ID and the
+ * item names URL-encoded, so the history survives a restart: the file is read back when the instance starts, and
+ * rewritten with the versions that are still retained. A line that cannot be parsed, e.g. cut short by a crash, is
+ * skipped. The versions are queued to a single writer thread while their store's versions are being replaced, so
+ * recording never waits for the disk and the lines of a store are written in the order its versions were recorded.
+ * The writer rewrites the file with the retained versions again once the dropped versions outnumber them.
+ */
+@Component
+public class CatalogHistory implements ApplicationListener<PayloadApplicationEvent<CatalogChangedEvent>> {
+    /**
+     * The key of the versions of the menu served to every store.
+     */
+    private static final String EVERY_STORE = "";
+    private static final char SEPARATOR = '\t';
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogHistory.class);
+
+    @Autowired
+    private Clock pricingClock;
+
+    @Value("${tacoloco.catalog.history.retention}")
+    private Duration retention;
+
+    @Value("${tacoloco.catalog.history.maximum-versions}")
+    private int maximumVersions;
+
+    @Value("${tacoloco.catalog.history.file}")
+    private Path file;
+
+    private final Map<String, Versions> versionsByStoreId = new ConcurrentHashMap<>();
+
+    /**
+     * The versions of each store as last written to the file, only used by the {@link #writer}.
+     */
+    private final Map<String, Versions> persistedByStoreId = new HashMap<>();
+    private int persistedVersions;
+    private int fileLines;
+    private ExecutorService writer;
+
+    /**
+     * Reads back the versions recorded before the instance started, rewrites the file with those still retained and
+     * starts the writer of the versions recorded from now on.
+     * @throws IOException if the file cannot be read or rewritten.
+     */
+    @PostConstruct
+    public void load() throws IOException {
+        if (file == null) {
+            return;
+        }
+        if (Files.exists(file)) {
+            long horizon = pricingClock.millis() - retention.toMillis();
+            try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    restore(line, horizon);
+                }
+            }
+            LOGGER.info("Restored {} menu versions from {}", getVersionCount(), file);
+        }
+        persistedByStoreId.putAll(versionsByStoreId);
+        persistedVersions = getVersionCount();
+        rewrite();
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-history-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Stops the writer once it has written the versions queued to it.
+     * @throws InterruptedException if interrupted while waiting for the writer.
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        if (writer != null) {
+            writer.shutdown();
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Records the new version of the menu of a store, or of every store. This is a listener bean rather than an
+     * {@code @EventListener} so it also gets the first version, published while the {@link CatalogSource} starts.
+     * @param event The {@link CatalogChangedEvent}.
+     */
+    @Override
+    public void onApplicationEvent(PayloadApplicationEvent<CatalogChangedEvent> event) {
+        record(event.getPayload().getStoreId(), event.getPayload().getCatalog());
+    }
+
+    /**
+     * Records that a version of the menu of a store is served from now on. A version with the same prices as the
+     * last one recorded, e.g. the menu of a store loaded again after it was idle, is not recorded.
+     * @param storeId The ID of the store, or null if the menu is served to every store.
+     * @param catalog The {@link MenuCatalog}.
+     */
+    public void record(String storeId, MenuCatalog catalog) {
+        long now = pricingClock.millis();
+        long horizon = now - retention.toMillis();
+        versionsByStoreId.compute(storeId == null ? EVERY_STORE : storeId, (key, versions) -> {
+            Versions updated = versions == null
+                    ? new Versions(new long[] {now}, new MenuCatalog[] {catalog})
+                    : versions.append(now, catalog, horizon, maximumVersions);
+            if (updated != versions && writer != null) {
+                try {
+                    // queued within compute, so the versions of a store are written in order
+                    writer.execute(() -> persist(key, updated));
+                } catch (RejectedExecutionException e) {
+                    // closing: the version is only kept in memory
+                }
+            }
+            return updated;
+        });
+    }
+
+    /**
+     * Finds the version of the menu of a store that was served at a time.
+     * @param storeId The ID of the store.
+     * @param time The time.
+     * @return The {@link MenuCatalog} served at that time, or null if the history of the store does not go back that
+     * far.
+     */
+    public MenuCatalog asOf(String storeId, Instant time) {
+        Versions versions = versionsByStoreId.get(storeId);
+        if (versions == null) {
+            versions = versionsByStoreId.get(EVERY_STORE);
+        }
+        return versions == null ? null : versions.asOf(time.toEpochMilli());
+    }
+
+    /**
+     * @return The number of versions kept, of every store.
+     */
+    public int getVersionCount() {
+        int count = 0;
+        for (Versions versions : versionsByStoreId.values()) {
+            count += versions.catalogs.length;
+        }
+        return count;
+    }
+
+    /**
+     * @return The estimated number of bytes held by the versions, counting the prices they share once.
+     */
+    public long estimateSizeInBytes() {
+        long bytes = 0;
+        for (Versions versions : versionsByStoreId.values()) {
+            bytes += versions.sizeInBytes;
+        }
+        return bytes;
+    }
+
+    /**
+     * Writes the last version of a store on the writer thread: appends it to the file, or rewrites the file once the
+     * versions dropped since it was last rewritten outnumber those retained.
+     */
+    private void persist(String key, Versions versions) {
+        Versions previous = persistedByStoreId.put(key, versions);
+        persistedVersions += versions.catalogs.length - (previous == null ? 0 : previous.catalogs.length);
+        try {
+            if (fileLines + 1 > 2 * persistedVersions) {
+                rewrite();
+            } else {
+                int last = versions.catalogs.length - 1;
+                Files.writeString(file, format(key, versions.servedFromMillis[last], versions.catalogs[last]),
+                        StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+                fileLines++;
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not persist a menu version to {}; it is only kept until a restart", file, e);
+        }
+    }
+
+    /**
+     * Rewrites the file with the versions last persisted and moves it over the old one.
+     */
+    private void rewrite() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path rewritten = file.resolveSibling(file.getFileName() + ".rewritten");
+        try (BufferedWriter writer = Files.newBufferedWriter(rewritten, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Versions> versions : persistedByStoreId.entrySet()) {
+                for (int i = 0; i < versions.getValue().catalogs.length; i++) {
+                    writer.write(format(versions.getKey(), versions.getValue().servedFromMillis[i],
+                            versions.getValue().catalogs[i]));
+                }
+            }
+        }
+        Files.move(rewritten, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        fileLines = persistedVersions;
+    }
+
+    /**
+     * Appends the version of a line of the file to the versions of its store, sharing the items and prices of the
+     * version before it like {@link MenuCatalog#withPrices(Map)}.
+     */
+    private void restore(String line, long horizon) {
+        String[] fields = line.split(String.valueOf(SEPARATOR), -1);
+        if (fields.length < 3) {
+            return;
+        }
+        try {
+            String key = URLDecoder.decode(fields[0], StandardCharsets.UTF_8);
+            long servedFromMillis = Long.parseLong(fields[1]);
+            long version = Long.parseLong(fields[2]);
+            Map<String, Long> priceInCentsByItemName = new LinkedHashMap<>();
+            for (int i = 3; i < fields.length; i++) {
+                int equals = fields[i].indexOf('=');
+                priceInCentsByItemName.put(URLDecoder.decode(fields[i].substring(0, equals), StandardCharsets.UTF_8),
+                        Long.parseLong(fields[i].substring(equals + 1)));
+            }
+            versionsByStoreId.compute(key, (k, versions) -> {
+                if (versions == null) {
+                    return new Versions(new long[] {servedFromMillis},
+                            new MenuCatalog[] {MenuCatalog.of(version, priceInCentsByItemName)});
+                }
+                MenuCatalog last = versions.catalogs[versions.catalogs.length - 1];
+                return versions.append(servedFromMillis, last.withPrices(priceInCentsByItemName).withVersion(version),
+                        horizon, maximumVersions);
+            });
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            // a line cut short
+        }
+    }
+
+    private static String format(String key, long servedFromMillis, MenuCatalog catalog) {
+        StringBuilder line = new StringBuilder(URLEncoder.encode(key, StandardCharsets.UTF_8))
+                .append(SEPARATOR).append(servedFromMillis).append(SEPARATOR).append(catalog.getVersion());
+        for (int itemId = 0; itemId < catalog.size(); itemId++) {
+            line.append(SEPARATOR).append(URLEncoder.encode(catalog.getItemName(itemId), StandardCharsets.UTF_8))
+                    .append('=').append(catalog.getPriceInCents(itemId));
+        }
+        return line.append('\n').toString();
+    }
+
+    /**
+     * The versions of the menu of a store, ordered by the time they started being served.
+     */
+    private static final class Versions {
+        private final long[] servedFromMillis;
+        private final MenuCatalog[] catalogs;
+        private final long sizeInBytes;
+
+        Versions(long[] servedFromMillis, MenuCatalog[] catalogs) {
+            this.servedFromMillis = servedFromMillis;
+            this.catalogs = catalogs;
+            long bytes = 0;
+            for (int i = 0; i < catalogs.length; i++) {
+                bytes += catalogs[i].estimateSizeInBytes(i == 0 ? null : catalogs[i - 1]);
+            }
+            this.sizeInBytes = bytes;
+        }
+
+        MenuCatalog asOf(long millis) {
+            int index = Arrays.binarySearch(servedFromMillis, millis);
+            if (index < 0) {
+                // the version served before the insertion point
+                index = -index - 2;
+            }
+            while (index >= 0 && index + 1 < servedFromMillis.length && servedFromMillis[index + 1] == millis) {
+                // the last of the versions that started in the same millisecond
+                index++;
+            }
+            return index < 0 ? null : catalogs[index];
+        }
+
+        /**
+         * @return The versions with the catalog appended and the versions superseded before the horizon or beyond
+         * the maximum number of versions dropped.
+         */
+        Versions append(long millis, MenuCatalog catalog, long horizon, int maximumVersions) {
+            MenuCatalog last = catalogs[catalogs.length - 1];
+            if (catalog == last || catalog.hasPrices(last)) {
+                return this;
+            }
+            // a clock set back must not reorder the versions
+            millis = Math.max(millis, servedFromMillis[servedFromMillis.length - 1]);
+            int count = catalogs.length + 1;
+            int first = 0;
+            while (first < catalogs.length
+                    && (count - first > maximumVersions || supersededAt(first, millis) <= horizon)) {
+                first++;
+            }
+            long[] times = Arrays.copyOfRange(servedFromMillis, first, count);
+            MenuCatalog[] versions = Arrays.copyOfRange(catalogs, first, count);
+            times[times.length - 1] = millis;
+            versions[versions.length - 1] = catalog;
+            return new Versions(times, versions);
+        }
+
+        private long supersededAt(int index, long appendedMillis) {
+            return index + 1 < servedFromMillis.length ? servedFromMillis[index + 1] : appendedMillis;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.tacoloco.webservice.catalog;
+
+/**
+ * Source of the current {@link MenuCatalog} of each store.
+ */
+public interface CatalogSource {
+    /**
+     * The ID of the store whose menu is served when a request does not name a store.
+     */
+    String DEFAULT_STORE = "default";
+
+    /**
+     * @param storeId The ID of the store.
+     * @return The current snapshot of the menu of the store.
+     * @throws UnknownStoreException if the store has no menu.
+     */
+    MenuCatalog getCatalog(String storeId);
+
+    /**
+     * Returns the menu of a store only if it is in memory, for callers that must not block on loading it, such as an
+     * event loop.
+     * @param storeId The ID of the store.
+     * @return The current snapshot of the menu of the store, or null if it has to be loaded first.
+     */
+    default MenuCatalog getCatalogIfLoaded(String storeId) {
+        return null;
+    }
+
+    /**
+     * @param storeId The ID of the store.
+     * @return Whether the source has a menu for the store.
+     */
+    default boolean hasStore(String storeId) {
+        try {
+            getCatalog(storeId);
+            return true;
+        } catch (UnknownStoreException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @return The current snapshot of the menu of the {@link #DEFAULT_STORE}.
+     */
+    default MenuCatalog getCatalog() {
+        return getCatalog(DEFAULT_STORE);
+    }
+
+    /**
+     * Makes the source read the menu of a store again, e.g. because it was changed by another instance.
+     * @param storeId The ID of the store, or null for every store.
+     */
+    void refresh(String storeId);
+}
@@ -0,0 +1,35 @@
+package com.tacoloco.webservice.catalog;
+
+import java.time.Instant;
+
+/**
+ * Thrown when the {@link CatalogHistory} does not go back far enough to know the menu of a store as of a time.
+ */
+public class CatalogVersionNotFoundException extends RuntimeException {
+    private final String storeId;
+    private final Instant asOf;
+
+    /**
+     * @param storeId The ID of the store.
+     * @param asOf The time the menu was asked for.
+     */
+    public CatalogVersionNotFoundException(String storeId, Instant asOf) {
+        super("No menu of store " + storeId + " known as of " + asOf);
+        this.storeId = storeId;
+        this.asOf = asOf;
+    }
+
+    /**
+     * @return The ID of the store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return The time the menu was asked for.
+     */
+    public Instant getAsOf() {
+        return asOf;
+    }
+}
@@ -0,0 +1,135 @@
+package com.tacoloco.webservice.catalog;
+
+import com.tacoloco.webservice.model.MenuItem;
+import com.tacoloco.webservice.repository.MenuItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link CatalogSource} that loads the menu of each store from the {@link MenuItem}s in the database and serves it
+ * from a {@link NearCache} keyed by store ID.
+ * <p>
+ * A store's menu is only loaded when it is first asked for, and is dropped once it has been idle for the cache's
+ * time-to-idle or when the menus in memory outgrow the cache's weight budget, so memory scales with the stores that
+ * are taking orders rather than with every store in the database. A store found to have no menu is remembered for a
+ * short time, so that orders for unknown stores do not each query the database.
+ */
+@Component
+@ConditionalOnProperty(name = "tacoloco.catalog.source", havingValue = "database", matchIfMissing = true)
+public class DatabaseCatalogSource implements CatalogSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatabaseCatalogSource.class);
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private NearCache<String, MenuCatalog> catalogCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${tacoloco.catalog.cache.unknown-stores.maximum-size}")
+    private int unknownStoresMaximumSize;
+
+    @Value("${tacoloco.catalog.cache.unknown-stores.time-to-live}")
+    private Duration unknownStoresTimeToLive;
+
+    private NearCache<String, Boolean> unknownStores;
+
+    @PostConstruct
+    public void init() {
+        unknownStores = new NearCache<>(unknownStoresMaximumSize, unknownStoresTimeToLive);
+    }
+
+    /**
+     * Returns the cached catalog of the store, loading it from the database if it is absent or expired.
+     * @param storeId The ID of the store.
+     * @return The {@link MenuCatalog}.
+     * @throws UnknownStoreException if the store has no menu items, or had none when it was last looked up.
+     */
+    @Override
+    public MenuCatalog getCatalog(String storeId) {
+        if (unknownStores.getIfPresent(storeId) != null) {
+            throw new UnknownStoreException(storeId);
+        }
+        return catalogCache.get(storeId, this::loadCatalog);
+    }
+
+    /**
+     * @param storeId The ID of the store.
+     * @return The cached catalog of the store, or null if it is absent or expired and has to be loaded.
+     */
+    @Override
+    public MenuCatalog getCatalogIfLoaded(String storeId) {
+        return catalogCache.getIfPresent(storeId);
+    }
+
+    /**
+     * Asks the database rather than the cache, so a store that was just added is found even if it is still remembered
+     * as unknown.
+     * @param storeId The ID of the store.
+     * @return Whether the store has menu items.
+     */
+    @Override
+    public boolean hasStore(String storeId) {
+        return menuItemRepository.existsByStoreId(storeId);
+    }
+
+    /**
+     * Expires the cached catalog of the store, or of every store, so it is loaded from the database on its next
+     * order and versioned after the expired one. A store remembered as unknown is looked up again.
+     * @param storeId The ID of the store, or null for every store.
+     */
+    @Override
+    public void refresh(String storeId) {
+        if (storeId == null) {
+            catalogCache.expireAll();
+            unknownStores.invalidateAll();
+        } else {
+            catalogCache.expire(storeId);
+            unknownStores.invalidate(storeId);
+        }
+    }
+
+    /**
+     * Loads the menu of a store from the database. The version is only incremented when a price or item changed
+     * since the expired catalog still held for the store; a store whose catalog was dropped starts again at version 1.
+     * Loading also drops the idle catalogs of other stores, but not their expired catalogs, so those are still versioned
+     * after the expired one when they are reloaded.
+     * @param storeId The ID of the store.
+     * @param expiredCatalog The expired catalog of the store, or null if none is held.
+     * @return The {@link MenuCatalog}.
+     */
+    private MenuCatalog loadCatalog(String storeId, MenuCatalog expiredCatalog) {
+        catalogCache.cleanUp();
+        List<MenuItem> menuItems = menuItemRepository.findAllByStoreIdOrderByItemNameAsc(storeId);
+        if (menuItems.isEmpty()) {
+            unknownStores.put(storeId, Boolean.TRUE);
+            throw new UnknownStoreException(storeId);
+        }
+        Map<String, Long> priceInCentsByItemName = new LinkedHashMap<>();
+        for (MenuItem menuItem : menuItems) {
+            priceInCentsByItemName.put(menuItem.getItemName(), menuItem.getPriceInCents());
+        }
+
+        MenuCatalog catalog = expiredCatalog == null
+                ? MenuCatalog.of(1, priceInCentsByItemName) : expiredCatalog.withPrices(priceInCentsByItemName);
+        if (catalog != expiredCatalog) {
+            LOGGER.debug("Loaded version {} of the menu of store {} with {} items", catalog.getVersion(), storeId,
+                    catalog.size());
+            eventPublisher.publishEvent(new CatalogChangedEvent(storeId, expiredCatalog, catalog));
+        }
+        return catalog;
+    }
+}
@@ -0,0 +1,211 @@
+package com.tacoloco.webservice.catalog;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * {@link CatalogSource} that loads the menu from a local file and reloads it whenever the file changes.
+ * <p>
+ * Every line of the file contains an item and its price, e.g. {@code Veggie Taco=2.50}. Blank lines and lines
+ * starting with {@code #} are ignored. The file is memory-mapped and parsed in place, and each version is published
+ * as an immutable {@link MenuCatalog} by swapping an {@link AtomicReference}, so readers never block and never see a
+ * partially applied update. A file that cannot be parsed is rejected and the previous version keeps being served;
+ * replacing the file with an atomic move avoids reading it while it is being written.
+ * <p>
+ * The same menu is served to every store.
+ */
+@Component
+@ConditionalOnProperty(name = "tacoloco.catalog.source", havingValue = "file")
+public class FileCatalogSource implements CatalogSource {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCatalogSource.class);
+
+    @Value("${tacoloco.catalog.file.path}")
+    private Path path;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final AtomicReference<MenuCatalog> catalog = new AtomicReference<>();
+    private WatchService watchService;
+
+    /**
+     * Loads the file and starts watching it for changes.
+     * @throws IOException if the file cannot be read.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        reload();
+        watchService = path.getFileSystem().newWatchService();
+        path.toAbsolutePath().getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        Thread watcher = new Thread(this::watch, "catalog-file-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    /**
+     * Stops watching the file.
+     * @throws IOException if the watch service cannot be closed.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * @param storeId The ID of the store, ignored as every store is served the same menu.
+     * @return The most recently published snapshot of the menu. Never blocks.
+     */
+    @Override
+    public MenuCatalog getCatalog(String storeId) {
+        return catalog.get();
+    }
+
+    /**
+     * @param storeId The ID of the store, ignored as every store is served the same menu.
+     * @return The most recently published snapshot of the menu, which is always loaded.
+     */
+    @Override
+    public MenuCatalog getCatalogIfLoaded(String storeId) {
+        return catalog.get();
+    }
+
+    /**
+     * Reloads the file, which holds the menu of every store. A file that cannot be read or parsed is logged and the
+     * current version keeps being served.
+     * @param storeId The ID of the store, ignored as every store is served the same menu.
+     */
+    @Override
+    public void refresh(String storeId) {
+        try {
+            reload();
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.warn("Could not reload the menu file {}", path, e);
+        }
+    }
+
+    /**
+     * Reads the file and publishes it as the next version if any item or price changed.
+     * @return The {@link MenuCatalog} served after the reload.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file cannot be parsed.
+     */
+    public MenuCatalog reload() throws IOException {
+        Map<String, Long> priceInCentsByItemName = read(path);
+        MenuCatalog previous;
+        MenuCatalog next;
+        do {
+            previous = catalog.get();
+            next = previous == null
+                    ? MenuCatalog.of(1, priceInCentsByItemName) : previous.withPrices(priceInCentsByItemName);
+        } while (!catalog.compareAndSet(previous, next));
+
+        if (next != previous) {
+            LOGGER.info("Loaded version {} of the menu with {} items from {}", next.getVersion(), next.size(), path);
+            eventPublisher.publishEvent(new CatalogChangedEvent(previous, next));
+        }
+        return next;
+    }
+
+    /**
+     * Parses a menu file.
+     * @param path The path of the file.
+     * @return The price in cents of every menu item keyed by the item name, sorted by name.
+     * @throws IOException if the file cannot be read.
+     * @throws IllegalArgumentException if the file cannot be parsed.
+     */
+    static Map<String, Long> read(Path path) throws IOException {
+        Map<String, Long> priceInCentsByItemName = new TreeMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int lineStart = 0;
+            int lineNumber = 1;
+            for (int i = 0; i <= buffer.limit(); i++) {
+                if (i == buffer.limit() || buffer.get(i) == '\n') {
+                    parseLine(buffer, lineStart, i, lineNumber++, priceInCentsByItemName);
+                    lineStart = i + 1;
+                }
+            }
+        }
+        if (priceInCentsByItemName.isEmpty()) {
+            throw new IllegalArgumentException("The menu file " + path + " contains no items");
+        }
+        return priceInCentsByItemName;
+    }
+
+    private static void parseLine(MappedByteBuffer buffer, int start, int end, int lineNumber,
+                                  Map<String, Long> priceInCentsByItemName) {
+        byte[] bytes = new byte[end - start];
+        buffer.duplicate().position(start).get(bytes);
+        String line = new String(bytes, StandardCharsets.UTF_8).trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+            return;
+        }
+
+        int separator = line.lastIndexOf('=');
+        String itemName = separator < 0 ? "" : line.substring(0, separator).trim();
+        if (itemName.isEmpty()) {
+            throw new IllegalArgumentException("Line " + lineNumber + " is not of the form <item name>=<price>");
+        }
+        long priceInCents;
+        try {
+            priceInCents = new BigDecimal(line.substring(separator + 1).trim()).movePointRight(2).longValueExact();
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + " does not have a valid price", e);
+        }
+        if (priceInCents < 0 || priceInCentsByItemName.put(itemName, priceInCents) != null) {
+            throw new IllegalArgumentException("Line " + lineNumber + " has a negative price or a duplicate item");
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= event.kind() == StandardWatchEventKinds.OVERFLOW
+                            || path.getFileName().equals(event.context());
+                }
+                key.reset();
+                if (changed) {
+                    try {
+                        reload();
+                    } catch (IOException | IllegalArgumentException e) {
+                        LOGGER.warn("Could not reload the menu from {}, still serving version {}", path,
+                                catalog.get().getVersion(), e);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            LOGGER.debug("Stopped watching {}", path);
+        }
+    }
+}
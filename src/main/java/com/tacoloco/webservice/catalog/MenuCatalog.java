@@ -0,0 +1,234 @@
+package com.tacoloco.webservice.catalog;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the menu. Every item is assigned a dense int ID, so that callers can aggregate
+ * and price items in primitive arrays indexed by ID instead of looking up boxed values by name.
+ * <p>
+ * The prices are held in chunks of {@value #PRICE_CHUNK_SIZE} items, and a version created by
+ * {@link #withPrices(Map)} with the same items shares the name index and every unchanged chunk with the version it was
+ * created from, so keeping old versions in a {@link CatalogHistory} only costs the chunks whose prices changed.
+ */
+public final class MenuCatalog {
+    /**
+     * The ID returned for names that are not on the menu.
+     */
+    public static final int UNKNOWN_ITEM = -1;
+
+    /**
+     * The version of catalogs built to warm up the pricing code, which are never served by a {@link CatalogSource};
+     * sources start at version 1.
+     */
+    public static final long SYNTHETIC_VERSION = 0;
+
+    /**
+     * The estimated bytes held per item besides its name: the map node, the boxed ID, the String and the array slots.
+     */
+    private static final int ITEM_OVERHEAD_BYTES = 120;
+
+    private static final int PRICE_CHUNK_SHIFT = 6;
+    private static final int PRICE_CHUNK_SIZE = 1 << PRICE_CHUNK_SHIFT;
+    private static final int PRICE_CHUNK_MASK = PRICE_CHUNK_SIZE - 1;
+
+    private final long version;
+    private final Map<String, Integer> itemIdByItemName;
+    private final String[] itemNameById;
+    private final long[][] priceChunks;
+
+    private MenuCatalog(long version, Map<String, Long> priceInCentsByItemName) {
+        this.version = version;
+        this.itemIdByItemName = new HashMap<>(priceInCentsByItemName.size() * 2);
+        this.itemNameById = new String[priceInCentsByItemName.size()];
+        this.priceChunks = new long[(itemNameById.length + PRICE_CHUNK_MASK) >>> PRICE_CHUNK_SHIFT][];
+
+        int itemId = 0;
+        for (Map.Entry<String, Long> entry : priceInCentsByItemName.entrySet()) {
+            if ((itemId & PRICE_CHUNK_MASK) == 0) {
+                priceChunks[itemId >>> PRICE_CHUNK_SHIFT] =
+                        new long[Math.min(PRICE_CHUNK_SIZE, itemNameById.length - itemId)];
+            }
+            itemIdByItemName.put(entry.getKey(), itemId);
+            itemNameById[itemId] = entry.getKey();
+            priceChunks[itemId >>> PRICE_CHUNK_SHIFT][itemId & PRICE_CHUNK_MASK] = entry.getValue();
+            itemId++;
+        }
+    }
+
+    private MenuCatalog(long version, MenuCatalog items, long[][] priceChunks) {
+        this.version = version;
+        this.itemIdByItemName = items.itemIdByItemName;
+        this.itemNameById = items.itemNameById;
+        this.priceChunks = priceChunks;
+    }
+
+    /**
+     * Creates a catalog snapshot. IDs are assigned in the iteration order of the given map.
+     * @param version The version of the catalog.
+     * @param priceInCentsByItemName The price in cents of every menu item keyed by the item name.
+     * @return The {@link MenuCatalog}.
+     */
+    public static MenuCatalog of(long version, Map<String, Long> priceInCentsByItemName) {
+        return new MenuCatalog(version, priceInCentsByItemName);
+    }
+
+    /**
+     * Creates the next version of this catalog with the given prices. If the items did not change, the new version
+     * keeps their IDs and shares the name index and the chunks of unchanged prices with this catalog.
+     * @param priceInCentsByItemName The price in cents of every menu item keyed by the item name.
+     * @return This catalog if the prices did not change, otherwise a new catalog with the next version.
+     */
+    public MenuCatalog withPrices(Map<String, Long> priceInCentsByItemName) {
+        if (hasPrices(priceInCentsByItemName)) {
+            return this;
+        }
+        if (!hasItems(priceInCentsByItemName)) {
+            return new MenuCatalog(version + 1, priceInCentsByItemName);
+        }
+        long[][] chunks = priceChunks.clone();
+        for (Map.Entry<String, Long> entry : priceInCentsByItemName.entrySet()) {
+            int itemId = itemIdByItemName.get(entry.getKey());
+            int chunk = itemId >>> PRICE_CHUNK_SHIFT;
+            if (chunks[chunk][itemId & PRICE_CHUNK_MASK] != entry.getValue()) {
+                if (chunks[chunk] == priceChunks[chunk]) {
+                    chunks[chunk] = priceChunks[chunk].clone();
+                }
+                chunks[chunk][itemId & PRICE_CHUNK_MASK] = entry.getValue();
+            }
+        }
+        return new MenuCatalog(version + 1, this, chunks);
+    }
+
+    /**
+     * @return The version of the catalog.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return The number of items on the menu. Item IDs range from 0 (inclusive) to this value (exclusive).
+     */
+    public int size() {
+        return itemNameById.length;
+    }
+
+    /**
+     * @return The estimated number of bytes held by the catalog, used to keep the catalogs in memory within a budget.
+     */
+    public long estimateSizeInBytes() {
+        long bytes = 0;
+        for (String itemName : itemNameById) {
+            bytes += ITEM_OVERHEAD_BYTES + itemName.length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Resolves an item name to its ID.
+     * @param itemName The name of the item.
+     * @return The ID of the item, or {@link #UNKNOWN_ITEM} if the item is not on the menu.
+     */
+    public int findItemId(String itemName) {
+        Integer itemId = itemName == null ? null : itemIdByItemName.get(itemName);
+        return itemId == null ? UNKNOWN_ITEM : itemId;
+    }
+
+    /**
+     * @param itemId The ID of the item.
+     * @return The name of the item.
+     */
+    public String getItemName(int itemId) {
+        return itemNameById[itemId];
+    }
+
+    /**
+     * @param itemId The ID of the item.
+     * @return The price of the item in cents.
+     */
+    public long getPriceInCents(int itemId) {
+        return priceChunks[itemId >>> PRICE_CHUNK_SHIFT][itemId & PRICE_CHUNK_MASK];
+    }
+
+    /**
+     * @param priceInCentsByItemName The price in cents of every menu item keyed by the item name.
+     * @return True if the catalog contains exactly the given items and prices, False otherwise.
+     */
+    public boolean hasPrices(Map<String, Long> priceInCentsByItemName) {
+        if (priceInCentsByItemName.size() != size()) {
+            return false;
+        }
+        for (Map.Entry<String, Long> entry : priceInCentsByItemName.entrySet()) {
+            int itemId = findItemId(entry.getKey());
+            if (itemId == UNKNOWN_ITEM || getPriceInCents(itemId) != entry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param other Another {@link MenuCatalog}, e.g. another version of the menu of the same store.
+     * @return True if both catalogs contain the same items at the same prices, False otherwise.
+     */
+    public boolean hasPrices(MenuCatalog other) {
+        if (other.size() != size()) {
+            return false;
+        }
+        for (int itemId = 0; itemId < other.size(); itemId++) {
+            int ownItemId = findItemId(other.getItemName(itemId));
+            if (ownItemId == UNKNOWN_ITEM || getPriceInCents(ownItemId) != other.getPriceInCents(itemId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param version A version number.
+     * @return This catalog with the given version number, sharing its items and prices, e.g. to restore a version
+     * read back from the {@link CatalogHistory} file.
+     */
+    MenuCatalog withVersion(long version) {
+        return version == this.version ? this : new MenuCatalog(version, this, priceChunks);
+    }
+
+    /**
+     * Estimates the bytes this catalog adds to a previous version it was created from by {@link #withPrices(Map)}:
+     * only its price chunks that are not shared with it if the items are the same, otherwise the whole catalog.
+     * @param previous The previous version, or null.
+     * @return The estimated number of bytes.
+     */
+    long estimateSizeInBytes(MenuCatalog previous) {
+        long bytes = 16 + 8L * priceChunks.length;
+        for (int chunk = 0; chunk < priceChunks.length; chunk++) {
+            if (previous == null || previous.itemNameById != itemNameById
+                    || previous.priceChunks[chunk] != priceChunks[chunk]) {
+                bytes += 16 + 8L * priceChunks[chunk].length;
+            }
+        }
+        return previous == null || previous.itemNameById != itemNameById ? bytes + estimateSizeInBytes() : bytes;
+    }
+
+    private boolean hasItems(Map<String, Long> priceInCentsByItemName) {
+        if (priceInCentsByItemName.size() != size()) {
+            return false;
+        }
+        for (String itemName : priceInCentsByItemName.keySet()) {
+            if (findItemId(itemName) == UNKNOWN_ITEM) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The unmodifiable Set of item names.
+     */
+    public Set<String> getItemNames() {
+        return Collections.unmodifiableSet(itemIdByItemName.keySet());
+    }
+}
@@ -0,0 +1,476 @@
+package com.tacoloco.webservice.catalog;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Immutable search index over the item names of a {@link MenuCatalog}, answering prefix and typo-tolerant queries
+ * such as an autocomplete box sends while the customer types.
+ * <p>
+ * Names are normalized to lower case words of letters and digits without accents, e.g. "Jalapeño Taco" to
+ * "jalapeno taco". The items are sorted by normalized name, so the items whose name starts with the query are one
+ * binary-searched range; every distinct word is kept in a sorted dictionary with the items it occurs in, so the items
+ * with a word starting with a query word are the union of one dictionary range. For typos, every word is also indexed
+ * by its trigrams, padded at the start so the first letters weigh more; a query word shares at least
+ * {@code length - 3 * edits} trigrams with the words it is within {@code edits} edits of, so only those words are
+ * compared by edit distance.
+ * <p>
+ * The index holds names only; prices are read from the catalog, so a new catalog version with the same items reuses
+ * the whole index and one with other items reuses the normalized names of the items it kept. The index keeps the
+ * catalog it was built or updated for and is matched to a catalog by identity, since the version numbers of a store
+ * restart when its catalog is dropped from memory.
+ */
+public final class MenuSearchIndex {
+    /**
+     * Prepended to a word split into trigrams, so its first letters occur in more trigrams than its last ones.
+     */
+    private static final String TRIGRAM_PADDING = "\u0000\u0000";
+
+    private static final Comparator<String[]> BY_NORMALIZED_NAME =
+            Comparator.<String[], String>comparing(entry -> entry[1]).thenComparing(entry -> entry[0]);
+
+    private final MenuCatalog catalog;
+    private final String[] itemNames;
+    private final String[] normalizedNames;
+    private final int[][] wordIdsByItem;
+    private final String[] words;
+    private final int[][] itemsByWord;
+    private final Map<String, int[]> wordIdsByTrigram;
+
+    private MenuSearchIndex(MenuCatalog catalog, Collection<String> names, Function<String, String> normalizer) {
+        this.catalog = catalog;
+        String[][] entries = new String[names.size()][];
+        int item = 0;
+        for (String name : names) {
+            entries[item++] = new String[] {name, normalizer.apply(name)};
+        }
+        Arrays.sort(entries, BY_NORMALIZED_NAME);
+        itemNames = new String[entries.length];
+        normalizedNames = new String[entries.length];
+        TreeSet<String> distinctWords = new TreeSet<>();
+        for (item = 0; item < entries.length; item++) {
+            itemNames[item] = entries[item][0];
+            normalizedNames[item] = entries[item][1];
+            distinctWords.addAll(Arrays.asList(split(normalizedNames[item])));
+        }
+
+        words = distinctWords.toArray(new String[0]);
+        Map<String, Integer> wordIdByWord = new HashMap<>(words.length * 2);
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            wordIdByWord.put(words[wordId], wordId);
+        }
+        wordIdsByItem = new int[itemNames.length][];
+        int[] itemCountByWord = new int[words.length];
+        for (item = 0; item < itemNames.length; item++) {
+            wordIdsByItem[item] = Arrays.stream(split(normalizedNames[item])).mapToInt(wordIdByWord::get)
+                    .distinct().toArray();
+            for (int wordId : wordIdsByItem[item]) {
+                itemCountByWord[wordId]++;
+            }
+        }
+        itemsByWord = new int[words.length][];
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            itemsByWord[wordId] = new int[itemCountByWord[wordId]];
+            itemCountByWord[wordId] = 0;
+        }
+        for (item = 0; item < itemNames.length; item++) {
+            for (int wordId : wordIdsByItem[item]) {
+                itemsByWord[wordId][itemCountByWord[wordId]++] = item;
+            }
+        }
+
+        Map<String, IntList> trigramPostings = new HashMap<>();
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            for (String trigram : trigrams(words[wordId])) {
+                trigramPostings.computeIfAbsent(trigram, key -> new IntList()).add(wordId);
+            }
+        }
+        wordIdsByTrigram = new HashMap<>(trigramPostings.size() * 2);
+        trigramPostings.forEach((trigram, wordIds) -> wordIdsByTrigram.put(trigram, wordIds.toArray()));
+    }
+
+    private MenuSearchIndex(MenuSearchIndex index, MenuCatalog catalog) {
+        this.catalog = catalog;
+        itemNames = index.itemNames;
+        normalizedNames = index.normalizedNames;
+        wordIdsByItem = index.wordIdsByItem;
+        words = index.words;
+        itemsByWord = index.itemsByWord;
+        wordIdsByTrigram = index.wordIdsByTrigram;
+    }
+
+    /**
+     * Builds the index of a catalog.
+     * @param catalog The {@link MenuCatalog}.
+     * @return The {@link MenuSearchIndex}.
+     */
+    public static MenuSearchIndex of(MenuCatalog catalog) {
+        return new MenuSearchIndex(catalog, catalog.getItemNames(), MenuSearchIndex::normalize);
+    }
+
+    /**
+     * Updates the index to a new version of its catalog.
+     * @param catalog The new version of the catalog.
+     * @return This index if it was built for the same catalog; an index sharing this one's structure if the catalog
+     *         has the same items; otherwise an index rebuilt with the normalized names of the items that were kept.
+     */
+    public MenuSearchIndex update(MenuCatalog catalog) {
+        if (catalog == this.catalog) {
+            return this;
+        }
+        if (hasItems(catalog)) {
+            return new MenuSearchIndex(this, catalog);
+        }
+        Map<String, String> normalizedByName = new HashMap<>(itemNames.length * 2);
+        for (int item = 0; item < itemNames.length; item++) {
+            normalizedByName.put(itemNames[item], normalizedNames[item]);
+        }
+        return new MenuSearchIndex(catalog, catalog.getItemNames(), name -> {
+            String normalized = normalizedByName.get(name);
+            return normalized == null ? normalize(name) : normalized;
+        });
+    }
+
+    /**
+     * @return The catalog the index was built or updated for.
+     */
+    public MenuCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return The number of indexed items.
+     */
+    public int size() {
+        return itemNames.length;
+    }
+
+    /**
+     * @return The estimated number of bytes held by the index, used to keep the indexes in memory within a budget.
+     */
+    public long estimateSizeInBytes() {
+        long bytes = 0;
+        for (int item = 0; item < itemNames.length; item++) {
+            bytes += 96 + 2L * normalizedNames[item].length() + 4L * wordIdsByItem[item].length;
+        }
+        for (int wordId = 0; wordId < words.length; wordId++) {
+            // the word, its items and its trigram postings
+            bytes += 64 + 2L * words[wordId].length() + 4L * itemsByWord[wordId].length
+                    + 4L * words[wordId].length();
+        }
+        return bytes + 80L * wordIdsByTrigram.size();
+    }
+
+    /**
+     * Finds the items matching a query, best first:
+     * <ol>
+     *     <li>the items whose name starts with the query, in name order,</li>
+     *     <li>the items with, for every query word, a word starting with it, in name order,</li>
+     *     <li>if fewer than {@code limit} items were found, the items with, for every query word, a word starting with
+     *     it give or take one edit for query words of 4 to 7 letters, or two edits for longer ones, by fewest edits
+     *     and then in name order.</li>
+     * </ol>
+     * A query without letters or digits matches every item, in name order.
+     * @param query The query.
+     * @param limit The maximum number of items returned.
+     * @return The names of the matching items.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, itemNames.length));
+        String normalizedQuery = normalize(query);
+        int first = lowerBound(normalizedNames, normalizedQuery);
+        BitSet matched = new BitSet(itemNames.length);
+        for (int item = first; item < itemNames.length && matches.size() < limit
+                && normalizedNames[item].startsWith(normalizedQuery); item++) {
+            matches.add(itemNames[item]);
+            matched.set(item);
+        }
+        if (matches.size() == limit || normalizedQuery.isEmpty()) {
+            return matches;
+        }
+
+        String[] queryWords = split(normalizedQuery);
+        WordMatches[] wordMatches = new WordMatches[queryWords.length];
+        int longest = 0;
+        for (int i = 0; i < queryWords.length; i++) {
+            wordMatches[i] = new WordMatches(queryWords[i]);
+            if (queryWords[i].length() > queryWords[longest].length()) {
+                longest = i;
+            }
+        }
+        BitSet candidates = new BitSet(itemNames.length);
+        for (int wordId = wordMatches[longest].firstWordId; wordId < wordMatches[longest].endWordId; wordId++) {
+            for (int item : itemsByWord[wordId]) {
+                candidates.set(item);
+            }
+        }
+        candidates.andNot(matched);
+        for (int item = candidates.nextSetBit(0); item >= 0 && matches.size() < limit;
+             item = candidates.nextSetBit(item + 1)) {
+            if (edits(item, wordMatches) == 0) {
+                matches.add(itemNames[item]);
+                matched.set(item);
+            }
+        }
+        if (matches.size() < limit && wordMatches[longest].maximumEdits > 0) {
+            for (WordMatches match : wordMatches) {
+                match.findFuzzyWords();
+            }
+            wordMatches[longest].fuzzyEditsByWordId.forEach((wordId, edits) -> {
+                for (int item : itemsByWord[wordId]) {
+                    candidates.set(item);
+                }
+            });
+            candidates.andNot(matched);
+            addFuzzyMatches(candidates, wordMatches, limit, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Adds the candidates within the maximum edits of every query word, by fewest edits and then in name order.
+     */
+    private void addFuzzyMatches(BitSet candidates, WordMatches[] wordMatches, int limit, List<String> matches) {
+        long[] fuzzyMatches = new long[candidates.cardinality()];
+        int count = 0;
+        for (int item = candidates.nextSetBit(0); item >= 0; item = candidates.nextSetBit(item + 1)) {
+            int edits = edits(item, wordMatches);
+            if (edits >= 0) {
+                fuzzyMatches[count++] = (long) edits << 32 | item;
+            }
+        }
+        Arrays.sort(fuzzyMatches, 0, count);
+        for (int i = 0; i < count && matches.size() < limit; i++) {
+            matches.add(itemNames[(int) fuzzyMatches[i]]);
+        }
+    }
+
+    /**
+     * @return The total edits for every query word to match the start of a word of the item, or -1 if a query word
+     *         matches none within its maximum edits.
+     */
+    private static int edits(int[] itemWordIds, WordMatches[] wordMatches) {
+        int total = 0;
+        for (WordMatches match : wordMatches) {
+            int best = match.maximumEdits + 1;
+            for (int wordId : itemWordIds) {
+                best = Math.min(best, match.edits(wordId));
+            }
+            if (best > match.maximumEdits) {
+                return -1;
+            }
+            total += best;
+        }
+        return total;
+    }
+
+    private int edits(int item, WordMatches[] wordMatches) {
+        return edits(wordIdsByItem[item], wordMatches);
+    }
+
+    /**
+     * The dictionary words a query word matches: the range of words it is a prefix of, and once looked up, the words
+     * with a prefix within its maximum edits of it.
+     */
+    private final class WordMatches {
+        private final String queryWord;
+        private final int maximumEdits;
+        private final int firstWordId;
+        private final int endWordId;
+        private Map<Integer, Integer> fuzzyEditsByWordId = Map.of();
+
+        WordMatches(String queryWord) {
+            this.queryWord = queryWord;
+            maximumEdits = maximumEdits(queryWord);
+            firstWordId = lowerBound(words, queryWord);
+            int endWordId = firstWordId;
+            while (endWordId < words.length && words[endWordId].startsWith(queryWord)) {
+                endWordId++;
+            }
+            this.endWordId = endWordId;
+        }
+
+        /**
+         * Finds the words outside the prefix range within the maximum edits, among those sharing enough trigrams.
+         */
+        void findFuzzyWords() {
+            if (maximumEdits == 0) {
+                return;
+            }
+            List<String> trigrams = trigrams(queryWord);
+            int[] sharedTrigramsByWord = new int[words.length];
+            fuzzyEditsByWordId = new HashMap<>();
+            int minimumSharedTrigrams = Math.max(1, trigrams.size() - 3 * maximumEdits);
+            for (String trigram : trigrams) {
+                int[] wordIds = wordIdsByTrigram.get(trigram);
+                if (wordIds == null) {
+                    continue;
+                }
+                for (int wordId : wordIds) {
+                    if (++sharedTrigramsByWord[wordId] == minimumSharedTrigrams
+                            && (wordId < firstWordId || wordId >= endWordId)) {
+                        int edits = prefixEdits(queryWord, words[wordId], maximumEdits);
+                        if (edits <= maximumEdits) {
+                            fuzzyEditsByWordId.put(wordId, edits);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return The edits for the query word to match the start of a word, more than the maximum if it does not.
+         */
+        int edits(int wordId) {
+            if (wordId >= firstWordId && wordId < endWordId) {
+                return 0;
+            }
+            return fuzzyEditsByWordId.getOrDefault(wordId, maximumEdits + 1);
+        }
+    }
+
+    private boolean hasItems(MenuCatalog catalog) {
+        if (catalog.size() != itemNames.length) {
+            return false;
+        }
+        for (String itemName : itemNames) {
+            if (catalog.findItemId(itemName) == MenuCatalog.UNKNOWN_ITEM) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Normalizes a name or query to lower case words of letters and digits, without accents, separated by one space.
+     * @param text The text.
+     * @return The normalized text, empty if it has no letters or digits.
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.isNormalized(text, Normalizer.Form.NFD)
+                ? text : Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separated = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (separated && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(Character.toLowerCase(c));
+                separated = false;
+            } else {
+                separated = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * @return The number of edits tolerated in a query word: none up to 3 letters, one up to 7, then two.
+     */
+    static int maximumEdits(String queryWord) {
+        return queryWord.length() <= 3 ? 0 : queryWord.length() <= 7 ? 1 : 2;
+    }
+
+    /**
+     * Computes the Levenshtein distance between a query word and the closest prefix of a word, giving up beyond a
+     * maximum.
+     * @return The distance, or {@code maximumEdits + 1} if it is larger than the maximum.
+     */
+    static int prefixEdits(String queryWord, String word, int maximumEdits) {
+        int columns = Math.min(word.length(), queryWord.length() + maximumEdits);
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= queryWord.length(); i++) {
+            current[0] = i;
+            int rowMinimum = i;
+            for (int j = 1; j <= columns; j++) {
+                int substitution = previous[j - 1] + (queryWord.charAt(i - 1) == word.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+            if (rowMinimum > maximumEdits) {
+                return maximumEdits + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        int distance = maximumEdits + 1;
+        for (int j = 0; j <= columns; j++) {
+            distance = Math.min(distance, previous[j]);
+        }
+        return distance;
+    }
+
+    private static List<String> trigrams(String word) {
+        String padded = TRIGRAM_PADDING + word;
+        List<String> trigrams = new ArrayList<>(word.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            String trigram = padded.substring(i, i + 3);
+            if (!trigrams.contains(trigram)) {
+                trigrams.add(trigram);
+            }
+        }
+        return trigrams;
+    }
+
+    private static String[] split(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    /**
+     * @return The index of the first string not less than the key.
+     */
+    private static int lowerBound(String[] sorted, String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (sorted[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * A growable array of ints, to build the trigram postings without boxing.
+     */
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
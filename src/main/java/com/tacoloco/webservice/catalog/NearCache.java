@@ -0,0 +1,369 @@
+package com.tacoloco.webservice.catalog;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded, read-through in-process cache in front of a slower data source.
+ * Entries expire after a fixed time-to-live, and optionally after they have not been read for a time-to-idle. The
+ * least recently used entries are evicted once the cache holds too many entries or, if the entries are weighed, once
+ * their total weight exceeds the maximum weight. Concurrent misses for the same key are collapsed into a single load.
+ * @param <K> The type of the keys.
+ * @param <V> The type of the values.
+ */
+public class NearCache<K, V> {
+    private final int maximumSize;
+    private final long maximumWeight;
+    private final ToLongFunction<? super V> weigher;
+    private final long timeToLiveNanos;
+    private final long timeToIdleNanos;
+    private final LongSupplier nanoClock;
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final AtomicLong weight = new AtomicLong();
+    private final Map<K, CompletableFuture<V>> loadsInFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * @param maximumSize The maximum number of entries.
+     * @param timeToLive How long an entry is served after it was loaded.
+     */
+    public NearCache(int maximumSize, Duration timeToLive) {
+        this(maximumSize, timeToLive, System::nanoTime);
+    }
+
+    /**
+     * @param maximumSize The maximum number of entries.
+     * @param timeToLive How long an entry is served after it was loaded.
+     * @param nanoClock The source of the current time in nanoseconds.
+     */
+    public NearCache(int maximumSize, Duration timeToLive, LongSupplier nanoClock) {
+        this(maximumSize, Long.MAX_VALUE, value -> 0, timeToLive, null, nanoClock);
+    }
+
+    /**
+     * @param maximumSize The maximum number of entries.
+     * @param maximumWeight The maximum total weight of the entries.
+     * @param weigher Weighs a value, e.g. its estimated size in bytes.
+     * @param timeToLive How long an entry is served after it was loaded.
+     * @param timeToIdle How long an entry is kept without being read, or null to keep it until it is evicted.
+     * @param nanoClock The source of the current time in nanoseconds.
+     */
+    public NearCache(int maximumSize, long maximumWeight, ToLongFunction<? super V> weigher, Duration timeToLive,
+                     Duration timeToIdle, LongSupplier nanoClock) {
+        if (maximumSize < 1 || maximumWeight < 1) {
+            throw new IllegalArgumentException(
+                    "The maximum size and weight must be positive: " + maximumSize + ", " + maximumWeight);
+        }
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.timeToLiveNanos = timeToLive.toNanos();
+        this.timeToIdleNanos = timeToIdle == null ? Long.MAX_VALUE : timeToIdle.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns the cached value for the key, loading it if it is absent or expired.
+     * Only one load runs per key at a time; concurrent callers for the same key wait for its result.
+     * @param key The key.
+     * @param loader Loads the value for a key; must not return null.
+     * @return The value.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        return get(key, (k, staleValue) -> loader.apply(k));
+    }
+
+    /**
+     * Returns the cached value for the key, reloading it if it is absent or expired.
+     * Works like {@link #get(Object, Function)}, but the loader is also given the expired value that is still held
+     * for the key, e.g. to version the new value after it.
+     * @param key The key.
+     * @param reloader Loads the value for a key given its expired value, or null if none is held; must not return
+     *                 null.
+     * @return The value.
+     */
+    public V get(K key, BiFunction<? super K, ? super V, ? extends V> reloader) {
+        V value = lookup(key);
+        if (value != null) {
+            hitCount.increment();
+            return value;
+        }
+        missCount.increment();
+
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> loadInFlight = loadsInFlight.putIfAbsent(key, load);
+        if (loadInFlight != null) {
+            return join(loadInFlight);
+        }
+        try {
+            value = lookup(key);
+            if (value != null) {
+                load.complete(value);
+                return value;
+            }
+            Entry<V> stale = entries.get(key);
+            value = Objects.requireNonNull(reloader.apply(key, stale == null ? null : stale.value),
+                    "The loaded value must not be null");
+            loadCount.increment();
+            put(key, value);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            loadFailureCount.increment();
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadsInFlight.remove(key, load);
+        }
+    }
+
+    /**
+     * Returns the cached value for the key without loading it.
+     * @param key The key.
+     * @return The value, or null if it is absent or expired.
+     */
+    public V getIfPresent(K key) {
+        V value = lookup(key);
+        if (value == null) {
+            missCount.increment();
+        } else {
+            hitCount.increment();
+        }
+        return value;
+    }
+
+    /**
+     * Adds or replaces the value for a key, evicting the least recently used entries if the cache is full.
+     * @param key The key.
+     * @param value The value.
+     */
+    public void put(K key, V value) {
+        long now = nanoClock.getAsLong();
+        Entry<V> entry = new Entry<>(value, weigher.applyAsLong(value), now);
+        Entry<V> replaced = entries.put(key, entry);
+        weight.addAndGet(replaced == null ? entry.weight : entry.weight - replaced.weight);
+        if (entries.size() > maximumSize || weight.get() > maximumWeight) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Removes the value for a key.
+     * @param key The key.
+     */
+    public void invalidate(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            remove(key, entry);
+        }
+    }
+
+    /**
+     * Removes all the values.
+     */
+    public void invalidateAll() {
+        entries.forEach(this::remove);
+    }
+
+    /**
+     * Expires the value for a key, so it is reloaded when it is next read; unlike {@link #invalidate(Object)}, the
+     * expired value is kept until then and given to the reloader of {@link #get(Object, BiFunction)}.
+     * @param key The key.
+     */
+    public void expire(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry != null) {
+            entry.expired = true;
+        }
+    }
+
+    /**
+     * Expires all the values, like {@link #expire(Object)}.
+     */
+    public void expireAll() {
+        entries.values().forEach(entry -> entry.expired = true);
+    }
+
+    /**
+     * Removes the entries that have been idle for longer than the time-to-idle, so that the memory they hold is
+     * released without waiting for them to be evicted. Entries that only expired, by {@link #expire(Object)} or their
+     * time-to-live, are kept until they are next read, so their reloader is still given their expired value. Scans
+     * every entry.
+     */
+    public void cleanUp() {
+        long now = nanoClock.getAsLong();
+        entries.forEach((key, entry) -> {
+            if (now - entry.lastAccessNanos >= timeToIdleNanos) {
+                remove(key, entry);
+            }
+        });
+    }
+
+    /**
+     * @return The number of entries, including expired entries that were not evicted yet.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The total weight of the entries, including expired entries that were not evicted yet.
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * @return The number of lookups that found a value.
+     */
+    public long getHitCount() {
+        return hitCount.sum();
+    }
+
+    /**
+     * @return The number of lookups that had to load a value.
+     */
+    public long getMissCount() {
+        return missCount.sum();
+    }
+
+    /**
+     * @return The number of values loaded successfully.
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * @return The number of loads that failed.
+     */
+    public long getLoadFailureCount() {
+        return loadFailureCount.sum();
+    }
+
+    /**
+     * @return The fraction of lookups that found a value, or 1 if there were no lookups.
+     */
+    public double getHitRate() {
+        long hits = hitCount.sum();
+        long lookups = hits + missCount.sum();
+        return lookups == 0 ? 1.0 : (double) hits / lookups;
+    }
+
+    /**
+     * @return The number of entries evicted because the cache was full.
+     */
+    public long getEvictionCount() {
+        return evictionCount.sum();
+    }
+
+    private V lookup(K key) {
+        Entry<V> entry = entries.get(key);
+        long now = nanoClock.getAsLong();
+        if (entry == null || isStale(entry, now)) {
+            return null;
+        }
+        entry.lastAccessNanos = now;
+        return entry.value;
+    }
+
+    private boolean isStale(Entry<V> entry, long now) {
+        return entry.expired || now - entry.loadedAtNanos >= timeToLiveNanos
+                || now - entry.lastAccessNanos >= timeToIdleNanos;
+    }
+
+    private boolean remove(K key, Entry<V> entry) {
+        if (!entries.remove(key, entry)) {
+            return false;
+        }
+        weight.addAndGet(-entry.weight);
+        return true;
+    }
+
+    /**
+     * Evicts the least recently used entries until the cache is within its maximum size and weight again.
+     * A single scan evicts an extra tenth of the maximum size, so that a full cache does not scan on every put.
+     */
+    private synchronized void evictLeastRecentlyUsed() {
+        int excess = entries.size() - maximumSize;
+        if (excess <= 0 && weight.get() <= maximumWeight) {
+            return;
+        }
+        int evictions = excess > 0 ? excess + maximumSize / 10 : 0;
+
+        // the access times are copied first, as they keep changing while the candidates are sorted
+        long now = nanoClock.getAsLong();
+        List<Candidate<K, V>> candidates = new ArrayList<>(entries.size());
+        entries.forEach((key, entry) -> candidates.add(new Candidate<>(key, entry, now - entry.lastAccessNanos)));
+        candidates.sort(Comparator.comparingLong((Candidate<K, V> candidate) -> candidate.idleNanos).reversed());
+
+        for (Candidate<K, V> candidate : candidates) {
+            if (evictions <= 0 && weight.get() <= maximumWeight) {
+                break;
+            }
+            if (remove(candidate.key, candidate.entry)) {
+                evictionCount.increment();
+                evictions--;
+            }
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long weight;
+        private final long loadedAtNanos;
+        private volatile long lastAccessNanos;
+        private volatile boolean expired;
+
+        private Entry(V value, long weight, long loadedAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.loadedAtNanos = loadedAtNanos;
+            this.lastAccessNanos = loadedAtNanos;
+        }
+    }
+
+    private static final class Candidate<K, V> {
+        private final K key;
+        private final Entry<V> entry;
+        private final long idleNanos;
+
+        private Candidate(K key, Entry<V> entry, long idleNanos) {
+            this.key = key;
+            this.entry = entry;
+            this.idleNanos = idleNanos;
+        }
+    }
+}
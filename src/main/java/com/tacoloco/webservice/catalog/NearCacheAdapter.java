@@ -0,0 +1,66 @@
+package com.tacoloco.webservice.catalog;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} backed by a {@link NearCache}, so that {@code @Cacheable} caches keyed
+ * by client input, like the store ID, are bounded in size and expire like the other near-caches.
+ */
+public class NearCacheAdapter extends AbstractValueAdaptingCache {
+    private final String name;
+    private final NearCache<Object, Object> nearCache;
+
+    /**
+     * @param name The name of the cache.
+     * @param nearCache The {@link NearCache} holding the values.
+     */
+    public NearCacheAdapter(String name, NearCache<Object, Object> nearCache) {
+        super(true);
+        this.name = name;
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public NearCache<Object, Object> getNativeCache() {
+        return nearCache;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return nearCache.getIfPresent(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) fromStoreValue(nearCache.get(key, k -> {
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        nearCache.put(key, toStoreValue(value));
+    }
+
+    @Override
+    public void evict(Object key) {
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public void clear() {
+        nearCache.invalidateAll();
+    }
+}
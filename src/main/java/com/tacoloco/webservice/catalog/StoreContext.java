@@ -0,0 +1,75 @@
+package com.tacoloco.webservice.catalog;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.function.Supplier;
+
+/**
+ * Identifies the store a request is made for, from the {@value #STORE_ID_HEADER} header.
+ */
+public final class StoreContext {
+    /**
+     * The request header naming the store; requests without it are served the menu of the
+     * {@link CatalogSource#DEFAULT_STORE}.
+     */
+    public static final String STORE_ID_HEADER = "X-Store-Id";
+
+    /**
+     * The longest store ID, the length of the store ID column of the menu items.
+     */
+    public static final int MAXIMUM_STORE_ID_LENGTH = 255;
+
+    /**
+     * The store bound to the current thread by {@link #callWithStoreId(String, Supplier)}, for requests that are not
+     * servlet requests.
+     */
+    private static final ThreadLocal<String> BOUND_STORE_ID = new ThreadLocal<>();
+
+    private StoreContext() {
+    }
+
+    /**
+     * Reads the store of the servlet request bound to the current thread, or else the store bound by
+     * {@link #callWithStoreId(String, Supplier)}, for callers such as constraint validators that are not handed the
+     * request.
+     * @return The ID of the store, or null if the request does not name one or no request is being served.
+     */
+    public static String currentStoreId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes
+                ? ((ServletRequestAttributes) attributes).getRequest().getHeader(STORE_ID_HEADER)
+                : BOUND_STORE_ID.get();
+    }
+
+    /**
+     * Serves a request that is not a servlet request, e.g. on the reactive stack, with its store bound to the current
+     * thread, so {@link #currentStoreId()} returns it.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param call The work done for the request.
+     * @param <T> The type of the result.
+     * @return The result of the call.
+     */
+    public static <T> T callWithStoreId(String storeId, Supplier<T> call) {
+        String bound = BOUND_STORE_ID.get();
+        BOUND_STORE_ID.set(storeId);
+        try {
+            return call.get();
+        } finally {
+            if (bound == null) {
+                BOUND_STORE_ID.remove();
+            } else {
+                BOUND_STORE_ID.set(bound);
+            }
+        }
+    }
+
+    /**
+     * @param storeId The ID of a store, or null.
+     * @return The ID of the store, or {@link CatalogSource#DEFAULT_STORE} if it is null.
+     */
+    public static String orDefault(String storeId) {
+        return storeId == null ? CatalogSource.DEFAULT_STORE : storeId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tacoloco.webservice.catalog;
+
+/**
+ * Thrown when a {@link CatalogSource} has no menu for the requested store.
+ */
+public class UnknownStoreException extends RuntimeException {
+    private final String storeId;
+
+    /**
+     * @param storeId The ID of the store.
+     */
+    public UnknownStoreException(String storeId) {
+        super("Unknown store: " + storeId);
+        this.storeId = storeId;
+    }
+
+    /**
+     * @return The ID of the store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+}
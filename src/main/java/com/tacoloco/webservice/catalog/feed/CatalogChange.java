@@ -0,0 +1,42 @@
+package com.tacoloco.webservice.catalog.feed;
+
+/**
+ * A change of the menu of a store, or of every store, as published on the {@link CatalogChangeFeed}.
+ */
+public final class CatalogChange {
+    private final long sequence;
+    private final String storeId;
+    private final long publishedAtMillis;
+
+    /**
+     * @param sequence The position of the change in the feed, starting at 1 with no gaps.
+     * @param storeId The ID of the store, or null if the menu of every store changed.
+     * @param publishedAtMillis The wall-clock time the change was published, in milliseconds since the epoch.
+     */
+    public CatalogChange(long sequence, String storeId, long publishedAtMillis) {
+        this.sequence = sequence;
+        this.storeId = storeId;
+        this.publishedAtMillis = publishedAtMillis;
+    }
+
+    /**
+     * @return The position of the change in the feed, starting at 1 with no gaps.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return The ID of the store, or null if the menu of every store changed.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return The wall-clock time the change was published, in milliseconds since the epoch.
+     */
+    public long getPublishedAtMillis() {
+        return publishedAtMillis;
+    }
+}
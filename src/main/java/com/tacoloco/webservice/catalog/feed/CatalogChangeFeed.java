@@ -0,0 +1,38 @@
+package com.tacoloco.webservice.catalog.feed;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An ordered log of {@link CatalogChange}s shared by every instance of the service: an instance that changes a menu
+ * publishes it, and every instance reads the changes after the last one it applied and reloads those menus.
+ * <p>
+ * The feed keeps a bounded history; an instance that falls further behind sees a gap in the sequence numbers and has
+ * to reload every menu.
+ */
+public interface CatalogChangeFeed {
+
+    /**
+     * Appends a change to the feed.
+     * @param storeId The ID of the store, or null if the menu of every store changed.
+     * @return The published {@link CatalogChange}, with its sequence number.
+     * @throws IOException If the feed cannot be written.
+     */
+    CatalogChange publish(String storeId) throws IOException;
+
+    /**
+     * Reads the changes after a sequence number, in order.
+     * @param sequence The sequence number of the last change already applied, or 0 for none.
+     * @param maximumChanges The maximum number of changes to return.
+     * @return The retained changes after the sequence number; the first one is not {@code sequence + 1} if the
+     *         changes in between are no longer retained.
+     * @throws IOException If the feed cannot be read.
+     */
+    List<CatalogChange> readAfter(long sequence, int maximumChanges) throws IOException;
+
+    /**
+     * @return The sequence number of the last published change, or 0 if none was.
+     * @throws IOException If the feed cannot be read.
+     */
+    long getLatestSequence() throws IOException;
+}
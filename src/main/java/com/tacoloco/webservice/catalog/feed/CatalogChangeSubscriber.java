@@ -0,0 +1,182 @@
+package com.tacoloco.webservice.catalog.feed;
+
+import com.tacoloco.webservice.catalog.CatalogSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies the {@link CatalogChange}s published on the {@link CatalogChangeFeed} by any instance to this instance.
+ * <p>
+ * Every {@code tacoloco.catalog.feed.poll-interval} the changes after the last one applied are read and the menus
+ * they name are refreshed by the {@link CatalogSource}, which then publishes a
+ * {@link com.tacoloco.webservice.catalog.CatalogChangedEvent} evicting the caches derived from them. The feed is
+ * followed from its latest change when the instance starts, since nothing is cached yet. If the next change read does
+ * not follow the last one applied, e.g. after the instance could not read the feed for longer than its retention,
+ * every menu is refreshed instead.
+ * <p>
+ * How stale this instance may be is measured by:
+ * <ul>
+ *     <li>{@code tacoloco.catalog.feed.lag}: the changes published but not applied yet, as of the last poll,</li>
+ *     <li>{@code tacoloco.catalog.feed.staleness}: the seconds since the feed was last read successfully,</li>
+ *     <li>{@code tacoloco.catalog.feed.propagation}: the time from publishing a change to applying it here,</li>
+ *     <li>{@code tacoloco.catalog.feed.gaps}: the number of times changes were missed and every menu was refreshed.</li>
+ * </ul>
+ */
+@Component
+public class CatalogChangeSubscriber {
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogChangeSubscriber.class);
+
+    /**
+     * The maximum number of changes read at once; a poll reads until it has caught up.
+     */
+    private static final int MAXIMUM_CHANGES_PER_READ = 1000;
+
+    @Autowired
+    private CatalogChangeFeed feed;
+
+    @Autowired
+    private CatalogSource catalogSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${tacoloco.catalog.feed.poll-interval}")
+    private Duration pollInterval;
+
+    private volatile long appliedSequence;
+    private volatile long latestSequence;
+    private volatile long lastPollNanos = System.nanoTime();
+    private Timer propagation;
+    private Counter gaps;
+    private ScheduledExecutorService poller;
+
+    /**
+     * Starts following the feed from its latest change, polling it every poll interval.
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            appliedSequence = feed.getLatestSequence();
+        } catch (IOException e) {
+            // the changes the feed retains are applied once it can be read
+            LOGGER.warn("Could not read the catalog change feed", e);
+        }
+        latestSequence = appliedSequence;
+
+        propagation = Timer.builder("tacoloco.catalog.feed.propagation")
+                .description("Time from publishing a catalog change to applying it on this instance")
+                .register(meterRegistry);
+        gaps = Counter.builder("tacoloco.catalog.feed.gaps")
+                .description("Catalog changes missed, after which every menu was refreshed")
+                .register(meterRegistry);
+        Gauge.builder("tacoloco.catalog.feed.applied.sequence", this, CatalogChangeSubscriber::getAppliedSequence)
+                .description("Sequence number of the last catalog change applied")
+                .register(meterRegistry);
+        Gauge.builder("tacoloco.catalog.feed.lag", this, CatalogChangeSubscriber::getLag)
+                .description("Catalog changes published but not applied yet, as of the last poll")
+                .register(meterRegistry);
+        Gauge.builder("tacoloco.catalog.feed.staleness", this, CatalogChangeSubscriber::getStalenessSeconds)
+                .description("Time since the catalog change feed was last read")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-change-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollQuietly, pollInterval.toMillis(), pollInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads the changes published since the last one applied and refreshes the menus they name.
+     * @throws IOException If the feed cannot be read; the changes read before are applied.
+     */
+    public synchronized void poll() throws IOException {
+        long latest = feed.getLatestSequence();
+        latestSequence = Math.max(latest, appliedSequence);
+        if (latest < appliedSequence) {
+            // the feed was reset: every change of the new feed is unknown here
+            LOGGER.warn("The catalog change feed restarted at {} after change {}, refreshing every menu", latest,
+                    appliedSequence);
+            refreshAll(latest);
+        }
+        List<CatalogChange> changes;
+        do {
+            changes = feed.readAfter(appliedSequence, MAXIMUM_CHANGES_PER_READ);
+            if (!changes.isEmpty() && changes.get(0).getSequence() > appliedSequence + 1) {
+                LOGGER.warn("Catalog changes {} to {} are no longer in the feed, refreshing every menu",
+                        appliedSequence + 1, changes.get(0).getSequence() - 1);
+                refreshAll(changes.get(changes.size() - 1).getSequence());
+                changes = feed.readAfter(appliedSequence, MAXIMUM_CHANGES_PER_READ);
+            }
+            long now = System.currentTimeMillis();
+            for (CatalogChange change : changes) {
+                catalogSource.refresh(change.getStoreId());
+                appliedSequence = change.getSequence();
+                propagation.record(Math.max(0, now - change.getPublishedAtMillis()), TimeUnit.MILLISECONDS);
+            }
+        } while (changes.size() == MAXIMUM_CHANGES_PER_READ);
+        latestSequence = Math.max(latestSequence, appliedSequence);
+        lastPollNanos = System.nanoTime();
+    }
+
+    /**
+     * @return The sequence number of the last change applied.
+     */
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    /**
+     * @return The number of changes published but not applied yet, as of the last poll.
+     */
+    public long getLag() {
+        return latestSequence - appliedSequence;
+    }
+
+    /**
+     * @return The seconds since the feed was last read successfully.
+     */
+    public double getStalenessSeconds() {
+        return (System.nanoTime() - lastPollNanos) / 1e9;
+    }
+
+    private void refreshAll(long sequence) {
+        gaps.increment();
+        catalogSource.refresh(null);
+        appliedSequence = sequence;
+    }
+
+    private void pollQuietly() {
+        try {
+            poll();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not apply the catalog change feed", e);
+        }
+    }
+}
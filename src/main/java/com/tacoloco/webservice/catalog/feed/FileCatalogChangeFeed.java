@@ -0,0 +1,247 @@
+package com.tacoloco.webservice.catalog.feed;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link CatalogChangeFeed} appended to a file shared by the instances, e.g. on a network volume, for deployments
+ * without a message broker.
+ * <p>
+ * Each change is a line {@code sequence<TAB>storeId<TAB>publishedAtMillis}, where the store ID is URL-encoded and
+ * empty for every store. Publishers serialize on an exclusive lock of a {@code .lock} file next to the feed, read the
+ * last sequence number from the end of the file and append the next one. From twice {@code retention} changes on,
+ * the publisher of every change whose sequence number is a multiple of {@code retention} rewrites the file with the
+ * changes from {@code retention} before it and moves it over the old one, so the file holds at most about twice
+ * {@code retention} changes.
+ * <p>
+ * Readers remember the offset after the last change they read, so polling reads only the new lines; if the file was
+ * rewritten since, the line at that offset does not follow the last change read and the file is read from the start.
+ */
+public class FileCatalogChangeFeed implements CatalogChangeFeed {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileCatalogChangeFeed.class);
+    private static final char SEPARATOR = '\t';
+    /**
+     * Bytes first read from the end of the file to find its last line; more are read if they hold no complete line.
+     */
+    private static final int TAIL_SIZE = 4096;
+
+    private final Path path;
+    private final Path lockPath;
+    private final int retention;
+
+    private long readOffset;
+    private long readSequence;
+
+    /**
+     * @param path The feed file, created on the first publish.
+     * @param retention The number of changes kept when the file is compacted.
+     */
+    public FileCatalogChangeFeed(Path path, int retention) {
+        if (retention < 1) {
+            throw new IllegalArgumentException("The retention must be at least 1");
+        }
+        this.path = path;
+        this.lockPath = path.resolveSibling(path.getFileName() + ".lock");
+        this.retention = retention;
+    }
+
+    @Override
+    public synchronized CatalogChange publish(String storeId) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (FileChannel lockChannel = FileChannel.open(lockPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             FileLock lock = lockChannel.lock();
+             FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                     StandardOpenOption.WRITE)) {
+            CatalogChange last = readLast(channel);
+            CatalogChange change = new CatalogChange(last == null ? 1 : last.getSequence() + 1, storeId,
+                    System.currentTimeMillis());
+            long position = channel.size();
+            // a publisher that crashed may have left a partial line, which readers skip
+            String prefix = position > 0 && lastByte(channel) != '\n' ? "\n" : "";
+            ByteBuffer line = ByteBuffer.wrap((prefix + format(change)).getBytes(StandardCharsets.UTF_8));
+            while (line.hasRemaining()) {
+                position += channel.write(line, position);
+            }
+            channel.force(false);
+
+            if (change.getSequence() >= 2L * retention && change.getSequence() % retention == 0) {
+                try {
+                    compact(change.getSequence() - retention);
+                } catch (IOException e) {
+                    // the change is published; the file is compacted at the next multiple of the retention
+                    LOGGER.warn("Could not compact the catalog change feed {}", path, e);
+                }
+            }
+            return change;
+        }
+    }
+
+    @Override
+    public synchronized List<CatalogChange> readAfter(long sequence, int maximumChanges) throws IOException {
+        List<CatalogChange> changes = new ArrayList<>();
+        if (sequence != readSequence || !read(readOffset, sequence, maximumChanges, changes)) {
+            changes.clear();
+            readOffset = 0;
+            readSequence = 0;
+            read(0, sequence, maximumChanges, changes);
+        }
+        return changes;
+    }
+
+    @Override
+    public long getLatestSequence() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            CatalogChange last = readLast(channel);
+            return last == null ? 0 : last.getSequence();
+        } catch (NoSuchFileException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Reads the complete lines from an offset, remembering the offset after the last change read.
+     * @return Whether the lines continue from {@link #readSequence}; false if the file was rewritten or truncated.
+     */
+    private boolean read(long offset, long sequence, int maximumChanges, List<CatalogChange> changes)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (offset > channel.size()) {
+                return false;
+            }
+            channel.position(offset);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(Channels.newInputStream(channel),
+                    StandardCharsets.UTF_8));
+            boolean first = true;
+            String line;
+            while (changes.size() < maximumChanges && (line = reader.readLine()) != null) {
+                long lineOffset = offset;
+                offset += line.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (offset > channel.size()) {
+                    // a line being appended
+                    break;
+                }
+                CatalogChange change = parse(line);
+                if (first && lineOffset > 0 && (change == null || change.getSequence() != readSequence + 1)) {
+                    return false;
+                }
+                first = false;
+                if (change == null) {
+                    continue;
+                }
+                readOffset = offset;
+                readSequence = change.getSequence();
+                if (change.getSequence() > sequence) {
+                    changes.add(change);
+                }
+            }
+            return true;
+        } catch (NoSuchFileException e) {
+            return offset == 0;
+        }
+    }
+
+    /**
+     * Rewrites the file with the changes from a sequence number on, and moves it over the feed.
+     */
+    private void compact(long fromSequence) throws IOException {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compacted");
+        List<String> retained = new ArrayList<>(retention);
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            CatalogChange change = parse(line);
+            if (change != null && change.getSequence() >= fromSequence) {
+                retained.add(line);
+            }
+        }
+        Files.write(compacted, retained, StandardCharsets.UTF_8);
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static byte lastByte(FileChannel channel) throws IOException {
+        ByteBuffer last = ByteBuffer.allocate(1);
+        channel.read(last, channel.size() - 1);
+        return last.get(0);
+    }
+
+    /**
+     * Reads the last change of the file, reading twice as far back from its end each time the bytes read hold no
+     * complete change, so a long line never hides the last sequence number.
+     * @return The last change, or null if the file holds none.
+     */
+    private static CatalogChange readLast(FileChannel channel) throws IOException {
+        long size = channel.size();
+        for (long length = Math.min(size, TAIL_SIZE); ; length = Math.min(size, length * 2)) {
+            ByteBuffer tail = ByteBuffer.allocate((int) length);
+            while (tail.hasRemaining() && channel.read(tail, size - length + tail.position()) >= 0) {
+                // read fully
+            }
+            // unless the tail starts the file, its first line may be the end of a longer one
+            int firstLine = 0;
+            if (length < size) {
+                while (firstLine < length && tail.get(firstLine) != '\n') {
+                    firstLine++;
+                }
+                firstLine++;
+            }
+            if (firstLine < length) {
+                String[] lines = new String(tail.array(), firstLine, (int) length - firstLine,
+                        StandardCharsets.UTF_8).split("\n");
+                for (int i = lines.length - 1; i >= 0; i--) {
+                    CatalogChange change = parse(lines[i]);
+                    if (change != null) {
+                        return change;
+                    }
+                }
+            }
+            if (length == size) {
+                return null;
+            }
+        }
+    }
+
+    private static String format(CatalogChange change) {
+        String storeId = change.getStoreId() == null
+                ? "" : URLEncoder.encode(change.getStoreId(), StandardCharsets.UTF_8);
+        return change.getSequence() + String.valueOf(SEPARATOR) + storeId + SEPARATOR
+                + change.getPublishedAtMillis() + '\n';
+    }
+
+    /**
+     * @return The change of a line, or null if the line is not a complete change.
+     */
+    private static CatalogChange parse(String line) {
+        int storeStart = line.indexOf(SEPARATOR);
+        int timeStart = line.indexOf(SEPARATOR, storeStart + 1);
+        if (storeStart < 0 || timeStart < 0) {
+            return null;
+        }
+        try {
+            String storeId = line.substring(storeStart + 1, timeStart);
+            return new CatalogChange(Long.parseLong(line.substring(0, storeStart)),
+                    storeId.isEmpty() ? null : URLDecoder.decode(storeId, StandardCharsets.UTF_8),
+                    Long.parseLong(line.substring(timeStart + 1)));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
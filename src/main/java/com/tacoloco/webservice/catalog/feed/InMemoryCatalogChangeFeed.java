@@ -0,0 +1,54 @@
+package com.tacoloco.webservice.catalog.feed;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link CatalogChangeFeed} held in the memory of a single instance, which keeps the last {@code retention}
+ * changes. Used when the service runs as a single instance, and in tests.
+ */
+public class InMemoryCatalogChangeFeed implements CatalogChangeFeed {
+    private final int retention;
+    private final ArrayDeque<CatalogChange> changes = new ArrayDeque<>();
+    private long latestSequence;
+
+    /**
+     * @param retention The number of changes kept.
+     */
+    public InMemoryCatalogChangeFeed(int retention) {
+        if (retention < 1) {
+            throw new IllegalArgumentException("The retention must be at least 1");
+        }
+        this.retention = retention;
+    }
+
+    @Override
+    public synchronized CatalogChange publish(String storeId) {
+        CatalogChange change = new CatalogChange(++latestSequence, storeId, System.currentTimeMillis());
+        if (changes.size() == retention) {
+            changes.removeFirst();
+        }
+        changes.addLast(change);
+        return change;
+    }
+
+    @Override
+    public synchronized List<CatalogChange> readAfter(long sequence, int maximumChanges) {
+        List<CatalogChange> after = new ArrayList<>();
+        for (CatalogChange change : changes) {
+            if (after.size() == maximumChanges) {
+                break;
+            }
+            if (change.getSequence() > sequence) {
+                after.add(change);
+            }
+        }
+        return after;
+    }
+
+    @Override
+    public synchronized long getLatestSequence() {
+        return latestSequence;
+    }
+}
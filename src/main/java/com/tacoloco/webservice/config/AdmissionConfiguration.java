@@ -0,0 +1,47 @@
+package com.tacoloco.webservice.config;
+
+import com.tacoloco.webservice.admission.AdmissionControl;
+import com.tacoloco.webservice.admission.AdmissionFilter;
+import com.tacoloco.webservice.admission.ReactiveAdmissionFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+/**
+ * Configuration of the admission control of the order endpoints, on either web stack.
+ */
+@Configuration
+@ConditionalOnProperty(name = "tacoloco.admission.enabled", havingValue = "true")
+public class AdmissionConfiguration {
+
+    /**
+     * @param admissionControl The {@link AdmissionControl}.
+     * @return Registers the {@link AdmissionFilter} for the endpoints of the servlet order and cart controllers and for
+     * publishing catalog changes.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(AdmissionControl admissionControl) {
+        FilterRegistrationBean<AdmissionFilter> registration =
+                new FilterRegistrationBean<>(new AdmissionFilter(admissionControl));
+        registration.addUrlPatterns("/calculateTotal", "/calculateTotal/*", "/calculateTotals", "/calculateTotals/*",
+                "/orders", "/orders/*", "/carts", "/carts/*", "/catalog/changes");
+        return registration;
+    }
+
+    /**
+     * @param admissionControl The {@link AdmissionControl}.
+     * @return The {@link ReactiveAdmissionFilter} of the endpoints of the reactive order controller and of publishing
+     * catalog changes.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveAdmissionFilter reactiveAdmissionFilter(AdmissionControl admissionControl) {
+        return new ReactiveAdmissionFilter(admissionControl,
+                List.of("/calculateTotal", "/orders", "/catalog/changes"));
+    }
+}
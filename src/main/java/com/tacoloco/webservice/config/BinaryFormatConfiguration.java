@@ -0,0 +1,77 @@
+package com.tacoloco.webservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.metrics.TimedMappingJackson2CborHttpMessageConverter;
+import com.tacoloco.webservice.metrics.TimedMappingJackson2SmileHttpMessageConverter;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * Configuration of the binary formats the ordering API can be called with besides JSON: CBOR
+ * ({@code application/cbor}, servlet stack only) and Smile ({@code application/x-jackson-smile}), chosen with the
+ * {@code Content-Type} and {@code Accept} headers. The mappers are built by Spring Boot's {@link Jackson2ObjectMapperBuilder}, so they bind
+ * the same types the same way as the JSON one.
+ */
+@Configuration
+public class BinaryFormatConfiguration {
+    /**
+     * The media types of the Smile codecs, which would otherwise claim the JSON ones when given a mapper.
+     */
+    private static final MimeType[] SMILE_MIME_TYPES = {
+            new MimeType("application", "x-jackson-smile"), new MimeType("application", "*+x-jackson-smile")};
+
+    /**
+     * @param objectMapperBuilder Spring Boot's {@link Jackson2ObjectMapperBuilder}.
+     * @param orderMetrics The {@link OrderMetrics}.
+     * @return The CBOR converter of the servlet stack.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter mappingJackson2CborHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder, OrderMetrics orderMetrics) {
+        return new TimedMappingJackson2CborHttpMessageConverter(cborMapper(objectMapperBuilder), orderMetrics);
+    }
+
+    /**
+     * @param objectMapperBuilder Spring Boot's {@link Jackson2ObjectMapperBuilder}.
+     * @param orderMetrics The {@link OrderMetrics}.
+     * @return The Smile converter of the servlet stack.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter mappingJackson2SmileHttpMessageConverter(
+            Jackson2ObjectMapperBuilder objectMapperBuilder, OrderMetrics orderMetrics) {
+        return new TimedMappingJackson2SmileHttpMessageConverter(smileMapper(objectMapperBuilder), orderMetrics);
+    }
+
+    /**
+     * Configures the Smile codecs of the reactive stack with Spring Boot's mapper. CBOR is only served by the servlet
+     * stack: the reactive CBOR encoder cannot encode streams, and as a custom codec it would be chosen ahead of JSON.
+     * @param objectMapperBuilder Spring Boot's {@link Jackson2ObjectMapperBuilder}.
+     * @return The {@link CodecCustomizer}.
+     */
+    @Bean
+    public CodecCustomizer smileCodecCustomizer(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        ObjectMapper smileMapper = smileMapper(objectMapperBuilder);
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+        };
+    }
+
+    private static ObjectMapper cborMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return objectMapperBuilder.factory(new CBORFactory()).build();
+    }
+
+    private static ObjectMapper smileMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        return objectMapperBuilder.factory(new SmileFactory()).build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.tacoloco.webservice.config;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.MenuSearchIndex;
+import com.tacoloco.webservice.catalog.NearCache;
+import com.tacoloco.webservice.catalog.feed.CatalogChangeFeed;
+import com.tacoloco.webservice.catalog.feed.FileCatalogChangeFeed;
+import com.tacoloco.webservice.catalog.feed.InMemoryCatalogChangeFeed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the menu catalog.
+ */
+@Configuration
+public class CatalogConfiguration {
+
+    /**
+     * The near-cache of the {@link MenuCatalog}s loaded from the database, weighed by their estimated size.
+     * @param maximumSize The maximum number of stores whose catalogs are kept in memory.
+     * @param maximumWeight The memory budget of the catalogs.
+     * @param timeToLive How long a catalog is served before it is reloaded from the database.
+     * @param timeToIdle How long the catalog of a store that takes no orders is kept in memory.
+     * @return The {@link NearCache} keyed by store ID.
+     */
+    @Bean
+    public NearCache<String, MenuCatalog> catalogCache(
+            @Value("${tacoloco.catalog.cache.maximum-size}") int maximumSize,
+            @Value("${tacoloco.catalog.cache.maximum-weight}") DataSize maximumWeight,
+            @Value("${tacoloco.catalog.cache.time-to-live}") Duration timeToLive,
+            @Value("${tacoloco.catalog.cache.time-to-idle}") Duration timeToIdle) {
+        return new NearCache<>(maximumSize, maximumWeight.toBytes(), MenuCatalog::estimateSizeInBytes, timeToLive,
+                timeToIdle, System::nanoTime);
+    }
+
+    /**
+     * The near-cache of the {@link MenuSearchIndex}es of the stores' menus, weighed by their estimated size. Indexes
+     * do not expire with age: they are updated when a new version of their catalog is searched.
+     * @param maximumSize The maximum number of stores whose indexes are kept in memory.
+     * @param maximumWeight The memory budget of the indexes.
+     * @param timeToIdle How long the index of a store that is not searched is kept in memory.
+     * @return The {@link NearCache} keyed by store ID.
+     */
+    @Bean
+    public NearCache<String, MenuSearchIndex> menuSearchIndexCache(
+            @Value("${tacoloco.catalog.search.cache.maximum-size}") int maximumSize,
+            @Value("${tacoloco.catalog.search.cache.maximum-weight}") DataSize maximumWeight,
+            @Value("${tacoloco.catalog.search.cache.time-to-idle}") Duration timeToIdle) {
+        return new NearCache<>(maximumSize, maximumWeight.toBytes(), MenuSearchIndex::estimateSizeInBytes,
+                Duration.ofNanos(Long.MAX_VALUE), timeToIdle, System::nanoTime);
+    }
+
+    /**
+     * The catalog change feed shared by the instances through a file, when {@code tacoloco.catalog.feed.transport}
+     * is {@code file}.
+     * @param path The feed file, e.g. on a volume mounted by every instance.
+     * @param retention The number of changes kept when the file is compacted.
+     * @return The {@link FileCatalogChangeFeed}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tacoloco.catalog.feed.transport", havingValue = "file")
+    public CatalogChangeFeed fileCatalogChangeFeed(
+            @Value("${tacoloco.catalog.feed.file.path}") Path path,
+            @Value("${tacoloco.catalog.feed.retention}") int retention) {
+        return new FileCatalogChangeFeed(path, retention);
+    }
+
+    /**
+     * The catalog change feed held in memory, which only reaches this instance, when
+     * {@code tacoloco.catalog.feed.transport} is {@code memory}. Another transport, e.g. a message broker, is plugged
+     * in by naming it in that property and defining its {@link CatalogChangeFeed} bean.
+     * @param retention The number of changes kept.
+     * @return The {@link InMemoryCatalogChangeFeed}.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tacoloco.catalog.feed.transport", havingValue = "memory", matchIfMissing = true)
+    public CatalogChangeFeed catalogChangeFeed(@Value("${tacoloco.catalog.feed.retention}") int retention) {
+        return new InMemoryCatalogChangeFeed(retention);
+    }
+}
@@ -0,0 +1,34 @@
+package com.tacoloco.webservice.config;
+
+import com.tacoloco.webservice.journal.OrderJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Configuration of the journal of submitted orders.
+ */
+@Configuration
+public class JournalConfiguration {
+
+    /**
+     * The journal of submitted orders, recovered from its directory on startup.
+     * @param directory The directory of the segment files.
+     * @param segmentSize The size of every segment file.
+     * @param appendTimeout How long a submitted order waits to be durable.
+     * @return The {@link OrderJournal}.
+     * @throws IOException if the journal cannot be opened.
+     */
+    @Bean(destroyMethod = "close")
+    public OrderJournal orderJournal(@Value("${tacoloco.journal.directory}") Path directory,
+                                     @Value("${tacoloco.journal.segment-size}") DataSize segmentSize,
+                                     @Value("${tacoloco.journal.append-timeout}") Duration appendTimeout)
+            throws IOException {
+        return new OrderJournal(directory, Math.toIntExact(segmentSize.toBytes()), appendTimeout);
+    }
+}
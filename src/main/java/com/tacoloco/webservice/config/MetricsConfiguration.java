@@ -0,0 +1,205 @@
+package com.tacoloco.webservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tacoloco.webservice.admission.AdmissionControl;
+import com.tacoloco.webservice.admission.AdaptiveConcurrencyLimit;
+import com.tacoloco.webservice.catalog.CatalogHistory;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.MenuSearchIndex;
+import com.tacoloco.webservice.catalog.NearCache;
+import com.tacoloco.webservice.catalog.NearCacheAdapter;
+import com.tacoloco.webservice.journal.OrderJournal;
+import com.tacoloco.webservice.metrics.CountingCache;
+import com.tacoloco.webservice.metrics.CountingCacheMetrics;
+import com.tacoloco.webservice.metrics.NearCacheMetrics;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.metrics.RequestTimingFilter;
+import com.tacoloco.webservice.metrics.TimedMappingJackson2HttpMessageConverter;
+import com.tacoloco.webservice.service.CartSessionService;
+import com.tacoloco.webservice.service.PricingResultCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration of the Micrometer metrics.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    /**
+     * The JSON converter, timing request and response bodies as the deserialization and serialization phases.
+     * @param objectMapper The {@link ObjectMapper} configured by Spring Boot.
+     * @param orderMetrics The {@link OrderMetrics}.
+     * @return The {@link MappingJackson2HttpMessageConverter}.
+     */
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                                   OrderMetrics orderMetrics) {
+        return new TimedMappingJackson2HttpMessageConverter(objectMapper, orderMetrics);
+    }
+
+    /**
+     * @param serverTiming Whether to add the {@code Server-Timing} header, from {@code tacoloco.timing.server-timing}.
+     * @return Registers the {@link RequestTimingFilter} for the endpoints of the servlet order controller.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(
+            @Value("${tacoloco.timing.server-timing}") boolean serverTiming) {
+        FilterRegistrationBean<RequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTimingFilter(serverTiming));
+        registration.addUrlPatterns("/calculateTotal", "/calculateTotal/*", "/calculateTotals", "/calculateTotals/*",
+                "/orders", "/orders/*");
+        return registration;
+    }
+
+    /**
+     * The cache manager of the {@code @Cacheable} caches, counting hits and misses. The caches are created at startup
+     * so their meters are bound with the other caches. They are keyed by store ID, so they are bounded and expire like
+     * the menus they are derived from.
+     * @param maximumSize The maximum number of stores, from {@code tacoloco.catalog.cache.maximum-size}.
+     * @param timeToLive From {@code tacoloco.catalog.cache.time-to-live}.
+     * @param timeToIdle From {@code tacoloco.catalog.cache.time-to-idle}.
+     * @return The {@link CacheManager}.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${tacoloco.catalog.cache.maximum-size}") int maximumSize,
+                                     @Value("${tacoloco.catalog.cache.time-to-live}") Duration timeToLive,
+                                     @Value("${tacoloco.catalog.cache.time-to-idle}") Duration timeToIdle) {
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager() {
+            @Override
+            protected Cache createConcurrentMapCache(String name) {
+                return new CountingCache(new NearCacheAdapter(name, new NearCache<>(maximumSize, Long.MAX_VALUE,
+                        value -> 0, timeToLive, timeToIdle, System::nanoTime)));
+            }
+        };
+        cacheManager.setCacheNames(List.of("items"));
+        return cacheManager;
+    }
+
+    /**
+     * @return Binds the {@link CountingCache}s of the {@link CacheManager} as {@code cache.*} meters.
+     */
+    @Bean
+    public CacheMeterBinderProvider<CountingCache> countingCacheMeterBinderProvider() {
+        return CountingCacheMetrics::new;
+    }
+
+    /**
+     * @param catalogCache The near-cache of the {@link MenuCatalog}s.
+     * @return Binds the catalog near-cache as {@code cache.*} meters.
+     */
+    @Bean
+    public MeterBinder catalogCacheMetrics(NearCache<String, MenuCatalog> catalogCache) {
+        return new NearCacheMetrics(catalogCache, "catalog", Tags.empty());
+    }
+
+    /**
+     * @param menuSearchIndexCache The near-cache of the {@link MenuSearchIndex}es.
+     * @return Binds the menu search index near-cache as {@code cache.*} meters.
+     */
+    @Bean
+    public MeterBinder menuSearchIndexCacheMetrics(NearCache<String, MenuSearchIndex> menuSearchIndexCache) {
+        return new NearCacheMetrics(menuSearchIndexCache, "menu-search", Tags.empty());
+    }
+
+    /**
+     * @param catalogHistory The {@link CatalogHistory}.
+     * @return Binds the number and the estimated size of the menu versions kept for pricing orders at an earlier time.
+     */
+    @Bean
+    public MeterBinder catalogHistoryMetrics(CatalogHistory catalogHistory) {
+        return registry -> {
+            Gauge.builder("tacoloco.catalog.history.versions", catalogHistory, CatalogHistory::getVersionCount)
+                    .description("Menu versions kept in the catalog history")
+                    .register(registry);
+            Gauge.builder("tacoloco.catalog.history.size", catalogHistory, CatalogHistory::estimateSizeInBytes)
+                    .description("Estimated memory held by the catalog history")
+                    .baseUnit("bytes")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param orderJournal The {@link OrderJournal}.
+     * @return Binds the orders appended to the journal and the group commits they were forced to disk with.
+     */
+    @Bean
+    public MeterBinder orderJournalMetrics(OrderJournal orderJournal) {
+        return registry -> {
+            FunctionCounter.builder("tacoloco.journal.appends", orderJournal, OrderJournal::getAppendCount)
+                    .description("Orders appended to the journal")
+                    .register(registry);
+            FunctionCounter.builder("tacoloco.journal.commits", orderJournal, OrderJournal::getCommitCount)
+                    .description("Batches of orders forced to disk")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * @param pricingResultCache The {@link PricingResultCache}.
+     * @return Binds the cached order totals as {@code cache.*} meters.
+     */
+    @Bean
+    public MeterBinder pricingResultCacheMetrics(PricingResultCache pricingResultCache) {
+        return registry -> new NearCacheMetrics(pricingResultCache.getTotals(), "totals", Tags.empty())
+                .bindTo(registry);
+    }
+
+    /**
+     * @param cartSessionService The {@link CartSessionService}.
+     * @return Binds the cart sessions as {@code cache.*} meters.
+     */
+    @Bean
+    public MeterBinder cartSessionMetrics(CartSessionService cartSessionService) {
+        return registry -> new NearCacheMetrics(cartSessionService.getSessions(), "carts", Tags.empty())
+                .bindTo(registry);
+    }
+
+    /**
+     * @param admissionControl The {@link AdmissionControl}.
+     * @return Binds the rejected requests by reason, the adaptive concurrency limit, the requests in flight and the
+     * token buckets of the clients as {@code cache.*} meters.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "tacoloco.admission.enabled", havingValue = "true")
+    public MeterBinder admissionMetrics(AdmissionControl admissionControl) {
+        return registry -> {
+            FunctionCounter.builder("tacoloco.admission.rejections", admissionControl,
+                    AdmissionControl::getRateLimitedCount)
+                    .description("Requests rejected before being served")
+                    .tag("reason", "rate_limit")
+                    .register(registry);
+            FunctionCounter.builder("tacoloco.admission.rejections", admissionControl,
+                    AdmissionControl::getOverConcurrencyLimitCount)
+                    .description("Requests rejected before being served")
+                    .tag("reason", "concurrency_limit")
+                    .register(registry);
+            Gauge.builder("tacoloco.admission.concurrency.limit", admissionControl.getConcurrencyLimit(),
+                    AdaptiveConcurrencyLimit::getLimit)
+                    .description("Requests that can be served at once, adapted to their latency")
+                    .register(registry);
+            Gauge.builder("tacoloco.admission.in.flight", admissionControl.getConcurrencyLimit(),
+                    AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Admitted requests being served")
+                    .register(registry);
+            new NearCacheMetrics(admissionControl.getTokenBuckets(), "clients", Tags.empty()).bindTo(registry);
+        };
+    }
+}
@@ -0,0 +1,85 @@
+package com.tacoloco.webservice.config;
+
+import com.tacoloco.webservice.pricing.PricingRulesProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration of the pricing of orders.
+ */
+@Configuration
+@EnableConfigurationProperties(PricingRulesProperties.class)
+public class PricingConfiguration {
+
+    /**
+     * The clock that time-of-day pricing rules are evaluated with.
+     * @param pricingRulesProperties The {@link PricingRulesProperties} with the time zone of the rules.
+     * @return The {@link Clock}.
+     */
+    @Bean
+    public Clock pricingClock(PricingRulesProperties pricingRulesProperties) {
+        return pricingRulesProperties.getZone() == null
+                ? Clock.systemDefaultZone() : Clock.system(ZoneId.of(pricingRulesProperties.getZone()));
+    }
+
+    /**
+     * The fork/join pool that prices the carts of a batch in parallel.
+     * @param parallelism The number of pricing threads, or 0 to use one per available processor.
+     * @return The {@link ForkJoinPool}.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool batchPricingPool(@Value("${tacoloco.batch.parallelism}") int parallelism) {
+        return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The threads writing the streamed {@code /calculateTotals} responses. The batch pricing pool is an
+     * {@link java.util.concurrent.Executor} bean, so Spring MVC would otherwise fall back to a thread per response.
+     * @param threads The number of threads.
+     * @param queueCapacity The number of responses waiting for a thread before the next ones are rejected.
+     * @return The {@link ThreadPoolTaskExecutor}.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public ThreadPoolTaskExecutor batchResponseExecutor(
+            @Value("${tacoloco.batch.response-threads}") int threads,
+            @Value("${tacoloco.batch.response-queue-capacity}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("batch-response-");
+        return executor;
+    }
+
+    /**
+     * Writes the asynchronous responses with the {@code batchResponseExecutor}, timing them out a little after the
+     * batch itself.
+     * @param batchResponseExecutor The {@link ThreadPoolTaskExecutor} of the streamed responses.
+     * @param timeout The time a batch is priced within.
+     * @return The {@link WebMvcConfigurer}.
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public WebMvcConfigurer batchResponseConfigurer(ThreadPoolTaskExecutor batchResponseExecutor,
+                                                    @Value("${tacoloco.batch.timeout}") Duration timeout) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(batchResponseExecutor);
+                configurer.setDefaultTimeout(timeout.plusSeconds(5).toMillis());
+            }
+        };
+    }
+}
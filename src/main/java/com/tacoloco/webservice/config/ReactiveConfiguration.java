@@ -0,0 +1,24 @@
+package com.tacoloco.webservice.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the {@code reactive} profile.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveConfiguration {
+
+    /**
+     * Serves the reactive stack with Netty. Tomcat is on the classpath for the servlet stack, and Spring Boot would
+     * otherwise prefer it for the reactive stack too.
+     * @return The {@link NettyReactiveWebServerFactory}.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,49 @@
+package com.tacoloco.webservice.config;
+
+import com.tacoloco.webservice.catalog.FileCatalogSource;
+import com.tacoloco.webservice.catalog.feed.CatalogChangeSubscriber;
+import com.tacoloco.webservice.journal.OrderJournal;
+import com.tacoloco.webservice.sales.SalesCounters;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Configuration of the startup of the application.
+ */
+@Configuration
+public class StartupConfiguration {
+
+    @Value("${tacoloco.startup.exit-when-ready}")
+    private boolean exitWhenReady;
+
+    /**
+     * Keeps the beans that must start with the application eager when the {@code fast-startup} profile turns on lazy
+     * initialization: the order journal recovers a torn record when it is opened, the sales counters start their
+     * windows, the file catalog source starts watching the menu file and the catalog change subscriber starts polling
+     * the change feed.
+     * @return The {@link LazyInitializationExcludeFilter}.
+     */
+    @Bean
+    public static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(OrderJournal.class, SalesCounters.class,
+                FileCatalogSource.class, CatalogChangeSubscriber.class);
+    }
+
+    /**
+     * Exits as soon as the application is ready if {@code tacoloco.startup.exit-when-ready} is set, which the
+     * {@code cds} build profile uses to record the classes loaded by a startup and warm-up in a class data sharing
+     * archive.
+     * @param event The {@link ApplicationReadyEvent}.
+     */
+    @EventListener
+    public void onApplicationReady(ApplicationReadyEvent event) {
+        if (exitWhenReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+}
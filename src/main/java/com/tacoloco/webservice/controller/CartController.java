@@ -0,0 +1,95 @@
+package com.tacoloco.webservice.controller;
+
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.model.CartSessionResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.service.CartSessionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for the carts kept on the server while a customer builds an order, item by item, with the totals of the
+ * cart returned after every change. A cart is priced with the menu of the store named by the
+ * {@value StoreContext#STORE_ID_HEADER} header when it is created, or of the default store without it.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/carts")
+public class CartController {
+
+    @Autowired
+    private CartSessionService cartSessionService;
+
+    /**
+     * Creates an empty cart.
+     * @param storeId The ID of the store, or null for the default store.
+     * @return The {@link CartSessionResponse} of the cart, with its location.
+     */
+    @PostMapping
+    public ResponseEntity<Object> create(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId) {
+        return cartSessionService.create(storeId);
+    }
+
+    /**
+     * @param cartId The ID of the cart.
+     * @return The {@link CartSessionResponse} with the items and totals of the cart.
+     */
+    @GetMapping("/{cartId}")
+    public ResponseEntity<Object> getCart(@PathVariable String cartId) {
+        return cartSessionService.getCart(cartId);
+    }
+
+    /**
+     * Adds units of an item to the cart.
+     * @param cartId The ID of the cart.
+     * @param orderItem The {@link OrderItem} with the units to add.
+     * @return The {@link CartSessionResponse} with the totals of the cart.
+     */
+    @PostMapping("/{cartId}/items")
+    public ResponseEntity<Object> addItem(@PathVariable String cartId, @RequestBody OrderItem orderItem) {
+        return cartSessionService.addItem(cartId, orderItem);
+    }
+
+    /**
+     * Sets the units of an item in the cart.
+     * @param cartId The ID of the cart.
+     * @param orderItem The {@link OrderItem} with the new units.
+     * @return The {@link CartSessionResponse} with the totals of the cart.
+     */
+    @PutMapping("/{cartId}/items")
+    public ResponseEntity<Object> setItem(@PathVariable String cartId, @RequestBody OrderItem orderItem) {
+        return cartSessionService.setItem(cartId, orderItem);
+    }
+
+    /**
+     * Removes an item from the cart.
+     * @param cartId The ID of the cart.
+     * @param itemName The name of the item.
+     * @return The {@link CartSessionResponse} with the totals of the cart.
+     */
+    @DeleteMapping("/{cartId}/items/{itemName}")
+    public ResponseEntity<Object> removeItem(@PathVariable String cartId, @PathVariable String itemName) {
+        return cartSessionService.removeItem(cartId, itemName);
+    }
+
+    /**
+     * Drops the cart.
+     * @param cartId The ID of the cart.
+     * @return No Content.
+     */
+    @DeleteMapping("/{cartId}")
+    public ResponseEntity<Object> deleteCart(@PathVariable String cartId) {
+        return cartSessionService.deleteCart(cartId);
+    }
+}
@@ -0,0 +1,35 @@
+package com.tacoloco.webservice.controller;
+
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.catalog.feed.CatalogChange;
+import com.tacoloco.webservice.service.CatalogChangeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller for announcing changes of the menu catalog to every instance.
+ */
+@RestController
+public class CatalogController {
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    /**
+     * Announces that the menu of the store named by the {@value StoreContext#STORE_ID_HEADER} header, or of every
+     * store without it, was changed in the database, so every instance reloads it. The admin key must be sent in the
+     * {@value CatalogChangeService#ADMIN_KEY_HEADER} header.
+     * @param adminKey The admin key, or null if none was sent.
+     * @param storeId The ID of the store, or null for every store.
+     * @return The published {@link CatalogChange}, with status Accepted, or Forbidden without the admin key.
+     */
+    @PostMapping("/catalog/changes")
+    public ResponseEntity<Object> publishChange(
+            @RequestHeader(value = CatalogChangeService.ADMIN_KEY_HEADER, required = false) String adminKey,
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId) {
+        return catalogChangeService.publishChange(adminKey, storeId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.tacoloco.webservice.controller;
+
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.model.MenuSearchResult;
+import com.tacoloco.webservice.service.MenuSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Controller for browsing the menu of a store, named by the {@value StoreContext#STORE_ID_HEADER} header, or of the
+ * default store without it.
+ */
+@RestController
+@Validated
+public class MenuController {
+
+    @Autowired
+    private MenuSearchService menuSearchService;
+
+    /**
+     * Searches the menu items by name for autocompletion: the items starting with the query first, then the items
+     * with words starting with the query words, then, if too few were found, the items matching them despite a typo.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param query The query; without it every item is returned in name order.
+     * @param limit The maximum number of items returned.
+     * @return The matching items and their prices, best first.
+     */
+    @GetMapping("/menu/search")
+    public ResponseEntity<List<MenuSearchResult>> search(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId,
+            @RequestParam(value = "q", defaultValue = "") @Size(max = 100) String query,
+            @RequestParam(value = "limit", defaultValue = "10") @Min(1) @Max(100) int limit) {
+        return menuSearchService.search(storeId, query, limit);
+    }
+}
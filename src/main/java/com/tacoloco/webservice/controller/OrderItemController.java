@@ -1,36 +1,141 @@
 package com.tacoloco.webservice.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.StoreContext;
 import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.Cart;
+import com.tacoloco.webservice.model.CartTotalResponse;
 import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.model.OrderReceipt;
+import com.tacoloco.webservice.service.BatchOrderService;
 import com.tacoloco.webservice.service.OrderItemService;
+import com.tacoloco.webservice.service.OrderSubmissionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
 import java.util.List;
 
 /**
  * Controller for operating on the restaurant's order items
+ * Served by the blocking servlet stack; see {@link ReactiveOrderItemController} for the non-blocking mode.
+ * Orders are priced against the menu of the store named by the {@value StoreContext#STORE_ID_HEADER} header, or of the
+ * default store without it.
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Validated
 @RequestMapping("/")
 public class OrderItemController {
 
+    /**
+     * The media type of newline-delimited JSON.
+     */
+    private static final String NDJSON_VALUE = "application/x-ndjson";
+
     @Autowired
     private OrderItemService orderItemService;
 
+    @Autowired
+    private BatchOrderService batchOrderService;
+
+    @Autowired
+    private OrderSubmissionService orderSubmissionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Calculates the total price for the given {@link OrderItem}s.
+     * The items are validated by {@link OrderItemService#calculateTotal(String, List)} in the same pass that prices
+     * them, and an invalid order is answered without going through an exception.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param pricedAt The ISO-8601 time to price the order at, e.g. the time it was placed to refund it, or null for
+     * now.
      * @param orders List of {@link OrderItem}s whose total needs to be calculated.
-     * @return {@link CalculateTotalResponse} containing the calculated total.
+     * @return {@link CalculateTotalResponse} containing the calculated total, or the
+     * {@link com.tacoloco.webservice.model.ApiError} of an invalid order.
      */
     @PostMapping("/calculateTotal")
     public @ResponseBody
-    ResponseEntity<CalculateTotalResponse> calculateTotal(@RequestBody @NotEmpty @Valid List<OrderItem> orders) {
-        return orderItemService.calculateTotal(orders);
+    ResponseEntity<Object> calculateTotal(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId,
+            @RequestParam(value = "pricedAt", required = false) Instant pricedAt,
+            @RequestBody @NotEmpty List<OrderItem> orders) {
+        return orderItemService.calculateTotal(storeId, orders, pricedAt);
+    }
+
+    /**
+     * Calculates the total price for the {@link OrderItem}s in the request body without binding them to a List.
+     * The JSON is read token by token, so memory stays constant for very large orders and the request is rejected as
+     * soon as an invalid item is read.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param body The request body containing the JSON array of {@link OrderItem}s.
+     * @return {@link CalculateTotalResponse} containing the calculated total.
+     * @throws IOException if the request body cannot be read.
+     */
+    @PostMapping(value = "/calculateTotal/stream", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public @ResponseBody
+    ResponseEntity<CalculateTotalResponse> calculateTotalStreaming(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId, InputStream body)
+            throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            return orderItemService.calculateTotal(storeId, parser);
+        }
+    }
+
+    /**
+     * Calculates the total price of each of the given {@link Cart}s, in parallel.
+     * The results are streamed back as newline-delimited JSON in the order the carts complete; a cart that is not
+     * valid is reported with its validation errors without failing the rest of the batch. The menu of the store is
+     * resolved before the response starts, so an unknown store is still reported as an error response.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param carts List of {@link Cart}s whose totals need to be calculated.
+     * @return One {@link CartTotalResponse} per line.
+     */
+    @PostMapping(value = "/calculateTotals", produces = NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> calculateTotals(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId,
+            @RequestBody @NotEmpty List<Cart> carts) {
+        MenuCatalog catalog = orderItemService.findCatalog(storeId);
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            batchOrderService.calculateTotals(storeId, catalog, carts, cartTotal -> {
+                objectMapper.writeValue(generator, cartTotal);
+                generator.writeRaw('\n');
+                generator.flush();
+            });
+            generator.close();
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON_VALUE)).body(body);
+    }
+
+    /**
+     * Submits an order: the {@link OrderItem}s are validated and priced like in
+     * {@link #calculateTotal(String, Instant, List)},
+     * and the priced order is recorded in the order journal before the response is sent.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param orders List of {@link OrderItem}s ordered.
+     * @return {@link OrderReceipt} containing the ID and the total of the order.
+     * @throws IOException if the order could not be journaled.
+     */
+    @PostMapping("/orders")
+    public @ResponseBody
+    ResponseEntity<OrderReceipt> submitOrder(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId,
+            @RequestBody @NotEmpty List<OrderItem> orders) throws IOException {
+        return orderSubmissionService.submitOrder(storeId, orders);
     }
 }
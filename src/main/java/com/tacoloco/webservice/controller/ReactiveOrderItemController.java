@@ -0,0 +1,62 @@
+package com.tacoloco.webservice.controller;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.service.OrderItemService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.constraints.NotEmpty;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Controller for operating on the restaurant's order items on the non-blocking WebFlux stack, enabled by the
+ * {@code reactive} profile.
+ * The request body is read without holding a thread. An order for a store whose menu is in memory is priced on the
+ * event loop once it has arrived; when the menu has to be loaded first, e.g. from the database after it expired, for a
+ * store that was not asked for lately or for a store that does not exist, or when the order is priced at a past time,
+ * the order is priced on the bounded elastic scheduler instead, so the event loop never waits on the database or on
+ * another load of the same menu.
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Validated
+@RequestMapping("/")
+public class ReactiveOrderItemController {
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    /**
+     * Calculates the total price for the given {@link OrderItem}s, with the same contract as
+     * {@link OrderItemController#calculateTotal(String, Instant, List)}.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param pricedAt The ISO-8601 time to price the order at, or null for now.
+     * @param orders List of {@link OrderItem}s whose total needs to be calculated.
+     * @return {@link CalculateTotalResponse} containing the calculated total, or the
+     * {@link com.tacoloco.webservice.model.ApiError} of an invalid order.
+     */
+    @PostMapping("/calculateTotal")
+    public @ResponseBody
+    Mono<ResponseEntity<Object>> calculateTotal(
+            @RequestHeader(value = StoreContext.STORE_ID_HEADER, required = false) String storeId,
+            @RequestParam(value = "pricedAt", required = false) Instant pricedAt,
+            @RequestBody @NotEmpty List<OrderItem> orders) {
+        MenuCatalog catalog = pricedAt == null ? orderItemService.findCatalogIfLoaded(storeId) : null;
+        if (catalog != null) {
+            return Mono.just(StoreContext.callWithStoreId(storeId,
+                    () -> orderItemService.calculateTotal(storeId, catalog, orders)));
+        }
+        return Mono.fromCallable(() -> StoreContext.callWithStoreId(storeId,
+                        () -> orderItemService.calculateTotal(storeId, orders, pricedAt)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+}
@@ -0,0 +1,29 @@
+package com.tacoloco.webservice.controller;
+
+import com.tacoloco.webservice.model.ItemSales;
+import com.tacoloco.webservice.service.SalesService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controller for the live sales of the menu items.
+ */
+@RestController
+public class SalesController {
+
+    @Autowired
+    private SalesService salesService;
+
+    /**
+     * Returns the units sold and the revenue of every menu item over the last minute, hour and day.
+     * @return The {@link ItemSales} of every item.
+     */
+    @GetMapping("/sales")
+    public ResponseEntity<List<ItemSales>> getSales() {
+        return salesService.getSales();
+    }
+}
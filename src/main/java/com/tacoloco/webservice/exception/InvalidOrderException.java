@@ -0,0 +1,25 @@
+package com.tacoloco.webservice.exception;
+
+import java.util.List;
+
+/**
+ * Thrown when the {@link com.tacoloco.webservice.model.OrderItem}s of an order fail validation while being priced.
+ */
+public class InvalidOrderException extends RuntimeException {
+    private final List<String> errors;
+
+    /**
+     * @param errors The List of errors that indicates the actual values which failed validation.
+     */
+    public InvalidOrderException(List<String> errors) {
+        super("The order is not valid: " + errors);
+        this.errors = errors;
+    }
+
+    /**
+     * @return The List of errors that indicates the actual values which failed validation.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
@@ -1,12 +1,16 @@
 package com.tacoloco.webservice.exception;
 
+import com.tacoloco.webservice.catalog.CatalogVersionNotFoundException;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.catalog.UnknownStoreException;
+import com.tacoloco.webservice.metrics.OrderMetrics;
 import com.tacoloco.webservice.model.ApiError;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
-import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.ConstraintViolationException;
@@ -14,28 +18,80 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Exception handler for {@link com.tacoloco.webservice.controller.OrderItemController}.
+ * Exception handler for {@link com.tacoloco.webservice.controller.OrderItemController} and
+ * {@link com.tacoloco.webservice.controller.ReactiveOrderItemController}; the handlers only take the exception so they
+ * work on both the servlet and the reactive stack.
  */
 @ControllerAdvice
 public final class OrderItemExceptionHandler {
+    @Autowired
+    private OrderMetrics orderMetrics;
+
         /**
          * Handles constraints associated to {@link ConstraintViolationException}.
          * @param constraintViolationException The {@link ConstraintViolationException} that is thrown by the controller.
-         * @param request The {@link WebRequest} that is passed to the rest controller.
          * @return The error {@link ResponseEntity} for the constraint exception.
          */
     @ExceptionHandler({ConstraintViolationException.class})
     public ResponseEntity<Object> handleConstraintViolation(
-            ConstraintViolationException constraintViolationException, WebRequest request) {
+            ConstraintViolationException constraintViolationException) {
+        orderMetrics.countValidationFailure(constraintViolationException);
         List<String> errors = new ArrayList<String>();
         for (ConstraintViolation<?> violation : constraintViolationException.getConstraintViolations()) {
             errors.add(violation.getPropertyPath() + " " + violation.getInvalidValue() + ": " + violation.getMessage());
         }
 
         ApiError apiError =
-                new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", errors);
+                new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, errors);
+        return new ResponseEntity<Object>(
+                apiError, new HttpHeaders(), apiError.getStatus());
+
+    }
+
+    /**
+     * Handles the validation errors associated to {@link InvalidOrderException}.
+     * @param invalidOrderException The {@link InvalidOrderException} that is thrown while pricing an order.
+     * @return The error {@link ResponseEntity} for the invalid order.
+     */
+    @ExceptionHandler({InvalidOrderException.class})
+    public ResponseEntity<Object> handleInvalidOrder(
+            InvalidOrderException invalidOrderException) {
+        orderMetrics.countValidationFailure(invalidOrderException);
+        ApiError apiError =
+                new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, invalidOrderException.getErrors());
         return new ResponseEntity<Object>(
                 apiError, new HttpHeaders(), apiError.getStatus());
+    }
 
+    /**
+     * Handles orders for a store that has no menu.
+     * @param unknownStoreException The {@link UnknownStoreException} that is thrown while resolving the menu.
+     * @return The error {@link ResponseEntity} for the unknown store.
+     */
+    @ExceptionHandler({UnknownStoreException.class})
+    public ResponseEntity<Object> handleUnknownStore(
+            UnknownStoreException unknownStoreException) {
+        orderMetrics.countValidationFailure(unknownStoreException);
+        ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, List.of(
+                StoreContext.STORE_ID_HEADER + " " + unknownStoreException.getStoreId() + ": The store has no menu"));
+        return new ResponseEntity<Object>(
+                apiError, new HttpHeaders(), apiError.getStatus());
+    }
+
+    /**
+     * Handles orders priced at a time the menu of the store is no longer known for.
+     * @param catalogVersionNotFoundException The {@link CatalogVersionNotFoundException} that is thrown while
+     * resolving the menu.
+     * @return The error {@link ResponseEntity} for the pricing time.
+     */
+    @ExceptionHandler({CatalogVersionNotFoundException.class})
+    public ResponseEntity<Object> handleCatalogVersionNotFound(
+            CatalogVersionNotFoundException catalogVersionNotFoundException) {
+        orderMetrics.countValidationFailure(catalogVersionNotFoundException);
+        ApiError apiError = new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, List.of(
+                "pricedAt " + catalogVersionNotFoundException.getAsOf()
+                        + ": The menu of the store is not known as of this time"));
+        return new ResponseEntity<Object>(
+                apiError, new HttpHeaders(), apiError.getStatus());
     }
 }
\ No newline at end of file
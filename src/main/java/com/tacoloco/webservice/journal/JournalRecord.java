@@ -0,0 +1,52 @@
+package com.tacoloco.webservice.journal;
+
+import com.tacoloco.webservice.model.OrderItem;
+
+import java.util.List;
+
+/**
+ * A priced order read back from the {@link OrderJournal}.
+ */
+public final class JournalRecord {
+    private final long sequence;
+    private final long timestampMillis;
+    private final long totalInCents;
+    private final String storeId;
+    private final List<OrderItem> items;
+
+    /**
+     * @param sequence The sequence number the order was journaled with.
+     * @param timestampMillis The time the order was journaled at, in milliseconds since the epoch.
+     * @param totalInCents The total the order was priced at, in cents.
+     * @param storeId The ID of the store the order was placed at, or null if it was journaled without it.
+     * @param items The order lines as they were submitted.
+     */
+    public JournalRecord(long sequence, long timestampMillis, long totalInCents, String storeId,
+                         List<OrderItem> items) {
+        this.sequence = sequence;
+        this.timestampMillis = timestampMillis;
+        this.totalInCents = totalInCents;
+        this.storeId = storeId;
+        this.items = items;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getTimestampMillis() {
+        return timestampMillis;
+    }
+
+    public long getTotalInCents() {
+        return totalInCents;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public List<OrderItem> getItems() {
+        return items;
+    }
+}
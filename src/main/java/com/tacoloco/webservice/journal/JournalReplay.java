@@ -0,0 +1,67 @@
+package com.tacoloco.webservice.journal;
+
+import com.tacoloco.webservice.model.Money;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Command line tool replaying an {@link OrderJournal}, e.g. to rebuild the sales of a store after a crash.
+ * <p>
+ * Prints every complete order, one per line, followed by the number of orders, the revenue, and the revenue and the
+ * units sold per item of every store. A record torn by a crash is not printed, exactly as the journal discards it when it is opened again.
+ * <pre>
+ *     java -cp web-service.jar -Dloader.main=com.tacoloco.webservice.journal.JournalReplay \
+ *         org.springframework.boot.loader.PropertiesLauncher journal [--summary]
+ * </pre>
+ */
+public final class JournalReplay {
+    /**
+     * Stands for the store of the orders journaled before stores were recorded.
+     */
+    private static final String UNKNOWN_STORE = "?";
+
+    private JournalReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: JournalReplay <journal directory> [--summary]");
+            System.exit(2);
+        }
+        boolean summaryOnly = args.length > 1 && "--summary".equals(args[1]);
+        long[] orders = new long[1];
+        long[] revenueInCents = new long[1];
+        Map<String, Long> revenueInCentsByStoreId = new TreeMap<>();
+        Map<String, Map<String, Long>> unitsByItemNameByStoreId = new TreeMap<>();
+
+        long lastSequence = OrderJournal.replay(Path.of(args[0]), record -> {
+            String storeId = record.getStoreId() == null ? UNKNOWN_STORE : record.getStoreId();
+            orders[0]++;
+            revenueInCents[0] += record.getTotalInCents();
+            revenueInCentsByStoreId.merge(storeId, record.getTotalInCents(), Long::sum);
+            Map<String, Long> unitsByItemName = unitsByItemNameByStoreId.computeIfAbsent(storeId,
+                    store -> new TreeMap<>());
+            record.getItems().forEach(item -> unitsByItemName.merge(item.getItemName(),
+                    (long) item.getQuantity(), Long::sum));
+            if (!summaryOnly) {
+                System.out.println(record.getSequence() + " " + Instant.ofEpochMilli(record.getTimestampMillis())
+                        + " " + storeId + " " + Money.toAmount(record.getTotalInCents()) + " "
+                        + record.getItems().stream()
+                        .map(item -> item.getItemName() + " x" + item.getQuantity())
+                        .collect(Collectors.joining(", ")));
+            }
+        });
+
+        System.out.println(orders[0] + " orders up to sequence " + lastSequence + ", revenue "
+                + Money.toAmount(revenueInCents[0]));
+        unitsByItemNameByStoreId.forEach((storeId, unitsByItemName) -> {
+            System.out.println(storeId + ": revenue " + Money.toAmount(revenueInCentsByStoreId.get(storeId)));
+            unitsByItemName.forEach((itemName, units) -> System.out.println("  " + itemName + ": " + units));
+        });
+    }
+}
@@ -0,0 +1,505 @@
+package com.tacoloco.webservice.journal;
+
+import com.tacoloco.webservice.model.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable, append-only journal of priced orders.
+ * <p>
+ * Orders are appended to memory-mapped segment files named after the sequence number of their first record. A single
+ * writer thread drains every append waiting in its queue, copies the batch into the mapped segment and forces it to
+ * disk once, so concurrent submissions share one fsync (group commit). An append only returns once its batch is
+ * durable. When a record does not fit in the current segment, the segment is forced and a new one is started.
+ * <p>
+ * When a batch cannot be written or forced, the records of the batch that were not forced yet are erased from the
+ * segment and their appends fail, so a failed append is never replayed. If the writer thread stops on an
+ * {@link Error}, e.g. when a write to the mapped segment fails because the disk is full, every waiting and later
+ * append fails instead of waiting for a writer that will never run again.
+ * <p>
+ * A journal is opened by one process at a time: opening it takes an exclusive lock on a {@value #LOCK_FILE} file in
+ * its directory, held until it is closed, and fails if another journal holds it, so two writers never continue from
+ * the same sequence number.
+ * <p>
+ * Every record is framed by its length and a CRC32C checksum. On open, and in {@link #replay(Path, Consumer)}, the
+ * records are read until the first empty or corrupt frame: a record torn by a crash is discarded, and the journal
+ * continues after the last complete record.
+ */
+public class OrderJournal implements Closeable {
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrderJournal.class);
+
+    static final String SEGMENT_SUFFIX = ".journal";
+    static final String LOCK_FILE = ".lock";
+    private static final int FRAME_HEADER_BYTES = Integer.BYTES * 2;
+    private static final int RECORD_HEADER_BYTES = Long.BYTES * 3 + Integer.BYTES;
+    private static final int MAXIMUM_BATCH_SIZE = 1024;
+    private static final Duration DEFAULT_APPEND_TIMEOUT = Duration.ofSeconds(10);
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration appendTimeout;
+    private final BlockingQueue<PendingAppend> pending = new LinkedBlockingQueue<>();
+    private final AtomicLong appendCount = new AtomicLong();
+    private final AtomicLong commitCount = new AtomicLong();
+    private final FileChannel lockChannel;
+    private final Thread writer;
+    private volatile boolean closed;
+    /**
+     * Why the writer thread stopped, or null while it is running.
+     */
+    private volatile Throwable writerFailure;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence;
+
+    /**
+     * Opens the journal like {@link #OrderJournal(Path, int, Duration)}, waiting up to 10 seconds for an append.
+     * @param directory The directory of the segment files; created if it does not exist.
+     * @param segmentSize The size of every segment file in bytes.
+     * @throws IOException if the journal cannot be opened.
+     */
+    public OrderJournal(Path directory, int segmentSize) throws IOException {
+        this(directory, segmentSize, DEFAULT_APPEND_TIMEOUT);
+    }
+
+    /**
+     * Opens the journal, recovering the end of the last segment, and starts the writer thread.
+     * @param directory The directory of the segment files; created if it does not exist.
+     * @param segmentSize The size of every segment file in bytes.
+     * @param appendTimeout How long {@link #append(String, List, long)} waits for its order to be durable.
+     * @throws IOException if the journal cannot be opened, or is already open in this or another process.
+     */
+    public OrderJournal(Path directory, int segmentSize, Duration appendTimeout) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.appendTimeout = appendTimeout;
+        Files.createDirectories(directory);
+        lockChannel = lock(directory);
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            if (channel != null) {
+                channel.close();
+            }
+            lockChannel.close();
+            throw e;
+        }
+        writer = new Thread(this::writeBatches, "order-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Appends a priced order and waits until it is durable.
+     * @param storeId The ID of the store the order was placed at.
+     * @param items The order lines as they were submitted.
+     * @param totalInCents The total the order was priced at, in cents.
+     * @return The sequence number of the order.
+     * @throws IOException if the order could not be written or forced to disk, or was not durable within the append
+     * timeout; an order that timed out may still be written later.
+     */
+    public long append(String storeId, List<OrderItem> items, long totalInCents) throws IOException {
+        try {
+            return appendAsync(storeId, items, totalInCents).get(appendTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the journal", e);
+        } catch (TimeoutException e) {
+            throw new IOException("The order was not journaled within " + appendTimeout, e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException
+                    ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * Appends a priced order.
+     * @param storeId The ID of the store the order was placed at.
+     * @param items The order lines as they were submitted.
+     * @param totalInCents The total the order was priced at, in cents.
+     * @return Completed with the sequence number of the order once it is durable.
+     */
+    public CompletableFuture<Long> appendAsync(String storeId, List<OrderItem> items, long totalInCents) {
+        CompletableFuture<Long> appended = new CompletableFuture<>();
+        if (closed || writerFailure != null) {
+            appended.completeExceptionally(notAccepting());
+            return appended;
+        }
+        byte[] body = encodeOrder(storeId, items);
+        if (FRAME_HEADER_BYTES + RECORD_HEADER_BYTES + body.length > segmentSize) {
+            appended.completeExceptionally(new IOException("The order does not fit in a journal segment"));
+            return appended;
+        }
+        PendingAppend append = new PendingAppend(totalInCents, body, appended);
+        pending.add(append);
+        // the writer may have stopped, and the queue been drained for the last time, since the check above; whoever
+        // takes the append out of the queue completes it
+        if ((closed || writerFailure != null) && pending.remove(append)) {
+            appended.completeExceptionally(notAccepting());
+        }
+        return appended;
+    }
+
+    private IOException notAccepting() {
+        Throwable failure = writerFailure;
+        return failure == null
+                ? new IOException("The journal is closed") : new IOException("The journal writer stopped", failure);
+    }
+
+    /**
+     * @return The number of orders appended since the journal was opened.
+     */
+    public long getAppendCount() {
+        return appendCount.get();
+    }
+
+    /**
+     * @return The number of times a batch of orders was forced to disk since the journal was opened.
+     */
+    public long getCommitCount() {
+        return commitCount.get();
+    }
+
+    /**
+     * Stops accepting orders, writes the ones already queued and stops the writer thread.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failPending();
+        try {
+            channel.close();
+        } finally {
+            // closing the channel releases the lock
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Takes the exclusive lock of a journal directory.
+     * @return The channel of the lock file, holding the lock until it is closed.
+     */
+    private static FileChannel lock(Path directory) throws IOException {
+        FileChannel lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            // held by another journal of this process
+            lock = null;
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("The order journal in " + directory + " is already open");
+        }
+        return lockChannel;
+    }
+
+    private void failPending() {
+        for (PendingAppend append = pending.poll(); append != null; append = pending.poll()) {
+            append.appended.completeExceptionally(notAccepting());
+        }
+    }
+
+    /**
+     * Reads every complete record of a journal, in sequence order.
+     * @param directory The directory of the segment files.
+     * @param consumer Receives the {@link JournalRecord}s.
+     * @return The sequence number of the last complete record, or 0 if there is none.
+     * @throws IOException if a segment cannot be read.
+     */
+    public static long replay(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        long lastSequence = 0;
+        for (Path segmentPath : segments(directory)) {
+            try (FileChannel segmentChannel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+                ByteBuffer buffer = segmentChannel.map(FileChannel.MapMode.READ_ONLY, 0, segmentChannel.size());
+                for (JournalRecord record = readRecord(buffer); record != null; record = readRecord(buffer)) {
+                    consumer.accept(record);
+                    lastSequence = record.getSequence();
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    /**
+     * Finds the end of the last segment and discards a torn record after it, if any.
+     */
+    private void recover() throws IOException {
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            nextSequence = 1;
+            openSegment(nextSequence);
+            return;
+        }
+        Path last = segments.get(segments.size() - 1);
+        long firstSequence = Long.parseLong(last.getFileName().toString().replace(SEGMENT_SUFFIX, ""));
+        channel = FileChannel.open(last, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(channel.size(), segmentSize));
+        nextSequence = firstSequence;
+        for (JournalRecord record = readRecord(segment); record != null; record = readRecord(segment)) {
+            nextSequence = record.getSequence() + 1;
+        }
+        // the bytes of a torn record must not be mistaken for a frame once shorter records are written over them
+        int end = segment.position();
+        while (end < segment.limit() && segment.get(end) == 0) {
+            end++;
+        }
+        if (end < segment.limit()) {
+            LOGGER.warn("Discarding a torn record at {} of journal segment {}", segment.position(), last);
+            for (int i = segment.position(); i < segment.limit(); i++) {
+                segment.put(i, (byte) 0);
+            }
+            segment.force();
+        }
+        LOGGER.info("Opened the order journal in {}, next sequence {}", directory, nextSequence);
+    }
+
+    /**
+     * Writes queued appends in batches, forcing every batch to disk once. If the thread stops on anything but
+     * closing the journal, the appends waiting and every later append fail.
+     */
+    private void writeBatches() {
+        List<PendingAppend> batch = new ArrayList<>();
+        try {
+            while (!closed || !pending.isEmpty()) {
+                PendingAppend first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                pending.drainTo(batch, MAXIMUM_BATCH_SIZE - 1);
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            writerFailure = e;
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            writerFailure = e;
+            LOGGER.error("The order journal writer stopped", e);
+        } finally {
+            failPending();
+        }
+    }
+
+    /**
+     * Writes and forces a batch. The appends written before a segment was rolled are durable once it is forced and
+     * complete right away; when writing or forcing fails, the appends written since are erased and fail.
+     * @throws Error if the segment could not be written, after failing the appends of the batch.
+     */
+    private void commit(List<PendingAppend> batch) {
+        long[] sequences = new long[batch.size()];
+        int durable = 0;
+        int rollbackPosition = segment.position();
+        long rollbackSequence = nextSequence;
+        try {
+            for (int i = 0; i < batch.size(); i++) {
+                PendingAppend append = batch.get(i);
+                if (segment.remaining() < FRAME_HEADER_BYTES + RECORD_HEADER_BYTES + append.body.length) {
+                    segment.force();
+                    complete(batch, durable, i, sequences);
+                    durable = i;
+                    rollbackPosition = segment.position();
+                    channel.close();
+                    openSegment(nextSequence);
+                    rollbackPosition = 0;
+                }
+                sequences[i] = write(append);
+            }
+            segment.force();
+        } catch (Throwable e) {
+            LOGGER.error("Could not write {} orders to the journal", batch.size() - durable, e);
+            try {
+                rollBack(rollbackPosition, rollbackSequence + durable);
+            } finally {
+                for (int i = durable; i < batch.size(); i++) {
+                    batch.get(i).appended.completeExceptionally(e);
+                }
+            }
+            if (e instanceof Error) {
+                throw (Error) e;
+            }
+            return;
+        }
+        complete(batch, durable, batch.size(), sequences);
+    }
+
+    private void complete(List<PendingAppend> batch, int from, int to, long[] sequences) {
+        if (from == to) {
+            return;
+        }
+        commitCount.incrementAndGet();
+        appendCount.addAndGet(to - from);
+        for (int i = from; i < to; i++) {
+            batch.get(i).appended.complete(sequences[i]);
+        }
+    }
+
+    /**
+     * Erases the records written after a position of the current segment, so records whose appends failed are not
+     * written out by the operating system later, and numbers the next record after the last durable one.
+     */
+    private void rollBack(int position, long sequence) {
+        for (int i = position; i < segment.position(); i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.position(position);
+        nextSequence = sequence;
+    }
+
+    private long write(PendingAppend append) {
+        int recordLength = RECORD_HEADER_BYTES + append.body.length;
+        long sequence = nextSequence++;
+        int start = segment.position();
+        segment.position(start + FRAME_HEADER_BYTES);
+        segment.putLong(sequence).putLong(System.currentTimeMillis()).putLong(append.totalInCents)
+                .putInt(append.body.length).put(append.body);
+
+        CRC32C crc = new CRC32C();
+        crc.update(segment.duplicate().position(start + FRAME_HEADER_BYTES).limit(segment.position()));
+        segment.putInt(start + Integer.BYTES, (int) crc.getValue());
+        // the length is written last, so a frame is only ever visible once it is complete
+        segment.putInt(start, recordLength);
+        return sequence;
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        Path path = directory.resolve(String.format("%020d%s", firstSequence, SEGMENT_SUFFIX));
+        // a segment left empty by an earlier attempt that failed to map it is reused
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads the record at the position of the buffer and moves past it.
+     * @return The {@link JournalRecord}, or null at the end of the segment or at a torn record, in which case the
+     *         position is left at its start.
+     */
+    private static JournalRecord readRecord(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < FRAME_HEADER_BYTES + RECORD_HEADER_BYTES) {
+            return null;
+        }
+        int recordLength = buffer.getInt(start);
+        if (recordLength < RECORD_HEADER_BYTES || recordLength > buffer.remaining() - FRAME_HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer record = buffer.duplicate().position(start + FRAME_HEADER_BYTES)
+                .limit(start + FRAME_HEADER_BYTES + recordLength);
+        CRC32C crc = new CRC32C();
+        crc.update(record.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+            return null;
+        }
+
+        long sequence = record.getLong();
+        long timestampMillis = record.getLong();
+        long totalInCents = record.getLong();
+        record.getInt();
+        int itemCount = record.getInt();
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            byte[] name = new byte[record.getShort() & 0xFFFF];
+            record.get(name);
+            items.add(new OrderItem(new String(name, StandardCharsets.UTF_8), record.getInt()));
+        }
+        // records journaled before the store was recorded end after their lines
+        String storeId = null;
+        if (record.hasRemaining()) {
+            byte[] store = new byte[record.getShort() & 0xFFFF];
+            record.get(store);
+            storeId = new String(store, StandardCharsets.UTF_8);
+        }
+        buffer.position(start + FRAME_HEADER_BYTES + recordLength);
+        return new JournalRecord(sequence, timestampMillis, totalInCents, storeId, items);
+    }
+
+    /**
+     * Encodes an order: the count of its lines, the UTF-8 name and the quantity of every line, then the UTF-8 ID of
+     * the store.
+     */
+    private static byte[] encodeOrder(String storeId, List<OrderItem> items) {
+        byte[][] names = new byte[items.size()][];
+        int length = Integer.BYTES;
+        for (int i = 0; i < items.size(); i++) {
+            names[i] = checkLength(items.get(i).getItemName().getBytes(StandardCharsets.UTF_8), "item name");
+            length += Short.BYTES + names[i].length + Integer.BYTES;
+        }
+        byte[] store = checkLength(storeId.getBytes(StandardCharsets.UTF_8), "store ID");
+        length += Short.BYTES + store.length;
+        ByteBuffer body = ByteBuffer.allocate(length).putInt(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            body.putShort((short) names[i].length).put(names[i]).putInt(items.get(i).getQuantity());
+        }
+        body.putShort((short) store.length).put(store);
+        return body.array();
+    }
+
+    private static byte[] checkLength(byte[] bytes, String what) {
+        if (bytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("The " + what + " is too long to be journaled");
+        }
+        return bytes;
+    }
+
+    private static final class PendingAppend {
+        private final long totalInCents;
+        private final byte[] body;
+        private final CompletableFuture<Long> appended;
+
+        private PendingAppend(long totalInCents, byte[] body, CompletableFuture<Long> appended) {
+            this.totalInCents = totalInCents;
+            this.body = body;
+            this.appended = appended;
+        }
+    }
+}
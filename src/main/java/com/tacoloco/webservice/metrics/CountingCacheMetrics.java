@@ -0,0 +1,54 @@
+package com.tacoloco.webservice.metrics;
+
+import com.tacoloco.webservice.catalog.NearCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+import java.util.Map;
+
+/**
+ * Binds the statistics of a {@link CountingCache} as the standard {@code cache.*} meters.
+ */
+public class CountingCacheMetrics extends CacheMeterBinder {
+    private final CountingCache cache;
+
+    public CountingCacheMetrics(CountingCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        Object nativeCache = cache.getNativeCache();
+        if (nativeCache instanceof NearCache) {
+            return (long) ((NearCache<?, ?>) nativeCache).size();
+        }
+        return nativeCache instanceof Map ? (long) ((Map<?, ?>) nativeCache).size() : null;
+    }
+
+    @Override
+    protected long hitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        Object nativeCache = cache.getNativeCache();
+        return nativeCache instanceof NearCache ? ((NearCache<?, ?>) nativeCache).getEvictionCount() : null;
+    }
+
+    @Override
+    protected long putCount() {
+        return cache.getPutCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
@@ -0,0 +1,52 @@
+package com.tacoloco.webservice.metrics;
+
+import java.io.IOException;
+
+/**
+ * Records the time the Jackson message converters spend reading request bodies and writing response bodies as the
+ * deserialization and serialization phases of {@link OrderMetrics}, for each of the formats they convert.
+ */
+final class MessageBodyTimer {
+    private final OrderMetrics orderMetrics;
+
+    MessageBodyTimer(OrderMetrics orderMetrics) {
+        this.orderMetrics = orderMetrics;
+    }
+
+    /**
+     * @param read Reads the request body.
+     * @return The object read.
+     */
+    Object timeRead(Read read) throws IOException {
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        try {
+            return read.read();
+        } finally {
+            orderMetrics.recordPhase(OrderMetrics.Phase.DESERIALIZATION, startNanos, event);
+        }
+    }
+
+    /**
+     * @param write Writes the response body.
+     */
+    void timeWrite(Write write) throws IOException {
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        try {
+            write.write();
+        } finally {
+            orderMetrics.recordPhase(OrderMetrics.Phase.SERIALIZATION, startNanos, event);
+        }
+    }
+
+    @FunctionalInterface
+    interface Read {
+        Object read() throws IOException;
+    }
+
+    @FunctionalInterface
+    interface Write {
+        void write() throws IOException;
+    }
+}
@@ -0,0 +1,53 @@
+package com.tacoloco.webservice.metrics;
+
+import com.tacoloco.webservice.catalog.NearCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * Binds the statistics of a {@link NearCache} as the standard {@code cache.*} meters, plus the number of loads that
+ * failed.
+ */
+public class NearCacheMetrics extends CacheMeterBinder {
+    private final NearCache<?, ?> cache;
+
+    public NearCacheMetrics(NearCache<?, ?> cache, String cacheName, Iterable<Tag> tags) {
+        super(cache, cacheName, tags);
+        this.cache = cache;
+    }
+
+    @Override
+    protected Long size() {
+        return (long) cache.size();
+    }
+
+    @Override
+    protected long hitCount() {
+        return cache.getHitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        return cache.getMissCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        return cache.getEvictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        return cache.getLoadCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+        FunctionCounter.builder("cache.load.failures", cache, NearCache::getLoadFailureCount)
+                .tags(getTagsWithCacheName())
+                .description("The number of loads that failed")
+                .register(registry);
+    }
+}
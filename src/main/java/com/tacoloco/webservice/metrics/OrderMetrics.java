@@ -0,0 +1,180 @@
+package com.tacoloco.webservice.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.PostConstruct;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters of the ordering hot path.
+ * Phase timers are tagged with the URI pattern of the request being served, like {@code http.server.requests}, so the
+ * time of {@code /calculateTotal} can be split into its phases. Meters are created once and then only looked up.
+ * Every phase is also recorded as an {@link OrderPhaseEvent} for Java Flight Recorder, and added to the
+ * {@link RequestTiming} of the request if it has one. Recording can be turned off for a thread doing work that is not
+ * traffic, like the warm-up, so it does not show up in the meters as orders served.
+ */
+@Component
+public class OrderMetrics {
+    public static final String PHASE_TIMER = "tacoloco.order.phase";
+    public static final String VALIDATION_FAILURES = "tacoloco.order.validation.failures";
+    public static final String CATALOG_LOOKUPS = "tacoloco.catalog.lookups";
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    /**
+     * The phases an order goes through.
+     */
+    public enum Phase {
+        DESERIALIZATION, CATALOG_LOOKUP, VALIDATION, PRICING, SERIALIZATION
+    }
+
+    /**
+     * The ways the menu is looked up in {@link com.tacoloco.webservice.repository.OrderItemRepository}.
+     */
+    public enum CatalogLookup {
+        FIND_CATALOG, FIND_CATALOG_AS_OF, FIND_PRICE_BY_ITEM_NAME, FIND_ALL_ITEM_NAMES, DOES_ITEM_NAME_EXIST
+    }
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private static final String[] PHASE_NAMES = new String[Phase.values().length];
+
+    static {
+        for (Phase phase : Phase.values()) {
+            PHASE_NAMES[phase.ordinal()] = phase.name().toLowerCase();
+        }
+    }
+
+    private final Map<String, Timer[]> phaseTimersByUri = new ConcurrentHashMap<>();
+    private final Map<String, Counter> validationFailuresByException = new ConcurrentHashMap<>();
+    private final Counter[] catalogLookups = new Counter[CatalogLookup.values().length];
+    private final ThreadLocal<Boolean> recording = ThreadLocal.withInitial(() -> Boolean.TRUE);
+
+    @PostConstruct
+    public void init() {
+        for (CatalogLookup lookup : CatalogLookup.values()) {
+            catalogLookups[lookup.ordinal()] = Counter.builder(CATALOG_LOOKUPS)
+                    .description("Lookups of the menu catalog")
+                    .tag("operation", lookup.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Turns the recording of the phases, validation failures and catalog lookups of the current thread on or off.
+     * @param recording Whether the meters record the work of the current thread.
+     */
+    public void setRecording(boolean recording) {
+        if (recording) {
+            this.recording.remove();
+        } else {
+            this.recording.set(Boolean.FALSE);
+        }
+    }
+
+    /**
+     * Records the time an order spent in a phase of the request being served.
+     * @param phase The {@link Phase}.
+     * @param startNanos The {@link System#nanoTime()} the phase started at.
+     * @param event The {@link OrderPhaseEvent} begun when the phase started.
+     */
+    public void recordPhase(Phase phase, long startNanos, OrderPhaseEvent event) {
+        if (!recording.get()) {
+            return;
+        }
+        long elapsedNanos = System.nanoTime() - startNanos;
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        String uri = currentUri(attributes);
+        phaseTimersByUri.computeIfAbsent(uri, this::createPhaseTimers)[phase.ordinal()]
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (attributes != null) {
+            RequestTiming timing = (RequestTiming) attributes.getAttribute(RequestTiming.ATTRIBUTE,
+                    RequestAttributes.SCOPE_REQUEST);
+            if (timing != null) {
+                timing.add(phase, elapsedNanos);
+            }
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.phase = PHASE_NAMES[phase.ordinal()];
+            event.uri = uri;
+            event.commit();
+        }
+    }
+
+    /**
+     * Counts an order rejected by the exception handler.
+     * @param exception The exception the order was rejected with.
+     */
+    public void countValidationFailure(Exception exception) {
+        countValidationFailure(exception.getClass());
+    }
+
+    /**
+     * Counts an order rejected without throwing, under the exception it would otherwise have been rejected with.
+     * @param exceptionType The type of the exception.
+     */
+    public void countValidationFailure(Class<? extends Exception> exceptionType) {
+        if (!recording.get()) {
+            return;
+        }
+        validationFailuresByException.computeIfAbsent(exceptionType.getSimpleName(),
+                name -> Counter.builder(VALIDATION_FAILURES)
+                        .description("Orders rejected as not valid")
+                        .tag("exception", name)
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    /**
+     * Counts a lookup of the menu catalog.
+     * @param lookup The {@link CatalogLookup}.
+     */
+    public void countCatalogLookup(CatalogLookup lookup) {
+        if (!recording.get()) {
+            return;
+        }
+        catalogLookups[lookup.ordinal()].increment();
+    }
+
+    /**
+     * @param phase The {@link Phase}.
+     * @return The name of the phase in the meter tags, the JFR events and the {@code Server-Timing} header.
+     */
+    static String phaseName(Phase phase) {
+        return PHASE_NAMES[phase.ordinal()];
+    }
+
+    private Timer[] createPhaseTimers(String uri) {
+        Timer[] timers = new Timer[Phase.values().length];
+        for (Phase phase : Phase.values()) {
+            timers[phase.ordinal()] = Timer.builder(PHASE_TIMER)
+                    .description("Time spent in each phase of pricing an order")
+                    .tag("phase", PHASE_NAMES[phase.ordinal()])
+                    .tag("uri", uri)
+                    .register(meterRegistry);
+        }
+        return timers;
+    }
+
+    /**
+     * @param attributes The {@link RequestAttributes} of the current thread, or null outside a request.
+     * @return The URI pattern of the request served by the current thread, or {@code UNKNOWN} outside a request.
+     */
+    private static String currentUri(RequestAttributes attributes) {
+        Object pattern = attributes == null ? null
+                : attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                        RequestAttributes.SCOPE_REQUEST);
+        return pattern == null ? UNKNOWN_URI : pattern.toString();
+    }
+}
@@ -0,0 +1,41 @@
+package com.tacoloco.webservice.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event of a phase of serving an order, recorded with the {@link OrderMetrics.Phase} timers.
+ * Only phases that take longer than the threshold are recorded, so it can stay enabled in a continuous recording;
+ * lower it with e.g. {@code -XX:StartFlightRecording:com.tacoloco.OrderPhase#threshold=0ms} on JDK 17+.
+ * <p>
+ * When no recording enables the event, creating and committing it is optimized away.
+ */
+@Name("com.tacoloco.OrderPhase")
+@Label("Order Phase")
+@Category({"Taco Loco", "Orders"})
+@Description("A phase of serving an order: deserialization, catalog lookup, validation, pricing or serialization")
+@StackTrace(false)
+@Threshold("1 ms")
+public final class OrderPhaseEvent extends Event {
+    @Label("Phase")
+    String phase;
+
+    @Label("URI")
+    @Description("The URI pattern of the request")
+    String uri;
+
+    /**
+     * Creates the event of a phase starting now.
+     * @return The {@link OrderPhaseEvent}, to pass to {@link OrderMetrics#recordPhase} when the phase ends.
+     */
+    public static OrderPhaseEvent start() {
+        OrderPhaseEvent event = new OrderPhaseEvent();
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,37 @@
+package com.tacoloco.webservice.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * Java Flight Recorder event of a request to an order endpoint, recorded by the {@link RequestTimingFilter}. The
+ * {@link OrderPhaseEvent}s of the request are recorded within its time span, so a flight recording shows what a slow
+ * request spent its time on next to the GC pauses and lock contention of that time. They are on the request's thread,
+ * except for {@code /calculateTotals}, whose carts are priced on fork/join worker threads: match those by the URI and
+ * the time span rather than by thread.
+ */
+@Name("com.tacoloco.OrderRequest")
+@Label("Order Request")
+@Category({"Taco Loco", "Orders"})
+@Description("A request to an order endpoint")
+@StackTrace(false)
+@Threshold("10 ms")
+public final class OrderRequestEvent extends Event {
+    @Label("Method")
+    String method;
+
+    @Label("URI")
+    @Description("The URI pattern of the request, or its path if no handler matched")
+    String uri;
+
+    @Label("Store ID")
+    String storeId;
+
+    @Label("Status")
+    int status;
+}
@@ -0,0 +1,49 @@
+package com.tacoloco.webservice.metrics;
+
+import java.util.Locale;
+
+/**
+ * The time a request spent in each {@link OrderMetrics.Phase}, accumulated by {@link OrderMetrics#recordPhase} for
+ * the {@code Server-Timing} header written by the {@link RequestTimingFilter}.
+ */
+public final class RequestTiming {
+    /**
+     * The request attribute holding the {@link RequestTiming} of the request.
+     */
+    public static final String ATTRIBUTE = RequestTiming.class.getName();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanosByPhase = new long[OrderMetrics.Phase.values().length];
+
+    /**
+     * Adds the time spent in a phase; a phase may run more than once per request.
+     * @param phase The {@link OrderMetrics.Phase}.
+     * @param elapsedNanos The time spent in the phase in nanoseconds.
+     */
+    public void add(OrderMetrics.Phase phase, long elapsedNanos) {
+        nanosByPhase[phase.ordinal()] += elapsedNanos;
+    }
+
+    /**
+     * Formats the phases recorded so far and the time since the request started, e.g.
+     * {@code deserialization;dur=0.081, validation;dur=0.004, pricing;dur=0.012, total;dur=0.290}, in milliseconds.
+     * @return The value of the {@code Server-Timing} header.
+     */
+    public String toServerTiming() {
+        StringBuilder serverTiming = new StringBuilder();
+        for (OrderMetrics.Phase phase : OrderMetrics.Phase.values()) {
+            if (nanosByPhase[phase.ordinal()] > 0) {
+                appendMetric(serverTiming, OrderMetrics.phaseName(phase), nanosByPhase[phase.ordinal()]);
+            }
+        }
+        appendMetric(serverTiming, "total", System.nanoTime() - startNanos);
+        return serverTiming.toString();
+    }
+
+    private static void appendMetric(StringBuilder serverTiming, String name, long nanos) {
+        if (serverTiming.length() > 0) {
+            serverTiming.append(", ");
+        }
+        serverTiming.append(name).append(";dur=").append(String.format(Locale.ROOT, "%.3f", nanos / 1e6));
+    }
+}
@@ -0,0 +1,136 @@
+package com.tacoloco.webservice.metrics;
+
+import com.tacoloco.webservice.catalog.StoreContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Servlet filter timing the requests to the order endpoints: it records an {@link OrderRequestEvent} spanning the
+ * request, and if {@code tacoloco.timing.server-timing} is set, adds a {@code Server-Timing} header with the time spent
+ * in each {@link OrderMetrics.Phase}.
+ * <p>
+ * The header is added when the response body is first written, so it lists the phases that ran before: the
+ * serialization of the body itself is only in the {@code tacoloco.order.phase} timers and the JFR events. A request
+ * that starts asynchronous processing, like the streamed {@code /calculateTotals}, is recorded once its response
+ * completes.
+ */
+public class RequestTimingFilter extends OncePerRequestFilter {
+    /**
+     * The response header with the phase timings.
+     */
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    private final boolean serverTiming;
+
+    /**
+     * @param serverTiming Whether to add the {@code Server-Timing} header.
+     */
+    public RequestTimingFilter(boolean serverTiming) {
+        this.serverTiming = serverTiming;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        OrderRequestEvent event = new OrderRequestEvent();
+        event.begin();
+        HttpServletResponse timedResponse = response;
+        if (serverTiming) {
+            RequestTiming timing = new RequestTiming();
+            request.setAttribute(RequestTiming.ATTRIBUTE, timing);
+            timedResponse = new ServerTimingResponse(response, timing);
+        }
+
+        try {
+            filterChain.doFilter(request, timedResponse);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent asyncEvent) {
+                        commit(event, request, response);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent asyncEvent) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent asyncEvent) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent asyncEvent) {
+                    }
+                });
+            } else {
+                if (timedResponse instanceof ServerTimingResponse) {
+                    // a response without a body
+                    ((ServerTimingResponse) timedResponse).addServerTiming();
+                }
+                commit(event, request, response);
+            }
+        }
+    }
+
+    private static void commit(OrderRequestEvent event, HttpServletRequest request, HttpServletResponse response) {
+        event.end();
+        if (event.shouldCommit()) {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            event.method = request.getMethod();
+            event.uri = pattern == null ? request.getRequestURI() : pattern.toString();
+            event.storeId = request.getHeader(StoreContext.STORE_ID_HEADER);
+            event.status = response.getStatus();
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds the {@code Server-Timing} header just before the response body is first written.
+     */
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final RequestTiming timing;
+        private boolean added;
+
+        ServerTimingResponse(HttpServletResponse response, RequestTiming timing) {
+            super(response);
+            this.timing = timing;
+        }
+
+        void addServerTiming() {
+            if (!added && !isCommitted()) {
+                setHeader(SERVER_TIMING_HEADER, timing.toServerTiming());
+            }
+            added = true;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addServerTiming();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addServerTiming();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addServerTiming();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.tacoloco.webservice.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * {@link MappingJackson2HttpMessageConverter} recording the time spent reading request bodies and writing response
+ * bodies as the deserialization and serialization phases of {@link OrderMetrics}.
+ */
+public class TimedMappingJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final MessageBodyTimer timer;
+
+    public TimedMappingJackson2HttpMessageConverter(ObjectMapper objectMapper, OrderMetrics orderMetrics) {
+        super(objectMapper);
+        this.timer = new MessageBodyTimer(orderMetrics);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return timer.timeRead(() -> super.read(type, contextClass, inputMessage));
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        timer.timeWrite(() -> super.writeInternal(object, type, outputMessage));
+    }
+}
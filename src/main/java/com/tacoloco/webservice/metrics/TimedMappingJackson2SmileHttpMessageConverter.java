@@ -0,0 +1,36 @@
+package com.tacoloco.webservice.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * {@link MappingJackson2SmileHttpMessageConverter} recording the same deserialization and serialization phases as
+ * {@link TimedMappingJackson2HttpMessageConverter}.
+ */
+public class TimedMappingJackson2SmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+    private final MessageBodyTimer timer;
+
+    public TimedMappingJackson2SmileHttpMessageConverter(ObjectMapper objectMapper, OrderMetrics orderMetrics) {
+        super(objectMapper);
+        this.timer = new MessageBodyTimer(orderMetrics);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage)
+            throws IOException, HttpMessageNotReadableException {
+        return timer.timeRead(() -> super.read(type, contextClass, inputMessage));
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        timer.timeWrite(() -> super.writeInternal(object, type, outputMessage));
+    }
+}
@@ -10,6 +10,11 @@ import java.util.Objects;
  * Contains the error information.
  */
 public final class ApiError {
+    /**
+     * The message of every Bad Request answered for an order that is not valid.
+     */
+    public static final String INVALID_REQUEST_MESSAGE = "The request is not valid";
+
     private final HttpStatus status;
     private final String message;
     private final List<String> errors;
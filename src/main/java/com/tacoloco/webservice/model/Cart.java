@@ -0,0 +1,41 @@
+package com.tacoloco.webservice.model;
+
+import java.util.List;
+
+/**
+ * A cart submitted for batch pricing.
+ */
+public final class Cart {
+    /**
+     * The ID of the cart, chosen by the client.
+     */
+    private final String cartId;
+
+    /**
+     * The order items of the cart.
+     */
+    private final List<OrderItem> items;
+
+    /**
+     * @param cartId ID of the cart.
+     * @param items order items of the cart.
+     */
+    public Cart(String cartId, List<OrderItem> items) {
+        this.cartId = cartId;
+        this.items = items;
+    }
+
+    /**
+     * @return The ID of the cart.
+     */
+    public String getCartId() {
+        return cartId;
+    }
+
+    /**
+     * @return The order items of the cart.
+     */
+    public List<OrderItem> getItems() {
+        return items;
+    }
+}
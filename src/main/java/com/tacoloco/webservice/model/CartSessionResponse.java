@@ -0,0 +1,57 @@
+package com.tacoloco.webservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The state of a cart session: its running totals, and its items when the whole cart is asked for.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class CartSessionResponse {
+    private final String cartId;
+    private final List<OrderItem> items;
+    private final long totalQuantity;
+    private final double totalPrice;
+
+    /**
+     * @param cartId The ID of the cart.
+     * @param items The items in the cart, or null if only the totals are returned.
+     * @param totalQuantity The units of every item in the cart.
+     * @param totalPrice The total price of the cart with its promotions and order discount.
+     */
+    public CartSessionResponse(String cartId, List<OrderItem> items, long totalQuantity, double totalPrice) {
+        this.cartId = cartId;
+        this.items = items;
+        this.totalQuantity = totalQuantity;
+        this.totalPrice = totalPrice;
+    }
+
+    /**
+     * @return The ID of the cart.
+     */
+    public String getCartId() {
+        return cartId;
+    }
+
+    /**
+     * @return The items in the cart, or null if only the totals are returned.
+     */
+    public List<OrderItem> getItems() {
+        return items;
+    }
+
+    /**
+     * @return The units of every item in the cart.
+     */
+    public long getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    /**
+     * @return The total price of the cart with its promotions and order discount.
+     */
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+}
@@ -0,0 +1,60 @@
+package com.tacoloco.webservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * The result of pricing one {@link Cart} of a batch: either its total price or its validation errors.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public final class CartTotalResponse {
+    private final String cartId;
+    private final Double totalPrice;
+    private final List<String> errors;
+
+    private CartTotalResponse(String cartId, Double totalPrice, List<String> errors) {
+        this.cartId = cartId;
+        this.totalPrice = totalPrice;
+        this.errors = errors;
+    }
+
+    /**
+     * @param cartId The ID of the cart.
+     * @param totalPrice The total price calculated.
+     * @return The response of a valid cart.
+     */
+    public static CartTotalResponse priced(String cartId, double totalPrice) {
+        return new CartTotalResponse(cartId, totalPrice, null);
+    }
+
+    /**
+     * @param cartId The ID of the cart.
+     * @param errors The List of errors that indicates the actual values which failed validation.
+     * @return The response of an invalid cart.
+     */
+    public static CartTotalResponse invalid(String cartId, List<String> errors) {
+        return new CartTotalResponse(cartId, null, errors);
+    }
+
+    /**
+     * @return The ID of the cart.
+     */
+    public String getCartId() {
+        return cartId;
+    }
+
+    /**
+     * @return The total price calculated, or null if the cart is not valid.
+     */
+    public Double getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * @return The validation errors, or null if the cart is valid.
+     */
+    public List<String> getErrors() {
+        return errors;
+    }
+}
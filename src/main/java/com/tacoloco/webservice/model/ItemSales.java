@@ -0,0 +1,52 @@
+package com.tacoloco.webservice.model;
+
+/**
+ * The live sales of a menu item.
+ */
+public final class ItemSales {
+    private final String itemName;
+    private final SalesTotals lastMinute;
+    private final SalesTotals lastHour;
+    private final SalesTotals lastDay;
+
+    /**
+     * @param itemName The name of the item.
+     * @param lastMinute The {@link SalesTotals} of the last minute.
+     * @param lastHour The {@link SalesTotals} of the last hour.
+     * @param lastDay The {@link SalesTotals} of the last day.
+     */
+    public ItemSales(String itemName, SalesTotals lastMinute, SalesTotals lastHour, SalesTotals lastDay) {
+        this.itemName = itemName;
+        this.lastMinute = lastMinute;
+        this.lastHour = lastHour;
+        this.lastDay = lastDay;
+    }
+
+    /**
+     * @return The name of the item.
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * @return The {@link SalesTotals} of the last minute.
+     */
+    public SalesTotals getLastMinute() {
+        return lastMinute;
+    }
+
+    /**
+     * @return The {@link SalesTotals} of the last hour.
+     */
+    public SalesTotals getLastHour() {
+        return lastHour;
+    }
+
+    /**
+     * @return The {@link SalesTotals} of the last day.
+     */
+    public SalesTotals getLastDay() {
+        return lastDay;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tacoloco.webservice.model;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+
+/**
+ * A menu item of a store and its price, as persisted in the database.
+ */
+@Entity
+@IdClass(MenuItemId.class)
+public class MenuItem {
+    /**
+     * The ID of the store.
+     */
+    @Id
+    private String storeId;
+
+    /**
+     * The name of the item.
+     */
+    @Id
+    private String itemName;
+
+    /**
+     * The price of the item in cents.
+     */
+    private long priceInCents;
+
+    protected MenuItem() {
+    }
+
+    /**
+     * @param storeId ID of the store.
+     * @param itemName name of the item.
+     * @param priceInCents price of the item in cents.
+     */
+    public MenuItem(String storeId, String itemName, long priceInCents) {
+        this.storeId = storeId;
+        this.itemName = itemName;
+        this.priceInCents = priceInCents;
+    }
+
+    /**
+     * @return The ID of the store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * @return The name of the item.
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * @return The price of the item in cents.
+     */
+    public long getPriceInCents() {
+        return priceInCents;
+    }
+}
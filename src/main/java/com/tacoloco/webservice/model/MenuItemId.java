@@ -0,0 +1,41 @@
+package com.tacoloco.webservice.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The primary key of a {@link MenuItem}: the store and the name of the item.
+ */
+public class MenuItemId implements Serializable {
+    private String storeId;
+    private String itemName;
+
+    protected MenuItemId() {
+    }
+
+    /**
+     * @param storeId ID of the store.
+     * @param itemName name of the item.
+     */
+    public MenuItemId(String storeId, String itemName) {
+        this.storeId = storeId;
+        this.itemName = itemName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof MenuItemId)) {
+            return false;
+        }
+        MenuItemId other = (MenuItemId) o;
+        return Objects.equals(storeId, other.storeId) && Objects.equals(itemName, other.itemName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(storeId, itemName);
+    }
+}
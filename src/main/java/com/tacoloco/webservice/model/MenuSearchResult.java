@@ -0,0 +1,39 @@
+package com.tacoloco.webservice.model;
+
+/**
+ * A menu item found by the menu search API.
+ */
+public final class MenuSearchResult {
+    /**
+     * The name of the item.
+     */
+    private final String itemName;
+
+    /**
+     * The price of the item.
+     */
+    private final double price;
+
+    /**
+     * @param itemName The name of the item.
+     * @param price The price of the item.
+     */
+    public MenuSearchResult(String itemName, double price) {
+        this.itemName = itemName;
+        this.price = price;
+    }
+
+    /**
+     * @return The name of the item.
+     */
+    public String getItemName() {
+        return itemName;
+    }
+
+    /**
+     * @return The price of the item.
+     */
+    public double getPrice() {
+        return price;
+    }
+}
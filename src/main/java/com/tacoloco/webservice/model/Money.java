@@ -0,0 +1,37 @@
+package com.tacoloco.webservice.model;
+
+/**
+ * Conversions between monetary amounts and the fixed-point cents used for pricing.
+ */
+public final class Money {
+    private static final int CENTS_PER_UNIT = 100;
+
+    private Money() {
+    }
+
+    /**
+     * @param amount The monetary amount, e.g. {@code 3.50}.
+     * @return The amount in cents, e.g. {@code 350}.
+     */
+    public static long toCents(double amount) {
+        return Math.round(amount * CENTS_PER_UNIT);
+    }
+
+    /**
+     * @param cents The amount in cents, e.g. {@code 350}.
+     * @return The monetary amount, e.g. {@code 3.50}.
+     */
+    public static double toAmount(long cents) {
+        return (double) cents / CENTS_PER_UNIT;
+    }
+
+    /**
+     * Calculates a percentage of an amount in cents, rounding half up to the nearest cent.
+     * @param cents The amount in cents.
+     * @param percentage The percentage to take.
+     * @return The percentage of the amount in cents.
+     */
+    public static long percentageOf(long cents, int percentage) {
+        return (cents * percentage + CENTS_PER_UNIT / 2) / CENTS_PER_UNIT;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tacoloco.webservice.model;
+
+/**
+ * Response of an order that was priced and journaled.
+ */
+public final class OrderReceipt {
+    private final long orderId;
+    private final double totalPrice;
+
+    /**
+     * @param orderId The sequence number the order was journaled with.
+     * @param totalPrice The total price.
+     */
+    public OrderReceipt(long orderId, double totalPrice) {
+        this.orderId = orderId;
+        this.totalPrice = totalPrice;
+    }
+
+    /**
+     * @return The sequence number the order was journaled with.
+     */
+    public long getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * @return The total price.
+     */
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+}
@@ -0,0 +1,32 @@
+package com.tacoloco.webservice.model;
+
+/**
+ * The units sold and the revenue of a menu item during a window.
+ */
+public final class SalesTotals {
+    private final long units;
+    private final double revenue;
+
+    /**
+     * @param units The number of units sold.
+     * @param revenue The revenue.
+     */
+    public SalesTotals(long units, double revenue) {
+        this.units = units;
+        this.revenue = revenue;
+    }
+
+    /**
+     * @return The number of units sold.
+     */
+    public long getUnits() {
+        return units;
+    }
+
+    /**
+     * @return The revenue.
+     */
+    public double getRevenue() {
+        return revenue;
+    }
+}
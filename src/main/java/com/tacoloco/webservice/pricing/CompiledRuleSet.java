@@ -0,0 +1,169 @@
+package com.tacoloco.webservice.pricing;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Evaluation plan of a {@link RuleSet} for one version of the {@link MenuCatalog}.
+ * The day is split into segments at every start and end time of the rules; for every store and segment the rules
+ * that apply are resolved once into a {@link PriceTable}.
+ */
+final class CompiledRuleSet {
+    private final long rulesVersion;
+    private final MenuCatalog catalog;
+    private final int[] segmentStartMinutes;
+    private final PriceTable[] defaultTables;
+    private final Map<String, PriceTable[]> tablesByStoreId;
+
+    private CompiledRuleSet(long rulesVersion, MenuCatalog catalog, int[] segmentStartMinutes,
+                            PriceTable[] defaultTables, Map<String, PriceTable[]> tablesByStoreId) {
+        this.rulesVersion = rulesVersion;
+        this.catalog = catalog;
+        this.segmentStartMinutes = segmentStartMinutes;
+        this.defaultTables = defaultTables;
+        this.tablesByStoreId = tablesByStoreId;
+    }
+
+    /**
+     * Compiles the rules for a catalog.
+     * @param ruleSet The {@link RuleSet}.
+     * @param catalog The {@link MenuCatalog} whose item IDs the tables are indexed by.
+     * @return The {@link CompiledRuleSet}.
+     */
+    static CompiledRuleSet compile(RuleSet ruleSet, MenuCatalog catalog) {
+        TreeSet<Integer> boundaries = new TreeSet<>();
+        boundaries.add(0);
+        TreeSet<String> storeIds = new TreeSet<>();
+        for (RuleSet.Rule rule : ruleSet.getRules()) {
+            if (!rule.isAllDay()) {
+                boundaries.add(rule.startMinute);
+                boundaries.add(rule.endMinute);
+            }
+            if (rule.storeId != null) {
+                storeIds.add(rule.storeId);
+            }
+        }
+        int[] segmentStartMinutes = boundaries.stream().mapToInt(Integer::intValue).toArray();
+
+        Map<String, PriceTable[]> tablesByStoreId = new HashMap<>();
+        for (String storeId : storeIds) {
+            tablesByStoreId.put(storeId, compileStore(ruleSet, catalog, storeId, segmentStartMinutes));
+        }
+        return new CompiledRuleSet(ruleSet.getVersion(), catalog, segmentStartMinutes,
+                compileStore(ruleSet, catalog, null, segmentStartMinutes), tablesByStoreId);
+    }
+
+    long getRulesVersion() {
+        return rulesVersion;
+    }
+
+    MenuCatalog getCatalog() {
+        return catalog;
+    }
+
+    /**
+     * @return True if the applicable rules change during the day, False otherwise.
+     */
+    boolean isTimeDependent() {
+        return segmentStartMinutes.length > 1;
+    }
+
+    /**
+     * @param storeId The ID of the store, or null for the rules that apply to every store.
+     * @param minuteOfDay The minute of the day.
+     * @return The {@link PriceTable} of the store at that minute of the day.
+     */
+    PriceTable getPriceTable(String storeId, int minuteOfDay) {
+        PriceTable[] tables = storeId == null ? null : tablesByStoreId.get(storeId);
+        if (tables == null) {
+            tables = defaultTables;
+        }
+        int segment = Arrays.binarySearch(segmentStartMinutes, minuteOfDay);
+        return tables[segment >= 0 ? segment : -segment - 2];
+    }
+
+    private static PriceTable[] compileStore(RuleSet ruleSet, MenuCatalog catalog, String storeId,
+                                             int[] segmentStartMinutes) {
+        PriceTable[] tables = new PriceTable[segmentStartMinutes.length];
+        for (int segment = 0; segment < segmentStartMinutes.length; segment++) {
+            tables[segment] = compileTable(effectiveRules(ruleSet, storeId, segmentStartMinutes[segment]), catalog);
+        }
+        return tables;
+    }
+
+    /**
+     * Selects the rules of a store that apply at a minute of the day: the store's own rules, and the rules for every
+     * store that the store does not override with a rule of the same type for the same item.
+     */
+    private static List<RuleSet.Rule> effectiveRules(RuleSet ruleSet, String storeId, int minuteOfDay) {
+        List<RuleSet.Rule> storeRules = new ArrayList<>();
+        List<RuleSet.Rule> globalRules = new ArrayList<>();
+        for (RuleSet.Rule rule : ruleSet.getRules()) {
+            if (!rule.isActiveAt(minuteOfDay)) {
+                continue;
+            }
+            if (rule.storeId == null) {
+                globalRules.add(rule);
+            } else if (rule.storeId.equals(storeId)) {
+                storeRules.add(rule);
+            }
+        }
+
+        List<RuleSet.Rule> rules = new ArrayList<>(storeRules);
+        for (RuleSet.Rule globalRule : globalRules) {
+            if (storeRules.stream().noneMatch(globalRule::hasSameTarget)) {
+                rules.add(globalRule);
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Resolves the rules into arrays indexed by item ID. When several rules of a type apply to an item the one that
+     * is best for the customer wins. Rules for items that are not in the catalog are ignored.
+     */
+    private static PriceTable compileTable(List<RuleSet.Rule> rules, MenuCatalog catalog) {
+        int[] discountPercentageByItemId = new int[catalog.size()];
+        int[] buyQuantityByItemId = new int[catalog.size()];
+        int[] freeQuantityByItemId = new int[catalog.size()];
+        TreeMap<Integer, Integer> orderDiscountPercentageByMinimumQuantity = new TreeMap<>();
+
+        for (RuleSet.Rule rule : rules) {
+            if (rule.type == PromotionType.ORDER_DISCOUNT) {
+                orderDiscountPercentageByMinimumQuantity.merge(rule.minimumQuantity, rule.percentage, Math::max);
+                continue;
+            }
+            int itemId = catalog.findItemId(rule.itemName);
+            if (itemId == MenuCatalog.UNKNOWN_ITEM) {
+                continue;
+            }
+            if (rule.type == PromotionType.ITEM_DISCOUNT) {
+                discountPercentageByItemId[itemId] = Math.max(discountPercentageByItemId[itemId], rule.percentage);
+            } else if (buyQuantityByItemId[itemId] == 0
+                    || (long) rule.freeQuantity * (buyQuantityByItemId[itemId] + freeQuantityByItemId[itemId])
+                    > (long) freeQuantityByItemId[itemId] * (rule.buyQuantity + rule.freeQuantity)) {
+                buyQuantityByItemId[itemId] = rule.buyQuantity;
+                freeQuantityByItemId[itemId] = rule.freeQuantity;
+            }
+        }
+
+        int[] minimumQuantities = new int[orderDiscountPercentageByMinimumQuantity.size()];
+        int[] orderDiscountPercentages = new int[minimumQuantities.length];
+        int tier = 0;
+        int bestPercentage = 0;
+        for (Map.Entry<Integer, Integer> entry : orderDiscountPercentageByMinimumQuantity.entrySet()) {
+            bestPercentage = Math.max(bestPercentage, entry.getValue());
+            minimumQuantities[tier] = entry.getKey();
+            orderDiscountPercentages[tier++] = bestPercentage;
+        }
+        return new PriceTable(discountPercentageByItemId, buyQuantityByItemId, freeQuantityByItemId,
+                minimumQuantities, orderDiscountPercentages);
+    }
+}
@@ -0,0 +1,71 @@
+package com.tacoloco.webservice.pricing;
+
+import com.tacoloco.webservice.model.Money;
+
+import java.util.Arrays;
+
+/**
+ * Compiled decision table of the promotions that apply to one store during one segment of the day.
+ * Item promotions are resolved into arrays indexed by item ID and order discounts into a table of quantity tiers,
+ * so pricing an order costs the same however many rules were defined.
+ */
+public final class PriceTable {
+    private final int[] discountPercentageByItemId;
+    private final int[] buyQuantityByItemId;
+    private final int[] freeQuantityByItemId;
+    private final int[] minimumQuantities;
+    private final int[] orderDiscountPercentages;
+
+    /**
+     * @param discountPercentageByItemId The percentage off every unit, by item ID.
+     * @param buyQuantityByItemId The units to pay for to get free units, by item ID; 0 if there is no such offer.
+     * @param freeQuantityByItemId The free units given for the units paid for, by item ID.
+     * @param minimumQuantities The ascending minimum number of units of the order discount tiers.
+     * @param orderDiscountPercentages The percentage off orders with at least the minimum units of each tier.
+     */
+    PriceTable(int[] discountPercentageByItemId, int[] buyQuantityByItemId, int[] freeQuantityByItemId,
+               int[] minimumQuantities, int[] orderDiscountPercentages) {
+        this.discountPercentageByItemId = discountPercentageByItemId;
+        this.buyQuantityByItemId = buyQuantityByItemId;
+        this.freeQuantityByItemId = freeQuantityByItemId;
+        this.minimumQuantities = minimumQuantities;
+        this.orderDiscountPercentages = orderDiscountPercentages;
+    }
+
+    /**
+     * Prices the units ordered of one item, applying its free units and its discount.
+     * @param itemId The ID of the item.
+     * @param quantity The number of units ordered.
+     * @param unitPriceInCents The price of one unit in cents.
+     * @return The price of the line in cents.
+     */
+    public long priceLine(int itemId, long quantity, long unitPriceInCents) {
+        long chargedQuantity = quantity;
+        int buyQuantity = buyQuantityByItemId[itemId];
+        if (buyQuantity > 0) {
+            int freeQuantity = freeQuantityByItemId[itemId];
+            chargedQuantity -= quantity / (buyQuantity + freeQuantity) * freeQuantity;
+        }
+        long lineTotalInCents = chargedQuantity * unitPriceInCents;
+        int discountPercentage = discountPercentageByItemId[itemId];
+        return discountPercentage == 0
+                ? lineTotalInCents : lineTotalInCents - Money.percentageOf(lineTotalInCents, discountPercentage);
+    }
+
+    /**
+     * Applies the best order discount the order qualifies for.
+     * @param subtotalInCents The sum of the priced lines in cents.
+     * @param totalQuantity The number of units ordered.
+     * @return The total of the order in cents.
+     */
+    public long applyOrderDiscount(long subtotalInCents, long totalQuantity) {
+        int tier = Arrays.binarySearch(minimumQuantities, (int) Math.min(totalQuantity, Integer.MAX_VALUE));
+        if (tier < 0) {
+            tier = -tier - 2;
+        }
+        if (tier < 0) {
+            return subtotalInCents;
+        }
+        return subtotalInCents - Money.percentageOf(subtotalInCents, orderDiscountPercentages[tier]);
+    }
+}
@@ -0,0 +1,114 @@
+package com.tacoloco.webservice.pricing;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.NearCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Applies the pricing and promotion rules.
+ * Each version of the rules is compiled once per catalog version into {@link PriceTable}s, so rules are never
+ * interpreted while an order is priced. Every store has its own catalog, so the compiled rules are kept per catalog,
+ * for as many catalogs and as long as the catalog cache keeps them.
+ */
+@Component
+public class PricingRuleEngine {
+    @Autowired
+    private PricingRulesProperties pricingRulesProperties;
+
+    @Autowired
+    private Clock pricingClock;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${tacoloco.catalog.cache.maximum-size}")
+    private int maximumCatalogs;
+
+    @Value("${tacoloco.catalog.cache.time-to-idle}")
+    private Duration timeToIdle;
+
+    private final AtomicReference<RuleSet> ruleSet = new AtomicReference<>();
+    private NearCache<MenuCatalog, CompiledRuleSet> compiledRuleSets;
+
+    /**
+     * Loads the rules configured under {@code tacoloco.pricing.rules} as the first version.
+     */
+    @PostConstruct
+    public void init() {
+        ruleSet.set(RuleSet.of(1, pricingRulesProperties.getRules()));
+        compiledRuleSets = new NearCache<>(maximumCatalogs, Long.MAX_VALUE, compiled -> 0,
+                Duration.ofNanos(Long.MAX_VALUE), timeToIdle, System::nanoTime);
+    }
+
+    /**
+     * Replaces the rules with a new version.
+     * @param definitions The {@link PromotionRule} definitions.
+     * @return The version of the new rules.
+     * @throws IllegalArgumentException if a definition is not valid; the current rules are then kept.
+     */
+    public long update(List<PromotionRule> definitions) {
+        RuleSet previous;
+        RuleSet next;
+        do {
+            previous = ruleSet.get();
+            next = RuleSet.of(previous.getVersion() + 1, definitions);
+        } while (!ruleSet.compareAndSet(previous, next));
+        compiledRuleSets.invalidateAll();
+        eventPublisher.publishEvent(new PricingRulesChangedEvent(next.getVersion()));
+        return next.getVersion();
+    }
+
+    /**
+     * @return The version of the rules currently applied.
+     */
+    public long getVersion() {
+        return ruleSet.get().getVersion();
+    }
+
+    /**
+     * Returns the table of the promotions that apply to a store right now, compiling the rules first if they or the
+     * catalog changed since they were last compiled.
+     * @param catalog The {@link MenuCatalog} the order is priced against.
+     * @param storeId The ID of the store, or null for the rules that apply to every store.
+     * @return The {@link PriceTable}.
+     */
+    public PriceTable getPriceTable(MenuCatalog catalog, String storeId) {
+        return getPriceTable(catalog, storeId, null);
+    }
+
+    /**
+     * Returns the table of the promotions that apply to a store at a time, like
+     * {@link #getPriceTable(MenuCatalog, String)}: the time-of-day rules are evaluated at that time, with the rules
+     * currently applied.
+     * @param catalog The {@link MenuCatalog} the order is priced against.
+     * @param storeId The ID of the store, or null for the rules that apply to every store.
+     * @param pricedAt The time the order is priced at, or null for now.
+     * @return The {@link PriceTable}.
+     */
+    public PriceTable getPriceTable(MenuCatalog catalog, String storeId, Instant pricedAt) {
+        RuleSet rules = ruleSet.get();
+        CompiledRuleSet compiled = compiledRuleSets.getIfPresent(catalog);
+        if (compiled == null || compiled.getRulesVersion() != rules.getVersion()) {
+            compiled = CompiledRuleSet.compile(rules, catalog);
+            compiledRuleSets.put(catalog, compiled);
+        }
+        return compiled.getPriceTable(storeId, compiled.isTimeDependent() ? minuteOfDay(pricedAt) : 0);
+    }
+
+    private int minuteOfDay(Instant pricedAt) {
+        LocalTime time = pricedAt == null
+                ? LocalTime.now(pricingClock) : LocalTime.ofInstant(pricedAt, pricingClock.getZone());
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
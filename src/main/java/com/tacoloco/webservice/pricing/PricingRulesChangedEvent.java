@@ -0,0 +1,22 @@
+package com.tacoloco.webservice.pricing;
+
+/**
+ * Published when the {@link PricingRuleEngine} starts applying a new version of the rules.
+ */
+public final class PricingRulesChangedEvent {
+    private final long version;
+
+    /**
+     * @param version The version of the rules applied now.
+     */
+    public PricingRulesChangedEvent(long version) {
+        this.version = version;
+    }
+
+    /**
+     * @return The version of the rules applied now.
+     */
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,38 @@
+package com.tacoloco.webservice.pricing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The pricing and promotion rules configured under {@code tacoloco.pricing}.
+ */
+@ConfigurationProperties("tacoloco.pricing")
+public class PricingRulesProperties {
+    /**
+     * The time zone used for time-of-day rules, or null for the system time zone.
+     */
+    private String zone;
+
+    /**
+     * The rule definitions loaded at startup.
+     */
+    private List<PromotionRule> rules = new ArrayList<>();
+
+    public String getZone() {
+        return zone;
+    }
+
+    public void setZone(String zone) {
+        this.zone = zone;
+    }
+
+    public List<PromotionRule> getRules() {
+        return rules;
+    }
+
+    public void setRules(List<PromotionRule> rules) {
+        this.rules = rules;
+    }
+}
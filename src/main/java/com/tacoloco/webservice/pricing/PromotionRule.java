@@ -0,0 +1,126 @@
+package com.tacoloco.webservice.pricing;
+
+/**
+ * Definition of a pricing or promotion rule, as configured under {@code tacoloco.pricing.rules}.
+ * A rule can be limited to a store and to a time of day; a rule of a store overrides the rules of the same type for
+ * the same item that apply to every store.
+ */
+public class PromotionRule {
+    /**
+     * The kind of the rule.
+     */
+    private PromotionType type;
+
+    /**
+     * The item the rule applies to; required for item rules, ignored for order rules.
+     */
+    private String itemName;
+
+    /**
+     * The store the rule applies to, or null if it applies to every store.
+     */
+    private String storeId;
+
+    /**
+     * The percentage taken off by {@link PromotionType#ITEM_DISCOUNT} and {@link PromotionType#ORDER_DISCOUNT}.
+     */
+    private int percentage;
+
+    /**
+     * The minimum number of units in the order for {@link PromotionType#ORDER_DISCOUNT}.
+     */
+    private int minimumQuantity;
+
+    /**
+     * The number of units paid for by {@link PromotionType#BUY_N_GET_M}.
+     */
+    private int buyQuantity;
+
+    /**
+     * The number of free units given by {@link PromotionType#BUY_N_GET_M}.
+     */
+    private int freeQuantity;
+
+    /**
+     * The time of day the rule starts applying ({@code HH:mm}, inclusive), or null if it applies all day.
+     */
+    private String startTime;
+
+    /**
+     * The time of day the rule stops applying ({@code HH:mm}, exclusive), or null if it applies all day.
+     * A window whose end is before its start spans midnight.
+     */
+    private String endTime;
+
+    public PromotionType getType() {
+        return type;
+    }
+
+    public void setType(PromotionType type) {
+        this.type = type;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getStoreId() {
+        return storeId;
+    }
+
+    public void setStoreId(String storeId) {
+        this.storeId = storeId;
+    }
+
+    public int getPercentage() {
+        return percentage;
+    }
+
+    public void setPercentage(int percentage) {
+        this.percentage = percentage;
+    }
+
+    public int getMinimumQuantity() {
+        return minimumQuantity;
+    }
+
+    public void setMinimumQuantity(int minimumQuantity) {
+        this.minimumQuantity = minimumQuantity;
+    }
+
+    public int getBuyQuantity() {
+        return buyQuantity;
+    }
+
+    public void setBuyQuantity(int buyQuantity) {
+        this.buyQuantity = buyQuantity;
+    }
+
+    public int getFreeQuantity() {
+        return freeQuantity;
+    }
+
+    public void setFreeQuantity(int freeQuantity) {
+        this.freeQuantity = freeQuantity;
+    }
+
+    public String getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(String startTime) {
+        this.startTime = startTime;
+    }
+
+    public String getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(String endTime) {
+        this.endTime = endTime;
+    }
+}
@@ -0,0 +1,19 @@
+package com.tacoloco.webservice.pricing;
+
+/**
+ * The kinds of {@link PromotionRule}.
+ */
+public enum PromotionType {
+    /**
+     * A percentage off every unit of an item.
+     */
+    ITEM_DISCOUNT,
+    /**
+     * For every {@code buyQuantity} units of an item paid for, {@code freeQuantity} more units are free.
+     */
+    BUY_N_GET_M,
+    /**
+     * A percentage off the whole order once it contains at least {@code minimumQuantity} units.
+     */
+    ORDER_DISCOUNT
+}
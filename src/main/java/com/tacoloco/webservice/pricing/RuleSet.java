@@ -0,0 +1,143 @@
+package com.tacoloco.webservice.pricing;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable, validated version of the {@link PromotionRule} definitions.
+ */
+final class RuleSet {
+    private final long version;
+    private final List<Rule> rules;
+
+    private RuleSet(long version, List<Rule> rules) {
+        this.version = version;
+        this.rules = rules;
+    }
+
+    /**
+     * Validates the definitions and copies them into a rule set.
+     * @param version The version of the rule set.
+     * @param definitions The {@link PromotionRule} definitions.
+     * @return The {@link RuleSet}.
+     * @throws IllegalArgumentException if a definition is not valid.
+     */
+    static RuleSet of(long version, List<PromotionRule> definitions) {
+        List<Rule> rules = new ArrayList<>(definitions.size());
+        for (int i = 0; i < definitions.size(); i++) {
+            rules.add(Rule.of(i, definitions.get(i)));
+        }
+        return new RuleSet(version, Collections.unmodifiableList(rules));
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    List<Rule> getRules() {
+        return rules;
+    }
+
+    /**
+     * A validated rule with its time window in minutes of the day.
+     */
+    static final class Rule {
+        final PromotionType type;
+        final String itemName;
+        final String storeId;
+        final int percentage;
+        final int minimumQuantity;
+        final int buyQuantity;
+        final int freeQuantity;
+        /**
+         * The first minute of the day the rule applies, or -1 if it applies all day.
+         */
+        final int startMinute;
+        /**
+         * The first minute of the day the rule no longer applies, or -1 if it applies all day.
+         */
+        final int endMinute;
+
+        private Rule(PromotionRule definition, int startMinute, int endMinute) {
+            this.type = definition.getType();
+            this.itemName = definition.getType() == PromotionType.ORDER_DISCOUNT ? null : definition.getItemName();
+            this.storeId = definition.getStoreId();
+            this.percentage = definition.getPercentage();
+            this.minimumQuantity = definition.getMinimumQuantity();
+            this.buyQuantity = definition.getBuyQuantity();
+            this.freeQuantity = definition.getFreeQuantity();
+            this.startMinute = startMinute;
+            this.endMinute = endMinute;
+        }
+
+        private static Rule of(int index, PromotionRule definition) {
+            String rule = "Pricing rule " + index;
+            if (definition.getType() == null) {
+                throw new IllegalArgumentException(rule + " has no type");
+            }
+            if (definition.getType() != PromotionType.ORDER_DISCOUNT && definition.getItemName() == null) {
+                throw new IllegalArgumentException(rule + " has no item name");
+            }
+            if (definition.getType() != PromotionType.BUY_N_GET_M
+                    && (definition.getPercentage() < 1 || definition.getPercentage() > 100)) {
+                throw new IllegalArgumentException(rule + " must have a percentage between 1 and 100");
+            }
+            if (definition.getType() == PromotionType.BUY_N_GET_M
+                    && (definition.getBuyQuantity() < 1 || definition.getFreeQuantity() < 1)) {
+                throw new IllegalArgumentException(rule + " must have a buy and a free quantity of at least 1");
+            }
+            if (definition.getType() == PromotionType.ORDER_DISCOUNT && definition.getMinimumQuantity() < 0) {
+                throw new IllegalArgumentException(rule + " must not have a negative minimum quantity");
+            }
+            if ((definition.getStartTime() == null) != (definition.getEndTime() == null)) {
+                throw new IllegalArgumentException(rule + " must have both a start and an end time, or neither");
+            }
+            if (definition.getStartTime() == null) {
+                return new Rule(definition, -1, -1);
+            }
+            int startMinute = parseMinute(rule, definition.getStartTime());
+            int endMinute = parseMinute(rule, definition.getEndTime());
+            if (startMinute == endMinute) {
+                throw new IllegalArgumentException(rule + " has an empty time window");
+            }
+            return new Rule(definition, startMinute, endMinute);
+        }
+
+        private static int parseMinute(String rule, String time) {
+            try {
+                LocalTime localTime = LocalTime.parse(time);
+                return localTime.getHour() * 60 + localTime.getMinute();
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException(rule + " has a time that is not of the form HH:mm: " + time, e);
+            }
+        }
+
+        boolean isAllDay() {
+            return startMinute < 0;
+        }
+
+        /**
+         * @param minuteOfDay The minute of the day.
+         * @return True if the rule applies at that minute of the day, False otherwise.
+         */
+        boolean isActiveAt(int minuteOfDay) {
+            if (isAllDay()) {
+                return true;
+            }
+            return startMinute < endMinute
+                    ? minuteOfDay >= startMinute && minuteOfDay < endMinute
+                    : minuteOfDay >= startMinute || minuteOfDay < endMinute;
+        }
+
+        /**
+         * @param other Another rule.
+         * @return True if both rules are of the same type for the same item, False otherwise.
+         */
+        boolean hasSameTarget(Rule other) {
+            return type == other.type && (itemName == null ? other.itemName == null : itemName.equals(other.itemName));
+        }
+    }
+}
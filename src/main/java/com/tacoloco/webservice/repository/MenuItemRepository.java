@@ -0,0 +1,24 @@
+package com.tacoloco.webservice.repository;
+
+import com.tacoloco.webservice.model.MenuItem;
+import com.tacoloco.webservice.model.MenuItemId;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Repository for the {@link MenuItem}s persisted in the database.
+ */
+public interface MenuItemRepository extends JpaRepository<MenuItem, MenuItemId> {
+    /**
+     * @param storeId The ID of the store.
+     * @return All the menu items of the store ordered by their name.
+     */
+    List<MenuItem> findAllByStoreIdOrderByItemNameAsc(String storeId);
+
+    /**
+     * @param storeId The ID of the store.
+     * @return Whether the store has menu items.
+     */
+    boolean existsByStoreId(String storeId);
+}
@@ -1,57 +1,152 @@
 package com.tacoloco.webservice.repository;
 
+import com.tacoloco.webservice.catalog.CatalogChangedEvent;
+import com.tacoloco.webservice.catalog.CatalogHistory;
+import com.tacoloco.webservice.catalog.CatalogSource;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.CatalogVersionNotFoundException;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.metrics.OrderPhaseEvent;
+import com.tacoloco.webservice.model.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Repository;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.Set;
 
 /**
  * Respository for managing order items.
+ * The menu of each store is served as immutable {@link MenuCatalog} snapshots by the configured {@link CatalogSource};
+ * a null store ID stands for the {@link CatalogSource#DEFAULT_STORE}.
  */
 @Repository
 public class OrderItemRepository {
+    @Autowired
+    private CatalogSource catalogSource;
+
+    @Autowired
+    private CatalogHistory catalogHistory;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    /**
+     * Retrieves the current snapshot of the menu of a store, timed as the {@link OrderMetrics.Phase#CATALOG_LOOKUP}
+     * phase since it loads the menu of a store that was not asked for lately.
+     * @param storeId The ID of the store, or null for the default store.
+     * @return The {@link MenuCatalog}.
+     * @throws com.tacoloco.webservice.catalog.UnknownStoreException if the store has no menu.
+     */
+    public MenuCatalog findCatalog(String storeId) {
+        orderMetrics.countCatalogLookup(OrderMetrics.CatalogLookup.FIND_CATALOG);
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        MenuCatalog catalog = catalogSource.getCatalog(StoreContext.orDefault(storeId));
+        orderMetrics.recordPhase(OrderMetrics.Phase.CATALOG_LOOKUP, startNanos, event);
+        return catalog;
+    }
+
     /**
-     * Initial default map of item's pricing keyed by their name.
-     * TODO: Add the data to a database.
+     * Retrieves the current snapshot of the menu of a store only if it is in memory, counted like
+     * {@link #findCatalog(String)} when it is.
+     * @param storeId The ID of the store, or null for the default store.
+     * @return The {@link MenuCatalog}, or null if it has to be loaded with {@link #findCatalog(String)}.
      */
-    private Map<String, Double> priceByItemName;
-
-    public OrderItemRepository() {
-        this.priceByItemName = new HashMap<>(3);
-        priceByItemName.put("Veggie Taco", 2.50);
-        priceByItemName.put("Chicken Taco", 3.00);
-        priceByItemName.put("Beef Taco", 3.00);
-        priceByItemName.put("Chorizo Taco", 3.50);
+    public MenuCatalog findCatalogIfLoaded(String storeId) {
+        MenuCatalog catalog = catalogSource.getCatalogIfLoaded(StoreContext.orDefault(storeId));
+        if (catalog != null) {
+            orderMetrics.countCatalogLookup(OrderMetrics.CatalogLookup.FIND_CATALOG);
+        }
+        return catalog;
+    }
+
+    /**
+     * Retrieves the snapshot of the menu of a store that was served at a time, timed like
+     * {@link #findCatalog(String)}. The menu of a store that has not been served yet is loaded first, so the
+     * {@link CatalogHistory} knows it from now on.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param asOf The time.
+     * @return The {@link MenuCatalog}.
+     * @throws com.tacoloco.webservice.catalog.UnknownStoreException if the store has no menu.
+     * @throws CatalogVersionNotFoundException if the history of the store does not go back to that time.
+     */
+    public MenuCatalog findCatalog(String storeId, Instant asOf) {
+        orderMetrics.countCatalogLookup(OrderMetrics.CatalogLookup.FIND_CATALOG_AS_OF);
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        String store = StoreContext.orDefault(storeId);
+        MenuCatalog catalog = catalogHistory.asOf(store, asOf);
+        if (catalog == null) {
+            catalogSource.getCatalog(store);
+            catalog = catalogHistory.asOf(store, asOf);
+        }
+        orderMetrics.recordPhase(OrderMetrics.Phase.CATALOG_LOOKUP, startNanos, event);
+        if (catalog == null) {
+            throw new CatalogVersionNotFoundException(store, asOf);
+        }
+        return catalog;
     }
 
     /**
      * Retrieves the price for a given item name.
+     * @param storeId The ID of the store, or null for the default store.
      * @param itemName The name of the item.
      * @return {@code Optional} containing the price if item name was available.
      */
-    public Optional<Double> findPriceByItemName(String itemName) {
-        return Optional.ofNullable(priceByItemName.get(itemName));
+    public Optional<Double> findPriceByItemName(String storeId, String itemName) {
+        orderMetrics.countCatalogLookup(OrderMetrics.CatalogLookup.FIND_PRICE_BY_ITEM_NAME);
+        MenuCatalog catalog = catalogSource.getCatalog(StoreContext.orDefault(storeId));
+        int itemId = catalog.findItemId(itemName);
+        return itemId == MenuCatalog.UNKNOWN_ITEM
+                ? Optional.empty() : Optional.of(Money.toAmount(catalog.getPriceInCents(itemId)));
     }
 
     /**
-     * Finds all the available menu item names and caches it.
+     * Finds all the available menu item names of a store and caches them by store.
+     * The lookup is only counted when the cache is missed, so more lookups than {@code cache.gets{cache=items,
+     * result=miss}} mean the cache was bypassed.
+     * @param storeId The ID of the store.
      * @return The Set of item names.
      */
     @Cacheable("items")
-    public Set<String> findAllItemNames()
+    public Set<String> findAllItemNames(String storeId)
     {
-        return priceByItemName.keySet();
+        orderMetrics.countCatalogLookup(OrderMetrics.CatalogLookup.FIND_ALL_ITEM_NAMES);
+        return catalogSource.getCatalog(storeId).getItemNames();
     }
 
     /**
-     * Check whether a given item name exists in the data source.
+     * Check whether a given item name exists in the menu of a store.
+     * @param storeId The ID of the store, or null for the default store.
      * @param itemName The name of the item.
      * @return True if item exists, False otherwise.
      */
-    public boolean doesItemNameExist(String itemName) {
-        return findAllItemNames().contains(itemName);
+    public boolean doesItemNameExist(String storeId, String itemName) {
+        orderMetrics.countCatalogLookup(OrderMetrics.CatalogLookup.DOES_ITEM_NAME_EXIST);
+        return findAllItemNames(StoreContext.orDefault(storeId)).contains(itemName);
+    }
+
+    /**
+     * Evicts the cached item names of a store when a new version of its menu is served, or of every store when the
+     * menu served to every store changed.
+     * @param event The {@link CatalogChangedEvent}.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        Cache items = cacheManager.getCache("items");
+        if (items != null && event.getStoreId() != null) {
+            items.evict(event.getStoreId());
+        } else if (items != null) {
+            items.clear();
+        }
     }
 }
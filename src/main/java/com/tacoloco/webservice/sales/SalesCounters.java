@@ -0,0 +1,232 @@
+package com.tacoloco.webservice.sales;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Live sales of every menu item: units sold and revenue over the last minute, hour and day.
+ * <p>
+ * Recording a line item is two atomic additions to cumulative counters. The counters are striped by thread, so
+ * pricing threads do not contend on the same cache lines, and recording never reads the clock. Once per second a
+ * ticker sums the stripes into a snapshot kept in ring buffers of per-second, per-minute and per-hour snapshots; the
+ * sales of a window are the current sums minus the snapshot taken when the window started.
+ * <p>
+ * Items are given a counter slot by name the first time they are sold, so the history of an item survives new catalog
+ * versions and the sales of an item are summed over every store. Items beyond {@code tacoloco.sales.maximum-items}
+ * are not counted.
+ */
+@Component
+public class SalesCounters {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SalesCounters.class);
+
+    /**
+     * Longs left unused before and after the counters of a stripe, so stripes never share a cache line.
+     */
+    private static final int PADDING = 16;
+
+    @Value("${tacoloco.sales.maximum-items}")
+    private int maximumItems;
+
+    private final ConcurrentHashMap<String, Integer> slotByItemName = new ConcurrentHashMap<>();
+    private final List<String> itemNameBySlot = new ArrayList<>();
+    private final AtomicInteger slotCount = new AtomicInteger();
+    private AtomicLongArray[] stripes;
+    private int stripeMask;
+
+    private final SnapshotRing seconds = new SnapshotRing(60);
+    private final SnapshotRing minutes = new SnapshotRing(60);
+    private final SnapshotRing hours = new SnapshotRing(24);
+    private long ticks;
+    private ScheduledExecutorService ticker;
+
+    /**
+     * The sales windows that can be read.
+     */
+    public enum Window {
+        LAST_MINUTE, LAST_HOUR, LAST_DAY
+    }
+
+    /**
+     * Allocates one stripe per processor, rounded up to a power of two, and starts taking a snapshot every second.
+     */
+    @PostConstruct
+    public void init() {
+        int stripeCount = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1));
+        stripes = new AtomicLongArray[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new AtomicLongArray(PADDING + maximumItems * 2 + PADDING);
+        }
+        stripeMask = stripeCount - 1;
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sales-counters-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, 1, 1, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+    }
+
+    /**
+     * Records the sale of a line item. Sales priced against a {@link MenuCatalog#SYNTHETIC_VERSION} catalog, i.e.
+     * during the warm-up, are not counted.
+     * @param catalog The {@link MenuCatalog} the item ID was resolved against.
+     * @param itemId The ID of the item.
+     * @param units The number of units sold.
+     * @param revenueInCents The revenue of the line in cents.
+     */
+    public void record(MenuCatalog catalog, int itemId, long units, long revenueInCents) {
+        if (catalog.getVersion() == MenuCatalog.SYNTHETIC_VERSION) {
+            return;
+        }
+        String itemName = catalog.getItemName(itemId);
+        Integer slot = slotByItemName.get(itemName);
+        if (slot == null) {
+            slot = assignSlot(itemName);
+        }
+        if (slot < 0) {
+            return;
+        }
+        AtomicLongArray stripe = stripes[stripe() & stripeMask];
+        stripe.getAndAdd(PADDING + slot * 2, units);
+        stripe.getAndAdd(PADDING + slot * 2 + 1, revenueInCents);
+    }
+
+    /**
+     * Sums the stripes and returns the sales of every item during a window, at the resolution of the snapshots: the
+     * last minute is measured in seconds, the last hour in minutes and the last day in hours. Until the service has
+     * run for a whole window, the sales since it started are returned.
+     * @param window The {@link Window}.
+     * @return The units sold and the revenue in cents of every item, by slot: units at {@code 2 * slot} and revenue
+     *         at {@code 2 * slot + 1}.
+     */
+    public long[] getSales(Window window) {
+        long[] sales = sum();
+        long[] start;
+        synchronized (this) {
+            switch (window) {
+                case LAST_MINUTE:
+                    start = seconds.oldest();
+                    break;
+                case LAST_HOUR:
+                    start = minutes.oldest();
+                    break;
+                default:
+                    start = hours.oldest();
+            }
+        }
+        for (int i = 0; i < Math.min(sales.length, start.length); i++) {
+            sales[i] -= start[i];
+        }
+        return sales;
+    }
+
+    /**
+     * @return The names of the items that have a counter slot, by slot.
+     */
+    public synchronized List<String> getItemNames() {
+        return List.copyOf(itemNameBySlot);
+    }
+
+    /**
+     * Takes a snapshot of the sums into the ring buffers.
+     */
+    synchronized void tick() {
+        long[] snapshot = sum();
+        seconds.add(snapshot);
+        ticks++;
+        if (ticks % 60 == 0) {
+            minutes.add(snapshot);
+        }
+        if (ticks % 3600 == 0) {
+            hours.add(snapshot);
+        }
+    }
+
+    private long[] sum() {
+        long[] sums = new long[slotCount.get() * 2];
+        for (AtomicLongArray stripe : stripes) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += stripe.get(PADDING + i);
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Gives an item the next free counter slot.
+     * @return The slot, or -1 if every slot is taken.
+     */
+    private synchronized int assignSlot(String itemName) {
+        Integer slot = slotByItemName.get(itemName);
+        if (slot != null) {
+            return slot;
+        }
+        if (itemNameBySlot.size() == maximumItems) {
+            LOGGER.warn("Not counting the sales of {}: more than {} items", itemName, maximumItems);
+            slotByItemName.put(itemName, -1);
+            return -1;
+        }
+        slot = itemNameBySlot.size();
+        itemNameBySlot.add(itemName);
+        slotByItemName.put(itemName, slot);
+        slotCount.set(itemNameBySlot.size());
+        return slot;
+    }
+
+    /**
+     * @return A hash of the current thread, spreading consecutive thread IDs over the stripes.
+     */
+    private static int stripe() {
+        long id = Thread.currentThread().getId();
+        return ((int) (id ^ (id >>> 32)) * 0x9E3779B9) >>> 16;
+    }
+
+    /**
+     * Ring buffer of the last snapshots, which returns the one taken a full window ago.
+     */
+    private static final class SnapshotRing {
+        private static final long[] EMPTY = new long[0];
+
+        private final long[][] snapshots;
+        private int next;
+        private int size;
+
+        private SnapshotRing(int window) {
+            snapshots = new long[window][];
+        }
+
+        private void add(long[] snapshot) {
+            snapshots[next] = snapshot;
+            next = (next + 1) % snapshots.length;
+            size = Math.min(size + 1, snapshots.length);
+        }
+
+        /**
+         * @return The snapshot taken a full window ago, or an empty one if the window is not full yet.
+         */
+        private long[] oldest() {
+            return size < snapshots.length ? EMPTY : snapshots[next];
+        }
+    }
+}
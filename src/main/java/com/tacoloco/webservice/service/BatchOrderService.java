@@ -0,0 +1,174 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.model.Cart;
+import com.tacoloco.webservice.model.CartTotalResponse;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.validator.OrderItemViolations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Service for pricing batches of independent {@link Cart}s.
+ */
+@Service
+public class BatchOrderService {
+    /**
+     * The number of carts below which a pricing task prices its carts itself instead of forking.
+     */
+    private static final int CARTS_PER_TASK = 16;
+    private static final String ITEMS_PROPERTY_PATH = "items";
+    private static final String UNPRICEABLE_CART_ERROR = "The cart could not be priced";
+    /**
+     * Queued by a pricing task that failed, so the calling thread stops waiting for the carts it will never price.
+     */
+    private static final CartTotalResponse FAILED = CartTotalResponse.invalid(null, List.of());
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private ForkJoinPool batchPricingPool;
+
+    @Value("${tacoloco.batch.timeout}")
+    private Duration timeout;
+
+    /**
+     * Receives the result of each cart of a batch.
+     */
+    @FunctionalInterface
+    public interface CartTotalConsumer {
+        /**
+         * @param cartTotal The result of a cart.
+         * @throws IOException if the result cannot be written.
+         */
+        void accept(CartTotalResponse cartTotal) throws IOException;
+    }
+
+    /**
+     * Prices the carts in parallel with the same rules as {@link OrderItemService#calculateTotal(String, List)},
+     * against a single catalog snapshot of the store. Results are handed to the consumer on the calling thread in the
+     * order the carts complete; an invalid cart produces its validation errors without failing the rest of the batch.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param catalog The {@link MenuCatalog} of the store, from {@link OrderItemService#findCatalog(String)}.
+     * @param carts The List of {@link Cart}s.
+     * @param consumer Receives the {@link CartTotalResponse} of each cart.
+     * @throws IOException if the consumer fails, a pricing task fails, or the batch is not priced within
+     * {@code tacoloco.batch.timeout}; the remaining carts are then abandoned.
+     */
+    public void calculateTotals(String storeId, MenuCatalog catalog, List<Cart> carts, CartTotalConsumer consumer)
+            throws IOException {
+        BlockingQueue<CartTotalResponse> completed = new LinkedBlockingQueue<>();
+        AtomicBoolean abandoned = new AtomicBoolean();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        batchPricingPool.execute(new PriceCartsTask(storeId, catalog, carts, 0, carts.size(), completed, abandoned,
+                failure));
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        try {
+            for (int i = 0; i < carts.size(); i++) {
+                // a task that never ran, e.g. in a pool shut down meanwhile, must not hold the request forever
+                CartTotalResponse cartTotal = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (cartTotal == null) {
+                    throw new IOException("The batch was not priced within " + timeout);
+                }
+                if (cartTotal == FAILED) {
+                    throw new IOException("The batch could not be priced", failure.get());
+                }
+                consumer.accept(cartTotal);
+            }
+        } catch (InterruptedException e) {
+            abandoned.set(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while pricing the batch");
+        } catch (IOException | RuntimeException e) {
+            abandoned.set(true);
+            throw e;
+        }
+    }
+
+    /**
+     * Prices a single cart, turning validation failures into an invalid result.
+     */
+    private CartTotalResponse calculateTotal(String storeId, MenuCatalog catalog, Cart cart) {
+        if (cart == null) {
+            return CartTotalResponse.invalid(null, List.of(UNPRICEABLE_CART_ERROR));
+        }
+        if (cart.getItems() == null || cart.getItems().isEmpty()) {
+            return CartTotalResponse.invalid(cart.getCartId(),
+                    List.of(ITEMS_PROPERTY_PATH + " " + cart.getItems() + ": " + OrderItemViolations.EMPTY_MESSAGE));
+        }
+        try {
+            List<String> errors = new ArrayList<>();
+            long totalPriceInCents = orderItemService.calculateTotalInCents(storeId, catalog, cart.getItems(),
+                    ITEMS_PROPERTY_PATH, errors);
+            return totalPriceInCents == OrderItemService.INVALID_ORDER
+                    ? CartTotalResponse.invalid(cart.getCartId(), errors)
+                    : CartTotalResponse.priced(cart.getCartId(), Money.toAmount(totalPriceInCents));
+        } catch (RuntimeException e) {
+            return CartTotalResponse.invalid(cart.getCartId(), List.of(UNPRICEABLE_CART_ERROR));
+        }
+    }
+
+    /**
+     * Splits a range of carts until it is small enough to price directly.
+     */
+    private final class PriceCartsTask extends RecursiveAction {
+        private final String storeId;
+        private final MenuCatalog catalog;
+        private final List<Cart> carts;
+        private final int from;
+        private final int to;
+        private final BlockingQueue<CartTotalResponse> completed;
+        private final AtomicBoolean abandoned;
+        private final AtomicReference<Throwable> failure;
+
+        private PriceCartsTask(String storeId, MenuCatalog catalog, List<Cart> carts, int from, int to,
+                               BlockingQueue<CartTotalResponse> completed, AtomicBoolean abandoned,
+                               AtomicReference<Throwable> failure) {
+            this.storeId = storeId;
+            this.catalog = catalog;
+            this.carts = carts;
+            this.from = from;
+            this.to = to;
+            this.completed = completed;
+            this.abandoned = abandoned;
+            this.failure = failure;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > CARTS_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new PriceCartsTask(storeId, catalog, carts, from, middle, completed, abandoned, failure),
+                        new PriceCartsTask(storeId, catalog, carts, middle, to, completed, abandoned, failure));
+                return;
+            }
+            try {
+                for (int i = from; i < to && !abandoned.get(); i++) {
+                    completed.add(calculateTotal(storeId, catalog, carts.get(i)));
+                }
+            } catch (Throwable e) {
+                // an Error, e.g. running out of memory, would otherwise leave the calling thread waiting
+                if (failure.compareAndSet(null, e)) {
+                    abandoned.set(true);
+                    completed.add(FAILED);
+                }
+            }
+        }
+    }
+}
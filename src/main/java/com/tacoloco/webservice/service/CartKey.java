@@ -0,0 +1,62 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.pricing.PriceTable;
+
+import java.util.Arrays;
+
+/**
+ * Canonical form of a cart used as a cache key: the merged quantity of every ordered item, sorted by item ID,
+ * together with the {@link PriceTable} it was priced with. Price tables are compiled for one version of the catalog
+ * and of the pricing rules, and are compared by identity. Line order and duplicate lines therefore produce the same
+ * key, and a total is only found for the prices and promotions it was calculated with.
+ */
+final class CartKey {
+    private final PriceTable priceTable;
+    private final long[] quantitiesByItemId;
+    private final int hash;
+
+    private CartKey(PriceTable priceTable, long[] quantitiesByItemId) {
+        this.priceTable = priceTable;
+        this.quantitiesByItemId = quantitiesByItemId;
+        this.hash = 31 * System.identityHashCode(priceTable) + Arrays.hashCode(quantitiesByItemId);
+    }
+
+    /**
+     * @param priceTable The {@link PriceTable} the cart is priced with.
+     * @param quantities The aggregated quantities of the cart.
+     * @return The {@link CartKey}.
+     */
+    static CartKey of(PriceTable priceTable, QuantityAccumulator quantities) {
+        long[] quantitiesByItemId = new long[quantities.size() * 2];
+        for (int i = 0; i < quantities.size(); i++) {
+            int itemId = quantities.itemIdAt(i);
+            int j = i;
+            while (j > 0 && quantitiesByItemId[(j - 1) * 2] > itemId) {
+                quantitiesByItemId[j * 2] = quantitiesByItemId[(j - 1) * 2];
+                quantitiesByItemId[j * 2 + 1] = quantitiesByItemId[(j - 1) * 2 + 1];
+                j--;
+            }
+            quantitiesByItemId[j * 2] = itemId;
+            quantitiesByItemId[j * 2 + 1] = quantities.quantityOf(itemId);
+        }
+        return new CartKey(priceTable, quantitiesByItemId);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CartKey)) {
+            return false;
+        }
+        CartKey that = (CartKey) other;
+        return hash == that.hash && priceTable == that.priceTable
+                && Arrays.equals(quantitiesByItemId, that.quantitiesByItemId);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,171 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.model.CartSessionResponse;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.pricing.PriceTable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A cart kept on the server while a customer builds an order, e.g. on a kiosk, with its running totals.
+ * <p>
+ * Every line keeps its priced total, so a change of one line only re-prices that line: the subtotal is adjusted by the
+ * difference and the order discount is applied to the new subtotal and total quantity, whatever the size of the cart.
+ * The whole cart is only re-priced when the menu version or the {@link PriceTable} it was priced with is no longer the
+ * current one. Changes to the same cart are serialized on the cart.
+ */
+public final class CartSession {
+    private final String cartId;
+    private final String storeId;
+    private final Map<String, Line> linesByItemName = new LinkedHashMap<>();
+
+    private MenuCatalog catalog;
+    private PriceTable priceTable;
+    private long subtotalInCents;
+    private long totalQuantity;
+
+    /**
+     * The units and the priced total of an item in the cart.
+     */
+    private static final class Line {
+        private int itemId;
+        private long quantity;
+        private long totalInCents;
+
+        Line(int itemId) {
+            this.itemId = itemId;
+        }
+    }
+
+    /**
+     * @param cartId The ID of the cart.
+     * @param storeId The ID of the store the cart is priced for, or null for the default store.
+     */
+    CartSession(String cartId, String storeId) {
+        this.cartId = cartId;
+        this.storeId = storeId;
+    }
+
+    /**
+     * @return The ID of the cart.
+     */
+    public String getCartId() {
+        return cartId;
+    }
+
+    /**
+     * @return The ID of the store the cart is priced for, or null for the default store.
+     */
+    public String getStoreId() {
+        return storeId;
+    }
+
+    /**
+     * Sets the units of an item, adding it to the cart or removing it.
+     * @param catalog The current {@link MenuCatalog} of the store.
+     * @param priceTable The current {@link PriceTable} of the store.
+     * @param itemId The ID of the item in the catalog.
+     * @param quantity The units, or 0 to remove the item.
+     * @param add Whether to add the units to the units already in the cart rather than replace them.
+     * @param maximumLines The maximum number of distinct items in the cart.
+     * @return The totals of the cart after the change, or null if the item is not in the cart and the cart already
+     * has the maximum number of distinct items.
+     */
+    synchronized CartSessionResponse update(MenuCatalog catalog, PriceTable priceTable, int itemId, long quantity,
+                                            boolean add, int maximumLines) {
+        reprice(catalog, priceTable);
+        String itemName = catalog.getItemName(itemId);
+        Line line = linesByItemName.get(itemName);
+        if (line == null && quantity > 0) {
+            if (linesByItemName.size() >= maximumLines) {
+                return null;
+            }
+            line = new Line(itemId);
+            linesByItemName.put(itemName, line);
+        }
+        if (line != null) {
+            long newQuantity = add ? line.quantity + quantity : quantity;
+            subtotalInCents -= line.totalInCents;
+            totalQuantity -= line.quantity;
+            if (newQuantity > 0) {
+                line.quantity = newQuantity;
+                line.totalInCents = priceTable.priceLine(itemId, newQuantity, catalog.getPriceInCents(itemId));
+                subtotalInCents += line.totalInCents;
+                totalQuantity += newQuantity;
+            } else {
+                linesByItemName.remove(itemName);
+            }
+        }
+        return totals(null);
+    }
+
+    /**
+     * Removes an item from the cart, whether or not it is still on the menu.
+     * @param catalog The current {@link MenuCatalog} of the store.
+     * @param priceTable The current {@link PriceTable} of the store.
+     * @param itemName The name of the item.
+     * @return The totals of the cart after the change.
+     */
+    synchronized CartSessionResponse remove(MenuCatalog catalog, PriceTable priceTable, String itemName) {
+        reprice(catalog, priceTable);
+        Line line = linesByItemName.remove(itemName);
+        if (line != null) {
+            subtotalInCents -= line.totalInCents;
+            totalQuantity -= line.quantity;
+        }
+        return totals(null);
+    }
+
+    /**
+     * Returns the items and the totals of the cart.
+     * @param catalog The current {@link MenuCatalog} of the store.
+     * @param priceTable The current {@link PriceTable} of the store.
+     * @return The {@link CartSessionResponse} with the items.
+     */
+    synchronized CartSessionResponse view(MenuCatalog catalog, PriceTable priceTable) {
+        reprice(catalog, priceTable);
+        List<OrderItem> items = new ArrayList<>(linesByItemName.size());
+        for (Map.Entry<String, Line> entry : linesByItemName.entrySet()) {
+            items.add(new OrderItem(entry.getKey(), (int) Math.min(entry.getValue().quantity, Integer.MAX_VALUE)));
+        }
+        return totals(items);
+    }
+
+    /**
+     * Prices every line again if the menu or the promotions changed since the cart was last priced; items that are no
+     * longer on the menu are removed.
+     */
+    private void reprice(MenuCatalog catalog, PriceTable priceTable) {
+        if (catalog == this.catalog && priceTable == this.priceTable) {
+            return;
+        }
+        subtotalInCents = 0;
+        totalQuantity = 0;
+        for (Iterator<Map.Entry<String, Line>> lines = linesByItemName.entrySet().iterator(); lines.hasNext(); ) {
+            Map.Entry<String, Line> entry = lines.next();
+            Line line = entry.getValue();
+            line.itemId = catalog.findItemId(entry.getKey());
+            if (line.itemId == MenuCatalog.UNKNOWN_ITEM) {
+                lines.remove();
+                continue;
+            }
+            line.totalInCents = priceTable.priceLine(line.itemId, line.quantity,
+                    catalog.getPriceInCents(line.itemId));
+            subtotalInCents += line.totalInCents;
+            totalQuantity += line.quantity;
+        }
+        this.catalog = catalog;
+        this.priceTable = priceTable;
+    }
+
+    private CartSessionResponse totals(List<OrderItem> items) {
+        return new CartSessionResponse(cartId, items, totalQuantity,
+                Money.toAmount(priceTable.applyOrderDiscount(subtotalInCents, totalQuantity)));
+    }
+}
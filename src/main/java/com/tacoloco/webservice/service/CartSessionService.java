@@ -0,0 +1,186 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.NearCache;
+import com.tacoloco.webservice.exception.InvalidOrderException;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.model.ApiError;
+import com.tacoloco.webservice.model.CartSessionResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.pricing.PriceTable;
+import com.tacoloco.webservice.pricing.PricingRuleEngine;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import com.tacoloco.webservice.validator.OrderItemViolations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for the carts kept on the server while a customer builds an order, so a client changing one item at a time
+ * sends only that item and gets the new totals back, instead of sending the whole order to {@code /calculateTotal}
+ * on every change.
+ * <p>
+ * A change of one item re-prices only that item, see {@link CartSession}. The carts are held in a {@link NearCache}
+ * bounded by {@code tacoloco.carts.maximum-size}; a cart not read or changed for {@code tacoloco.carts.time-to-idle}
+ * is no longer served and is evicted first once the cache is full, and a cart holds at most
+ * {@code tacoloco.carts.maximum-lines} distinct items. Carts are priced like
+ * {@link OrderItemService} prices orders but are not counted as sales until they are submitted as an order.
+ */
+@Service
+public class CartSessionService {
+    private static final String ITEMS_PROPERTY_PATH = "cart.items";
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Value("${tacoloco.carts.maximum-size}")
+    private int maximumSize;
+
+    @Value("${tacoloco.carts.time-to-idle}")
+    private Duration timeToIdle;
+
+    @Value("${tacoloco.carts.maximum-lines}")
+    private int maximumLines;
+
+    private NearCache<String, CartSession> sessions;
+
+    @PostConstruct
+    public void init() {
+        sessions = new NearCache<>(maximumSize, Long.MAX_VALUE, session -> 0, Duration.ofNanos(Long.MAX_VALUE),
+                timeToIdle, System::nanoTime);
+    }
+
+    /**
+     * Creates an empty cart priced with the menu of a store.
+     * @param storeId The ID of the store, or null for the default store.
+     * @return Created {@link CartSessionResponse} of the empty cart, with the location of the cart.
+     * @throws com.tacoloco.webservice.catalog.UnknownStoreException if the store has no menu.
+     */
+    public ResponseEntity<Object> create(String storeId) {
+        MenuCatalog catalog = orderItemRepository.findCatalog(storeId);
+        CartSession session = new CartSession(UUID.randomUUID().toString(), storeId);
+        sessions.put(session.getCartId(), session);
+        return ResponseEntity.created(URI.create("/carts/" + session.getCartId()))
+                .body(session.view(catalog, pricingRuleEngine.getPriceTable(catalog, storeId)));
+    }
+
+    /**
+     * @param cartId The ID of the cart.
+     * @return The {@link CartSessionResponse} with the items and totals of the cart, or a Not Found
+     * {@link ApiError} if there is no such cart.
+     */
+    public ResponseEntity<Object> getCart(String cartId) {
+        CartSession session = sessions.getIfPresent(cartId);
+        if (session == null) {
+            return notFound(cartId);
+        }
+        MenuCatalog catalog = orderItemRepository.findCatalog(session.getStoreId());
+        return ResponseEntity.ok(session.view(catalog,
+                pricingRuleEngine.getPriceTable(catalog, session.getStoreId())));
+    }
+
+    /**
+     * Adds units of an item to a cart.
+     * @param cartId The ID of the cart.
+     * @param orderItem The {@link OrderItem} with the units to add.
+     * @return The {@link CartSessionResponse} with the totals of the cart, a Bad Request {@link ApiError} if the
+     * item is not valid or the cart is full, or a Not Found {@link ApiError} if there is no such cart.
+     */
+    public ResponseEntity<Object> addItem(String cartId, OrderItem orderItem) {
+        return update(cartId, orderItem, true);
+    }
+
+    /**
+     * Sets the units of an item in a cart, adding it if it is not in the cart.
+     * @param cartId The ID of the cart.
+     * @param orderItem The {@link OrderItem} with the new units.
+     * @return The {@link CartSessionResponse} with the totals of the cart, a Bad Request {@link ApiError} if the
+     * item is not valid or the cart is full, or a Not Found {@link ApiError} if there is no such cart.
+     */
+    public ResponseEntity<Object> setItem(String cartId, OrderItem orderItem) {
+        return update(cartId, orderItem, false);
+    }
+
+    private ResponseEntity<Object> update(String cartId, OrderItem orderItem, boolean add) {
+        CartSession session = sessions.getIfPresent(cartId);
+        if (session == null) {
+            return notFound(cartId);
+        }
+        MenuCatalog catalog = orderItemRepository.findCatalog(session.getStoreId());
+        int itemId = catalog.findItemId(orderItem.getItemName());
+        if (itemId == MenuCatalog.UNKNOWN_ITEM || orderItem.getQuantity() < 1) {
+            return badRequest(OrderItemViolations.addViolations(null, ITEMS_PROPERTY_PATH, 0, orderItem,
+                    itemId != MenuCatalog.UNKNOWN_ITEM));
+        }
+        PriceTable priceTable = pricingRuleEngine.getPriceTable(catalog, session.getStoreId());
+        CartSessionResponse response = session.update(catalog, priceTable, itemId, orderItem.getQuantity(), add,
+                maximumLines);
+        if (response == null) {
+            return badRequest(List.of(ITEMS_PROPERTY_PATH + ": must not have more than " + maximumLines
+                    + " distinct items"));
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Removes an item from a cart; removing an item that is not in the cart changes nothing.
+     * @param cartId The ID of the cart.
+     * @param itemName The name of the item.
+     * @return The {@link CartSessionResponse} with the totals of the cart, or a Not Found {@link ApiError} if there
+     * is no such cart.
+     */
+    public ResponseEntity<Object> removeItem(String cartId, String itemName) {
+        CartSession session = sessions.getIfPresent(cartId);
+        if (session == null) {
+            return notFound(cartId);
+        }
+        MenuCatalog catalog = orderItemRepository.findCatalog(session.getStoreId());
+        return ResponseEntity.ok(session.remove(catalog,
+                pricingRuleEngine.getPriceTable(catalog, session.getStoreId()), itemName));
+    }
+
+    /**
+     * Drops a cart, e.g. once its order was submitted.
+     * @param cartId The ID of the cart.
+     * @return No Content, or a Not Found {@link ApiError} if there is no such cart.
+     */
+    public ResponseEntity<Object> deleteCart(String cartId) {
+        if (sessions.getIfPresent(cartId) == null) {
+            return notFound(cartId);
+        }
+        sessions.invalidate(cartId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private ResponseEntity<Object> badRequest(List<String> errors) {
+        orderMetrics.countValidationFailure(InvalidOrderException.class);
+        return ResponseEntity.badRequest()
+                .body(new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, errors));
+    }
+
+    private static ResponseEntity<Object> notFound(String cartId) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new ApiError(HttpStatus.NOT_FOUND,
+                "The cart was not found", "cartId " + cartId + ": The cart does not exist or has expired"));
+    }
+
+    /**
+     * @return The {@link NearCache} holding the carts, for its statistics.
+     */
+    public NearCache<?, CartSession> getSessions() {
+        return sessions;
+    }
+}
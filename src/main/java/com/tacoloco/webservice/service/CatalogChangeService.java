@@ -0,0 +1,82 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.CatalogSource;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.catalog.feed.CatalogChange;
+import com.tacoloco.webservice.catalog.feed.CatalogChangeFeed;
+import com.tacoloco.webservice.catalog.feed.CatalogChangeSubscriber;
+import com.tacoloco.webservice.model.ApiError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Service for announcing menu changes to every instance through the {@link CatalogChangeFeed}.
+ */
+@Service
+public class CatalogChangeService {
+    /**
+     * The header carrying the admin key, {@code tacoloco.catalog.feed.admin-key}, that a change must be published
+     * with.
+     */
+    public static final String ADMIN_KEY_HEADER = "X-Admin-Key";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CatalogChangeService.class);
+
+    @Value("${tacoloco.catalog.feed.admin-key}")
+    private String adminKey;
+
+    @Autowired
+    private CatalogChangeFeed feed;
+
+    @Autowired
+    private CatalogChangeSubscriber subscriber;
+
+    @Autowired
+    private CatalogSource catalogSource;
+
+    /**
+     * Publishes a change of the menu of a store, or of every store, and applies it to this instance at once; the
+     * other instances apply it at their next poll of the feed. Only callers with the admin key may publish, as a
+     * change makes every instance reload menus; without a configured admin key nobody may.
+     * @param adminKey The admin key sent by the caller, or null if it sent none.
+     * @param storeId The ID of the store, or null if the menu of every store changed.
+     * @return The published {@link CatalogChange}, or an {@link ApiError} if the admin key is wrong, the store is
+     * unknown or the feed cannot be written.
+     */
+    public ResponseEntity<Object> publishChange(String adminKey, String storeId) {
+        if (this.adminKey.isEmpty() || adminKey == null || !MessageDigest.isEqual(
+                this.adminKey.getBytes(StandardCharsets.UTF_8), adminKey.getBytes(StandardCharsets.UTF_8))) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(new ApiError(HttpStatus.FORBIDDEN,
+                    "Forbidden", ADMIN_KEY_HEADER + ": The admin key is missing or wrong"));
+        }
+        if (storeId != null && (storeId.length() > StoreContext.MAXIMUM_STORE_ID_LENGTH
+                || !catalogSource.hasStore(storeId))) {
+            return ResponseEntity.badRequest().body(new ApiError(HttpStatus.BAD_REQUEST,
+                    ApiError.INVALID_REQUEST_MESSAGE, StoreContext.STORE_ID_HEADER + ": The store has no menu"));
+        }
+        CatalogChange change;
+        try {
+            change = feed.publish(storeId);
+        } catch (IOException e) {
+            LOGGER.warn("Could not publish the catalog change of store {}", storeId, e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(new ApiError(
+                    HttpStatus.SERVICE_UNAVAILABLE, "The catalog change could not be published", e.toString()));
+        }
+        try {
+            subscriber.poll();
+        } catch (IOException e) {
+            // published: this instance applies it at its next poll like the others
+            LOGGER.warn("Could not apply the catalog change feed", e);
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(change);
+    }
+}
@@ -0,0 +1,63 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.MenuSearchIndex;
+import com.tacoloco.webservice.catalog.NearCache;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.model.MenuSearchResult;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for searching the menu of a store.
+ * <p>
+ * The {@link MenuSearchIndex} of a store is built when the store is first searched and kept in a near-cache. When
+ * the catalog of the store is replaced, the index is expired and updated from its previous version, which reuses
+ * the whole index when only prices changed.
+ */
+@Service
+public class MenuSearchService {
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private NearCache<String, MenuSearchIndex> menuSearchIndexCache;
+
+    /**
+     * Searches the items of the menu of a store by name, as described by {@link MenuSearchIndex#search}.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param query The query, e.g. the start of an item name.
+     * @param limit The maximum number of items returned.
+     * @return The matching items and their prices, best first.
+     */
+    public ResponseEntity<List<MenuSearchResult>> search(String storeId, String query, int limit) {
+        MenuCatalog catalog = orderItemRepository.findCatalog(storeId);
+        MenuSearchIndex index = findIndex(StoreContext.orDefault(storeId), catalog);
+        List<String> itemNames = index.search(query, limit);
+        List<MenuSearchResult> results = new ArrayList<>(itemNames.size());
+        for (String itemName : itemNames) {
+            int itemId = catalog.findItemId(itemName);
+            if (itemId != MenuCatalog.UNKNOWN_ITEM) {
+                results.add(new MenuSearchResult(itemName, Money.toAmount(catalog.getPriceInCents(itemId))));
+            }
+        }
+        return ResponseEntity.ok(results);
+    }
+
+    private MenuSearchIndex findIndex(String storeId, MenuCatalog catalog) {
+        MenuSearchIndex index = menuSearchIndexCache.get(storeId,
+                (key, stale) -> stale == null ? MenuSearchIndex.of(catalog) : stale.update(catalog));
+        if (index.getCatalog() != catalog) {
+            menuSearchIndexCache.expire(storeId);
+            index = menuSearchIndexCache.get(storeId,
+                    (key, stale) -> stale == null ? MenuSearchIndex.of(catalog) : stale.update(catalog));
+        }
+        return index;
+    }
+}
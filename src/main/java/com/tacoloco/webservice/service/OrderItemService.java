@@ -1,51 +1,384 @@
 package com.tacoloco.webservice.service;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.exception.InvalidOrderException;
+import com.tacoloco.webservice.model.ApiError;
 import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.metrics.OrderPhaseEvent;
 import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.pricing.PriceTable;
+import com.tacoloco.webservice.pricing.PricingRuleEngine;
 import com.tacoloco.webservice.repository.OrderItemRepository;
+import com.tacoloco.webservice.sales.SalesCounters;
+import com.tacoloco.webservice.validator.OrderItemViolations;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.time.Instant;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service for managing order items.
  */
 @Service
 public class OrderItemService {
-    private static final int MINIMUM_QTY_FOR_DISCOUNT = 4;
-    private static final int DISCOUNT_PERCENTAGE = 20;
+    private static final String ORDERS_PROPERTY_PATH = "calculateTotal.orders";
+
+    /**
+     * The total returned by {@link #calculateTotalInCents(String, MenuCatalog, List, String, List)} for an order that
+     * is not valid.
+     */
+    public static final long INVALID_ORDER = -1;
 
     @Autowired
     private OrderItemRepository orderItemRepository;
 
+    @Autowired
+    private PricingResultCache pricingResultCache;
+
+    @Autowired
+    private PricingRuleEngine pricingRuleEngine;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private SalesCounters salesCounters;
+
+    /**
+     * Validates and calculates the total for the given {@link OrderItem}s against the menu of a store.
+     * An invalid order is answered with its {@link ApiError} directly rather than by throwing, since invalid orders
+     * are mostly abusive traffic and capturing a stack trace for each of them is wasted work.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param orders The List of {@link OrderItem}s.
+     * @return {@link CalculateTotalResponse} conatining the total amount, or a Bad Request {@link ApiError} if any of
+     * the {@link OrderItem}s is not valid.
+     * @throws com.tacoloco.webservice.catalog.UnknownStoreException if the store has no menu.
+     */
+    public ResponseEntity<Object> calculateTotal(String storeId, List<OrderItem> orders) {
+        return calculateTotal(storeId, findCatalog(storeId), orders);
+    }
+
+    /**
+     * Validates and calculates the total for the given {@link OrderItem}s as they were priced at a time, e.g. to
+     * refund an order placed then, with the menu of the store served at that time by this instance; see
+     * {@link com.tacoloco.webservice.catalog.CatalogHistory}. The order is not counted as a sale.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param orders The List of {@link OrderItem}s.
+     * @param pricedAt The time to price the order at, or null to price it now like
+     * {@link #calculateTotal(String, List)}.
+     * @return {@link CalculateTotalResponse} conatining the total amount, or a Bad Request {@link ApiError} if any of
+     * the {@link OrderItem}s is not valid.
+     * @throws com.tacoloco.webservice.catalog.UnknownStoreException if the store has no menu.
+     * @throws com.tacoloco.webservice.catalog.CatalogVersionNotFoundException if the menu of the store at that time
+     * is no longer known.
+     */
+    public ResponseEntity<Object> calculateTotal(String storeId, List<OrderItem> orders, Instant pricedAt) {
+        if (pricedAt == null) {
+            return calculateTotal(storeId, orders);
+        }
+        return calculateTotal(storeId, orderItemRepository.findCatalog(storeId, pricedAt), orders, pricedAt);
+    }
+
+    /**
+     * Validates and calculates the total for the given {@link OrderItem}s against a snapshot of the menu of a store,
+     * like {@link #calculateTotal(String, List)}.
+     * @param storeId The ID of the store whose pricing rules apply, or null for the rules of every store.
+     * @param catalog The {@link MenuCatalog} of the store to resolve and price the items against.
+     * @param orders The List of {@link OrderItem}s.
+     * @return {@link CalculateTotalResponse} conatining the total amount, or a Bad Request {@link ApiError} if any of
+     * the {@link OrderItem}s is not valid.
+     */
+    public ResponseEntity<Object> calculateTotal(String storeId, MenuCatalog catalog, List<OrderItem> orders) {
+        return calculateTotal(storeId, catalog, orders, null);
+    }
+
+    /**
+     * Validates and calculates the total like {@link #calculateTotal(String, MenuCatalog, List)}, at a time.
+     * @param pricedAt The time to price the order at, or null for now.
+     */
+    private ResponseEntity<Object> calculateTotal(String storeId, MenuCatalog catalog, List<OrderItem> orders,
+                                                  Instant pricedAt) {
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        List<String> errors = validate(null, catalog, orders, ORDERS_PROPERTY_PATH, quantities);
+        if (errors != null) {
+            orderMetrics.countValidationFailure(InvalidOrderException.class);
+            return ResponseEntity.badRequest()
+                    .body(new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, errors));
+        }
+        return ResponseEntity.ok(new CalculateTotalResponse(
+                Money.toAmount(price(storeId, catalog, quantities, pricedAt))));
+    }
+
+    /**
+     * Retrieves the current snapshot of the menu of a store, loading it if the store has not been asked for lately.
+     * @param storeId The ID of the store, or null for the default store.
+     * @return The {@link MenuCatalog}.
+     * @throws com.tacoloco.webservice.catalog.UnknownStoreException if the store has no menu.
+     */
+    public MenuCatalog findCatalog(String storeId) {
+        return orderItemRepository.findCatalog(storeId);
+    }
+
+    /**
+     * Retrieves the current snapshot of the menu of a store only if it is in memory, so it can be read without
+     * blocking.
+     * @param storeId The ID of the store, or null for the default store.
+     * @return The {@link MenuCatalog}, or null if it has to be loaded with {@link #findCatalog(String)}.
+     */
+    public MenuCatalog findCatalogIfLoaded(String storeId) {
+        return orderItemRepository.findCatalogIfLoaded(storeId);
+    }
+
     /**
-     * Calculates the total for the given {@link OrderItem}s.
+     * Validates and calculates the total in cents for the given {@link OrderItem}s.
+     * Every item name is resolved once against the given {@link MenuCatalog} snapshot, and that resolution is used
+     * both to report invalid items and to price the valid ones.
+     * Quantities are aggregated by item ID in a reused primitive array and priced in cents, so nothing is allocated
+     * for a valid order.
+     * @param storeId The ID of the store whose pricing rules apply, or null for the rules of every store.
+     * @param catalog The {@link MenuCatalog} of the store to resolve and price the items against.
      * @param orders The List of {@link OrderItem}s.
+     * @param propertyPath The property path of the orders used in the validation errors, e.g. {@code cart.items}.
+     * @return The total amount in cents.
+     * @throws InvalidOrderException if any of the {@link OrderItem}s is not valid.
+     */
+    public long calculateTotalInCents(String storeId, MenuCatalog catalog, List<OrderItem> orders,
+                                      String propertyPath) {
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        List<String> errors = validate(null, catalog, orders, propertyPath, quantities);
+        if (errors != null) {
+            throw new InvalidOrderException(errors);
+        }
+        return price(storeId, catalog, quantities, null);
+    }
+
+    /**
+     * Validates and calculates the total in cents for the given {@link OrderItem}s like
+     * {@link #calculateTotalInCents(String, MenuCatalog, List, String)}, but reports the violations of an invalid
+     * order in the given List instead of throwing.
+     * @param storeId The ID of the store whose pricing rules apply, or null for the rules of every store.
+     * @param catalog The {@link MenuCatalog} of the store to resolve and price the items against.
+     * @param orders The List of {@link OrderItem}s.
+     * @param propertyPath The property path of the orders used in the validation errors, e.g. {@code cart.items}.
+     * @param errors The empty List the validation errors are added to.
+     * @return The total amount in cents, or {@link #INVALID_ORDER} if any of the {@link OrderItem}s is not valid.
+     */
+    public long calculateTotalInCents(String storeId, MenuCatalog catalog, List<OrderItem> orders,
+                                      String propertyPath, List<String> errors) {
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        if (!validate(errors, catalog, orders, propertyPath, quantities).isEmpty()) {
+            return INVALID_ORDER;
+        }
+        return price(storeId, catalog, quantities, null);
+    }
+
+    /**
+     * Resolves every item name once against the {@link MenuCatalog} and accumulates the quantities of the order
+     * while it is valid.
+     * @param errors The errors collected so far, or null if there are none yet.
+     * @param catalog The {@link MenuCatalog} to resolve the items against.
+     * @param orders The List of {@link OrderItem}s.
+     * @param propertyPath The property path of the orders used in the validation errors.
+     * @param quantities The {@link QuantityAccumulator} the quantities are added to.
+     * @return The errors including the violations of the order, or null if there are none.
+     */
+    private List<String> validate(List<String> errors, MenuCatalog catalog, List<OrderItem> orders,
+                                  String propertyPath, QuantityAccumulator quantities) {
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        boolean valid = errors == null || errors.isEmpty();
+        for (int i = 0; i < orders.size(); i++) {
+            OrderItem orderItem = orders.get(i);
+            int itemId = catalog.findItemId(orderItem.getItemName());
+            if (itemId == MenuCatalog.UNKNOWN_ITEM || orderItem.getQuantity() < 1) {
+                errors = OrderItemViolations.addViolations(errors, propertyPath, i, orderItem,
+                        itemId != MenuCatalog.UNKNOWN_ITEM);
+                valid = false;
+            } else if (valid) {
+                quantities.add(itemId, orderItem.getQuantity());
+            }
+        }
+        orderMetrics.recordPhase(OrderMetrics.Phase.VALIDATION, startNanos, event);
+        return errors;
+    }
+
+    /**
+     * Validates and calculates the total for the JSON array of order items read from the parser.
+     * Items are validated and their quantities accumulated as the tokens arrive, so memory stays constant regardless
+     * of the number of items, and the order is rejected as soon as an invalid item is read.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param parser The {@link JsonParser} positioned before the JSON array of order items.
      * @return {@link CalculateTotalResponse} conatining the total amount.
+     * @throws IOException if the request body cannot be read.
+     * @throws InvalidOrderException if the JSON is malformed, empty, followed by more content, or contains an invalid
+     * item or a quantity that is not an integer.
+     */
+    public ResponseEntity<CalculateTotalResponse> calculateTotal(String storeId, JsonParser parser)
+            throws IOException {
+        MenuCatalog catalog = findCatalog(storeId);
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        try {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw invalidJson("an array of order items");
+            }
+            int index = 0;
+            for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+                if (token != JsonToken.START_OBJECT) {
+                    throw invalidJson("an order item object");
+                }
+                String itemName = null;
+                int quantity = 0;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = parser.getCurrentName();
+                    JsonToken value = parser.nextToken();
+                    if ("itemName".equals(fieldName)) {
+                        itemName = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                    } else if ("quantity".equals(fieldName)) {
+                        if (value != JsonToken.VALUE_NUMBER_INT) {
+                            throw invalidJson("an integer quantity");
+                        }
+                        quantity = parser.getIntValue();
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+
+                int itemId = catalog.findItemId(itemName);
+                if (itemId == MenuCatalog.UNKNOWN_ITEM || quantity < 1) {
+                    throw new InvalidOrderException(OrderItemViolations.addViolations(null,
+                            ORDERS_PROPERTY_PATH, index, new OrderItem(itemName, quantity),
+                            itemId != MenuCatalog.UNKNOWN_ITEM));
+                }
+                quantities.add(itemId, quantity);
+                index++;
+            }
+            if (index == 0) {
+                throw new InvalidOrderException(List.of(
+                        ORDERS_PROPERTY_PATH + " []: " + OrderItemViolations.EMPTY_MESSAGE));
+            }
+            if (parser.nextToken() != null) {
+                throw invalidJson("nothing after the array of order items");
+            }
+        } catch (JsonProcessingException e) {
+            throw invalidJson("well-formed JSON");
+        }
+
+        return ResponseEntity.ok(new CalculateTotalResponse(
+                Money.toAmount(price(storeId, catalog, quantities, null))));
+    }
+
+    private static InvalidOrderException invalidJson(String expected) {
+        return new InvalidOrderException(List.of(ORDERS_PROPERTY_PATH + ": expected " + expected));
+    }
+
+    /**
+     * Prices the aggregated quantities with the pricing rules that apply to the store now, or at the given time,
+     * using the {@link PricingResultCache} if it is enabled. Pricing does not count sales, see
+     * {@link #recordSales(MenuCatalog, PricedOrder)}.
+     * @param storeId The ID of the store, or null for the rules of every store.
+     * @param catalog The {@link MenuCatalog} the item IDs were resolved against.
+     * @param quantities The quantities ordered by item ID.
+     * @param pricedAt The time to price the order at, or null for now.
+     * @return The total price in cents.
      */
-    public ResponseEntity<CalculateTotalResponse> calculateTotal(List<OrderItem> orders) {
-        double totalPrice = 0.0;
-        int totalQuantity = 0;
+    private long price(String storeId, MenuCatalog catalog, QuantityAccumulator quantities, Instant pricedAt) {
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        PriceTable priceTable = pricingRuleEngine.getPriceTable(catalog, storeId, pricedAt);
+        long totalInCents = pricingResultCache.isCacheable(quantities)
+                ? pricingResultCache.getTotalInCents(priceTable, quantities,
+                        cart -> priceUncached(catalog, priceTable, cart))
+                : priceUncached(catalog, priceTable, quantities);
+        orderMetrics.recordPhase(OrderMetrics.Phase.PRICING, startNanos, event);
+        return totalInCents;
+    }
 
-        Map<String, Integer> quantitiesByItemName = orders.stream().collect(Collectors.toMap(OrderItem::getItemName,
-                OrderItem::getQuantity, (value1, value2) -> value1 + value2));
+    /**
+     * Validates and prices an order to be submitted like
+     * {@link #calculateTotalInCents(String, MenuCatalog, List, String)}, keeping the price of every line for
+     * {@link #recordSales(MenuCatalog, PricedOrder)}. Every line is priced, so the {@link PricingResultCache} is not
+     * used.
+     * @param storeId The ID of the store whose pricing rules apply, or null for the rules of every store.
+     * @param catalog The {@link MenuCatalog} of the store to resolve and price the items against.
+     * @param orders The List of {@link OrderItem}s.
+     * @param propertyPath The property path of the orders used in the validation errors.
+     * @return The {@link PricedOrder}.
+     * @throws InvalidOrderException if any of the {@link OrderItem}s is not valid.
+     */
+    PricedOrder priceOrder(String storeId, MenuCatalog catalog, List<OrderItem> orders, String propertyPath) {
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        List<String> errors = validate(null, catalog, orders, propertyPath, quantities);
+        if (errors != null) {
+            throw new InvalidOrderException(errors);
+        }
+        long startNanos = System.nanoTime();
+        OrderPhaseEvent event = OrderPhaseEvent.start();
+        PriceTable priceTable = pricingRuleEngine.getPriceTable(catalog, storeId);
+        int[] itemIds = new int[quantities.size()];
+        long[] lineQuantities = new long[itemIds.length];
+        long[] lineTotalsInCents = new long[itemIds.length];
+        long subtotalInCents = 0;
+        long totalQuantity = 0;
+        for (int i = 0; i < itemIds.length; i++) {
+            itemIds[i] = quantities.itemIdAt(i);
+            lineQuantities[i] = quantities.quantityOf(itemIds[i]);
+            lineTotalsInCents[i] = priceTable.priceLine(itemIds[i], lineQuantities[i],
+                    catalog.getPriceInCents(itemIds[i]));
+            totalQuantity += lineQuantities[i];
+            subtotalInCents += lineTotalsInCents[i];
+        }
+        long totalInCents = priceTable.applyOrderDiscount(subtotalInCents, totalQuantity);
+        orderMetrics.recordPhase(OrderMetrics.Phase.PRICING, startNanos, event);
+        return new PricedOrder(itemIds, lineQuantities, lineTotalsInCents, totalInCents);
+    }
 
-        for (Map.Entry<String, Integer> entry : quantitiesByItemName.entrySet()) {
-            totalQuantity += entry.getValue();
-            totalPrice += entry.getValue() * orderItemRepository.findPriceByItemName(entry.getKey()).orElseThrow();
+    /**
+     * Records the units and the revenue of every line of a submitted order in the {@link SalesCounters}, once it was
+     * priced by {@link #priceOrder(String, MenuCatalog, List, String)} and journaled. Price quotes are not sales. The
+     * revenue of a line includes its item promotions but not the order discount.
+     * @param catalog The {@link MenuCatalog} the order was priced against.
+     * @param order The {@link PricedOrder}.
+     */
+    void recordSales(MenuCatalog catalog, PricedOrder order) {
+        for (int i = 0; i < order.size(); i++) {
+            salesCounters.record(catalog, order.itemIdAt(i), order.quantityAt(i), order.lineTotalInCentsAt(i));
         }
+    }
 
-        if (totalQuantity >= MINIMUM_QTY_FOR_DISCOUNT) {
-            totalPrice -= totalPrice * DISCOUNT_PERCENTAGE / 100;
+    /**
+     * Prices every item with its promotions and applies the order discount.
+     * @param catalog The {@link MenuCatalog} the item IDs were resolved against.
+     * @param priceTable The {@link PriceTable} of the promotions that apply.
+     * @param quantities The quantities ordered by item ID.
+     * @return The total price in cents.
+     */
+    private long priceUncached(MenuCatalog catalog, PriceTable priceTable, QuantityAccumulator quantities) {
+        long subtotalInCents = 0;
+        long totalQuantity = 0;
+        for (int i = 0; i < quantities.size(); i++) {
+            int itemId = quantities.itemIdAt(i);
+            long quantity = quantities.quantityOf(itemId);
+            totalQuantity += quantity;
+            subtotalInCents += priceTable.priceLine(itemId, quantity, catalog.getPriceInCents(itemId));
         }
-        return ResponseEntity.ok(new CalculateTotalResponse(totalPrice));
+        return priceTable.applyOrderDiscount(subtotalInCents, totalQuantity);
     }
 
-    public boolean isValid(String itemName) {
-        return orderItemRepository.doesItemNameExist(itemName);
+    /**
+     * @param storeId The ID of the store, or null for the default store.
+     * @param itemName The name of the item.
+     * @return True if the item is on the menu of the store, False otherwise.
+     */
+    public boolean isValid(String storeId, String itemName) {
+        return orderItemRepository.doesItemNameExist(storeId, itemName);
     }
 }
@@ -0,0 +1,52 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.exception.InvalidOrderException;
+import com.tacoloco.webservice.journal.OrderJournal;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.model.OrderReceipt;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Service for submitting orders: every valid order is priced and recorded in the {@link OrderJournal}, and only then
+ * counted as a sale.
+ */
+@Service
+public class OrderSubmissionService {
+    private static final String ORDERS_PROPERTY_PATH = "submitOrder.orders";
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private OrderJournal orderJournal;
+
+    /**
+     * Validates and prices the given {@link OrderItem}s against the menu of a store and journals the priced order.
+     * @param storeId The ID of the store, or null for the default store.
+     * @param orders The List of {@link OrderItem}s.
+     * @return {@link OrderReceipt} containing the ID and the total of the order, once it is durable.
+     * @throws InvalidOrderException if any of the {@link OrderItem}s is not valid.
+     * @throws IOException if the order could not be journaled.
+     */
+    public ResponseEntity<OrderReceipt> submitOrder(String storeId, List<OrderItem> orders) throws IOException {
+        MenuCatalog catalog = orderItemRepository.findCatalog(storeId);
+        PricedOrder order = orderItemService.priceOrder(storeId, catalog, orders, ORDERS_PROPERTY_PATH);
+        long orderId = orderJournal.append(StoreContext.orDefault(storeId), orders, order.getTotalInCents());
+        orderItemService.recordSales(catalog, order);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(new OrderReceipt(orderId, Money.toAmount(order.getTotalInCents())));
+    }
+}
@@ -0,0 +1,57 @@
+package com.tacoloco.webservice.service;
+
+/**
+ * A submitted order as it was priced: its quantities aggregated by item ID with the price of every line, so it can be
+ * counted as a sale once it is journaled without being aggregated and priced again.
+ */
+final class PricedOrder {
+    private final int[] itemIds;
+    private final long[] quantities;
+    private final long[] lineTotalsInCents;
+    private final long totalInCents;
+
+    PricedOrder(int[] itemIds, long[] quantities, long[] lineTotalsInCents, long totalInCents) {
+        this.itemIds = itemIds;
+        this.quantities = quantities;
+        this.lineTotalsInCents = lineTotalsInCents;
+        this.totalInCents = totalInCents;
+    }
+
+    /**
+     * @return The number of distinct items ordered.
+     */
+    int size() {
+        return itemIds.length;
+    }
+
+    /**
+     * @param index The index of the line.
+     * @return The ID of the item of the line.
+     */
+    int itemIdAt(int index) {
+        return itemIds[index];
+    }
+
+    /**
+     * @param index The index of the line.
+     * @return The total quantity ordered of the item of the line.
+     */
+    long quantityAt(int index) {
+        return quantities[index];
+    }
+
+    /**
+     * @param index The index of the line.
+     * @return The price of the line in cents, with its item promotions but not the order discount.
+     */
+    long lineTotalInCentsAt(int index) {
+        return lineTotalsInCents[index];
+    }
+
+    /**
+     * @return The total of the order in cents, with the order discount.
+     */
+    long getTotalInCents() {
+        return totalInCents;
+    }
+}
@@ -0,0 +1,96 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.CatalogChangedEvent;
+import com.tacoloco.webservice.catalog.NearCache;
+import com.tacoloco.webservice.pricing.PriceTable;
+import com.tacoloco.webservice.pricing.PricingRulesChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.function.ToLongFunction;
+
+/**
+ * Optional cache of order totals in cents, keyed by the canonical {@link CartKey} of the merged cart.
+ * Only small carts are cached, which bounds the memory of every entry as well as the number of entries.
+ * The key contains the {@link PriceTable} of the catalog version and pricing rules, so a total is never served for
+ * prices or promotions it was not calculated with, and all entries are dropped as soon as either changes.
+ */
+@Component
+public class PricingResultCache {
+    @Value("${tacoloco.pricing.result-cache.enabled}")
+    private boolean enabled;
+
+    @Value("${tacoloco.pricing.result-cache.maximum-size}")
+    private int maximumSize;
+
+    @Value("${tacoloco.pricing.result-cache.time-to-live}")
+    private Duration timeToLive;
+
+    @Value("${tacoloco.pricing.result-cache.maximum-distinct-items}")
+    private int maximumDistinctItems;
+
+    private NearCache<CartKey, Long> totals;
+
+    @PostConstruct
+    public void init() {
+        totals = new NearCache<>(maximumSize, timeToLive);
+    }
+
+    /**
+     * @param quantities The aggregated quantities of the cart.
+     * @return Whether the total of the cart is cached.
+     */
+    boolean isCacheable(QuantityAccumulator quantities) {
+        return enabled && quantities.size() <= maximumDistinctItems;
+    }
+
+    /**
+     * Returns the cached total of a cacheable cart, or prices and caches it.
+     * @param priceTable The {@link PriceTable} the cart is priced with.
+     * @param quantities The aggregated quantities of the cart.
+     * @param pricer Prices the cart in cents on a miss.
+     * @return The total in cents.
+     */
+    long getTotalInCents(PriceTable priceTable, QuantityAccumulator quantities,
+                         ToLongFunction<QuantityAccumulator> pricer) {
+        return totals.get(CartKey.of(priceTable, quantities), key -> pricer.applyAsLong(quantities));
+    }
+
+    /**
+     * Drops every cached total when a new version of a menu is served. The first catalog loaded for a store cannot
+     * have cached totals, so loading a store does not drop the totals of the other stores.
+     * @param event The {@link CatalogChangedEvent}.
+     */
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (event.getPreviousCatalog() != null) {
+            totals.invalidateAll();
+        }
+    }
+
+    /**
+     * Drops every cached total when new pricing rules are applied.
+     * @param event The {@link PricingRulesChangedEvent}.
+     */
+    @EventListener
+    public void onPricingRulesChanged(PricingRulesChangedEvent event) {
+        totals.invalidateAll();
+    }
+
+    /**
+     * @return Whether totals are cached.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return The {@link NearCache} holding the totals, for its statistics.
+     */
+    public NearCache<?, Long> getTotals() {
+        return totals;
+    }
+}
@@ -0,0 +1,83 @@
+package com.tacoloco.webservice.service;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread scratch space that aggregates ordered quantities by item ID.
+ * The arrays are reused across requests; a generation stamp marks which slots belong to the current request,
+ * so resetting is O(1) and no per-request allocation is needed.
+ */
+final class QuantityAccumulator {
+    private static final ThreadLocal<QuantityAccumulator> ACCUMULATOR = ThreadLocal.withInitial(QuantityAccumulator::new);
+
+    private long[] quantityByItemId = new long[0];
+    private int[] generationByItemId = new int[0];
+    private int[] itemIds = new int[0];
+    private int generation;
+    private int size;
+
+    private QuantityAccumulator() {
+    }
+
+    /**
+     * Returns the current thread's accumulator, emptied and sized for the given number of items.
+     * @param itemCount The number of items in the catalog.
+     * @return The {@link QuantityAccumulator}.
+     */
+    static QuantityAccumulator acquire(int itemCount) {
+        QuantityAccumulator accumulator = ACCUMULATOR.get();
+        accumulator.reset(itemCount);
+        return accumulator;
+    }
+
+    /**
+     * Adds the quantity ordered for an item.
+     * @param itemId The ID of the item.
+     * @param quantity The quantity ordered.
+     */
+    void add(int itemId, int quantity) {
+        if (generationByItemId[itemId] != generation) {
+            generationByItemId[itemId] = generation;
+            quantityByItemId[itemId] = 0;
+            itemIds[size++] = itemId;
+        }
+        quantityByItemId[itemId] += quantity;
+    }
+
+    /**
+     * @return The number of distinct items ordered.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param index The index of the distinct item, in the order the items were first added.
+     * @return The ID of the item.
+     */
+    int itemIdAt(int index) {
+        return itemIds[index];
+    }
+
+    /**
+     * @param itemId The ID of the item.
+     * @return The total quantity ordered for the item.
+     */
+    long quantityOf(int itemId) {
+        return generationByItemId[itemId] == generation ? quantityByItemId[itemId] : 0;
+    }
+
+    private void reset(int itemCount) {
+        if (quantityByItemId.length < itemCount) {
+            quantityByItemId = new long[itemCount];
+            generationByItemId = new int[itemCount];
+            itemIds = new int[itemCount];
+            generation = 0;
+        }
+        size = 0;
+        if (++generation == 0) {
+            Arrays.fill(generationByItemId, 0);
+            generation = 1;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.model.ItemSales;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.model.SalesTotals;
+import com.tacoloco.webservice.sales.SalesCounters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service for reading the live sales of the menu items.
+ */
+@Service
+public class SalesService {
+    @Autowired
+    private SalesCounters salesCounters;
+
+    /**
+     * Aggregates the sales counters of every item sold since the service started.
+     * @return The {@link ItemSales} of every item.
+     */
+    public ResponseEntity<List<ItemSales>> getSales() {
+        List<String> itemNames = salesCounters.getItemNames();
+        long[] lastMinute = salesCounters.getSales(SalesCounters.Window.LAST_MINUTE);
+        long[] lastHour = salesCounters.getSales(SalesCounters.Window.LAST_HOUR);
+        long[] lastDay = salesCounters.getSales(SalesCounters.Window.LAST_DAY);
+
+        List<ItemSales> sales = new ArrayList<>(itemNames.size());
+        for (int slot = 0; slot < itemNames.size(); slot++) {
+            sales.add(new ItemSales(itemNames.get(slot), totals(lastMinute, slot), totals(lastHour, slot),
+                    totals(lastDay, slot)));
+        }
+        return ResponseEntity.ok(sales);
+    }
+
+    private static SalesTotals totals(long[] sales, int slot) {
+        return 2 * slot + 1 < sales.length
+                ? new SalesTotals(sales[2 * slot], Money.toAmount(sales[2 * slot + 1])) : new SalesTotals(0, 0);
+    }
+}
@@ -0,0 +1,130 @@
+package com.tacoloco.webservice.startup;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.UnknownStoreException;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.model.ApiError;
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.Money;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.service.OrderItemService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the JIT before the instance takes traffic, so the first customers of a new instance are not served by
+ * interpreted code.
+ * <p>
+ * Synthetic carts go through the same steps as a {@code /calculateTotal} request: JSON deserialization, Bean Validation
+ * of the items, validation and pricing in {@link OrderItemService} and serialization of the response or of the
+ * {@link ApiError}. Application runners complete before Spring Boot reports the readiness state
+ * {@code ACCEPTING_TRAFFIC}, so {@code /actuator/health/readiness} stays {@code OUT_OF_SERVICE} until the warm-up is
+ * done.
+ * <p>
+ * The carts are priced against a {@link MenuCatalog#SYNTHETIC_VERSION} copy of the default store's menu, so they are
+ * not counted as sales, with the recording of the {@link OrderMetrics} off, so the phase timers only time real
+ * traffic. The warm-up is skipped if the default store has no menu.
+ */
+@Component
+@ConditionalOnProperty(name = "tacoloco.warm-up.enabled", havingValue = "true")
+public class WarmUpRunner implements ApplicationRunner {
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarmUpRunner.class);
+    private static final TypeReference<List<OrderItem>> ORDER_ITEMS = new TypeReference<>() { };
+    private static final String ORDERS_PROPERTY_PATH = "calculateTotal.orders";
+    private static final int[] CART_SIZES = {1, 2, 3, 5, 8, 32};
+
+    @Value("${tacoloco.warm-up.iterations}")
+    private int iterations;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private OrderMetrics orderMetrics;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        orderMetrics.setRecording(false);
+        try {
+            warmUp();
+        } finally {
+            orderMetrics.setRecording(true);
+        }
+    }
+
+    private void warmUp() throws IOException {
+        long startNanos = System.nanoTime();
+        MenuCatalog catalog;
+        try {
+            catalog = orderItemService.findCatalog(null);
+        } catch (UnknownStoreException e) {
+            LOGGER.warn("Skipped the warm-up: {}", e.getMessage());
+            return;
+        }
+        if (catalog.size() == 0) {
+            LOGGER.warn("Skipped the warm-up: the menu of the default store has no items");
+            return;
+        }
+        Map<String, Long> priceInCentsByItemName = new LinkedHashMap<>();
+        for (int itemId = 0; itemId < catalog.size(); itemId++) {
+            priceInCentsByItemName.put(catalog.getItemName(itemId), catalog.getPriceInCents(itemId));
+        }
+        MenuCatalog syntheticCatalog = MenuCatalog.of(MenuCatalog.SYNTHETIC_VERSION, priceInCentsByItemName);
+        List<String> bodies = cartBodies(catalog);
+
+        long responseBytes = 0;
+        for (int i = 0; i < iterations; i++) {
+            List<OrderItem> orders = objectMapper.readValue(bodies.get(i % bodies.size()), ORDER_ITEMS);
+            validator.validate(orders.get(0));
+            List<String> errors = new ArrayList<>();
+            long totalPriceInCents = orderItemService.calculateTotalInCents(null, syntheticCatalog, orders,
+                    ORDERS_PROPERTY_PATH, errors);
+            responseBytes += objectMapper.writeValueAsBytes(totalPriceInCents == OrderItemService.INVALID_ORDER
+                    ? new ApiError(HttpStatus.BAD_REQUEST, ApiError.INVALID_REQUEST_MESSAGE, errors)
+                    : new CalculateTotalResponse(Money.toAmount(totalPriceInCents))).length;
+        }
+        LOGGER.info("Warmed up with {} carts ({} response bytes) in {} ms", iterations, responseBytes,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Builds valid carts of several sizes and a cart with an unknown item and one with an invalid quantity, as JSON.
+     */
+    private List<String> cartBodies(MenuCatalog catalog) throws IOException {
+        List<String> bodies = new ArrayList<>();
+        for (int cartSize : CART_SIZES) {
+            List<OrderItem> cart = new ArrayList<>(cartSize);
+            for (int line = 0; line < cartSize; line++) {
+                cart.add(new OrderItem(catalog.getItemName(line % catalog.size()), 1 + line % 3));
+            }
+            bodies.add(objectMapper.writeValueAsString(cart));
+        }
+        bodies.add(objectMapper.writeValueAsString(List.of(new OrderItem(catalog.getItemName(0), 1),
+                new OrderItem("Warm-up Item", 1))));
+        bodies.add(objectMapper.writeValueAsString(List.of(new OrderItem(catalog.getItemName(0), 0))));
+        return bodies;
+    }
+}
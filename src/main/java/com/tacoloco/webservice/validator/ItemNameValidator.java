@@ -1,5 +1,6 @@
 package com.tacoloco.webservice.validator;
 
+import com.tacoloco.webservice.catalog.StoreContext;
 import com.tacoloco.webservice.service.OrderItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
@@ -8,7 +9,7 @@ import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
 
 /**
- * Validator for the item name.
+ * Validator for the item name, against the menu of the store named by the request being served.
  */
 @Component
 public class ItemNameValidator implements ConstraintValidator<ValidItemName, String> {
@@ -24,7 +25,7 @@ public class ItemNameValidator implements ConstraintValidator<ValidItemName, Str
      */
     @Override
     public boolean isValid(String itemName, ConstraintValidatorContext context) {
-        return orderItemService.isValid(itemName);
+        return orderItemService.isValid(StoreContext.currentStoreId(), itemName);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package com.tacoloco.webservice.validator;
+
+import com.tacoloco.webservice.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the validation errors of an {@link OrderItem} in the same format that is reported for bean validation
+ * failures: {@code <property path> <invalid value>: <message>}.
+ */
+public final class OrderItemViolations {
+    /**
+     * The message of {@link javax.validation.constraints.NotBlank}.
+     */
+    public static final String BLANK_ITEM_NAME_MESSAGE = "must not be blank";
+
+    /**
+     * The message of {@link javax.validation.constraints.Min} with a value of 1.
+     */
+    public static final String INVALID_QUANTITY_MESSAGE = "must be greater than or equal to 1";
+
+    /**
+     * The message of {@link javax.validation.constraints.NotEmpty}.
+     */
+    public static final String EMPTY_MESSAGE = "must not be empty";
+
+    /**
+     * The property and message parts of each kind of violation, which are the same for every order item, so only the
+     * property path, the index and the invalid value are concatenated per violation, in a single concatenation.
+     */
+    private static final String ITEM_NAME_PROPERTY = "].itemName ";
+    private static final String QUANTITY_PROPERTY = "].quantity ";
+    private static final String BLANK_ITEM_NAME_SUFFIX = ": " + BLANK_ITEM_NAME_MESSAGE;
+    private static final String UNKNOWN_ITEM_NAME_SUFFIX = ": " + ValidItemName.DEFAULT_MESSAGE;
+    private static final String INVALID_QUANTITY_SUFFIX = ": " + INVALID_QUANTITY_MESSAGE;
+
+    private OrderItemViolations() {
+    }
+
+    /**
+     * Adds the violations of an order item whose name was resolved against the catalog.
+     * @param errors The errors collected so far, or null if there are none yet.
+     * @param propertyPath The property path of the order items, e.g. {@code calculateTotal.orders}.
+     * @param index The index of the order item.
+     * @param orderItem The {@link OrderItem}.
+     * @param knownItem Whether the item name is on the menu.
+     * @return The errors including the violations of the order item, or null if there are none.
+     */
+    public static List<String> addViolations(List<String> errors, String propertyPath, int index,
+                                             OrderItem orderItem, boolean knownItem) {
+        String itemName = orderItem.getItemName();
+        if (itemName == null || itemName.isBlank()) {
+            errors = add(errors, propertyPath, index, ITEM_NAME_PROPERTY, String.valueOf(itemName),
+                    BLANK_ITEM_NAME_SUFFIX);
+        }
+        if (!knownItem) {
+            errors = add(errors, propertyPath, index, ITEM_NAME_PROPERTY, String.valueOf(itemName),
+                    UNKNOWN_ITEM_NAME_SUFFIX);
+        }
+        if (orderItem.getQuantity() < 1) {
+            errors = add(errors, propertyPath, index, QUANTITY_PROPERTY, Integer.toString(orderItem.getQuantity()),
+                    INVALID_QUANTITY_SUFFIX);
+        }
+        return errors;
+    }
+
+    private static List<String> add(List<String> errors, String propertyPath, int index, String property,
+                                    String invalidValue, String suffix) {
+        List<String> result = errors == null ? new ArrayList<>() : errors;
+        result.add(propertyPath + '[' + index + property + invalidValue + suffix);
+        return result;
+    }
+}
@@ -13,7 +13,12 @@ import static java.lang.annotation.RetentionPolicy.RUNTIME;
 @Retention(RUNTIME)
 @Target({FIELD, METHOD})
 public @interface ValidItemName {
-    public String message() default "The item name is not a valid menu item";
+    /**
+     * The message reported for names that are not on the menu.
+     */
+    public static final String DEFAULT_MESSAGE = "The item name is not a valid menu item";
+
+    public String message() default DEFAULT_MESSAGE;
 
     public Class<?>[] groups() default {};
 
@@ -0,0 +1,8 @@
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('default', 'Veggie Taco', 250);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('default', 'Chicken Taco', 300);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('default', 'Beef Taco', 300);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('default', 'Chorizo Taco', 350);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('downtown', 'Veggie Taco', 275);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('downtown', 'Chicken Taco', 325);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('downtown', 'Beef Taco', 325);
+INSERT INTO menu_item (store_id, item_name, price_in_cents) VALUES ('downtown', 'Fish Taco', 400);
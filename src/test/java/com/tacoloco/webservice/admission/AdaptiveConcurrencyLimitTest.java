@@ -0,0 +1,68 @@
+package com.tacoloco.webservice.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link AdaptiveConcurrencyLimit} against a manual clock.
+ */
+public class AdaptiveConcurrencyLimitTest {
+    private static final long TARGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * Tests to ensure requests beyond the limit are rejected until one is released.
+     */
+    @Test
+    public void tryAcquire_RejectsOverLimit() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(2, 1, 10, TARGET_NANOS, WINDOW_NANOS, 0.5, 0);
+
+        Assertions.assertTrue(limit.tryAcquire());
+        Assertions.assertTrue(limit.tryAcquire());
+        Assertions.assertFalse(limit.tryAcquire());
+        Assertions.assertEquals(2, limit.getInFlight());
+
+        limit.release(TimeUnit.MILLISECONDS.toNanos(1), 1);
+        Assertions.assertTrue(limit.tryAcquire());
+    }
+
+    /**
+     * Tests to ensure the limit grows by one per limit's worth of fast requests while it is used.
+     */
+    @Test
+    public void release_GrowsWhenFast() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10, TARGET_NANOS, WINDOW_NANOS, 0.5, 0);
+
+        for (int i = 0; i < 5; i++) {
+            while (limit.tryAcquire()) {
+                // fill the limit
+            }
+            while (limit.getInFlight() > 0) {
+                limit.release(TimeUnit.MILLISECONDS.toNanos(1), 1);
+            }
+        }
+        Assertions.assertTrue(limit.getLimit() > 4);
+    }
+
+    /**
+     * Tests to ensure the limit shrinks by the backoff ratio once a window misses the target latency, and not below
+     * its minimum.
+     */
+    @Test
+    public void release_ShrinksWhenSlow() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 3, 10, TARGET_NANOS, WINDOW_NANOS, 0.5, 0);
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(80), WINDOW_NANOS / 2);
+        Assertions.assertEquals(8, limit.getLimit());
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(80), WINDOW_NANOS);
+        Assertions.assertEquals(4, limit.getLimit());
+
+        limit.tryAcquire();
+        limit.release(TimeUnit.MILLISECONDS.toNanos(80), 2 * WINDOW_NANOS);
+        Assertions.assertEquals(3, limit.getLimit());
+    }
+}
@@ -0,0 +1,66 @@
+package com.tacoloco.webservice.admission;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Tests how the {@link AdmissionControl} identifies clients and combines its limits.
+ */
+public class AdmissionControlTest {
+    private static final String ADDRESS = "192.0.2.1";
+
+    private AdmissionControl admissionControl;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        admissionControl = new AdmissionControl();
+        ReflectionTestUtils.setField(admissionControl, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(admissionControl, "apiKeys", Set.of("partner"));
+        ReflectionTestUtils.setField(admissionControl, "requestsPerSecond", 1.0);
+        ReflectionTestUtils.setField(admissionControl, "burst", 1);
+        ReflectionTestUtils.setField(admissionControl, "maximumClients", 100);
+        ReflectionTestUtils.setField(admissionControl, "clientTimeToIdle", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(admissionControl, "initialLimit", 1);
+        ReflectionTestUtils.setField(admissionControl, "minimumLimit", 1);
+        ReflectionTestUtils.setField(admissionControl, "maximumLimit", 1);
+        ReflectionTestUtils.setField(admissionControl, "targetLatency", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(admissionControl, "window", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(admissionControl, "backoffRatio", 0.9);
+        admissionControl.init();
+    }
+
+    /**
+     * Tests to ensure a client sending a new unknown API key with every request is still rate limited by its address,
+     * while a configured API key has a rate limit of its own.
+     */
+    @Test
+    public void tryAdmit_UnknownApiKeysRateLimitedByAddress() {
+        Assertions.assertNull(admissionControl.tryAdmit("key-1", ADDRESS, 0));
+        admissionControl.release(0);
+        Assertions.assertEquals(AdmissionControl.Rejection.RATE_LIMITED,
+                admissionControl.tryAdmit("key-2", ADDRESS, 0));
+
+        Assertions.assertNull(admissionControl.tryAdmit("partner", ADDRESS, 0));
+        Assertions.assertEquals(2, admissionControl.getTokenBuckets().size());
+    }
+
+    /**
+     * Tests to ensure a request rejected for the concurrency limit does not take a token of its client.
+     */
+    @Test
+    public void tryAdmit_OverConcurrencyLimitKeepsToken() {
+        Assertions.assertNull(admissionControl.tryAdmit(null, "192.0.2.2", 0));
+        Assertions.assertEquals(AdmissionControl.Rejection.OVER_CONCURRENCY_LIMIT,
+                admissionControl.tryAdmit(null, ADDRESS, 0));
+        admissionControl.release(0);
+
+        Assertions.assertNull(admissionControl.tryAdmit(null, ADDRESS, 0));
+        Assertions.assertEquals(0, admissionControl.getRateLimitedCount());
+    }
+}
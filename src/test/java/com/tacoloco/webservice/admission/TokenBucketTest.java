@@ -0,0 +1,44 @@
+package com.tacoloco.webservice.admission;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the {@link TokenBucket} against a manual clock.
+ */
+public class TokenBucketTest {
+
+    /**
+     * Tests to ensure a full bucket allows a burst and then only the refill rate.
+     */
+    @Test
+    public void tryAcquire_BurstThenRate() {
+        TokenBucket bucket = new TokenBucket(10, 3, 0);
+
+        Assertions.assertTrue(bucket.tryAcquire(0));
+        Assertions.assertTrue(bucket.tryAcquire(0));
+        Assertions.assertTrue(bucket.tryAcquire(0));
+        Assertions.assertFalse(bucket.tryAcquire(0));
+
+        Assertions.assertFalse(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(99)));
+        Assertions.assertTrue(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(100)));
+        Assertions.assertFalse(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(100)));
+    }
+
+    /**
+     * Tests to ensure an idle bucket refills up to its burst and no further.
+     */
+    @Test
+    public void tryAcquire_RefillsUpToBurst() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        bucket.tryAcquire(0);
+        bucket.tryAcquire(0);
+
+        long later = TimeUnit.SECONDS.toNanos(10);
+        Assertions.assertTrue(bucket.tryAcquire(later));
+        Assertions.assertTrue(bucket.tryAcquire(later));
+        Assertions.assertFalse(bucket.tryAcquire(later));
+    }
+}
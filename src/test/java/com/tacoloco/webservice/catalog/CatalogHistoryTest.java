@@ -0,0 +1,179 @@
+package com.tacoloco.webservice.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tests the {@link CatalogHistory} and the versions of {@link MenuCatalog} it keeps.
+ */
+public class CatalogHistoryTest {
+    private static final Instant START = Instant.parse("2026-10-01T12:00:00Z");
+
+    private final CatalogHistory catalogHistory = new CatalogHistory();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(catalogHistory, "retention", Duration.ofDays(1));
+        ReflectionTestUtils.setField(catalogHistory, "maximumVersions", 3);
+        at(START);
+    }
+
+    /**
+     * Tests to ensure the version served at a time is found, and the menu served to every store is found for a store
+     * without its own.
+     */
+    @Test
+    public void asOf_VersionServedAtTime() {
+        MenuCatalog first = MenuCatalog.of(1, Map.of("Veggie Taco", 250L));
+        MenuCatalog second = first.withPrices(Map.of("Veggie Taco", 275L));
+        catalogHistory.record("default", first);
+        at(START.plusSeconds(3600));
+        catalogHistory.record("default", second);
+        catalogHistory.record(null, second);
+
+        Assertions.assertNull(catalogHistory.asOf("default", START.minusMillis(1)));
+        Assertions.assertSame(first, catalogHistory.asOf("default", START));
+        Assertions.assertSame(first, catalogHistory.asOf("default", START.plusSeconds(3599)));
+        Assertions.assertSame(second, catalogHistory.asOf("default", START.plusSeconds(3600)));
+        Assertions.assertSame(second, catalogHistory.asOf("default", START.plusSeconds(86400)));
+        Assertions.assertSame(second, catalogHistory.asOf("downtown", START.plusSeconds(3600)));
+        Assertions.assertNull(catalogHistory.asOf("downtown", START));
+    }
+
+    /**
+     * Tests to ensure a price change keeps the item IDs and only adds the chunk of prices it changed, and the same
+     * prices loaded again are not recorded.
+     */
+    @Test
+    public void record_SharesUnchangedPrices() {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            prices.put("Item " + i, 100L + i);
+        }
+        MenuCatalog first = MenuCatalog.of(1, prices);
+        catalogHistory.record("default", first);
+        long firstBytes = catalogHistory.estimateSizeInBytes();
+
+        prices.put("Item 500", 1L);
+        MenuCatalog second = first.withPrices(prices);
+        catalogHistory.record("default", second);
+        catalogHistory.record("default", MenuCatalog.of(1, prices));
+
+        Assertions.assertEquals(first.findItemId("Item 500"), second.findItemId("Item 500"));
+        Assertions.assertEquals(1L, second.getPriceInCents(second.findItemId("Item 500")));
+        Assertions.assertEquals(600L, first.getPriceInCents(first.findItemId("Item 500")));
+        Assertions.assertEquals(2, catalogHistory.getVersionCount());
+        Assertions.assertTrue(catalogHistory.estimateSizeInBytes() - firstBytes < 1024,
+                () -> "A price change added " + (catalogHistory.estimateSizeInBytes() - firstBytes) + " bytes");
+    }
+
+    /**
+     * Tests to ensure versions superseded longer than the retention ago, and versions beyond the maximum, are dropped.
+     */
+    @Test
+    public void record_CompactsOldVersions() {
+        MenuCatalog catalog = MenuCatalog.of(1, Map.of("Veggie Taco", 250L));
+        catalogHistory.record("default", catalog);
+        for (long price = 251; price <= 254; price++) {
+            at(START.plusSeconds(price - 250));
+            catalog = catalog.withPrices(Map.of("Veggie Taco", price));
+            catalogHistory.record("default", catalog);
+        }
+
+        Assertions.assertEquals(3, catalogHistory.getVersionCount());
+        Assertions.assertNull(catalogHistory.asOf("default", START.plusSeconds(1)));
+        Assertions.assertEquals(3, catalogHistory.asOf("default", START.plusSeconds(2)).getVersion());
+
+        at(START.plusSeconds(5).plus(Duration.ofDays(1)));
+        catalogHistory.record("default", catalog.withPrices(Map.of("Veggie Taco", 300L)));
+
+        Assertions.assertEquals(2, catalogHistory.getVersionCount());
+        Assertions.assertEquals(5, catalogHistory.asOf("default", START.plusSeconds(4)).getVersion());
+    }
+
+    /**
+     * Tests to ensure the versions recorded before a restart are read back from the file, still sharing their
+     * unchanged prices, and a line cut short by a crash is skipped.
+     */
+    @Test
+    public void load_RestoresVersionsAfterRestart(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("catalog-history");
+        ReflectionTestUtils.setField(catalogHistory, "file", file);
+        catalogHistory.load();
+        MenuCatalog first = MenuCatalog.of(1, Map.of("Veggie Taco", 250L, "Chicken Taco=Special", 300L));
+        catalogHistory.record("store\twith tab", first);
+        at(START.plusSeconds(3600));
+        catalogHistory.record("store\twith tab", first.withPrices(Map.of("Veggie Taco", 275L,
+                "Chicken Taco=Special", 300L)));
+        catalogHistory.close();
+        Files.writeString(file, "store\t" + START.toEpochMilli(), StandardOpenOption.APPEND);
+
+        CatalogHistory restarted = new CatalogHistory();
+        ReflectionTestUtils.setField(restarted, "retention", Duration.ofDays(1));
+        ReflectionTestUtils.setField(restarted, "maximumVersions", 3);
+        ReflectionTestUtils.setField(restarted, "file", file);
+        ReflectionTestUtils.setField(restarted, "pricingClock", Clock.fixed(START.plusSeconds(7200), ZoneOffset.UTC));
+        restarted.load();
+
+        MenuCatalog restoredFirst = restarted.asOf("store\twith tab", START);
+        MenuCatalog restoredSecond = restarted.asOf("store\twith tab", START.plusSeconds(3600));
+        Assertions.assertEquals(1, restoredFirst.getVersion());
+        Assertions.assertTrue(restoredFirst.hasPrices(first));
+        Assertions.assertEquals(2, restoredSecond.getVersion());
+        Assertions.assertEquals(275L, restoredSecond.getPriceInCents(restoredSecond.findItemId("Veggie Taco")));
+        Assertions.assertEquals(restoredFirst.findItemId("Veggie Taco"), restoredSecond.findItemId("Veggie Taco"));
+        Assertions.assertNull(restarted.asOf("store", START));
+        Assertions.assertEquals(2, Files.readAllLines(file).size());
+        restarted.close();
+    }
+
+    /**
+     * Tests to ensure the file is rewritten with the retained versions once the dropped versions outnumber them, and
+     * the versions read back after a restart are those retained.
+     */
+    @Test
+    public void record_RewritesFileAfterDroppedVersions(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("catalog-history");
+        ReflectionTestUtils.setField(catalogHistory, "file", file);
+        catalogHistory.load();
+        MenuCatalog catalog = MenuCatalog.of(1, Map.of("Veggie Taco", 250L));
+        catalogHistory.record("default", catalog);
+        for (long price = 251; price <= 259; price++) {
+            at(START.plusSeconds(price - 250));
+            catalog = catalog.withPrices(Map.of("Veggie Taco", price));
+            catalogHistory.record("default", catalog);
+        }
+        catalogHistory.close();
+
+        // rewritten with versions 5 to 7 at the 7th, then versions 8 to 10 appended
+        Assertions.assertEquals(6, Files.readAllLines(file).size());
+        CatalogHistory restarted = new CatalogHistory();
+        ReflectionTestUtils.setField(restarted, "retention", Duration.ofDays(1));
+        ReflectionTestUtils.setField(restarted, "maximumVersions", 3);
+        ReflectionTestUtils.setField(restarted, "file", file);
+        ReflectionTestUtils.setField(restarted, "pricingClock", Clock.fixed(START.plusSeconds(60), ZoneOffset.UTC));
+        restarted.load();
+
+        Assertions.assertEquals(3, restarted.getVersionCount());
+        Assertions.assertEquals(8, restarted.asOf("default", START.plusSeconds(7)).getVersion());
+        Assertions.assertNull(restarted.asOf("default", START.plusSeconds(6)));
+        restarted.close();
+    }
+
+    private void at(Instant instant) {
+        ReflectionTestUtils.setField(catalogHistory, "pricingClock", Clock.fixed(instant, ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,112 @@
+package com.tacoloco.webservice.catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tests the {@link FileCatalogSource}.
+ */
+public class FileCatalogSourceTest {
+    @TempDir
+    Path directory;
+
+    private Path menuFile;
+    private final List<Object> events = new CopyOnWriteArrayList<>();
+    private final FileCatalogSource catalogSource = new FileCatalogSource();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        menuFile = directory.resolve("menu.catalog");
+        write("# prices in dollars\nVeggie Taco=2.50\nChicken Taco = 3\n\n");
+        ReflectionTestUtils.setField(catalogSource, "path", menuFile);
+        ReflectionTestUtils.setField(catalogSource, "eventPublisher", (ApplicationEventPublisher) events::add);
+        catalogSource.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        catalogSource.stop();
+    }
+
+    /**
+     * Tests to ensure the menu file is parsed into a catalog.
+     */
+    @Test
+    public void start_LoadsCatalog() {
+        MenuCatalog catalog = catalogSource.getCatalog();
+
+        Assertions.assertEquals(1, catalog.getVersion());
+        Assertions.assertEquals(250, catalog.getPriceInCents(catalog.findItemId("Veggie Taco")));
+        Assertions.assertEquals(300, catalog.getPriceInCents(catalog.findItemId("Chicken Taco")));
+        Assertions.assertEquals(1, events.size());
+    }
+
+    /**
+     * Tests to ensure a new version is only published when a price changed.
+     */
+    @Test
+    public void reload_PublishesNewVersionOnChange() throws IOException {
+        catalogSource.stop();
+        MenuCatalog unchanged = catalogSource.reload();
+        Assertions.assertEquals(1, unchanged.getVersion());
+
+        write("Veggie Taco=2.75\nChicken Taco=3.00\n");
+        MenuCatalog changed = catalogSource.reload();
+
+        Assertions.assertEquals(2, changed.getVersion());
+        Assertions.assertEquals(275, changed.getPriceInCents(changed.findItemId("Veggie Taco")));
+        Assertions.assertEquals(2, events.size());
+    }
+
+    /**
+     * Tests to ensure an invalid file is rejected and the previous version keeps being served.
+     */
+    @Test
+    public void reload_InvalidFileKeepsPreviousVersion() throws IOException {
+        catalogSource.stop();
+        MenuCatalog previous = catalogSource.getCatalog();
+
+        write("Veggie Taco=two fifty\n");
+        Assertions.assertThrows(IllegalArgumentException.class, catalogSource::reload);
+        write("");
+        Assertions.assertThrows(IllegalArgumentException.class, catalogSource::reload);
+
+        Assertions.assertSame(previous, catalogSource.getCatalog());
+    }
+
+    /**
+     * Tests to ensure a replaced file is picked up by the watcher.
+     */
+    @Test
+    public void watch_ReloadsReplacedFile() throws Exception {
+        write("Veggie Taco=2.50\nChicken Taco=3.00\nChorizo Taco=3.50\n");
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (catalogSource.getCatalog().size() != 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        Assertions.assertEquals(3, catalogSource.getCatalog().size());
+        Assertions.assertEquals(2, catalogSource.getCatalog().getVersion());
+    }
+
+    /**
+     * Replaces the menu file with an atomic move, so the watcher never reads a partially written file.
+     */
+    private void write(String content) throws IOException {
+        Path replacement = directory.resolve("menu.catalog.tmp");
+        Files.writeString(replacement, content);
+        Files.move(replacement, menuFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
@@ -0,0 +1,73 @@
+package com.tacoloco.webservice.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the {@link MenuSearchIndex}.
+ */
+public class MenuSearchIndexTest {
+    private final MenuCatalog catalog = catalog(1, "Veggie Taco", "Chicken Taco", "Chicken Burrito", "Beef Taco",
+            "Chorizo Quesadilla", "Jalapeño Poppers");
+    private final MenuSearchIndex index = MenuSearchIndex.of(catalog);
+
+    /**
+     * Tests to ensure the items starting with the query come before the items with a word starting with it, each in
+     * name order, ignoring case and accents.
+     */
+    @Test
+    public void search_Prefix() {
+        Assertions.assertEquals(List.of("Chicken Burrito", "Chicken Taco", "Chorizo Quesadilla"),
+                index.search("CH", 10));
+        Assertions.assertEquals(List.of("Beef Taco", "Chicken Taco", "Veggie Taco"), index.search("taco", 10));
+        Assertions.assertEquals(List.of("Jalapeño Poppers"), index.search("jalapen", 10));
+        Assertions.assertEquals(List.of("Chicken Taco"), index.search("taco chick", 10));
+        Assertions.assertEquals(List.of("Beef Taco", "Chicken Burrito"), index.search("", 2));
+    }
+
+    /**
+     * Tests to ensure typos are tolerated once the exact matches run out, closest first, but not in short words.
+     */
+    @Test
+    public void search_Typo() {
+        Assertions.assertEquals(List.of("Chicken Burrito", "Chicken Taco"), index.search("chiken", 10));
+        Assertions.assertEquals(List.of("Chorizo Quesadilla"), index.search("quesadila", 10));
+        Assertions.assertEquals(List.of("Chicken Burrito"), index.search("burito chickn", 10));
+        Assertions.assertEquals(List.of(), index.search("tca", 10));
+        Assertions.assertEquals(List.of(), index.search("pizza", 10));
+    }
+
+    /**
+     * Tests to ensure an index is reused for a catalog version with the same items and rebuilt for other items.
+     */
+    @Test
+    public void update_ReusesIndexForSameItems() {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (String itemName : catalog.getItemNames()) {
+            prices.put(itemName, 500L);
+        }
+        MenuCatalog repricedCatalog = catalog.withPrices(prices);
+        MenuSearchIndex repriced = index.update(repricedCatalog);
+        Assertions.assertSame(repricedCatalog, repriced.getCatalog());
+        Assertions.assertEquals(index.search("ch", 10), repriced.search("ch", 10));
+        Assertions.assertSame(repriced, repriced.update(repricedCatalog));
+
+        prices.remove("Chicken Taco");
+        prices.put("Chicken Tamale", 400L);
+        MenuSearchIndex updated = repriced.update(MenuCatalog.of(3, prices));
+        Assertions.assertEquals(3, updated.getCatalog().getVersion());
+        Assertions.assertEquals(List.of("Chicken Burrito", "Chicken Tamale"), updated.search("chicken", 10));
+    }
+
+    private static MenuCatalog catalog(long version, String... itemNames) {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (String itemName : itemNames) {
+            prices.put(itemName, 300L);
+        }
+        return MenuCatalog.of(version, prices);
+    }
+}
@@ -0,0 +1,195 @@
+package com.tacoloco.webservice.catalog;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tests the {@link NearCache}.
+ */
+public class NearCacheTest {
+    private final AtomicLong nanoClock = new AtomicLong();
+    private final NearCache<String, String> cache = new NearCache<>(2, Duration.ofSeconds(10), nanoClock::get);
+
+    /**
+     * Tests to ensure a cached value is served until its time-to-live has passed.
+     */
+    @Test
+    public void get_ExpiresAfterTimeToLive() {
+        AtomicInteger loads = new AtomicInteger();
+
+        Assertions.assertEquals("a1", cache.get("a", key -> key + loads.incrementAndGet()));
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        Assertions.assertEquals("a1", cache.get("a", key -> key + loads.incrementAndGet()));
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        Assertions.assertEquals("a2", cache.get("a", key -> key + loads.incrementAndGet()));
+
+        Assertions.assertEquals(1, cache.getHitCount());
+        Assertions.assertEquals(2, cache.getMissCount());
+        Assertions.assertEquals(2, cache.getLoadCount());
+    }
+
+    /**
+     * Tests to ensure the least recently used entry is evicted once the cache is full.
+     */
+    @Test
+    public void get_EvictsLeastRecentlyUsed() {
+        cache.get("a", key -> key);
+        nanoClock.incrementAndGet();
+        cache.get("b", key -> key);
+        nanoClock.incrementAndGet();
+        cache.get("a", key -> key);
+        nanoClock.incrementAndGet();
+        cache.get("c", key -> key);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getEvictionCount());
+        Assertions.assertNull(cache.getIfPresent("b"));
+        Assertions.assertEquals("a", cache.getIfPresent("a"));
+    }
+
+    /**
+     * Tests to ensure an entry that is not read for its time-to-idle is reloaded and dropped by a clean up.
+     */
+    @Test
+    public void get_ExpiresAfterTimeToIdle() {
+        NearCache<String, String> idleCache = new NearCache<>(10, Long.MAX_VALUE, value -> 0, Duration.ofSeconds(10),
+                Duration.ofSeconds(3), nanoClock::get);
+
+        idleCache.get("a", key -> "a1");
+        idleCache.get("b", key -> "b1");
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assertions.assertEquals("a1", idleCache.get("a", (key, expired) -> "a2"));
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        Assertions.assertEquals("a1", idleCache.getIfPresent("a"));
+        Assertions.assertEquals("b1b2", idleCache.get("b", (key, expired) -> expired + "b2"));
+
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(3));
+        idleCache.cleanUp();
+        Assertions.assertEquals(0, idleCache.size());
+    }
+
+    /**
+     * Tests to ensure a clean up keeps an expired entry that is not idle, so its reloader is still given its expired
+     * value.
+     */
+    @Test
+    public void cleanUp_KeepsExpiredEntries() {
+        NearCache<String, String> idleCache = new NearCache<>(10, Long.MAX_VALUE, value -> 0, Duration.ofSeconds(10),
+                Duration.ofSeconds(30), nanoClock::get);
+        idleCache.get("a", key -> "a1");
+        idleCache.expire("a");
+        nanoClock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+
+        idleCache.cleanUp();
+        Assertions.assertEquals("a1a2", idleCache.get("a", (key, expired) -> expired + "a2"));
+    }
+
+    /**
+     * Tests to ensure an expired entry is reloaded on its next read, given its expired value, before its time-to-live.
+     */
+    @Test
+    public void expire_ReloadsWithExpiredValue() {
+        cache.get("a", key -> "a1");
+        cache.get("b", key -> "b1");
+
+        cache.expire("a");
+        Assertions.assertNull(cache.getIfPresent("a"));
+        Assertions.assertEquals("a1a2", cache.get("a", (key, expired) -> expired + "a2"));
+        Assertions.assertEquals("b1", cache.getIfPresent("b"));
+
+        cache.expireAll();
+        Assertions.assertEquals("b1b2", cache.get("b", (key, expired) -> expired + "b2"));
+        Assertions.assertEquals("a1a2a3", cache.get("a", (key, expired) -> expired + "a3"));
+    }
+
+    /**
+     * Tests to ensure the least recently used entries are evicted once the entries outweigh the maximum weight.
+     */
+    @Test
+    public void put_EvictsOverMaximumWeight() {
+        NearCache<String, String> weighedCache = new NearCache<>(10, 10, String::length, Duration.ofSeconds(10), null,
+                nanoClock::get);
+
+        weighedCache.put("a", "aaaa");
+        nanoClock.incrementAndGet();
+        weighedCache.put("b", "bbbb");
+        nanoClock.incrementAndGet();
+        weighedCache.getIfPresent("a");
+        weighedCache.put("c", "cccc");
+
+        Assertions.assertEquals(8, weighedCache.getWeight());
+        Assertions.assertEquals(1, weighedCache.getEvictionCount());
+        Assertions.assertNull(weighedCache.getIfPresent("b"));
+        Assertions.assertEquals("aaaa", weighedCache.getIfPresent("a"));
+    }
+
+    /**
+     * Tests to ensure concurrent misses for the same key share a single load.
+     */
+    @Test
+    public void get_ConcurrentMissesLoadOnce() throws Exception {
+        int threads = 8;
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("a", key -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return "loaded";
+            })));
+            loading.await();
+            for (int i = 1; i < threads; i++) {
+                results.add(executor.submit(() -> cache.get("a", key -> {
+                    loads.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                Assertions.assertEquals("loaded", result.get(5, TimeUnit.SECONDS));
+            }
+            Assertions.assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests to ensure a failed load is reported to the caller and not cached.
+     */
+    @Test
+    public void get_LoadFailureNotCached() {
+        Assertions.assertThrows(IllegalStateException.class, () -> cache.get("a", key -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        Assertions.assertEquals("a", cache.get("a", key -> key));
+        Assertions.assertEquals(1, cache.getLoadFailureCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
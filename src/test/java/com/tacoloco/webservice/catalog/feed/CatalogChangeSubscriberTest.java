@@ -0,0 +1,92 @@
+package com.tacoloco.webservice.catalog.feed;
+
+import com.tacoloco.webservice.catalog.CatalogSource;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Tests the {@link CatalogChangeSubscriber} applying an {@link InMemoryCatalogChangeFeed}.
+ */
+public class CatalogChangeSubscriberTest {
+    private final InMemoryCatalogChangeFeed feed = new InMemoryCatalogChangeFeed(3);
+    private final List<String> refreshedStores = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CatalogChangeSubscriber subscriber;
+
+    @BeforeEach
+    public void setUp() {
+        // changes published before the instance started are not applied
+        feed.publish("downtown");
+
+        subscriber = new CatalogChangeSubscriber();
+        ReflectionTestUtils.setField(subscriber, "feed", feed);
+        ReflectionTestUtils.setField(subscriber, "catalogSource", new CatalogSource() {
+            @Override
+            public MenuCatalog getCatalog(String storeId) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void refresh(String storeId) {
+                refreshedStores.add(storeId);
+            }
+        });
+        ReflectionTestUtils.setField(subscriber, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(subscriber, "pollInterval", Duration.ofHours(1));
+        subscriber.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        subscriber.stop();
+    }
+
+    /**
+     * Tests to ensure each change published since the last poll refreshes the menu it names.
+     */
+    @Test
+    public void poll_RefreshesChangedStores() throws IOException {
+        feed.publish("airport");
+        feed.publish(null);
+        Assertions.assertEquals(1, subscriber.getAppliedSequence());
+
+        subscriber.poll();
+
+        Assertions.assertEquals(Arrays.asList("airport", null), refreshedStores);
+        Assertions.assertEquals(3, subscriber.getAppliedSequence());
+        Assertions.assertEquals(0, subscriber.getLag());
+        Assertions.assertEquals(2, meterRegistry.get("tacoloco.catalog.feed.propagation").timer().count());
+        Assertions.assertEquals(0, meterRegistry.get("tacoloco.catalog.feed.gaps").counter().count());
+    }
+
+    /**
+     * Tests to ensure an instance that missed changes no longer retained by the feed refreshes every menu once.
+     */
+    @Test
+    public void poll_RefreshesEveryStoreAfterGap() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            feed.publish("store-" + i);
+        }
+
+        subscriber.poll();
+
+        Assertions.assertEquals(Arrays.asList((String) null), refreshedStores);
+        Assertions.assertEquals(6, subscriber.getAppliedSequence());
+        Assertions.assertEquals(1, meterRegistry.get("tacoloco.catalog.feed.gaps").counter().count());
+
+        feed.publish("airport");
+        subscriber.poll();
+        Assertions.assertEquals(Arrays.asList(null, "airport"), refreshedStores);
+    }
+}
@@ -0,0 +1,111 @@
+package com.tacoloco.webservice.catalog.feed;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * Tests the {@link FileCatalogChangeFeed}, with one feed per instance sharing the same file.
+ */
+public class FileCatalogChangeFeedTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests to ensure the changes published by one instance are read in order by another, each read returning only
+     * the changes after the given sequence number.
+     */
+    @Test
+    public void readAfter_ChangesOfOtherInstance() throws IOException {
+        FileCatalogChangeFeed publisher = new FileCatalogChangeFeed(directory.resolve("changes.log"), 100);
+        FileCatalogChangeFeed reader = new FileCatalogChangeFeed(directory.resolve("changes.log"), 100);
+
+        Assertions.assertEquals(0, reader.getLatestSequence());
+        Assertions.assertTrue(reader.readAfter(0, 10).isEmpty());
+        publisher.publish("downtown");
+        publisher.publish(null);
+
+        List<CatalogChange> changes = reader.readAfter(0, 10);
+        Assertions.assertEquals(List.of(1L, 2L), sequences(changes));
+        Assertions.assertEquals("downtown", changes.get(0).getStoreId());
+        Assertions.assertNull(changes.get(1).getStoreId());
+
+        reader.publish("store\twith tab");
+        Assertions.assertEquals(3, publisher.getLatestSequence());
+        changes = publisher.readAfter(2, 10);
+        Assertions.assertEquals(List.of(3L), sequences(changes));
+        Assertions.assertEquals("store\twith tab", changes.get(0).getStoreId());
+        Assertions.assertEquals(List.of(2L), sequences(reader.readAfter(1, 1)));
+    }
+
+    /**
+     * Tests to ensure a change longer than the tail first read from the end of the file does not restart the
+     * sequence numbers.
+     */
+    @Test
+    public void publish_LongLineKeepsSequence() throws IOException {
+        FileCatalogChangeFeed feed = new FileCatalogChangeFeed(directory.resolve("changes.log"), 100);
+        feed.publish("downtown");
+        feed.publish("x".repeat(5000));
+
+        Assertions.assertEquals(2, feed.getLatestSequence());
+        Assertions.assertEquals(3, feed.publish("uptown").getSequence());
+    }
+
+    /**
+     * Tests to ensure the file is compacted to the retained changes from twice the retention on, and a reader that was past the compaction
+     * point keeps reading without a gap while one that was behind it sees the gap.
+     */
+    @Test
+    public void publish_CompactsToRetention() throws IOException {
+        Path path = directory.resolve("changes.log");
+        FileCatalogChangeFeed publisher = new FileCatalogChangeFeed(path, 10);
+        FileCatalogChangeFeed reader = new FileCatalogChangeFeed(path, 10);
+        for (int i = 0; i < 25; i++) {
+            publisher.publish("store-" + i);
+        }
+        // compacted at twice the retention, from change 10 on
+        Assertions.assertEquals(LongStream.rangeClosed(10, 25).boxed().collect(Collectors.toList()),
+                sequences(reader.readAfter(0, 100)));
+
+        for (int i = 25; i < 30; i++) {
+            publisher.publish("store-" + i);
+        }
+
+        Assertions.assertEquals(11, Files.readAllLines(path).size());
+        Assertions.assertEquals(List.of(26L, 27L, 28L, 29L, 30L), sequences(reader.readAfter(25, 100)));
+        Assertions.assertEquals(20L, new FileCatalogChangeFeed(path, 10).readAfter(5, 100).get(0).getSequence());
+    }
+
+    /**
+     * Tests to ensure a partial line left by a publisher that crashed is skipped and does not corrupt the next change.
+     */
+    @Test
+    public void publish_AfterPartialLine() throws IOException {
+        Path path = directory.resolve("changes.log");
+        FileCatalogChangeFeed feed = new FileCatalogChangeFeed(path, 100);
+        feed.publish("downtown");
+        Files.write(path, "2\tupt".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        Assertions.assertEquals(List.of(1L), sequences(feed.readAfter(0, 10)));
+        feed.publish("airport");
+
+        List<CatalogChange> changes = new FileCatalogChangeFeed(path, 100).readAfter(0, 10);
+        Assertions.assertEquals(List.of(1L, 2L), sequences(changes));
+        Assertions.assertEquals("airport", changes.get(1).getStoreId());
+        Assertions.assertEquals(List.of(2L), sequences(feed.readAfter(1, 10)));
+    }
+
+    private static List<Long> sequences(List<CatalogChange> changes) {
+        return changes.stream().map(CatalogChange::getSequence).collect(Collectors.toList());
+    }
+}
@@ -2,10 +2,20 @@ package com.tacoloco.webservice.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tacoloco.webservice.catalog.CatalogVersionNotFoundException;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.catalog.UnknownStoreException;
+import com.tacoloco.webservice.metrics.RequestTimingFilter;
 import com.tacoloco.webservice.model.ApiError;
+import com.tacoloco.webservice.model.Cart;
 import com.tacoloco.webservice.model.OrderItem;
 import com.tacoloco.webservice.repository.OrderItemRepository;
+import com.tacoloco.webservice.sales.SalesCounters;
 import org.json.JSONException;
+import org.json.JSONObject;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.skyscreamer.jsonassert.JSONAssert;
@@ -14,15 +24,29 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.mockito.Mockito.*;
 
@@ -41,14 +65,16 @@ public class OrderItemControllerTest {
     @MockBean
     private OrderItemRepository mockRepository;
 
+    @Autowired
+    private SalesCounters salesCounters;
+
     /**
      * Tests to ensure success when valid order item is provided in the request.
      */
     @Test
     public void calculateTotal_OK() throws JSONException, MalformedURLException {
         OrderItem orderItem = new OrderItem("Veggie Taco", 2);
-        when(mockRepository.findPriceByItemName("Veggie Taco")).thenReturn(Optional.of(3.50));
-        when(mockRepository.doesItemNameExist("Veggie Taco")).thenReturn(true);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
         String expected = "{totalPrice:7.0}";
 
         ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), Collections.singletonList(orderItem), String.class);
@@ -56,8 +82,9 @@ public class OrderItemControllerTest {
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
         JSONAssert.assertEquals(expected, response.getBody(), false);
 
-        verify(mockRepository, times(1)).findPriceByItemName("Veggie Taco");
-        verify(mockRepository, times(1)).doesItemNameExist("Veggie Taco");
+        verify(mockRepository, times(1)).findCatalog(null);
+        verify(mockRepository, never()).doesItemNameExist(any(), anyString());
+        verify(mockRepository, never()).findPriceByItemName(any(), anyString());
     }
 
     /**
@@ -66,8 +93,7 @@ public class OrderItemControllerTest {
     @Test
     public void calculateTotal_DiscountApplied_OK() throws JSONException, MalformedURLException {
         OrderItem orderItem = new OrderItem("Chicken Taco", 4);
-        when(mockRepository.findPriceByItemName("Chicken Taco")).thenReturn(Optional.of(2.00));
-        when(mockRepository.doesItemNameExist("Chicken Taco")).thenReturn(true);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Chicken Taco", 200L)));
         String expected = "{totalPrice:6.4}";
 
         ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), Collections.singletonList(orderItem), String.class);
@@ -75,8 +101,9 @@ public class OrderItemControllerTest {
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
         JSONAssert.assertEquals(expected, response.getBody(), false);
 
-        verify(mockRepository, times(1)).findPriceByItemName("Chicken Taco");
-        verify(mockRepository, times(1)).doesItemNameExist("Chicken Taco");
+        verify(mockRepository, times(1)).findCatalog(null);
+        verify(mockRepository, never()).doesItemNameExist(any(), anyString());
+        verify(mockRepository, never()).findPriceByItemName(any(), anyString());
     }
 
     /**
@@ -87,10 +114,7 @@ public class OrderItemControllerTest {
         OrderItem orderItem1 = new OrderItem("Veggie Taco", 2);
         OrderItem orderItem2 = new OrderItem("Chicken Taco", 2);
 
-        when(mockRepository.findPriceByItemName("Veggie Taco")).thenReturn(Optional.of(3.50));
-        when(mockRepository.doesItemNameExist("Veggie Taco")).thenReturn(true);
-        when(mockRepository.findPriceByItemName("Chicken Taco")).thenReturn(Optional.of(3.50));
-        when(mockRepository.doesItemNameExist("Chicken Taco")).thenReturn(true);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L, "Chicken Taco", 350L)));
 
         String expected = "{totalPrice:11.2}";
 
@@ -99,10 +123,9 @@ public class OrderItemControllerTest {
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
         JSONAssert.assertEquals(expected, response.getBody(), false);
 
-        verify(mockRepository, times(1)).findPriceByItemName("Veggie Taco");
-        verify(mockRepository, times(1)).doesItemNameExist("Veggie Taco");
-        verify(mockRepository, times(1)).findPriceByItemName("Chicken Taco");
-        verify(mockRepository, times(1)).doesItemNameExist("Chicken Taco");
+        verify(mockRepository, times(1)).findCatalog(null);
+        verify(mockRepository, never()).doesItemNameExist(any(), anyString());
+        verify(mockRepository, never()).findPriceByItemName(any(), anyString());
     }
 
     /**
@@ -113,8 +136,7 @@ public class OrderItemControllerTest {
         OrderItem orderItem1 = new OrderItem("Veggie Taco", 2);
         OrderItem orderItem2 = new OrderItem("Veggie Taco", 2);
 
-        when(mockRepository.findPriceByItemName("Veggie Taco")).thenReturn(Optional.of(3.50));
-        when(mockRepository.doesItemNameExist("Veggie Taco")).thenReturn(true);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
 
         String expected = "{totalPrice:11.2}";
 
@@ -123,8 +145,9 @@ public class OrderItemControllerTest {
         Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
         JSONAssert.assertEquals(expected, response.getBody(), false);
 
-        verify(mockRepository, times(1)).findPriceByItemName("Veggie Taco");
-        verify(mockRepository, times(2)).doesItemNameExist("Veggie Taco");
+        verify(mockRepository, times(1)).findCatalog(null);
+        verify(mockRepository, never()).doesItemNameExist(any(), anyString());
+        verify(mockRepository, never()).findPriceByItemName(any(), anyString());
     }
 
     /**
@@ -133,6 +156,7 @@ public class OrderItemControllerTest {
     @Test
     public void calculateTotal_EmptyItemName() throws JSONException, MalformedURLException, JsonProcessingException {
         OrderItem orderItem = new OrderItem("", 4);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
         ApiError expectedError = new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", List.of("calculateTotal.orders[0].itemName : must not be blank", "calculateTotal.orders[0].itemName : The item name is not a valid menu item"));
         String expected = new ObjectMapper().writeValueAsString(expectedError);
         ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), Collections.singletonList(orderItem), String.class);
@@ -148,6 +172,7 @@ public class OrderItemControllerTest {
     @Test
     public void calculateTotal_BlankItemName() throws JSONException, MalformedURLException, JsonProcessingException {
         OrderItem orderItem = new OrderItem(" ", 4);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
         ApiError expectedError = new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", List.of("calculateTotal.orders[0].itemName  : must not be blank", "calculateTotal.orders[0].itemName  : The item name is not a valid menu item"));
         String expected = new ObjectMapper().writeValueAsString(expectedError);
         ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), Collections.singletonList(orderItem), String.class);
@@ -163,7 +188,7 @@ public class OrderItemControllerTest {
     @Test
     public void calculateTotal_InvalidItemName() throws JSONException, MalformedURLException, JsonProcessingException {
         OrderItem orderItem = new OrderItem("veg", 4);
-        when(mockRepository.doesItemNameExist("veg")).thenReturn(false);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
 
         ApiError expectedError = new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", "calculateTotal.orders[0].itemName veg: The item name is not a valid menu item");
         String expected = new ObjectMapper().writeValueAsString(expectedError);
@@ -179,7 +204,7 @@ public class OrderItemControllerTest {
     @Test
     public void calculateTotal_InvalidQuantity() throws JSONException, MalformedURLException, JsonProcessingException {
         OrderItem orderItem = new OrderItem("Veggie Taco", -2);
-        when(mockRepository.doesItemNameExist("Veggie Taco")).thenReturn(true);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
 
         ApiError expectedError = new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", "calculateTotal.orders[0].quantity -2: must be greater than or equal to 1");
         String expected = new ObjectMapper().writeValueAsString(expectedError);
@@ -188,4 +213,266 @@ public class OrderItemControllerTest {
         Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
         JSONAssert.assertEquals(expected, response.getBody(), false);
     }
+
+    /**
+     * Tests to ensure every cart of a batch is priced and an invalid cart does not fail the others.
+     */
+    @Test
+    public void calculateTotals_OK() throws JSONException, MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        List<Cart> carts = List.of(
+                new Cart("valid", List.of(new OrderItem("Veggie Taco", 2))),
+                new Cart("discounted", List.of(new OrderItem("Veggie Taco", 2), new OrderItem("Veggie Taco", 2))),
+                new Cart("invalid", List.of(new OrderItem("veg", 1))));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotals/").toString(), carts, String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Map<String, String> linesByCartId = new HashMap<>();
+        for (String line : response.getBody().split("\n")) {
+            linesByCartId.put(new JSONObject(line).getString("cartId"), line);
+        }
+        Assertions.assertEquals(3, linesByCartId.size());
+        JSONAssert.assertEquals("{totalPrice:7.0}", linesByCartId.get("valid"), false);
+        JSONAssert.assertEquals("{totalPrice:11.2}", linesByCartId.get("discounted"), false);
+        JSONAssert.assertEquals("{errors:[\"items[0].itemName veg: The item name is not a valid menu item\"]}", linesByCartId.get("invalid"), false);
+        verify(mockRepository, times(1)).findCatalog(null);
+    }
+
+    /**
+     * Tests to ensure success when a discounted order with duplicate items is read as a stream.
+     */
+    @Test
+    public void calculateTotalStreaming_OK() throws JSONException, MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L, "Chicken Taco", 350L)));
+        String body = "[{\"itemName\":\"Veggie Taco\",\"quantity\":2},{\"quantity\":1,\"itemName\":\"Chicken Taco\"},{\"itemName\":\"Veggie Taco\",\"quantity\":1}]";
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/stream").toString(), jsonRequest(body), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JSONAssert.assertEquals("{totalPrice:11.2}", response.getBody(), false);
+    }
+
+    /**
+     * Test to ensure failure when a streamed order contains an invalid item.
+     */
+    @Test
+    public void calculateTotalStreaming_InvalidItemName() throws MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        String body = "[{\"itemName\":\"Veggie Taco\",\"quantity\":2},{\"itemName\":\"veg\",\"quantity\":1}]";
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/stream").toString(), jsonRequest(body), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    /**
+     * Test to ensure failure when a streamed order has a quantity that is not an integer, or content after the array.
+     */
+    @Test
+    public void calculateTotalStreaming_InvalidJson() throws MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        String url = new URL("http://localhost:" + port + "/calculateTotal/stream").toString();
+
+        for (String body : List.of("[{\"itemName\":\"Veggie Taco\",\"quantity\":1.5}]",
+                "[{\"itemName\":\"Veggie Taco\",\"quantity\":\"2\"}]",
+                "[{\"itemName\":\"Veggie Taco\",\"quantity\":2}] [{\"itemName\":\"Veggie Taco\",\"quantity\":2}]")) {
+            ResponseEntity<String> response = restTemplate.postForEntity(url, jsonRequest(body), String.class);
+
+            Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode(), body);
+        }
+    }
+
+    /**
+     * Tests to ensure a submitted order is priced and receives an order ID.
+     */
+    @Test
+    public void submitOrder_Created() throws JSONException, MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/orders").toString(), List.of(new OrderItem("Veggie Taco", 4)), String.class);
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        JSONAssert.assertEquals("{totalPrice:11.2}", response.getBody(), false);
+        Assertions.assertTrue(new JSONObject(response.getBody()).getLong("orderId") > 0);
+    }
+
+    /**
+     * Tests to ensure a price quote is not counted as a sale and a submitted order is.
+     */
+    @Test
+    public void submitOrder_CountedAsSale() throws MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Quoted Taco", 350L, "Ordered Taco", 350L)));
+
+        restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal").toString(), List.of(new OrderItem("Quoted Taco", 1)), String.class);
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/orders").toString(), List.of(new OrderItem("Ordered Taco", 1)), String.class);
+
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        Assertions.assertTrue(salesCounters.getItemNames().contains("Ordered Taco"));
+        Assertions.assertFalse(salesCounters.getItemNames().contains("Quoted Taco"));
+    }
+
+    /**
+     * Test to ensure an invalid order is rejected and not journaled.
+     */
+    @Test
+    public void submitOrder_InvalidItemName() throws MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/orders").toString(), List.of(new OrderItem("veg", 4)), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    /**
+     * Tests to ensure an order naming a store is priced against the menu of that store.
+     */
+    @Test
+    public void calculateTotal_Store_OK() throws JSONException, MalformedURLException {
+        when(mockRepository.findCatalog("downtown")).thenReturn(MenuCatalog.of(1, Map.of("Fish Taco", 400L)));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(StoreContext.STORE_ID_HEADER, "downtown");
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), new HttpEntity<>(List.of(new OrderItem("Fish Taco", 2)), headers), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JSONAssert.assertEquals("{totalPrice:8.0}", response.getBody(), false);
+        verify(mockRepository, never()).findCatalog(null);
+    }
+
+    /**
+     * Test to ensure failure when the order names a store without a menu.
+     */
+    @Test
+    public void calculateTotal_UnknownStore() throws MalformedURLException {
+        when(mockRepository.findCatalog("uptown")).thenThrow(new UnknownStoreException("uptown"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(StoreContext.STORE_ID_HEADER, "uptown");
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotals/").toString(), new HttpEntity<>(List.of(new Cart("cart", List.of(new OrderItem("Veggie Taco", 1)))), headers), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    /**
+     * Tests to ensure an order sent and answered in CBOR is priced like a JSON one.
+     */
+    @Test
+    public void calculateTotal_Cbor_OK() throws IOException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        MediaType cbor = MediaType.valueOf("application/cbor");
+
+        ResponseEntity<byte[]> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), binaryRequest(cborMapper, cbor, List.of(Map.of("itemName", "Veggie Taco", "quantity", 4))), byte[].class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertTrue(cbor.isCompatibleWith(response.getHeaders().getContentType()));
+        Assertions.assertEquals(11.2, cborMapper.readTree(response.getBody()).get("totalPrice").asDouble());
+    }
+
+    /**
+     * Test to ensure an invalid order sent in Smile is rejected with a Smile error.
+     */
+    @Test
+    public void calculateTotal_Smile_InvalidItemName() throws IOException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+
+        ResponseEntity<byte[]> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), binaryRequest(smileMapper, smile, List.of(Map.of("itemName", "veg", "quantity", 4))), byte[].class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        Assertions.assertEquals("BAD_REQUEST", smileMapper.readTree(response.getBody()).get("status").asText());
+    }
+
+    /**
+     * Test to ensure an order priced at an earlier time is priced with the menu served then.
+     */
+    @Test
+    public void calculateTotal_PricedAt() throws MalformedURLException, JSONException {
+        Instant pricedAt = Instant.parse("2026-10-01T12:00:00Z");
+        when(mockRepository.findCatalog(null, pricedAt)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 300L)));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/?pricedAt=2026-10-01T12:00:00Z").toString(), List.of(new OrderItem("Veggie Taco", 2)), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JSONAssert.assertEquals("{totalPrice:6.0}", response.getBody(), false);
+        verify(mockRepository, never()).findCatalog(null);
+    }
+
+    /**
+     * Test to ensure an order priced at a time the menu is no longer known for is rejected.
+     */
+    @Test
+    public void calculateTotal_PricedAt_VersionNotFound() throws MalformedURLException {
+        Instant pricedAt = Instant.parse("2020-01-01T00:00:00Z");
+        when(mockRepository.findCatalog(null, pricedAt))
+                .thenThrow(new CatalogVersionNotFoundException("default", pricedAt));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/?pricedAt=2020-01-01T00:00:00Z").toString(), List.of(new OrderItem("Veggie Taco", 2)), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    /**
+     * Test to ensure the time spent in the phases before the body is written is sent as a Server-Timing header.
+     */
+    @Test
+    public void calculateTotal_ServerTiming() throws MalformedURLException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), List.of(new OrderItem("Veggie Taco", 2)), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        String serverTiming = response.getHeaders().getFirst(RequestTimingFilter.SERVER_TIMING_HEADER);
+        Assertions.assertNotNull(serverTiming);
+        Assertions.assertTrue(serverTiming.matches("deserialization;dur=\\d+\\.\\d{3}, validation;dur=\\d+\\.\\d{3}, "
+                + "pricing;dur=\\d+\\.\\d{3}, total;dur=\\d+\\.\\d{3}"), serverTiming);
+    }
+
+    /**
+     * Test to ensure a flight recording gets the request and its phases as events, on the same thread.
+     */
+    @Test
+    public void calculateTotal_FlightRecorderEvents() throws IOException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        Path file = Files.createTempFile("order-events", ".jfr");
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("com.tacoloco.OrderPhase").withThreshold(Duration.ZERO);
+            recording.enable("com.tacoloco.OrderRequest").withThreshold(Duration.ZERO);
+            recording.start();
+            restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), List.of(new OrderItem("Veggie Taco", 2)), String.class);
+            recording.stop();
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        } finally {
+            Files.delete(file);
+        }
+
+        RecordedEvent request = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.tacoloco.OrderRequest"))
+                .findFirst().orElseThrow();
+        Assertions.assertEquals("POST", request.getString("method"));
+        Assertions.assertEquals(200, request.getInt("status"));
+        List<String> phases = events.stream()
+                .filter(event -> event.getEventType().getName().equals("com.tacoloco.OrderPhase"))
+                .filter(event -> event.getThread().getJavaThreadId() == request.getThread().getJavaThreadId())
+                .map(event -> event.getString("phase"))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(List.of("deserialization", "validation", "pricing", "serialization"), phases);
+    }
+
+    private static HttpEntity<byte[]> binaryRequest(ObjectMapper mapper, MediaType mediaType, Object body) throws JsonProcessingException {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(mediaType);
+        headers.setAccept(List.of(mediaType));
+        return new HttpEntity<>(mapper.writeValueAsBytes(body), headers);
+    }
+
+    private static HttpEntity<String> jsonRequest(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
 }
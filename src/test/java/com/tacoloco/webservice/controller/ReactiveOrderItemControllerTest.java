@@ -0,0 +1,137 @@
+package com.tacoloco.webservice.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.StoreContext;
+import com.tacoloco.webservice.model.ApiError;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import org.json.JSONException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.skyscreamer.jsonassert.JSONAssert;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests the {@link ReactiveOrderItemController} serves the same contract as the {@link OrderItemController}.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "reactive"})
+public class ReactiveOrderItemControllerTest {
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @MockBean
+    private OrderItemRepository mockRepository;
+
+    /**
+     * Tests to ensure success when valid order items that qualify for discount are provided in the request.
+     */
+    @Test
+    public void calculateTotal_DiscountApplied_OK() throws JSONException, MalformedURLException {
+        OrderItem orderItem = new OrderItem("Chicken Taco", 4);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Chicken Taco", 200L)));
+        String expected = "{totalPrice:6.4}";
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), Collections.singletonList(orderItem), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        JSONAssert.assertEquals(expected, response.getBody(), false);
+
+        verify(mockRepository, times(1)).findCatalog(null);
+    }
+
+    /**
+     * Tests to ensure a menu that is not in memory is loaded off the event loop, with the store of the request.
+     */
+    @Test
+    public void calculateTotal_CatalogLoadedOffEventLoop() throws MalformedURLException {
+        AtomicReference<String> loadingThread = new AtomicReference<>();
+        when(mockRepository.findCatalog("downtown")).thenAnswer(invocation -> {
+            loadingThread.set(Thread.currentThread().getName());
+            return MenuCatalog.of(1, Map.of("Chicken Taco", 200L));
+        });
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(StoreContext.STORE_ID_HEADER, "downtown");
+
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), new HttpEntity<>(List.of(new OrderItem("Chicken Taco", 1)), headers), String.class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertTrue(loadingThread.get().startsWith("boundedElastic"), loadingThread.get());
+        verify(mockRepository).findCatalogIfLoaded("downtown");
+    }
+
+    /**
+     * Test to ensure failure when invalid menu item name is provided in the request.
+     */
+    @Test
+    public void calculateTotal_InvalidItemName() throws JSONException, MalformedURLException, JsonProcessingException {
+        OrderItem orderItem = new OrderItem("veg", 4);
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+
+        ApiError expectedError = new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", "calculateTotal.orders[0].itemName veg: The item name is not a valid menu item");
+        String expected = new ObjectMapper().writeValueAsString(expectedError);
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), Collections.singletonList(orderItem), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        JSONAssert.assertEquals(expected, response.getBody(), false);
+    }
+
+    /**
+     * Tests to ensure an order sent and answered in Smile is priced like a JSON one.
+     */
+    @Test
+    public void calculateTotal_Smile_OK() throws IOException {
+        when(mockRepository.findCatalog(null)).thenReturn(MenuCatalog.of(1, Map.of("Veggie Taco", 350L)));
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+        MediaType smile = MediaType.valueOf("application/x-jackson-smile");
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(smile);
+        headers.setAccept(List.of(smile));
+        HttpEntity<byte[]> request = new HttpEntity<>(smileMapper.writeValueAsBytes(List.of(Map.of("itemName", "Veggie Taco", "quantity", 4))), headers);
+
+        ResponseEntity<byte[]> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), request, byte[].class);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(11.2, smileMapper.readTree(response.getBody()).get("totalPrice").asDouble());
+    }
+
+    /**
+     * Test to ensure failure when no order items are provided in the request.
+     */
+    @Test
+    public void calculateTotal_NoItems() throws JSONException, MalformedURLException, JsonProcessingException {
+        ApiError expectedError = new ApiError(HttpStatus.BAD_REQUEST, "The request is not valid", "calculateTotal.orders []: must not be empty");
+        String expected = new ObjectMapper().writeValueAsString(expectedError);
+        ResponseEntity<String> response = restTemplate.postForEntity(new URL("http://localhost:" + port + "/calculateTotal/").toString(), List.of(), String.class);
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        JSONAssert.assertEquals(expected, response.getBody(), false);
+        verify(mockRepository, never()).findCatalog(any());
+    }
+}
@@ -0,0 +1,142 @@
+package com.tacoloco.webservice.journal;
+
+import com.tacoloco.webservice.model.OrderItem;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Tests the {@link OrderJournal}.
+ */
+public class OrderJournalTest {
+    private static final String STORE = "default";
+    private static final List<OrderItem> ORDER = List.of(new OrderItem("Veggie Taco", 2), new OrderItem("Beef Taco", 1));
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests to ensure concurrent appends get distinct sequences, share commits and are all replayed.
+     */
+    @Test
+    public void append_GroupCommit() throws Exception {
+        List<CompletableFuture<Long>> appended = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(directory, 1 << 20)) {
+            for (int i = 0; i < 500; i++) {
+                appended.add(journal.appendAsync(STORE, ORDER, 800 + i));
+            }
+            CompletableFuture.allOf(appended.toArray(new CompletableFuture<?>[0])).join();
+
+            Assertions.assertEquals(500, journal.getAppendCount());
+            Assertions.assertTrue(journal.getCommitCount() < 500);
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        Assertions.assertEquals(500, OrderJournal.replay(directory, records::add));
+        Assertions.assertEquals(500, records.size());
+        Assertions.assertEquals(800, records.get(0).getTotalInCents());
+        Assertions.assertEquals(STORE, records.get(0).getStoreId());
+        Assertions.assertEquals("Veggie Taco", records.get(0).getItems().get(0).getItemName());
+        Assertions.assertEquals(1, records.get(0).getItems().get(1).getQuantity());
+    }
+
+    /**
+     * Tests to ensure a new segment is started when a record does not fit, and sequences continue across segments.
+     */
+    @Test
+    public void append_RollsSegments() throws IOException {
+        try (OrderJournal journal = new OrderJournal(directory, 256)) {
+            for (int i = 0; i < 10; i++) {
+                Assertions.assertEquals(i + 1, journal.append(STORE, ORDER, 800));
+            }
+        }
+
+        Assertions.assertTrue(segments().size() > 1);
+        Set<Long> sequences = new TreeSet<>();
+        OrderJournal.replay(directory, record -> sequences.add(record.getSequence()));
+        Assertions.assertEquals(10, sequences.size());
+    }
+
+    /**
+     * Tests to ensure a torn record is discarded on recovery and appends continue after the last complete record.
+     */
+    @Test
+    public void open_RecoversTornRecord() throws IOException {
+        try (OrderJournal journal = new OrderJournal(directory, 1 << 16)) {
+            journal.append(STORE, ORDER, 800);
+            journal.append(STORE, ORDER, 900);
+        }
+        Path segment = segments().get(0);
+        int secondRecord = recordLength(segment) + Integer.BYTES * 2;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // corrupt the checksummed part of the second record, as a crash in the middle of writing it would
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3}), secondRecord + 20);
+        }
+
+        try (OrderJournal journal = new OrderJournal(directory, 1 << 16)) {
+            Assertions.assertEquals(2, journal.append(STORE, List.of(new OrderItem("Chicken Taco", 1)), 300));
+        }
+
+        List<JournalRecord> records = new ArrayList<>();
+        OrderJournal.replay(directory, records::add);
+        Assertions.assertEquals(2, records.size());
+        Assertions.assertEquals(800, records.get(0).getTotalInCents());
+        Assertions.assertEquals(300, records.get(1).getTotalInCents());
+    }
+
+    /**
+     * Tests to ensure an append after the journal was closed fails instead of waiting for the stopped writer.
+     */
+    @Test
+    public void append_AfterCloseFails() throws IOException {
+        OrderJournal journal = new OrderJournal(directory, 1 << 16);
+        journal.append(STORE, ORDER, 800);
+        journal.close();
+
+        Assertions.assertThrows(IOException.class, () -> journal.append(STORE, ORDER, 900));
+        Assertions.assertTrue(journal.appendAsync(STORE, ORDER, 900).isCompletedExceptionally());
+    }
+
+    /**
+     * Tests to ensure a journal that is open cannot be opened a second time, and can be once it is closed.
+     */
+    @Test
+    public void open_LockedWhileOpen() throws IOException {
+        try (OrderJournal journal = new OrderJournal(directory, 1 << 16)) {
+            journal.append(STORE, ORDER, 800);
+            Assertions.assertThrows(IOException.class, () -> new OrderJournal(directory, 1 << 16));
+        }
+        try (OrderJournal journal = new OrderJournal(directory, 1 << 16)) {
+            Assertions.assertEquals(2, journal.append(STORE, ORDER, 900));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(OrderJournal.SEGMENT_SUFFIX))
+                    .sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static int recordLength(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+            channel.read(length, 0);
+            return length.flip().getInt();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.tacoloco.webservice.pricing;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the pricing rules compiled into {@link PriceTable}s by the {@link CompiledRuleSet}.
+ */
+public class CompiledRuleSetTest {
+    private static final MenuCatalog CATALOG = catalog();
+    private static final int VEGGIE_TACO = CATALOG.findItemId("Veggie Taco");
+    private static final int BEEF_TACO = CATALOG.findItemId("Beef Taco");
+
+    /**
+     * Tests to ensure item discounts and buy N get M offers are applied per item.
+     */
+    @Test
+    public void priceLine_ItemPromotions() {
+        PriceTable table = compile(
+                rule(PromotionType.ITEM_DISCOUNT, "Veggie Taco", null, 10),
+                buyGet("Beef Taco", 2, 1)).getPriceTable(null, 0);
+
+        Assertions.assertEquals(450, table.priceLine(VEGGIE_TACO, 2, 250));
+        Assertions.assertEquals(1200, table.priceLine(BEEF_TACO, 5, 300));
+    }
+
+    /**
+     * Tests to ensure the highest order discount tier the order reaches is applied.
+     */
+    @Test
+    public void applyOrderDiscount_Tiers() {
+        PriceTable table = compile(orderDiscount(4, 20), orderDiscount(10, 30)).getPriceTable(null, 0);
+
+        Assertions.assertEquals(1000, table.applyOrderDiscount(1000, 3));
+        Assertions.assertEquals(800, table.applyOrderDiscount(1000, 4));
+        Assertions.assertEquals(700, table.applyOrderDiscount(1000, 12));
+    }
+
+    /**
+     * Tests to ensure time-of-day rules only apply during their window.
+     */
+    @Test
+    public void getPriceTable_HappyHour() {
+        PromotionRule happyHour = rule(PromotionType.ITEM_DISCOUNT, "Beef Taco", null, 50);
+        happyHour.setStartTime("16:00");
+        happyHour.setEndTime("18:00");
+        CompiledRuleSet compiled = compile(happyHour);
+
+        Assertions.assertTrue(compiled.isTimeDependent());
+        Assertions.assertEquals(300, compiled.getPriceTable(null, 15 * 60 + 59).priceLine(BEEF_TACO, 1, 300));
+        Assertions.assertEquals(150, compiled.getPriceTable(null, 16 * 60).priceLine(BEEF_TACO, 1, 300));
+        Assertions.assertEquals(300, compiled.getPriceTable(null, 18 * 60).priceLine(BEEF_TACO, 1, 300));
+    }
+
+    /**
+     * Tests to ensure a store's rule overrides the rule for every store with the same target.
+     */
+    @Test
+    public void getPriceTable_StoreOverride() {
+        CompiledRuleSet compiled = compile(
+                rule(PromotionType.ITEM_DISCOUNT, "Veggie Taco", null, 10),
+                rule(PromotionType.ITEM_DISCOUNT, "Veggie Taco", "downtown", 5));
+
+        Assertions.assertEquals(225, compiled.getPriceTable(null, 0).priceLine(VEGGIE_TACO, 1, 250));
+        Assertions.assertEquals(237, compiled.getPriceTable("downtown", 0).priceLine(VEGGIE_TACO, 1, 250));
+        Assertions.assertEquals(225, compiled.getPriceTable("airport", 0).priceLine(VEGGIE_TACO, 1, 250));
+    }
+
+    /**
+     * Tests to ensure rules that are not valid are rejected.
+     */
+    @Test
+    public void of_InvalidRule() {
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> RuleSet.of(1, List.of(rule(PromotionType.ITEM_DISCOUNT, "Veggie Taco", null, 150))));
+    }
+
+    private static CompiledRuleSet compile(PromotionRule... rules) {
+        return CompiledRuleSet.compile(RuleSet.of(1, List.of(rules)), CATALOG);
+    }
+
+    private static PromotionRule rule(PromotionType type, String itemName, String storeId, int percentage) {
+        PromotionRule rule = new PromotionRule();
+        rule.setType(type);
+        rule.setItemName(itemName);
+        rule.setStoreId(storeId);
+        rule.setPercentage(percentage);
+        return rule;
+    }
+
+    private static PromotionRule buyGet(String itemName, int buyQuantity, int freeQuantity) {
+        PromotionRule rule = rule(PromotionType.BUY_N_GET_M, itemName, null, 0);
+        rule.setBuyQuantity(buyQuantity);
+        rule.setFreeQuantity(freeQuantity);
+        return rule;
+    }
+
+    private static PromotionRule orderDiscount(int minimumQuantity, int percentage) {
+        PromotionRule rule = rule(PromotionType.ORDER_DISCOUNT, null, null, percentage);
+        rule.setMinimumQuantity(minimumQuantity);
+        return rule;
+    }
+
+    private static MenuCatalog catalog() {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        prices.put("Beef Taco", 300L);
+        prices.put("Veggie Taco", 250L);
+        return MenuCatalog.of(1, prices);
+    }
+}
@@ -0,0 +1,91 @@
+package com.tacoloco.webservice.repository;
+
+import com.tacoloco.webservice.catalog.CatalogSource;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.UnknownStoreException;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests the store catalogs and the metrics of the {@link OrderItemRepository} and its "items" cache.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class OrderItemRepositoryTest {
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        cacheManager.getCache("items").clear();
+    }
+
+    /**
+     * Tests to ensure the item names are loaded once and then served from the cache.
+     */
+    @Test
+    public void findAllItemNames_Cached() {
+        double hits = cacheGets("hit");
+        double loads = lookups(OrderMetrics.CatalogLookup.FIND_ALL_ITEM_NAMES);
+
+        orderItemRepository.findAllItemNames(CatalogSource.DEFAULT_STORE);
+        orderItemRepository.findAllItemNames(CatalogSource.DEFAULT_STORE);
+
+        Assertions.assertEquals(1, lookups(OrderMetrics.CatalogLookup.FIND_ALL_ITEM_NAMES) - loads);
+        Assertions.assertEquals(1, cacheGets("hit") - hits);
+    }
+
+    /**
+     * Tests to ensure the metrics show {@code doesItemNameExist} loading the item names without the cache: it calls
+     * {@code findAllItemNames} on itself rather than through the caching proxy.
+     */
+    @Test
+    public void doesItemNameExist_BypassesCache() {
+        double gets = cacheGets("hit") + cacheGets("miss");
+        double loads = lookups(OrderMetrics.CatalogLookup.FIND_ALL_ITEM_NAMES);
+
+        Assertions.assertTrue(orderItemRepository.doesItemNameExist(null, "Veggie Taco"));
+        Assertions.assertTrue(orderItemRepository.doesItemNameExist(null, "Veggie Taco"));
+
+        Assertions.assertEquals(2, lookups(OrderMetrics.CatalogLookup.FIND_ALL_ITEM_NAMES) - loads);
+        Assertions.assertEquals(0, cacheGets("hit") + cacheGets("miss") - gets);
+    }
+
+    /**
+     * Tests to ensure each store is served its own menu and prices, and a store without a menu is rejected.
+     */
+    @Test
+    public void findCatalog_PerStore() {
+        MenuCatalog defaultStore = orderItemRepository.findCatalog(null);
+        MenuCatalog downtown = orderItemRepository.findCatalog("downtown");
+
+        Assertions.assertSame(defaultStore, orderItemRepository.findCatalog(CatalogSource.DEFAULT_STORE));
+        Assertions.assertEquals(250, defaultStore.getPriceInCents(defaultStore.findItemId("Veggie Taco")));
+        Assertions.assertEquals(275, downtown.getPriceInCents(downtown.findItemId("Veggie Taco")));
+        Assertions.assertTrue(orderItemRepository.doesItemNameExist("downtown", "Fish Taco"));
+        Assertions.assertFalse(orderItemRepository.doesItemNameExist(null, "Fish Taco"));
+        Assertions.assertThrows(UnknownStoreException.class, () -> orderItemRepository.findCatalog("uptown"));
+    }
+
+    private double lookups(OrderMetrics.CatalogLookup lookup) {
+        return meterRegistry.get(OrderMetrics.CATALOG_LOOKUPS)
+                .tag("operation", lookup.name().toLowerCase()).counter().count();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "items").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,99 @@
+package com.tacoloco.webservice.sales;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests the striped counters and the windowed rollups of the {@link SalesCounters}.
+ */
+public class SalesCountersTest {
+    private SalesCounters salesCounters;
+
+    @BeforeEach
+    public void setUp() {
+        salesCounters = new SalesCounters();
+        ReflectionTestUtils.setField(salesCounters, "maximumItems", 2);
+        salesCounters.init();
+        // the test drives the ticker itself
+        salesCounters.stop();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        salesCounters.stop();
+    }
+
+    /**
+     * Tests to ensure sales recorded from many threads are summed over the stripes.
+     */
+    @Test
+    public void record_ManyThreads() throws InterruptedException {
+        MenuCatalog catalog = catalog(1, "Veggie Taco", "Beef Taco");
+        int beefTaco = catalog.findItemId("Beef Taco");
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    salesCounters.record(catalog, beefTaco, 2, 600);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] sales = salesCounters.getSales(SalesCounters.Window.LAST_MINUTE);
+        Assertions.assertEquals(List.of("Beef Taco"), salesCounters.getItemNames());
+        Assertions.assertEquals(16000, sales[0]);
+        Assertions.assertEquals(4800000, sales[1]);
+    }
+
+    /**
+     * Tests to ensure a window only counts the sales made since the snapshot taken when it started.
+     */
+    @Test
+    public void getSales_Window() {
+        MenuCatalog catalog = catalog(1, "Veggie Taco");
+        salesCounters.record(catalog, 0, 1, 250);
+        for (int i = 0; i < 60; i++) {
+            salesCounters.tick();
+        }
+        salesCounters.record(catalog, 0, 3, 750);
+
+        Assertions.assertArrayEquals(new long[]{3, 750}, salesCounters.getSales(SalesCounters.Window.LAST_MINUTE));
+        Assertions.assertArrayEquals(new long[]{4, 1000}, salesCounters.getSales(SalesCounters.Window.LAST_HOUR));
+    }
+
+    /**
+     * Tests to ensure an item keeps its history across catalogs and items beyond the maximum are not counted.
+     */
+    @Test
+    public void record_NewCatalogVersion() {
+        MenuCatalog first = catalog(1, "Veggie Taco", "Beef Taco");
+        MenuCatalog second = catalog(2, "Chorizo Taco", "Beef Taco", "Fish Taco");
+        salesCounters.record(first, first.findItemId("Beef Taco"), 1, 300);
+        salesCounters.record(second, second.findItemId("Beef Taco"), 1, 300);
+        salesCounters.record(second, second.findItemId("Chorizo Taco"), 1, 350);
+        salesCounters.record(second, second.findItemId("Fish Taco"), 1, 400);
+
+        Assertions.assertEquals(List.of("Beef Taco", "Chorizo Taco"), salesCounters.getItemNames());
+        Assertions.assertArrayEquals(new long[]{2, 600, 1, 350}, salesCounters.getSales(SalesCounters.Window.LAST_DAY));
+    }
+
+    private static MenuCatalog catalog(long version, String... itemNames) {
+        Map<String, Long> prices = new LinkedHashMap<>();
+        for (String itemName : itemNames) {
+            prices.put(itemName, 300L);
+        }
+        return MenuCatalog.of(version, prices);
+    }
+}
@@ -0,0 +1,179 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.model.CartSessionResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.pricing.PricingRuleEngine;
+import com.tacoloco.webservice.pricing.PricingRulesProperties;
+import com.tacoloco.webservice.pricing.PromotionRule;
+import com.tacoloco.webservice.pricing.PromotionType;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests the {@link CartSessionService} and the running totals of its {@link CartSession}s, with Veggie Taco at 2.50,
+ * Chicken and Beef Taco at 3.00, and orders of at least 4 items 20% off.
+ */
+public class CartSessionServiceTest {
+    private final CartSessionService cartSessionService = new CartSessionService();
+    private final PricingRuleEngine pricingRuleEngine = new PricingRuleEngine();
+    private final OrderItemRepository orderItemRepository = Mockito.mock(OrderItemRepository.class);
+    private final AtomicReference<MenuCatalog> catalog = new AtomicReference<>();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(pricingRuleEngine, "pricingRulesProperties", new PricingRulesProperties());
+        ReflectionTestUtils.setField(pricingRuleEngine, "pricingClock", Clock.systemUTC());
+        ReflectionTestUtils.setField(pricingRuleEngine, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(pricingRuleEngine, "maximumCatalogs", 10);
+        ReflectionTestUtils.setField(pricingRuleEngine, "timeToIdle", Duration.ofMinutes(1));
+        pricingRuleEngine.init();
+        PromotionRule orderDiscount = new PromotionRule();
+        orderDiscount.setType(PromotionType.ORDER_DISCOUNT);
+        orderDiscount.setMinimumQuantity(4);
+        orderDiscount.setPercentage(20);
+        pricingRuleEngine.update(List.of(orderDiscount));
+
+        Map<String, Long> prices = new LinkedHashMap<>();
+        prices.put("Veggie Taco", 250L);
+        prices.put("Chicken Taco", 300L);
+        prices.put("Beef Taco", 300L);
+        catalog.set(MenuCatalog.of(1, prices));
+        Mockito.when(orderItemRepository.findCatalog(null)).thenAnswer(invocation -> catalog.get());
+
+        ReflectionTestUtils.setField(cartSessionService, "orderItemRepository", orderItemRepository);
+        ReflectionTestUtils.setField(cartSessionService, "pricingRuleEngine", pricingRuleEngine);
+        ReflectionTestUtils.setField(cartSessionService, "orderMetrics", Mockito.mock(OrderMetrics.class));
+        ReflectionTestUtils.setField(cartSessionService, "maximumSize", 100);
+        ReflectionTestUtils.setField(cartSessionService, "timeToIdle", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(cartSessionService, "maximumLines", 2);
+        cartSessionService.init();
+    }
+
+    /**
+     * Tests to ensure every change returns the totals of the whole cart, with the order discount applied once the
+     * cart reaches its quantity and removed once it falls under it.
+     */
+    @Test
+    public void update_RunningTotals() {
+        String cartId = create();
+
+        assertTotals(2, 5.0, cartSessionService.addItem(cartId, new OrderItem("Veggie Taco", 2)));
+        assertTotals(3, 8.0, cartSessionService.addItem(cartId, new OrderItem("Chicken Taco", 1)));
+        assertTotals(4, 8.8, cartSessionService.addItem(cartId, new OrderItem("Chicken Taco", 1)));
+        assertTotals(5, 10.8, cartSessionService.setItem(cartId, new OrderItem("Veggie Taco", 3)));
+        assertTotals(2, 6.0, cartSessionService.removeItem(cartId, "Veggie Taco"));
+
+        CartSessionResponse cart = (CartSessionResponse) cartSessionService.getCart(cartId).getBody();
+        Assertions.assertEquals(1, cart.getItems().size());
+        Assertions.assertEquals("Chicken Taco", cart.getItems().get(0).getItemName());
+        Assertions.assertEquals(2, cart.getItems().get(0).getQuantity());
+    }
+
+    /**
+     * Tests to ensure unknown items and carts with too many distinct items are rejected without changing the cart.
+     */
+    @Test
+    public void update_InvalidItemRejected() {
+        String cartId = create();
+        cartSessionService.addItem(cartId, new OrderItem("Veggie Taco", 1));
+        cartSessionService.addItem(cartId, new OrderItem("Beef Taco", 1));
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST,
+                cartSessionService.addItem(cartId, new OrderItem("Fish Taco", 1)).getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST,
+                cartSessionService.addItem(cartId, new OrderItem("Veggie Taco", 0)).getStatusCode());
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST,
+                cartSessionService.addItem(cartId, new OrderItem("Chicken Taco", 1)).getStatusCode());
+        assertTotals(2, 5.5, cartSessionService.getCart(cartId));
+    }
+
+    /**
+     * Tests to ensure the cart is priced again with a new version of the menu, dropping the items no longer on it.
+     */
+    @Test
+    public void update_RepricedWithNewCatalogVersion() {
+        String cartId = create();
+        cartSessionService.addItem(cartId, new OrderItem("Veggie Taco", 2));
+        cartSessionService.addItem(cartId, new OrderItem("Beef Taco", 1));
+
+        catalog.set(catalog.get().withPrices(Map.of("Veggie Taco", 200L, "Beef Taco", 300L, "Chicken Taco", 300L)));
+        assertTotals(3, 7.0, cartSessionService.getCart(cartId));
+
+        catalog.set(MenuCatalog.of(3, Map.of("Veggie Taco", 200L, "Chicken Taco", 300L)));
+        assertTotals(3, 7.0, cartSessionService.addItem(cartId, new OrderItem("Chicken Taco", 1)));
+    }
+
+    /**
+     * Tests to ensure concurrent changes to the same cart are all counted.
+     */
+    @Test
+    public void update_ConcurrentChanges() throws Exception {
+        String cartId = create();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ResponseEntity<Object>>> results = new ArrayList<>();
+            for (int i = 0; i < 400; i++) {
+                String itemName = i % 2 == 0 ? "Veggie Taco" : "Beef Taco";
+                results.add(executor.submit(() -> cartSessionService.addItem(cartId, new OrderItem(itemName, 1))));
+            }
+            for (Future<ResponseEntity<Object>> result : results) {
+                Assertions.assertEquals(HttpStatus.OK, result.get().getStatusCode());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertTotals(400, 880.0, cartSessionService.getCart(cartId));
+    }
+
+    /**
+     * Tests to ensure deleted and idle carts are not found.
+     */
+    @Test
+    public void getCart_DeletedOrIdleCartNotFound() {
+        String cartId = create();
+        Assertions.assertEquals(HttpStatus.NO_CONTENT, cartSessionService.deleteCart(cartId).getStatusCode());
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, cartSessionService.getCart(cartId).getStatusCode());
+
+        ReflectionTestUtils.setField(cartSessionService, "timeToIdle", Duration.ofNanos(1));
+        cartSessionService.init();
+        cartId = create();
+        Assertions.assertEquals(HttpStatus.NOT_FOUND,
+                cartSessionService.addItem(cartId, new OrderItem("Veggie Taco", 1)).getStatusCode());
+    }
+
+    private String create() {
+        ResponseEntity<Object> response = cartSessionService.create(null);
+        Assertions.assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        CartSessionResponse cart = (CartSessionResponse) response.getBody();
+        Assertions.assertEquals("/carts/" + cart.getCartId(), response.getHeaders().getLocation().toString());
+        return cart.getCartId();
+    }
+
+    private static void assertTotals(long totalQuantity, double totalPrice, ResponseEntity<Object> response) {
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        CartSessionResponse cart = (CartSessionResponse) response.getBody();
+        Assertions.assertEquals(totalQuantity, cart.getTotalQuantity());
+        Assertions.assertEquals(totalPrice, cart.getTotalPrice());
+    }
+}
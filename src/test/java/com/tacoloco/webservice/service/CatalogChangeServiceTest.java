@@ -0,0 +1,59 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.CatalogSource;
+import com.tacoloco.webservice.catalog.feed.CatalogChange;
+import com.tacoloco.webservice.catalog.feed.CatalogChangeFeed;
+import com.tacoloco.webservice.catalog.feed.CatalogChangeSubscriber;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests that the {@link CatalogChangeService} only publishes changes sent with the admin key.
+ */
+public class CatalogChangeServiceTest {
+    private final CatalogChangeService catalogChangeService = new CatalogChangeService();
+    private final CatalogChangeFeed feed = Mockito.mock(CatalogChangeFeed.class);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        Mockito.when(feed.publish(null)).thenReturn(new CatalogChange(1, null, 0));
+        ReflectionTestUtils.setField(catalogChangeService, "feed", feed);
+        ReflectionTestUtils.setField(catalogChangeService, "subscriber", Mockito.mock(CatalogChangeSubscriber.class));
+        ReflectionTestUtils.setField(catalogChangeService, "catalogSource", Mockito.mock(CatalogSource.class));
+        ReflectionTestUtils.setField(catalogChangeService, "adminKey", "secret");
+    }
+
+    /**
+     * Tests to ensure a change sent with the admin key is published.
+     */
+    @Test
+    public void publishChange_AdminKey() throws Exception {
+        Assertions.assertEquals(HttpStatus.ACCEPTED, catalogChangeService.publishChange("secret", null).getStatusCode());
+        Mockito.verify(feed).publish(null);
+    }
+
+    /**
+     * Tests to ensure a change sent without the admin key, or with a wrong one, is refused without being published.
+     */
+    @Test
+    public void publishChange_MissingOrWrongAdminKey() throws Exception {
+        Assertions.assertEquals(HttpStatus.FORBIDDEN, catalogChangeService.publishChange(null, null).getStatusCode());
+        Assertions.assertEquals(HttpStatus.FORBIDDEN, catalogChangeService.publishChange("guess", null).getStatusCode());
+        Mockito.verify(feed, Mockito.never()).publish(Mockito.any());
+    }
+
+    /**
+     * Tests to ensure no change is published while no admin key is configured, even one sent with an empty key.
+     */
+    @Test
+    public void publishChange_NoAdminKeyConfigured() throws Exception {
+        ReflectionTestUtils.setField(catalogChangeService, "adminKey", "");
+
+        Assertions.assertEquals(HttpStatus.FORBIDDEN, catalogChangeService.publishChange("", null).getStatusCode());
+        Mockito.verify(feed, Mockito.never()).publish(Mockito.any());
+    }
+}
@@ -0,0 +1,177 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.model.ApiError;
+import com.tacoloco.webservice.model.CalculateTotalResponse;
+import com.tacoloco.webservice.model.OrderItem;
+import com.tacoloco.webservice.repository.OrderItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Tests the {@link OrderItemService#calculateTotal(String, List)} and
+ * {@link OrderItemRepository#findCatalog(String)} hot path against the budgets checked in to
+ * {@code budgets/pricing-path.properties}: the bytes allocated per call once the code is compiled, and the catalog
+ * lookups, phase timings and validation failures counted per call. A change exceeding a budget fails the build with
+ * the measured value.
+ * <p>
+ * The default menu prices Veggie Taco at 2.50, Chicken and Beef Taco at 3.00, and orders of at least 4 items are 20%
+ * off.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("test")
+public class PricingPathBudgetTest {
+    private static final String BUDGETS = "/budgets/pricing-path.properties";
+
+    /**
+     * Calls before measuring, enough for the hot path to be compiled with escape analysis.
+     */
+    private static final int WARM_UP_CALLS = 20_000;
+    private static final int MEASURED_CALLS = 2_000;
+    /**
+     * Measurements of which the lowest is kept, so a compilation finishing during one does not fail the test.
+     */
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private OrderItemService orderItemService;
+
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Object result;
+
+    /**
+     * Tests to ensure a cart under the discount quantity stays within its budget.
+     */
+    @Test
+    public void calculateTotal_ValidCart_WithinBudget() {
+        List<OrderItem> orders = List.of(new OrderItem("Veggie Taco", 1), new OrderItem("Chicken Taco", 2));
+
+        assertWithinBudget("valid", () -> orderItemService.calculateTotal(null, orders), response -> {
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+            Assertions.assertEquals(8.5, ((CalculateTotalResponse) response.getBody()).getTotalPrice());
+        });
+    }
+
+    /**
+     * Tests to ensure a cart of the discount quantity stays within its budget.
+     */
+    @Test
+    public void calculateTotal_DiscountedCart_WithinBudget() {
+        List<OrderItem> orders = List.of(new OrderItem("Veggie Taco", 2), new OrderItem("Beef Taco", 1),
+                new OrderItem("Beef Taco", 1));
+
+        assertWithinBudget("discounted", () -> orderItemService.calculateTotal(null, orders), response -> {
+            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+            Assertions.assertEquals(8.8, ((CalculateTotalResponse) response.getBody()).getTotalPrice());
+        });
+    }
+
+    /**
+     * Tests to ensure a cart with an unknown item and a missing quantity stays within its budget.
+     */
+    @Test
+    public void calculateTotal_InvalidCart_WithinBudget() {
+        List<OrderItem> orders = List.of(new OrderItem("Fish Taco", 1), new OrderItem("Veggie Taco", 0));
+
+        assertWithinBudget("invalid", () -> orderItemService.calculateTotal(null, orders), response -> {
+            Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            Assertions.assertTrue(response.getBody() instanceof ApiError);
+        });
+    }
+
+    /**
+     * Tests to ensure looking up a cached menu stays within its budget.
+     */
+    @Test
+    public void findCatalog_WithinBudget() {
+        assertWithinBudget("find-catalog", () -> orderItemRepository.findCatalog(null),
+                catalog -> Assertions.assertEquals(4, catalog.size()));
+    }
+
+    private <T> void assertWithinBudget(String name, Supplier<T> call, Consumer<T> check) {
+        Properties budgets = loadBudgets();
+        check.accept(call.get());
+
+        // the operations of a single call
+        double lookups = sumCounters(OrderMetrics.CATALOG_LOOKUPS);
+        long phases = sumTimers(OrderMetrics.PHASE_TIMER);
+        double failures = sumCounters(OrderMetrics.VALIDATION_FAILURES);
+        call.get();
+        assertWithinBudget(budgets, name, "catalog-lookups",
+                (long) (sumCounters(OrderMetrics.CATALOG_LOOKUPS) - lookups));
+        assertWithinBudget(budgets, name, "phases", sumTimers(OrderMetrics.PHASE_TIMER) - phases);
+        assertWithinBudget(budgets, name, "validation-failures",
+                (long) (sumCounters(OrderMetrics.VALIDATION_FAILURES) - failures));
+
+        assertWithinBudget(budgets, name, "allocated-bytes", allocatedBytesPerCall(call));
+    }
+
+    private static void assertWithinBudget(Properties budgets, String name, String measure, long measured) {
+        String key = name + "." + measure;
+        long budget = Long.parseLong(budgets.getProperty(key));
+        Assertions.assertTrue(measured <= budget, key + " is " + measured + ", over the budget of " + budget);
+    }
+
+    /**
+     * Measures the bytes allocated by the current thread per call, after warming the call up.
+     */
+    private long allocatedBytesPerCall(Supplier<?> call) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < WARM_UP_CALLS; i++) {
+            result = call.get();
+        }
+        long lowest = Long.MAX_VALUE;
+        for (int round = 0; round < ROUNDS; round++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < MEASURED_CALLS; i++) {
+                result = call.get();
+            }
+            lowest = Math.min(lowest, (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_CALLS);
+        }
+        return lowest;
+    }
+
+    private double sumCounters(String name) {
+        return meterRegistry.find(name).counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    private long sumTimers(String name) {
+        return meterRegistry.find(name).timers().stream().mapToLong(Timer::count).sum();
+    }
+
+    private static Properties loadBudgets() {
+        Properties budgets = new Properties();
+        try (InputStream in = PricingPathBudgetTest.class.getResourceAsStream(BUDGETS)) {
+            budgets.load(in);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read " + BUDGETS, e);
+        }
+        return budgets;
+    }
+}
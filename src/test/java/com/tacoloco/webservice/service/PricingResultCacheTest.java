@@ -0,0 +1,121 @@
+package com.tacoloco.webservice.service;
+
+import com.tacoloco.webservice.catalog.CatalogChangedEvent;
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.pricing.PricingRuleEngine;
+import com.tacoloco.webservice.pricing.PricingRulesChangedEvent;
+import com.tacoloco.webservice.pricing.PricingRulesProperties;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tests the {@link PricingResultCache}.
+ */
+public class PricingResultCacheTest {
+    private final PricingResultCache pricingResultCache = new PricingResultCache();
+    private final PricingRuleEngine pricingRuleEngine = new PricingRuleEngine();
+    private final AtomicInteger pricings = new AtomicInteger();
+    private MenuCatalog catalog;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(pricingResultCache, "enabled", true);
+        ReflectionTestUtils.setField(pricingResultCache, "maximumSize", 100);
+        ReflectionTestUtils.setField(pricingResultCache, "timeToLive", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(pricingResultCache, "maximumDistinctItems", 2);
+        pricingResultCache.init();
+
+        ReflectionTestUtils.setField(pricingRuleEngine, "pricingRulesProperties", new PricingRulesProperties());
+        ReflectionTestUtils.setField(pricingRuleEngine, "pricingClock", Clock.systemUTC());
+        ReflectionTestUtils.setField(pricingRuleEngine, "eventPublisher", (ApplicationEventPublisher) event -> { });
+        ReflectionTestUtils.setField(pricingRuleEngine, "maximumCatalogs", 10);
+        ReflectionTestUtils.setField(pricingRuleEngine, "timeToIdle", Duration.ofMinutes(1));
+        pricingRuleEngine.init();
+
+        Map<String, Long> prices = new LinkedHashMap<>();
+        prices.put("Veggie Taco", 250L);
+        prices.put("Chicken Taco", 300L);
+        prices.put("Beef Taco", 300L);
+        catalog = MenuCatalog.of(1, prices);
+    }
+
+    /**
+     * Tests to ensure line order and duplicate lines map to the same cached total.
+     */
+    @Test
+    public void getTotalInCents_CanonicalCart() {
+        Assertions.assertEquals(1, price(catalog, 0, 2, 1, 1));
+        Assertions.assertEquals(1, price(catalog, 1, 1, 0, 1, 0, 1));
+        Assertions.assertEquals(2, price(catalog, 0, 1, 1, 1));
+
+        Assertions.assertEquals(1, pricingResultCache.getTotals().getHitCount());
+        Assertions.assertEquals(2, pricingResultCache.getTotals().getMissCount());
+    }
+
+    /**
+     * Tests to ensure totals are not served for another catalog version and are dropped when the catalog changes.
+     */
+    @Test
+    public void getTotalInCents_InvalidatedByCatalogVersion() {
+        price(catalog, 0, 2);
+        MenuCatalog changed = catalog.withPrices(Map.of("Veggie Taco", 275L, "Chicken Taco", 300L, "Beef Taco", 300L));
+        Assertions.assertEquals(2, price(changed, 0, 2));
+
+        pricingResultCache.onCatalogChanged(new CatalogChangedEvent(catalog, changed));
+
+        Assertions.assertEquals(0, pricingResultCache.getTotals().size());
+    }
+
+    /**
+     * Tests to ensure totals are not served for other pricing rules and are dropped when the rules change.
+     */
+    @Test
+    public void getTotalInCents_InvalidatedByPricingRules() {
+        price(catalog, 0, 2);
+        long version = pricingRuleEngine.update(List.of());
+        Assertions.assertEquals(2, price(catalog, 0, 2));
+
+        pricingResultCache.onPricingRulesChanged(new PricingRulesChangedEvent(version));
+
+        Assertions.assertEquals(0, pricingResultCache.getTotals().size());
+    }
+
+    /**
+     * Tests to ensure carts with too many distinct items are not cached.
+     */
+    @Test
+    public void isCacheable_LargeCartNotCached() {
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        quantities.add(0, 1);
+        quantities.add(1, 1);
+        quantities.add(2, 1);
+
+        Assertions.assertFalse(pricingResultCache.isCacheable(quantities));
+    }
+
+    /**
+     * Prices a cart through the cache.
+     * @param catalog The {@link MenuCatalog} the cart is priced against.
+     * @param itemIdsAndQuantities Pairs of item ID and quantity, one per order line.
+     * @return The number of times the cart was actually priced so far.
+     */
+    private long price(MenuCatalog catalog, int... itemIdsAndQuantities) {
+        QuantityAccumulator quantities = QuantityAccumulator.acquire(catalog.size());
+        for (int i = 0; i < itemIdsAndQuantities.length; i += 2) {
+            quantities.add(itemIdsAndQuantities[i], itemIdsAndQuantities[i + 1]);
+        }
+        Assertions.assertTrue(pricingResultCache.isCacheable(quantities));
+        return pricingResultCache.getTotalInCents(pricingRuleEngine.getPriceTable(catalog, null), quantities,
+                cart -> pricings.incrementAndGet());
+    }
+}
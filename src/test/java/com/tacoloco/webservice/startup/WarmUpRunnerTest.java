@@ -0,0 +1,69 @@
+package com.tacoloco.webservice.startup;
+
+import com.tacoloco.webservice.catalog.MenuCatalog;
+import com.tacoloco.webservice.catalog.UnknownStoreException;
+import com.tacoloco.webservice.metrics.OrderMetrics;
+import com.tacoloco.webservice.sales.SalesCounters;
+import com.tacoloco.webservice.service.OrderItemService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the warm-up of the {@link WarmUpRunner} against the database catalog.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = {"tacoloco.warm-up.enabled=true", "tacoloco.warm-up.iterations=200"})
+@ActiveProfiles("test")
+public class WarmUpRunnerTest {
+    @Autowired
+    private ApplicationAvailability applicationAvailability;
+
+    @Autowired
+    private SalesCounters salesCounters;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Tests to ensure the application is ready once warmed up and the synthetic carts are neither counted as sales
+     * nor timed as orders served.
+     */
+    @Test
+    public void run_ReadyWithoutSales() {
+        Assertions.assertEquals(ReadinessState.ACCEPTING_TRAFFIC, applicationAvailability.getReadinessState());
+        Assertions.assertTrue(salesCounters.getItemNames().isEmpty());
+        Assertions.assertTrue(meterRegistry.find(OrderMetrics.PHASE_TIMER).timers().isEmpty());
+    }
+
+    /**
+     * Tests to ensure the warm-up is skipped rather than failing the startup when there is no default store or its
+     * menu is empty.
+     */
+    @Test
+    public void run_NoDefaultMenuSkipped() throws Exception {
+        OrderItemService orderItemService = mock(OrderItemService.class);
+        WarmUpRunner warmUpRunner = new WarmUpRunner();
+        ReflectionTestUtils.setField(warmUpRunner, "orderItemService", orderItemService);
+        ReflectionTestUtils.setField(warmUpRunner, "orderMetrics", mock(OrderMetrics.class));
+        ReflectionTestUtils.setField(warmUpRunner, "iterations", 10);
+
+        when(orderItemService.findCatalog(null)).thenThrow(new UnknownStoreException("default"));
+        warmUpRunner.run(null);
+
+        doReturn(MenuCatalog.of(1, Map.of())).when(orderItemService).findCatalog(null);
+        warmUpRunner.run(null);
+    }
+}